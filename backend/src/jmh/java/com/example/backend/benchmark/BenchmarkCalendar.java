@@ -0,0 +1,184 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.model.Event;
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.model.UserFocusPreference;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.UserFocusPreferenceRepository;
+import com.example.backend.service.impl.FocusService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Agenda synthétique (graine fixe) et dépôts en mémoire qui le servent.
+ *
+ * Les événements sont triés par début ; les requêtes par période sont résolues
+ * par recherche dichotomique, à la manière d'un index SQL sur start_time.
+ */
+final class BenchmarkCalendar {
+
+    static final long USER_ID = 1L;
+
+    final User user;
+    final List<Event> events;
+
+    private BenchmarkCalendar(User user, List<Event> events) {
+        this.user = user;
+        this.events = events;
+    }
+
+    /**
+     * Journées de 8h à 20h à partir d'aujourd'hui : réunions de 15 à 90 min séparées
+     * de 0 à 2h, dont ~10 % chevauchent la précédente.
+     */
+    static BenchmarkCalendar spread(int eventCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        User user = newUser();
+        List<Event> events = new ArrayList<>(eventCount);
+
+        LocalDateTime cursor = LocalDate.now().atTime(8, 0);
+        for (int i = 0; i < eventCount; i++) {
+            LocalDateTime start = random.nextInt(10) == 0
+                    ? cursor.minusMinutes(random.nextInt(15, 45))
+                    : cursor.plusMinutes(random.nextInt(0, 120));
+            LocalDateTime end = start.plusMinutes(random.nextInt(15, 91));
+            events.add(newEvent(i, user, start, end));
+
+            cursor = end.isAfter(cursor) ? end : cursor;
+            if (cursor.getHour() >= 20) {
+                cursor = cursor.toLocalDate().plusDays(1).atTime(8, 0);
+            }
+        }
+        events.sort(Comparator.comparing(Event::getStartTime));
+        return new BenchmarkCalendar(user, events);
+    }
+
+    /**
+     * Une seule journée très chargée : {@code eventCount} créneaux de 15 à 60 min entre 8h et 20h.
+     */
+    static BenchmarkCalendar singleDay(LocalDate date, int eventCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        User user = newUser();
+        List<Event> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            LocalDateTime start = date.atTime(8, 0).plusMinutes(random.nextInt(0, 12 * 60));
+            events.add(newEvent(i, user, start, start.plusMinutes(random.nextInt(15, 61))));
+        }
+        events.sort(Comparator.comparing(Event::getStartTime));
+        return new BenchmarkCalendar(user, events);
+    }
+
+    /**
+     * Tâches à placer (sans événement), de durée et priorité variables.
+     */
+    List<Task> newTasks(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("Tâche " + i, random.nextInt(15, 121), random.nextInt(1, 6),
+                    Task.TaskStatus.PENDING_CREATION, user, (LocalDateTime) null);
+            task.setId((long) i);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    EventRepository eventRepository() {
+        return RepositoryStubs.of(EventRepository.class)
+                .answer("findByUser_IdOrderByStartTime", args -> new ArrayList<>(events))
+                .answer("findByUser_Id", args -> new ArrayList<>(events))
+                .answer("findByUser_IdAndStartTimeBetween",
+                        args -> startingBetween((LocalDateTime) args[1], (LocalDateTime) args[2]))
+                .answer("findOverlapping", args -> overlapping((LocalDateTime) args[1], (LocalDateTime) args[2]))
+                .answer("save", args -> args[0])
+                .answer("saveAll", args -> args[0])
+                .build();
+    }
+
+    TaskRepository taskRepository(List<Task> tasks) {
+        return RepositoryStubs.of(TaskRepository.class)
+                .answer("findByUser_Id", args -> new ArrayList<>(tasks))
+                .answer("findById", args -> tasks.stream()
+                        .filter(t -> t.getId().equals(args[0]))
+                        .findFirst())
+                .answer("save", args -> args[0])
+                .answer("saveAll", args -> args[0])
+                .build();
+    }
+
+    /**
+     * FocusService branché sur l'agenda ; préférences par défaut (mode Focus actif).
+     */
+    FocusService focusService(EventRepository eventRepository, long cacheTtlMs) {
+        FocusService focusService = new FocusService();
+        ReflectionTestUtils.setField(focusService, "eventRepository", eventRepository);
+        ReflectionTestUtils.setField(focusService, "preferenceRepository",
+                RepositoryStubs.of(UserFocusPreferenceRepository.class)
+                        .answer("findById", args -> Optional.of(new UserFocusPreference((Long) args[0])))
+                        .build());
+        ReflectionTestUtils.setField(focusService, "cacheTtlMs", cacheTtlMs);
+        return focusService;
+    }
+
+    private List<Event> startingBetween(LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        for (int i = firstStartingAtOrAfter(from); i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event.getStartTime().isAfter(to)) {
+                break;
+            }
+            result.add(event);
+        }
+        return result;
+    }
+
+    // Les événements font au plus 90 min : on remonte d'autant avant le début de la fenêtre
+    private List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> result = new ArrayList<>();
+        for (int i = firstStartingAtOrAfter(from.minusMinutes(90)); i < events.size(); i++) {
+            Event event = events.get(i);
+            if (!event.getStartTime().isBefore(to)) {
+                break;
+            }
+            if (event.getEndTime().isAfter(from)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    private int firstStartingAtOrAfter(LocalDateTime time) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (events.get(mid).getStartTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static User newUser() {
+        User user = new User("bench", "password");
+        user.setId(USER_ID);
+        return user;
+    }
+
+    private static Event newEvent(long id, User user, LocalDateTime start, LocalDateTime end) {
+        Event event = new Event("Réunion " + id, start, end, user);
+        event.setId(id);
+        return event;
+    }
+}
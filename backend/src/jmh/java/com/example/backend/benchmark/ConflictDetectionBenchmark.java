@@ -0,0 +1,45 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.model.Event;
+import com.example.backend.service.scheduling.ConflictSweeper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection des conflits de créneaux (cœur de detectScheduleConflicts avant synchronisation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ConflictDetectionBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    int eventCount;
+
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        events = BenchmarkCalendar.spread(eventCount, 42).events;
+    }
+
+    @Benchmark
+    public List<ConflictSweeper.OverlapPair> detectScheduleConflicts() {
+        return ConflictSweeper.findOverlaps(events);
+    }
+}
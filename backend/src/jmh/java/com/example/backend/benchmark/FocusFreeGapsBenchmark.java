@@ -0,0 +1,48 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.TimeSlot;
+import com.example.backend.service.impl.FocusService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul des trous d'une journée ({@link FocusService#findFreeGaps}) selon sa densité.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FocusFreeGapsBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    int eventCount;
+
+    private final LocalDate day = LocalDate.now().plusDays(1);
+    private FocusService focusService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCalendar calendar = BenchmarkCalendar.singleDay(day, eventCount, 42);
+        focusService = calendar.focusService(calendar.eventRepository(), 0);
+    }
+
+    @Benchmark
+    public List<TimeSlot> findFreeGaps() {
+        return focusService.findFreeGaps(BenchmarkCalendar.USER_ID, day);
+    }
+}
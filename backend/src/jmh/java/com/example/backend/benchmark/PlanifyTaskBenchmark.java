@@ -0,0 +1,60 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.model.Task;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.service.ReshuffleLocks;
+import com.example.backend.service.impl.FocusService;
+import com.example.backend.service.impl.FreeSlotService;
+import com.example.backend.service.impl.TaskServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placement automatique d'une tâche (planifyTask sans créneau imposé).
+ * La tâche dure 150 min : plus que les trous entre réunions, elle oblige à parcourir l'agenda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PlanifyTaskBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    int eventCount;
+
+    private TaskServiceImpl taskService;
+    private Long taskId;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCalendar calendar = BenchmarkCalendar.spread(eventCount, 42);
+        EventRepository eventRepository = calendar.eventRepository();
+        FocusService focusService = calendar.focusService(eventRepository, 30_000);
+
+        Task task = calendar.newTasks(1, 7).get(0);
+        task.setEstimatedDuration(150);
+        taskId = task.getId();
+
+        taskService = new TaskServiceImpl(calendar.taskRepository(List.of(task)), eventRepository, null, null,
+                focusService, new FreeSlotService(eventRepository, focusService), new ReshuffleLocks());
+    }
+
+    @Benchmark
+    public Task planifyTask() {
+        return taskService.planifyTask(taskId, null, null);
+    }
+}
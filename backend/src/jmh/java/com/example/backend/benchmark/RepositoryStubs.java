@@ -0,0 +1,48 @@
+package com.example.backend.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Implémentations en mémoire des interfaces Spring Data, sans base ni Mockito.
+ *
+ * Seules les méthodes déclarées via {@link #answer} répondent ; tout autre appel lève
+ * une exception, ce qui signale immédiatement un chemin non couvert par le benchmark.
+ */
+final class RepositoryStubs<T> {
+
+    private final Class<T> type;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private RepositoryStubs(Class<T> type) {
+        this.type = type;
+    }
+
+    static <T> RepositoryStubs<T> of(Class<T> type) {
+        return new RepositoryStubs<>(type);
+    }
+
+    RepositoryStubs<T> answer(String methodName, Function<Object[], Object> answer) {
+        answers.put(methodName, answer);
+        return this;
+    }
+
+    T build() {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args == null ? new Object[0] : args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> throw new UnsupportedOperationException(
+                        type.getSimpleName() + "." + method.getName() + " n'est pas simulé");
+            };
+        });
+        return type.cast(proxy);
+    }
+}
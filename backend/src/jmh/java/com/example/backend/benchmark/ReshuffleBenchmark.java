@@ -0,0 +1,63 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.model.Task;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.service.ReshuffleLocks;
+import com.example.backend.service.impl.DefaultScheduleOptimizerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reshuffle complet : placement de 50 tâches dans un agenda de taille croissante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ReshuffleBenchmark {
+
+    private static final int TASK_COUNT = 50;
+
+    @Param({"100", "1000", "10000", "100000"})
+    int eventCount;
+
+    private BenchmarkCalendar calendar;
+    private EventRepository eventRepository;
+    private List<Task> tasks;
+    private DefaultScheduleOptimizerService optimizer;
+
+    @Setup(Level.Trial)
+    public void loadCalendar() {
+        calendar = BenchmarkCalendar.spread(eventCount, 42);
+        eventRepository = calendar.eventRepository();
+    }
+
+    // Le reshuffle lie les tâches à leurs événements : on repart de tâches vierges à chaque appel
+    @Setup(Level.Invocation)
+    public void resetTasks() {
+        tasks = calendar.newTasks(TASK_COUNT, 7);
+        optimizer = new DefaultScheduleOptimizerService(eventRepository, calendar.taskRepository(tasks),
+                null, null, calendar.focusService(eventRepository, 30_000), null, new ReshuffleLocks());
+    }
+
+    @Benchmark
+    public List<Task> reshuffle() {
+        optimizer.reshuffle(BenchmarkCalendar.USER_ID);
+        return tasks;
+    }
+}
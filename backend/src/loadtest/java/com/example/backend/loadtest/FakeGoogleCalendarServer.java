@@ -0,0 +1,620 @@
+package com.example.backend.loadtest;
+
+import com.example.backend.model.Event;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.api.client.util.DateTime;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Faux serveur Google Calendar v3 embarqué (serveur HTTP du JDK, un thread virtuel par requête),
+ * pour mesurer hors ligne le coût réel d'une synchronisation : HTTP, JSON et pagination.
+ *
+ * Endpoints simulés, ceux qu'utilise la synchronisation :
+ * - {@code GET    /calendar/v3/calendars/{id}/events} : pagination ({@code maxResults}, {@code pageToken}),
+ *   synchronisation complète ({@code timeMin}) ou incrémentale ({@code syncToken}, annulations comprises) ;
+ * - {@code POST   /calendar/v3/calendars/{id}/events} : création ;
+ * - {@code PUT|PATCH|DELETE /calendar/v3/calendars/{id}/events/{eventId}} : mise à jour, suppression ;
+ * - {@code POST   /batch/calendar/v3} : requêtes batch (multipart/mixed).
+ *
+ * Un agenda par token d'accès (en-tête Authorization) ; token inconnu : 401. Un syncToken invalidé
+ * par {@link #invalidateSyncTokens()} ou illisible renvoie 410, comme chez Google.
+ *
+ * Injection de pannes ({@link Faults}) : latence fixe plus gigue par requête HTTP, erreurs 503
+ * et 429 tirées par requête ou par partie de batch. Graine fixe : deux runs identiques
+ * produisent les mêmes pannes pour le même ordre de requêtes.
+ */
+public class FakeGoogleCalendarServer implements AutoCloseable {
+
+    /**
+     * Pannes simulées.
+     *
+     * @param latencyMs        latence ajoutée à chaque requête HTTP
+     * @param jitterMs         gigue aléatoire ajoutée à la latence (0 à jitterMs)
+     * @param serverErrorRate  probabilité d'une erreur 503 (backendError)
+     * @param rateLimitRate    probabilité d'une erreur 429 (rateLimitExceeded)
+     * @param seed             graine du tirage des pannes
+     */
+    public record Faults(long latencyMs, long jitterMs, double serverErrorRate, double rateLimitRate, long seed) {
+
+        public static Faults none() {
+            return new Faults(0, 0, 0, 0, 0);
+        }
+    }
+
+    private static final String EVENTS_PREFIX = "/calendar/v3/calendars/";
+    private static final String BATCH_PATH = "/batch/calendar/v3";
+    private static final String RESPONSE_BOUNDARY = "batch_fake_calendar";
+    private static final ZoneId ZONE = ZoneId.of("Europe/Paris");
+    private static final int DEFAULT_PAGE_SIZE = 250;
+    private static final int MAX_PAGE_SIZE = 2500;
+
+    private record Response(int status, String contentType, String body) {}
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, FakeCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentSkipListMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final Faults faults;
+    private final SplittableRandom random;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+
+    public FakeGoogleCalendarServer(Faults faults) throws IOException {
+        this.faults = faults;
+        this.random = new SplittableRandom(faults.seed());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * URL racine à donner au client Calendar ({@code google.calendar.root-url}).
+     */
+    public String rootUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Crée (ou remplace) l'agenda de chaque token d'accès avec les événements donnés.
+     */
+    public void seed(Map<String, List<Event>> eventsByAccessToken) {
+        eventsByAccessToken.forEach((accessToken, events) -> {
+            FakeCalendar calendar = new FakeCalendar();
+            for (Event event : events) {
+                ObjectNode node = mapper.createObjectNode();
+                node.put("id", nextEventId());
+                node.put("status", "confirmed");
+                node.put("summary", event.getSummary());
+                node.putObject("start").put("dateTime", rfc3339(event.getStartTime()));
+                node.putObject("end").put("dateTime", rfc3339(event.getEndTime()));
+                if (event.getLocation() != null && event.getLocation().getAddress() != null) {
+                    node.put("location", event.getLocation().getAddress());
+                }
+                calendar.put(node);
+            }
+            calendars.put(accessToken, calendar);
+        });
+    }
+
+    /**
+     * Simule l'activité des utilisateurs côté Google : chaque événement est modifié avec la
+     * probabilité {@code rate} (un sur quatre de ces changements est une suppression).
+     *
+     * @return le nombre d'événements modifiés ou supprimés
+     */
+    public int changeEvents(double rate, long seed) {
+        SplittableRandom changes = new SplittableRandom(seed);
+        int changed = 0;
+        for (FakeCalendar calendar : calendars.values()) {
+            synchronized (calendar) {
+                for (ObjectNode event : calendar.confirmedEvents()) {
+                    if (changes.nextDouble() >= rate) {
+                        continue;
+                    }
+                    if (changes.nextInt(4) == 0) {
+                        calendar.put(cancelled(event.path("id").asText()));
+                    } else {
+                        ObjectNode updated = event.deepCopy();
+                        updated.put("summary", event.path("summary").asText() + " (modifié)");
+                        calendar.put(updated);
+                    }
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Invalide tous les syncTokens distribués : la prochaine synchronisation de chaque
+     * utilisateur reçoit un 410 et repart d'une synchronisation complète.
+     */
+    public void invalidateSyncTokens() {
+        for (FakeCalendar calendar : calendars.values()) {
+            synchronized (calendar) {
+                // Les jetons antérieurs à ce numéro sont refusés ; la synchronisation complète suivante en obtient un valide
+                calendar.minSyncSequence = ++calendar.sequence;
+            }
+        }
+    }
+
+    /**
+     * Nombre de requêtes reçues par opération (list, insert, update, delete, batch) et de pannes injectées.
+     */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((operation, count) -> counts.put(operation, count.get()));
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    // ── Traitement HTTP ──────────────────────────────────────────────────────
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            pause();
+            send(exchange, respond(exchange));
+        }
+    }
+
+    private Response respond(HttpExchange exchange) throws IOException {
+        try {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            URI uri = exchange.getRequestURI();
+
+            Response response;
+            if (BATCH_PATH.equals(uri.getRawPath()) && "POST".equals(exchange.getRequestMethod())) {
+                count("batch");
+                Response fault = injectedFault();
+                response = fault != null ? fault
+                        : batch(exchange.getRequestHeaders().getFirst("Content-Type"), authorization,
+                                new String(body, StandardCharsets.UTF_8));
+            } else {
+                response = execute(exchange.getRequestMethod(), uri, authorization,
+                        new String(body, StandardCharsets.UTF_8));
+            }
+            return response;
+        } catch (RuntimeException e) {
+            // Requête que le faux serveur ne sait pas lire (jeton de page forgé...) : erreur visible côté client
+            return error(500, "internalError", e.toString());
+        }
+    }
+
+    // Une requête unitaire, envoyée seule ou comme partie d'un batch
+    private Response execute(String method, URI uri, String authorization, String body) {
+        String path = uri.getRawPath();
+        if (!path.startsWith(EVENTS_PREFIX)) {
+            return error(404, "notFound", "Endpoint non simulé : " + path);
+        }
+        String[] segments = path.substring(EVENTS_PREFIX.length()).split("/");
+        if (segments.length < 2 || !"events".equals(segments[1])) {
+            return error(404, "notFound", "Endpoint non simulé : " + path);
+        }
+        String eventId = segments.length > 2 ? URLDecoder.decode(segments[2], StandardCharsets.UTF_8) : null;
+
+        String operation = switch (method) {
+            case "GET" -> eventId == null ? "list" : "get";
+            case "POST" -> "insert";
+            case "PUT", "PATCH" -> "update";
+            case "DELETE" -> "delete";
+            default -> method.toLowerCase();
+        };
+        count(operation);
+
+        Response fault = injectedFault();
+        if (fault != null) {
+            return fault;
+        }
+        FakeCalendar calendar = authorization != null && authorization.startsWith("Bearer ")
+                ? calendars.get(authorization.substring("Bearer ".length()))
+                : null;
+        if (calendar == null) {
+            return error(401, "authError", "Invalid Credentials");
+        }
+
+        try {
+            synchronized (calendar) {
+                return switch (operation) {
+                    case "list" -> list(calendar, query(uri));
+                    case "get" -> get(calendar, eventId);
+                    case "insert" -> insert(calendar, body);
+                    case "update" -> update(calendar, eventId, body, "PATCH".equals(method));
+                    case "delete" -> delete(calendar, eventId);
+                    default -> error(405, "methodNotAllowed", "Méthode non simulée : " + method);
+                };
+            }
+        } catch (IOException e) {
+            return error(400, "parseError", "Corps JSON invalide : " + e.getMessage());
+        }
+    }
+
+    private Response list(FakeCalendar calendar, Map<String, String> query) {
+        int maxResults = query.containsKey("maxResults")
+                ? Math.min(MAX_PAGE_SIZE, Math.max(1, Integer.parseInt(query.get("maxResults"))))
+                : DEFAULT_PAGE_SIZE;
+        String syncToken = query.get("syncToken");
+
+        // Jeton de page : « depuis:jusqu'à:après » (numéros de séquence des changements)
+        long since;
+        long upTo;
+        long after;
+        if (query.containsKey("pageToken")) {
+            String[] parts = query.get("pageToken").split(":");
+            if (parts.length != 3) {
+                return error(400, "invalid", "Invalid pageToken");
+            }
+            since = Long.parseLong(parts[0]);
+            upTo = Long.parseLong(parts[1]);
+            after = Long.parseLong(parts[2]);
+        } else {
+            if (syncToken != null) {
+                Long tokenSequence = parseSyncToken(syncToken);
+                if (tokenSequence == null || tokenSequence < calendar.minSyncSequence) {
+                    return error(410, "fullSyncRequired", "Sync token is no longer valid, a full sync is required.");
+                }
+                since = tokenSequence;
+            } else {
+                since = 0;
+            }
+            upTo = calendar.sequence;
+            after = since;
+        }
+
+        // Synchronisation complète : événements actifs dans la fenêtre ; incrémentale : tous les changements
+        boolean incremental = syncToken != null;
+        long timeMin = !incremental && query.containsKey("timeMin")
+                ? DateTime.parseRfc3339(query.get("timeMin")).getValue()
+                : Long.MIN_VALUE;
+
+        ArrayNode items = mapper.createArrayNode();
+        long lastSequence = after;
+        NavigableMap<Long, String> window = calendar.bySequence.subMap(after, false, upTo, true);
+        for (Map.Entry<Long, String> entry : window.entrySet()) {
+            if (items.size() == maxResults) {
+                break;
+            }
+            lastSequence = entry.getKey();
+            ObjectNode event = calendar.events.get(entry.getValue());
+            boolean cancelled = "cancelled".equals(event.path("status").asText());
+            if (incremental || (!cancelled && endsAfter(event, timeMin))) {
+                items.add(event);
+            }
+        }
+
+        ObjectNode page = mapper.createObjectNode();
+        page.put("kind", "calendar#events");
+        page.set("items", items);
+        if (window.higherKey(lastSequence) != null) {
+            page.put("nextPageToken", since + ":" + upTo + ":" + lastSequence);
+        } else {
+            page.put("nextSyncToken", "s" + upTo);
+        }
+        return json(200, page);
+    }
+
+    private Response get(FakeCalendar calendar, String eventId) {
+        ObjectNode event = calendar.events.get(eventId);
+        return event == null ? error(404, "notFound", "Not Found") : json(200, event);
+    }
+
+    private Response insert(FakeCalendar calendar, String body) throws IOException {
+        ObjectNode event = (ObjectNode) mapper.readTree(body);
+        if (!event.has("start") || !event.has("end")) {
+            return error(400, "required", "Missing start or end time.");
+        }
+        event.put("id", nextEventId());
+        event.put("status", "confirmed");
+        calendar.put(event);
+        return json(200, event);
+    }
+
+    private Response update(FakeCalendar calendar, String eventId, String body, boolean patch) throws IOException {
+        ObjectNode existing = calendar.events.get(eventId);
+        if (existing == null || "cancelled".equals(existing.path("status").asText())) {
+            return error(404, "notFound", "Not Found");
+        }
+        ObjectNode changes = (ObjectNode) mapper.readTree(body);
+        ObjectNode event = patch ? existing.deepCopy().setAll(changes) : changes;
+        if (!event.has("start") || !event.has("end")) {
+            return error(400, "required", "Missing start or end time.");
+        }
+        event.put("id", eventId);
+        event.put("status", "confirmed");
+        calendar.put(event);
+        return json(200, event);
+    }
+
+    private Response delete(FakeCalendar calendar, String eventId) {
+        ObjectNode existing = calendar.events.get(eventId);
+        if (existing == null) {
+            return error(404, "notFound", "Not Found");
+        }
+        if ("cancelled".equals(existing.path("status").asText())) {
+            return error(410, "deleted", "Resource has been deleted");
+        }
+        calendar.put(cancelled(eventId));
+        return new Response(204, null, "");
+    }
+
+    /**
+     * Exécute les parties d'une requête batch dans l'ordre et renvoie leurs réponses
+     * dans une réponse multipart/mixed, au format de Google.
+     */
+    private Response batch(String contentType, String authorization, String body) {
+        String boundary = boundaryOf(contentType);
+        if (boundary == null) {
+            return error(400, "badContent", "Missing multipart boundary");
+        }
+
+        StringBuilder multipart = new StringBuilder();
+        String[] parts = body.split("--" + Pattern.quote(boundary));
+        int index = 0;
+        for (String part : parts) {
+            // Préambule et marqueur de fin (« -- ») ignorés
+            if (part.isBlank() || part.startsWith("--")) {
+                continue;
+            }
+            index++;
+            String[] partSections = part.stripLeading().split("\r\n\r\n", 2);
+            String contentId = headerValue(partSections[0], "Content-ID");
+            String innerRequest = partSections.length > 1 ? partSections[1] : "";
+
+            String[] requestSections = innerRequest.split("\r\n\r\n", 2);
+            String[] headLines = requestSections[0].split("\r\n");
+            String[] requestLine = headLines[0].split(" ");
+            String partAuthorization = headerValue(requestSections[0], "Authorization");
+            String partBody = requestSections.length > 1 ? stripTrailingNewline(requestSections[1]) : "";
+
+            Response response = execute(requestLine[0], URI.create(requestLine[1]),
+                    partAuthorization != null ? partAuthorization : authorization, partBody);
+
+            multipart.append("--").append(RESPONSE_BOUNDARY).append("\r\n")
+                    .append("Content-Type: application/http\r\n")
+                    .append("Content-ID: response-").append(contentId != null ? strip(contentId) : index)
+                    .append("\r\n\r\n")
+                    .append("HTTP/1.1 ").append(response.status()).append(' ').append(reason(response.status()))
+                    .append("\r\n");
+            if (response.contentType() != null) {
+                multipart.append("Content-Type: ").append(response.contentType()).append("\r\n");
+            }
+            multipart.append("\r\n").append(response.body()).append("\r\n");
+        }
+        multipart.append("--").append(RESPONSE_BOUNDARY).append("--\r\n");
+        return new Response(200, "multipart/mixed; boundary=" + RESPONSE_BOUNDARY, multipart.toString());
+    }
+
+    private void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.contentType() != null) {
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        }
+        if (response.status() == 204) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // ── Pannes simulées ──────────────────────────────────────────────────────
+
+    private void pause() {
+        long delay = faults.latencyMs();
+        if (faults.jitterMs() > 0) {
+            synchronized (random) {
+                delay += random.nextLong(faults.jitterMs() + 1);
+            }
+        }
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Response injectedFault() {
+        if (faults.serverErrorRate() <= 0 && faults.rateLimitRate() <= 0) {
+            return null;
+        }
+        double draw;
+        synchronized (random) {
+            draw = random.nextDouble();
+        }
+        if (draw < faults.serverErrorRate()) {
+            count("injected-503");
+            return error(503, "backendError", "Backend Error");
+        }
+        if (draw < faults.serverErrorRate() + faults.rateLimitRate()) {
+            count("injected-429");
+            return error(429, "rateLimitExceeded", "Rate Limit Exceeded");
+        }
+        return null;
+    }
+
+    // ── Utilitaires ──────────────────────────────────────────────────────────
+
+    private Response json(int status, JsonNode node) {
+        try {
+            return new Response(status, "application/json; charset=UTF-8", mapper.writeValueAsString(node));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Response error(int code, String reason, String message) {
+        ObjectNode error = mapper.createObjectNode();
+        ObjectNode details = error.putObject("error");
+        details.put("code", code);
+        details.put("message", message);
+        details.putArray("errors").addObject()
+                .put("domain", "global")
+                .put("reason", reason)
+                .put("message", message);
+        return json(code, error);
+    }
+
+    private ObjectNode cancelled(String eventId) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("id", eventId);
+        node.put("status", "cancelled");
+        return node;
+    }
+
+    private void count(String operation) {
+        requestCounts.computeIfAbsent(operation, o -> new AtomicLong()).incrementAndGet();
+    }
+
+    private String nextEventId() {
+        return "fake" + eventIds.incrementAndGet();
+    }
+
+    private static String rfc3339(LocalDateTime time) {
+        return new DateTime(time.atZone(ZONE).toInstant().toEpochMilli(),
+                time.atZone(ZONE).getOffset().getTotalSeconds() / 60).toStringRfc3339();
+    }
+
+    private static boolean endsAfter(ObjectNode event, long timeMin) {
+        String end = event.path("end").path("dateTime").asText(null);
+        return end == null || DateTime.parseRfc3339(end).getValue() >= timeMin;
+    }
+
+    private static Long parseSyncToken(String syncToken) {
+        try {
+            return syncToken.startsWith("s") ? Long.parseLong(syncToken.substring(1)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> query = new HashMap<>();
+        if (uri.getRawQuery() == null) {
+            return query;
+        }
+        for (String pair : uri.getRawQuery().split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static String boundaryOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.startsWith("boundary=")) {
+                return strip(trimmed.substring("boundary=".length()));
+            }
+        }
+        return null;
+    }
+
+    private static String headerValue(String headers, String name) {
+        for (String line : headers.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase(name)) {
+                return line.substring(colon + 1).trim();
+            }
+        }
+        return null;
+    }
+
+    // Retire guillemets et chevrons (boundary="...", Content-ID: <...>)
+    private static String strip(String value) {
+        return value.replaceAll("^[\"<]+|[\">]+$", "");
+    }
+
+    private static String stripTrailingNewline(String value) {
+        return value.endsWith("\r\n") ? value.substring(0, value.length() - 2) : value;
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 204 -> "No Content";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 404 -> "Not Found";
+            case 410 -> "Gone";
+            case 429 -> "Too Many Requests";
+            case 503 -> "Service Unavailable";
+            default -> "Status";
+        };
+    }
+
+    /**
+     * Agenda d'un utilisateur. Chaque écriture reçoit un numéro de séquence croissant : un jeton
+     * de synchronisation est le dernier numéro vu, le listing incrémental rend les événements
+     * de numéro supérieur. Accès sous le verrou de l'instance.
+     */
+    private static final class FakeCalendar {
+
+        private final Map<String, ObjectNode> events = new HashMap<>();
+        private final Map<String, Long> sequenceOf = new HashMap<>();
+        private final TreeMap<Long, String> bySequence = new TreeMap<>();
+        private long sequence;
+        private long minSyncSequence;
+
+        void put(ObjectNode event) {
+            String id = event.path("id").asText();
+            Long previous = sequenceOf.put(id, ++sequence);
+            if (previous != null) {
+                bySequence.remove(previous);
+            }
+            event.put("updated", new DateTime(System.currentTimeMillis()).toStringRfc3339());
+            events.put(id, event);
+            bySequence.put(sequence, id);
+        }
+
+        List<ObjectNode> confirmedEvents() {
+            List<ObjectNode> confirmed = new ArrayList<>();
+            for (ObjectNode event : events.values()) {
+                if (!"cancelled".equals(event.path("status").asText())) {
+                    confirmed.add(event);
+                }
+            }
+            return confirmed;
+        }
+    }
+}
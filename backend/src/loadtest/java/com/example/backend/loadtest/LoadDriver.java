@@ -0,0 +1,194 @@
+package com.example.backend.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Injecteur de charge HTTP en boucle ouverte : les requêtes partent au rythme cible
+ * quelle que soit la latence du serveur (chacune dans son thread virtuel), et la latence
+ * est mesurée depuis l'instant d'envoi prévu. Un serveur saturé voit donc ses percentiles
+ * monter au lieu de ralentir silencieusement l'injecteur (pas d'omission coordonnée).
+ */
+public class LoadDriver {
+
+    private static final DateTimeFormatter ISO_SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * Une opération du scénario, tirée au sort selon son poids.
+     */
+    private record Operation(String endpoint, int weight) {}
+
+    // Lectures majoritaires, écritures et reshuffles plus rares
+    private static final List<Operation> MIX = List.of(
+            new Operation("GET /api/events/user/{id}", 35),
+            new Operation("GET /api/tasks/user/{id}", 20),
+            new Operation("GET /api/focus/suggestions", 15),
+            new Operation("POST /api/events", 12),
+            new Operation("POST /api/tasks/user/{id}", 12),
+            new Operation("POST /api/schedule/reshuffle/{id}", 6));
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<Long> userIds;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public LoadDriver(String baseUrl, List<Long> userIds) {
+        this.baseUrl = baseUrl;
+        this.userIds = userIds;
+    }
+
+    /**
+     * Rejoue le scénario pendant {@code duration} à {@code targetRps} requêtes par seconde.
+     */
+    public LoadReport run(int targetRps, Duration duration, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int totalWeight = MIX.stream().mapToInt(Operation::weight).sum();
+        long intervalNanos = 1_000_000_000L / Math.max(1, targetRps);
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + duration.toNanos();
+        long sent = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = startNanos; intended < endNanos; intended += intervalNanos) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick(random, totalWeight);
+                long userId = userIds.get(random.nextInt(userIds.size()));
+                HttpRequest request = buildRequest(operation, userId, random.split());
+                long scheduledAt = intended;
+                executor.submit(() -> send(operation.endpoint(), request, scheduledAt));
+                sent++;
+            }
+        } // close() attend les réponses en vol
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<String, LoadReport.EndpointReport> endpoints = new LinkedHashMap<>();
+        for (Operation operation : MIX) {
+            EndpointStats endpointStats = stats.get(operation.endpoint());
+            if (endpointStats != null) {
+                endpoints.put(operation.endpoint(), endpointStats.toReport());
+            }
+        }
+        return new LoadReport(targetRps, sent / elapsedSeconds, sent, elapsedSeconds, endpoints);
+    }
+
+    private Operation pick(SplittableRandom random, int totalWeight) {
+        int draw = random.nextInt(totalWeight);
+        for (Operation operation : MIX) {
+            draw -= operation.weight();
+            if (draw < 0) {
+                return operation;
+            }
+        }
+        return MIX.get(MIX.size() - 1);
+    }
+
+    private HttpRequest buildRequest(Operation operation, long userId, SplittableRandom random) {
+        return switch (operation.endpoint()) {
+            case "GET /api/events/user/{id}" -> get("/api/events/user/" + userId);
+            case "GET /api/tasks/user/{id}" -> get("/api/tasks/user/" + userId);
+            case "GET /api/focus/suggestions" -> get("/api/focus/suggestions?userId=" + userId
+                    + "&date=" + LocalDate.now().plusDays(random.nextInt(0, 14)));
+            case "POST /api/events" -> {
+                // Journées lointaines : évite de saturer une journée (contrôle de surcharge Focus)
+                LocalDateTime start = LocalDate.now().plusDays(random.nextInt(60, 730))
+                        .atTime(random.nextInt(8, 19), 0);
+                yield post("/api/events", """
+                        {"summary":"Charge","startTime":"%s","endTime":"%s","userId":%d,"category":"TRAVAIL"}"""
+                        .formatted(start.format(ISO_SECONDS), start.plusMinutes(45).format(ISO_SECONDS), userId));
+            }
+            case "POST /api/tasks/user/{id}" -> post("/api/tasks/user/" + userId, """
+                    {"title":"Tâche de charge","estimatedDuration":%d,"priority":%d}"""
+                    .formatted(random.nextInt(15, 121), random.nextInt(1, 6)));
+            case "POST /api/schedule/reshuffle/{id}" -> post("/api/schedule/reshuffle/" + userId, "");
+            default -> throw new IllegalStateException("Opération inconnue : " + operation.endpoint());
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private void send(String endpoint, HttpRequest request, long scheduledAtNanos) {
+        boolean success;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (Exception e) {
+            success = false;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        stats.computeIfAbsent(endpoint, key -> new EndpointStats())
+                .record(System.nanoTime() - scheduledAtNanos, success);
+    }
+
+    /**
+     * Latences brutes d'un endpoint (les percentiles sont calculés en fin de run).
+     */
+    private static final class EndpointStats {
+        private final List<Long> latenciesNanos = new ArrayList<>();
+        private long errors;
+
+        private synchronized void record(long latencyNanos, boolean success) {
+            latenciesNanos.add(latencyNanos);
+            if (!success) {
+                errors++;
+            }
+        }
+
+        private synchronized LoadReport.EndpointReport toReport() {
+            long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return new LoadReport.EndpointReport(
+                    sorted.length,
+                    errors,
+                    sorted.length == 0 ? 0.0 : (double) errors / sorted.length,
+                    percentileMs(sorted, 50),
+                    percentileMs(sorted, 95),
+                    percentileMs(sorted, 99),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        // Méthode du rang le plus proche
+        private static double percentileMs(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.backend.loadtest;
+
+import java.util.Map;
+
+/**
+ * Résultat d'un run de charge.
+ *
+ * @param targetRps   débit demandé
+ * @param achievedRps débit réellement envoyé
+ * @param endpoints   statistiques par endpoint, dans l'ordre du scénario
+ */
+public record LoadReport(
+        int targetRps,
+        double achievedRps,
+        long totalRequests,
+        double elapsedSeconds,
+        Map<String, EndpointReport> endpoints) {
+
+    /**
+     * Latences (ms) et taux d'erreur (réponses 4xx/5xx, timeouts) d'un endpoint.
+     */
+    public record EndpointReport(
+            long requests,
+            long errors,
+            double errorRate,
+            double p50Ms,
+            double p95Ms,
+            double p99Ms,
+            double maxMs) {}
+
+    /**
+     * Tableau lisible pour la console.
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("Cible : %d req/s, envoyé : %.1f req/s, %d requêtes en %.1f s%n",
+                targetRps, achievedRps, totalRequests, elapsedSeconds));
+        table.append(String.format("%-36s %8s %8s %9s %9s %9s %9s%n",
+                "Endpoint", "Requêtes", "Erreurs", "p50 (ms)", "p95 (ms)", "p99 (ms)", "max (ms)"));
+        endpoints.forEach((endpoint, report) -> table.append(String.format(
+                "%-36s %8d %7.2f%% %9.1f %9.1f %9.1f %9.1f%n",
+                endpoint, report.requests(), report.errorRate() * 100,
+                report.p50Ms(), report.p95Ms(), report.p99Ms(), report.maxMs())));
+        return table.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backend.loadtest;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.repository.UserFocusPreferenceRepository;
+import com.example.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Test de charge de bout en bout, hors ligne :
+ * 1. démarre le backend sur un port libre (profil loadtest : clés factices, calcul de trajet simple,
+ *    tâches planifiées désactivées) avec H2, ou PostgreSQL si {@code loadtest.postgres=true} ;
+ * 2. génère les utilisateurs synthétiques ;
+ * 3. rejoue le scénario mixte lecture/écriture au débit cible, après une phase de chauffe
+ *    non mesurée (JIT, pool de connexions, caches) ;
+ * 4. affiche et écrit le rapport JSON (p50/p95/p99 et taux d'erreur par endpoint).
+ *
+ * Paramètres (propriétés système, transmises par ./gradlew loadTest -Ploadtest.xxx=...) :
+ * users, events, tasks, teamSize, rps, warmupSeconds, durationSeconds, seed, report, postgres.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        SyntheticCalendarGenerator.Spec spec = new SyntheticCalendarGenerator.Spec(
+                intOption("users", 50),
+                intOption("events", 200),
+                intOption("tasks", 20),
+                intOption("teamSize", 5),
+                longOption("seed", 42));
+        int rps = intOption("rps", 50);
+        Duration warmup = Duration.ofSeconds(intOption("warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(intOption("durationSeconds", 30));
+        Path reportPath = Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/report.json"));
+        boolean postgres = Boolean.parseBoolean(System.getProperty("loadtest.postgres", "false"));
+
+        String[] profiles = postgres ? new String[]{"loadtest"} : new String[]{"loadtest", "loadtest-h2"};
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles(profiles)
+                .run(args)) {
+
+            SyntheticCalendarGenerator generator = new SyntheticCalendarGenerator(
+                    context.getBean(UserRepository.class),
+                    context.getBean(EventRepository.class),
+                    context.getBean(TaskRepository.class),
+                    context.getBean(TeamRepository.class),
+                    context.getBean(UserFocusPreferenceRepository.class));
+
+            long seedStart = System.nanoTime();
+            List<Long> userIds = generator.generate(spec);
+            System.out.printf("[LOADTEST] %d utilisateurs générés en %d ms (%s)%n",
+                    userIds.size(), (System.nanoTime() - seedStart) / 1_000_000, spec);
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            if (!warmup.isZero()) {
+                System.out.printf("[LOADTEST] Chauffe pendant %d s%n", warmup.toSeconds());
+                new LoadDriver(baseUrl, userIds).run(rps, warmup, ~spec.seed());
+            }
+            LoadReport report = new LoadDriver(baseUrl, userIds).run(rps, duration, spec.seed());
+
+            System.out.println(report.toTable());
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+            System.out.println("[LOADTEST] Rapport écrit dans " + reportPath.toAbsolutePath());
+        }
+    }
+
+    private static int intOption(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("loadtest." + name, String.valueOf(defaultValue)));
+    }
+
+    private static long longOption(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty("loadtest." + name, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.backend.loadtest;
+
+import java.util.Map;
+
+/**
+ * Résultat d'un banc de synchronisation Google (voir {@link SyncLoadTestRunner}).
+ *
+ * @param users                nombre d'utilisateurs liés au faux serveur Google
+ * @param localEventsPerUser   événements locaux par utilisateur (exportés à la première synchronisation)
+ * @param remoteEventsPerUser  événements présents côté Google au départ (importés)
+ * @param faults               latence et pannes injectées par le faux serveur
+ * @param phases               mesures par phase, dans l'ordre d'exécution
+ */
+public record SyncLoadReport(
+        int users,
+        int localEventsPerUser,
+        int remoteEventsPerUser,
+        FakeGoogleCalendarServer.Faults faults,
+        Map<String, PhaseReport> phases) {
+
+    /**
+     * Latences par utilisateur (ms), débit et requêtes reçues par le faux serveur pendant une phase.
+     *
+     * @param googleRequests requêtes par opération (list, batch, insert...) et pannes injectées
+     */
+    public record PhaseReport(
+            int users,
+            int succeeded,
+            int failed,
+            double elapsedSeconds,
+            double usersPerSecond,
+            long p50Ms,
+            long p95Ms,
+            long p99Ms,
+            long maxMs,
+            Map<String, Long> googleRequests) {}
+
+    /**
+     * Tableau lisible pour la console.
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%d utilisateurs, %d événements locaux et %d événements Google chacun, %s%n",
+                users, localEventsPerUser, remoteEventsPerUser, faults));
+        table.append(String.format("%-34s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Phase", "Succès", "Échecs", "Durée (s)", "Util./s", "p50 (ms)", "p95 (ms)", "p99 (ms)", "max (ms)"));
+        phases.forEach((phase, report) -> table.append(String.format(
+                "%-34s %7d %7d %9.1f %9.1f %9d %9d %9d %9d%n   requêtes Google : %s%n",
+                phase, report.succeeded(), report.failed(), report.elapsedSeconds(), report.usersPerSecond(),
+                report.p50Ms(), report.p95Ms(), report.p99Ms(), report.maxMs(), report.googleRequests())));
+        return table.toString();
+    }
+}
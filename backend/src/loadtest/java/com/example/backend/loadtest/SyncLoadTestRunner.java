@@ -0,0 +1,223 @@
+package com.example.backend.loadtest;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.dto.SyncCycleReport;
+import com.example.backend.dto.SyncCycleReport.Outcome;
+import com.example.backend.dto.SyncCycleReport.UserSyncTiming;
+import com.example.backend.model.User;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.repository.UserFocusPreferenceRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.CalendarSyncScheduler;
+import com.example.backend.service.CalendarSyncService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Banc de synchronisation Google de bout en bout, hors ligne :
+ * 1. démarre le faux serveur Calendar ({@link FakeGoogleCalendarServer}) puis le backend
+ *    (profil loadtest) avec {@code google.calendar.root-url} pointant vers lui ;
+ * 2. génère les utilisateurs synthétiques, les lie à un compte Google simulé et charge
+ *    leur agenda Google initial ;
+ * 3. phase 1 : {@code syncUser} pour chaque utilisateur (import complet paginé, export en batch),
+ *    avec le parallélisme du planificateur ;
+ * 4. phase 2 : modifie une part des événements côté Google, puis un cycle planifié complet
+ *    ({@link CalendarSyncScheduler#syncAllUsers()}, imports incrémentaux). Les échéances
+ *    adaptatives sont remises à zéro avant chaque cycle : tous les utilisateurs sont mesurés ;
+ * 5. phase 3 : un cycle planifié sans aucun changement (coût d'un utilisateur inactif) ;
+ * 6. affiche et écrit le rapport JSON.
+ *
+ * Paramètres (propriétés système, transmises par ./gradlew syncLoadTest -Ploadtest.xxx=...) :
+ * users, events, remoteEvents, pageSize, concurrency, changeRate, latencyMs, jitterMs,
+ * errorRate, rateLimitRate, quotaRps, seed, report, postgres.
+ */
+public final class SyncLoadTestRunner {
+
+    private SyncLoadTestRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        int users = intOption("users", 1000);
+        int localEvents = intOption("events", 50);
+        int remoteEvents = intOption("remoteEvents", 100);
+        int pageSize = intOption("pageSize", 50);
+        int concurrency = intOption("concurrency", 4);
+        double changeRate = doubleOption("changeRate", 0.05);
+        long seed = longOption("seed", 42);
+        // Quota Calendar large par défaut : on mesure la synchronisation, pas le limiteur
+        double quotaRps = doubleOption("quotaRps", 10_000);
+        FakeGoogleCalendarServer.Faults faults = new FakeGoogleCalendarServer.Faults(
+                longOption("latencyMs", 20),
+                longOption("jitterMs", 10),
+                doubleOption("errorRate", 0),
+                doubleOption("rateLimitRate", 0),
+                seed);
+        Path reportPath = Path.of(System.getProperty("loadtest.report", "build/reports/loadtest/sync-report.json"));
+        boolean postgres = Boolean.parseBoolean(System.getProperty("loadtest.postgres", "false"));
+
+        String[] profiles = postgres ? new String[]{"loadtest"} : new String[]{"loadtest", "loadtest-h2"};
+        try (FakeGoogleCalendarServer google = new FakeGoogleCalendarServer(faults)) {
+            // Arguments de ligne de commande : priorité sur application.properties
+            String[] overrides = {
+                    "--google.calendar.root-url=" + google.rootUrl(),
+                    "--google.calendar.sync.page-size=" + pageSize,
+                    "--google.quota.calendar.requests-per-second=" + quotaRps,
+                    "--google.quota.calendar.burst=" + (int) Math.max(1, quotaRps),
+                    "--app.sync.scheduler.max-concurrency=" + concurrency,
+                    // Deux connexions par synchronisation (voir CalendarSyncScheduler)
+                    "--spring.datasource.hikari.maximum-pool-size=" + (2 * concurrency + 2)
+            };
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                    .profiles(profiles)
+                    .run(Stream.concat(Stream.of(args), Stream.of(overrides)).toArray(String[]::new))) {
+
+                SyntheticCalendarGenerator generator = new SyntheticCalendarGenerator(
+                        context.getBean(UserRepository.class),
+                        context.getBean(EventRepository.class),
+                        context.getBean(TaskRepository.class),
+                        context.getBean(TeamRepository.class),
+                        context.getBean(UserFocusPreferenceRepository.class));
+
+                long seedStart = System.nanoTime();
+                List<Long> userIds = generator.generate(
+                        new SyntheticCalendarGenerator.Spec(users, localEvents, 0, 0, seed));
+                google.seed(generator.linkGoogleAccounts(userIds, remoteEvents, seed));
+                System.out.printf("[SYNC-LOADTEST] %d utilisateurs générés et liés au faux Google (%s) en %d ms%n",
+                        userIds.size(), google.rootUrl(), (System.nanoTime() - seedStart) / 1_000_000);
+
+                CalendarSyncService syncService = context.getBean(CalendarSyncService.class);
+                CalendarSyncScheduler scheduler = context.getBean(CalendarSyncScheduler.class);
+                Map<String, SyncLoadReport.PhaseReport> phases = new LinkedHashMap<>();
+
+                Map<String, Long> before = google.requestCounts();
+                phases.put("syncUser (synchronisation complète)",
+                        syncEachUser(syncService, userIds, concurrency, google, before));
+
+                int changed = google.changeEvents(changeRate, ~seed);
+                System.out.printf("[SYNC-LOADTEST] %d événement(s) modifié(s) côté Google%n", changed);
+                UserRepository userRepository = context.getBean(UserRepository.class);
+                phases.put("Cycle planifié (incrémental)", schedulerCycle(scheduler, userRepository, userIds, google));
+                phases.put("Cycle planifié (sans changement)", schedulerCycle(scheduler, userRepository, userIds, google));
+
+                SyncLoadReport report = new SyncLoadReport(users, localEvents, remoteEvents, faults, phases);
+                System.out.println(report.toTable());
+                Files.createDirectories(reportPath.toAbsolutePath().getParent());
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+                System.out.println("[SYNC-LOADTEST] Rapport écrit dans " + reportPath.toAbsolutePath());
+            }
+        }
+    }
+
+    private static SyncLoadReport.PhaseReport syncEachUser(CalendarSyncService syncService, List<Long> userIds,
+                                                           int concurrency, FakeGoogleCalendarServer google,
+                                                           Map<String, Long> before) {
+        Semaphore permits = new Semaphore(concurrency);
+        Queue<UserSyncTiming> timings = new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long userId : userIds) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    long userStart = System.nanoTime();
+                    try {
+                        syncService.syncUser(userId);
+                        timings.add(new UserSyncTiming(userId, elapsedMs(userStart), Outcome.SUCCESS, null));
+                    } catch (Exception e) {
+                        timings.add(new UserSyncTiming(userId, elapsedMs(userStart), Outcome.FAILED, e.getMessage()));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return phaseReport(new ArrayList<>(timings), elapsedMs(start), delta(before, google.requestCounts()));
+    }
+
+    private static SyncLoadReport.PhaseReport schedulerCycle(CalendarSyncScheduler scheduler,
+                                                             UserRepository userRepository, List<Long> userIds,
+                                                             FakeGoogleCalendarServer google) {
+        // Tous les utilisateurs arrivés à échéance, quelle que soit leur cadence adaptative
+        List<User> users = userRepository.findAllById(userIds);
+        users.forEach(user -> user.setNextGoogleSyncAt(null));
+        userRepository.saveAll(users);
+
+        Map<String, Long> before = google.requestCounts();
+        scheduler.syncAllUsers();
+        SyncCycleReport cycle = scheduler.getLastReport().orElseThrow();
+        return phaseReport(cycle.timings(), cycle.elapsedMs(), delta(before, google.requestCounts()));
+    }
+
+    private static SyncLoadReport.PhaseReport phaseReport(List<UserSyncTiming> timings, long elapsedMs,
+                                                          Map<String, Long> googleRequests) {
+        List<Long> latencies = new ArrayList<>();
+        int succeeded = 0;
+        int failed = 0;
+        for (UserSyncTiming timing : timings) {
+            if (timing.outcome() == Outcome.SUCCESS) {
+                succeeded++;
+            } else if (timing.outcome() != Outcome.SKIPPED) {
+                failed++;
+            }
+            latencies.add(timing.durationMs());
+        }
+        latencies.sort(null);
+        double seconds = elapsedMs / 1000.0;
+        return new SyncLoadReport.PhaseReport(timings.size(), succeeded, failed, seconds,
+                seconds > 0 ? timings.size() / seconds : 0,
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1),
+                googleRequests);
+    }
+
+    private static Map<String, Long> delta(Map<String, Long> before, Map<String, Long> after) {
+        Map<String, Long> delta = new LinkedHashMap<>();
+        after.forEach((operation, count) -> {
+            long difference = count - before.getOrDefault(operation, 0L);
+            if (difference > 0) {
+                delta.put(operation, difference);
+            }
+        });
+        return delta;
+    }
+
+    // Méthode du rang le plus proche
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static int intOption(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("loadtest." + name, String.valueOf(defaultValue)));
+    }
+
+    private static long longOption(String name, long defaultValue) {
+        return Long.parseLong(System.getProperty("loadtest." + name, String.valueOf(defaultValue)));
+    }
+
+    private static double doubleOption(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty("loadtest." + name, String.valueOf(defaultValue)));
+    }
+}
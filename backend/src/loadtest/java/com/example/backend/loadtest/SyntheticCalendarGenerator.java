@@ -0,0 +1,168 @@
+package com.example.backend.loadtest;
+
+import com.example.backend.model.ActivityCategory;
+import com.example.backend.model.Event;
+import com.example.backend.model.Location;
+import com.example.backend.model.Task;
+import com.example.backend.model.Team;
+import com.example.backend.model.User;
+import com.example.backend.model.UserFocusPreference;
+import com.example.backend.model.UserFocusPreference.FocusTimePreference;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TeamRepository;
+import com.example.backend.repository.UserFocusPreferenceRepository;
+import com.example.backend.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Peuple la base (H2 ou PostgreSQL) avec des utilisateurs synthétiques : événements
+ * localisés, tâches, équipes et préférences Focus. Graine fixe : deux runs identiques
+ * produisent le même jeu de données.
+ */
+public class SyntheticCalendarGenerator {
+
+    /**
+     * Volume à générer.
+     *
+     * @param users          nombre d'utilisateurs
+     * @param eventsPerUser  événements par utilisateur (à partir d'aujourd'hui, 8h-20h)
+     * @param tasksPerUser   tâches non planifiées par utilisateur
+     * @param teamSize       membres par équipe (0 = pas d'équipe)
+     * @param seed           graine du générateur aléatoire
+     */
+    public record Spec(int users, int eventsPerUser, int tasksPerUser, int teamSize, long seed) {}
+
+    private static final String[] ADDRESSES = {
+            "1 Rue de Rivoli, 75001 Paris", "5 Avenue Anatole France, 75007 Paris",
+            "Place du Trocadéro, 75016 Paris", "10 Boulevard Saint-Michel, 75005 Paris",
+            "Gare de Lyon, 75012 Paris", "Parvis de La Défense, 92800 Puteaux"
+    };
+
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final TaskRepository taskRepository;
+    private final TeamRepository teamRepository;
+    private final UserFocusPreferenceRepository preferenceRepository;
+
+    public SyntheticCalendarGenerator(UserRepository userRepository,
+                                      EventRepository eventRepository,
+                                      TaskRepository taskRepository,
+                                      TeamRepository teamRepository,
+                                      UserFocusPreferenceRepository preferenceRepository) {
+        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+        this.taskRepository = taskRepository;
+        this.teamRepository = teamRepository;
+        this.preferenceRepository = preferenceRepository;
+    }
+
+    /**
+     * @return les identifiants des utilisateurs créés
+     */
+    public List<Long> generate(Spec spec) {
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        List<User> users = new ArrayList<>(spec.users());
+        for (int i = 0; i < spec.users(); i++) {
+            users.add(new User("loadtest-" + spec.seed() + "-" + i, "password"));
+        }
+        users = userRepository.saveAll(users);
+
+        List<UserFocusPreference> preferences = new ArrayList<>(users.size());
+        for (User user : users) {
+            eventRepository.saveAll(events(user, spec.eventsPerUser(), LocalDate.now(), random));
+            taskRepository.saveAll(tasks(user, spec.tasksPerUser(), random));
+            preferences.add(preference(user, random));
+        }
+        preferenceRepository.saveAll(preferences);
+
+        if (spec.teamSize() > 0) {
+            List<Team> teams = new ArrayList<>();
+            for (int from = 0; from < users.size(); from += spec.teamSize()) {
+                List<User> members = users.subList(from, Math.min(users.size(), from + spec.teamSize()));
+                Team team = new Team("Équipe " + teams.size(), "Équipe synthétique", members.get(0).getId());
+                team.getMembers().addAll(members);
+                teams.add(team);
+            }
+            teamRepository.saveAll(teams);
+        }
+
+        return users.stream().map(User::getId).toList();
+    }
+
+    /**
+     * Lie chaque utilisateur à un compte Google simulé (token d'accès {@code fake-<id>}) et tire,
+     * avec la même graine, le contenu initial de son agenda Google. Ces événements commencent
+     * six mois plus tôt, hors de la plage des événements locaux : la première synchronisation
+     * ne rencontre aucun conflit.
+     *
+     * @return les événements Google (non persistés) par token d'accès, à charger dans
+     *         {@link FakeGoogleCalendarServer#seed}
+     */
+    public Map<String, List<Event>> linkGoogleAccounts(List<Long> userIds, int remoteEventsPerUser, long seed) {
+        SplittableRandom random = new SplittableRandom(~seed);
+        List<User> users = userRepository.findAllById(userIds);
+        Map<String, List<Event>> remote = new LinkedHashMap<>();
+        for (User user : users) {
+            String accessToken = "fake-" + user.getId();
+            user.setGoogleAccessToken(accessToken);
+            user.setGoogleRefreshToken("fake-refresh-" + user.getId());
+            remote.put(accessToken, events(user, remoteEventsPerUser, LocalDate.now().minusMonths(6), random));
+        }
+        userRepository.saveAll(users);
+        return remote;
+    }
+
+    private List<Event> events(User user, int count, LocalDate firstDay, SplittableRandom random) {
+        ActivityCategory[] categories = ActivityCategory.values();
+        List<Event> events = new ArrayList<>(count);
+        LocalDateTime cursor = firstDay.atTime(8, 0);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = cursor.plusMinutes(random.nextInt(0, 120));
+            LocalDateTime end = start.plusMinutes(random.nextInt(15, 91));
+            Event event = new Event("Événement " + i, start, end, user);
+            event.setCategory(categories[random.nextInt(categories.length)]);
+            if (random.nextInt(3) == 0) {
+                event.setLocation(new Location(ADDRESSES[random.nextInt(ADDRESSES.length)]));
+            }
+            events.add(event);
+
+            cursor = end;
+            if (cursor.getHour() >= 20) {
+                cursor = cursor.toLocalDate().plusDays(1).atTime(8, 0);
+            }
+        }
+        return events;
+    }
+
+    private List<Task> tasks(User user, int count, SplittableRandom random) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime deadline = random.nextBoolean()
+                    ? LocalDate.now().plusDays(random.nextInt(1, 30)).atTime(18, 0)
+                    : null;
+            Task task = new Task("Tâche " + i, random.nextInt(15, 121), random.nextInt(1, 6),
+                    Task.TaskStatus.PENDING_CREATION, user, deadline);
+            task.setAssignee(user);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private UserFocusPreference preference(User user, SplittableRandom random) {
+        UserFocusPreference preference = new UserFocusPreference(user.getId());
+        preference.setFocusModeEnabled(random.nextInt(4) != 0);
+        preference.setMaxEventsPerDay(random.nextInt(4, 9));
+        preference.setMinFocusDuration(random.nextInt(1, 4) * 30);
+        FocusTimePreference[] times = FocusTimePreference.values();
+        preference.setPreferredFocusTime(times[random.nextInt(times.length)]);
+        return preference;
+    }
+}
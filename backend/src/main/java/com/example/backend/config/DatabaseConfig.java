@@ -0,0 +1,31 @@
+package com.example.backend.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Script complémentaire au schéma Hibernate (schema-postgresql.sql : index partiels, alignement des séquences).
+ * Il n'est exécuté que si la source de données est PostgreSQL : les bases H2 (tests, profil loadtest-h2)
+ * n'ont rien à désactiver. Avec spring.jpa.defer-datasource-initialization, il passe après ddl-auto.
+ */
+@Configuration
+public class DatabaseConfig {
+
+    @Bean
+    public DataSourceScriptDatabaseInitializer postgresSchemaInitializer(DataSource dataSource,
+                                                                         DataSourceProperties properties) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of("classpath:schema-postgresql.sql"));
+        boolean postgres = DatabaseDriver.fromJdbcUrl(properties.determineUrl()) == DatabaseDriver.POSTGRESQL;
+        settings.setMode(postgres ? DatabaseInitializationMode.ALWAYS : DatabaseInitializationMode.NEVER);
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings);
+    }
+}
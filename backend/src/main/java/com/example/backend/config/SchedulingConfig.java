@@ -0,0 +1,29 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Planificateur des jobs {@code @Scheduled}.
+ *
+ * Par défaut, Spring n'a qu'un thread de planification : un cycle de synchronisation ou le reshuffle
+ * nocturne, qui attendent la fin de tous leurs utilisateurs, bloqueraient le vidage de l'outbox et
+ * des notifications Google. Un thread par job ({@code app.scheduling.pool-size}) les rend indépendants.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    // syncAllUsers, syncNotifiedUsers, drain (outbox), renewChannels, nightlyReshuffle
+    @Value("${app.scheduling.pool-size:5}")
+    private int poolSize = 5;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(1, poolSize));
+        scheduler.setThreadNamePrefix("scheduling-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.backend.dto.BulkReshuffleReport;
+import com.example.backend.service.BulkReshuffleService;
+
+/**
+ * Contrôleur d'administration du reshuffle global.
+ * Permet de lancer la ré-optimisation de tous les utilisateurs actifs et d'en suivre la progression.
+ */
+@RestController
+@RequestMapping("/api/admin/reshuffle")
+public class BulkReshuffleController {
+
+    private final BulkReshuffleService bulkReshuffleService;
+
+    public BulkReshuffleController(BulkReshuffleService bulkReshuffleService) {
+        this.bulkReshuffleService = bulkReshuffleService;
+    }
+
+    /**
+     * Lance un reshuffle global en arrière-plan.
+     *
+     * @return 202 avec le rapport initial, ou 409 avec la progression si un run est déjà en cours
+     */
+    @PostMapping
+    public ResponseEntity<BulkReshuffleReport> start() {
+        return bulkReshuffleService.startAsync()
+                .map(report -> ResponseEntity.status(HttpStatus.ACCEPTED).body(report))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(bulkReshuffleService.getReport().orElse(null)));
+    }
+
+    /**
+     * Progression du run en cours (ou rapport du dernier run) : avancement,
+     * temps par utilisateur et débit en utilisateurs par seconde.
+     *
+     * @return 200 avec le rapport, ou 204 si aucun run n'a encore eu lieu
+     */
+    @GetMapping
+    public ResponseEntity<BulkReshuffleReport> status() {
+        return bulkReshuffleService.getReport()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
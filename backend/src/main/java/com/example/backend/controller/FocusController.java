@@ -12,7 +12,7 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/focus")
-@CrossOrigin(origins = "*") // Pour permettre au Frontend de communiquer sans erreurs CORS
+@CrossOrigin(origins = "http://localhost:5173") // Pour permettre au Frontend de communiquer sans erreurs CORS
 public class FocusController {
 
     @Autowired
@@ -1,12 +1,21 @@
 package com.example.backend.controller;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.backend.dto.TimeSlot;
 import com.example.backend.service.ScheduleOptimizerService; 
+import com.example.backend.service.impl.FreeSlotService;
 
 /**
  * Contrôleur pour la gestion de la planification.
@@ -17,28 +26,63 @@ import com.example.backend.service.ScheduleOptimizerService;
 public class ScheduleController {
 
     private final ScheduleOptimizerService optimizerService;
+    private final ScheduleOptimizerService constraintOptimizerService;
+    private final FreeSlotService freeSlotService;
 
     /**
-     * Construit un nouveau ScheduleController avec le service d'optimisation de planification donné.
+     * Construit un nouveau ScheduleController avec les services d'optimisation de planification donnés.
      *
-     * @param optimizerService le service à utiliser pour l'optimisation de la planification.
+     * @param optimizerService le service d'optimisation par défaut (placement glouton).
+     * @param constraintOptimizerService l'optimiseur sous contraintes, borné en temps.
+     * @param freeSlotService le service de recherche de créneaux libres.
      */
-    public ScheduleController(ScheduleOptimizerService optimizerService) {
+    public ScheduleController(ScheduleOptimizerService optimizerService,
+                              @Qualifier("constraintScheduleOptimizerService") ScheduleOptimizerService constraintOptimizerService,
+                              FreeSlotService freeSlotService) {
         this.optimizerService = optimizerService;
+        this.constraintOptimizerService = constraintOptimizerService;
+        this.freeSlotService = freeSlotService;
     }
 
     /**
      * Réorganise l'emploi du temps en fonction d'un événement annulé.
      *
      * @param userId l'ID de l'événement annulé.
-     * @return une ResponseEntity indiquant le succès de l'opération.
+     * @param strategy "default" (placement glouton) ou "constraint" (optimiseur sous contraintes).
+     * @return une ResponseEntity indiquant le succès de l'opération, 400 si la stratégie est inconnue.
      */
     @PostMapping("/reshuffle/{userId}") 
-    public ResponseEntity<String> reshuffle(@PathVariable Long userId) { 
-        optimizerService.reshuffle(userId);
+    public ResponseEntity<String> reshuffle(@PathVariable Long userId,
+                                            @RequestParam(defaultValue = "default") String strategy) { 
+        if ("constraint".equalsIgnoreCase(strategy)) {
+            constraintOptimizerService.reshuffle(userId);
+        } else if ("default".equalsIgnoreCase(strategy)) {
+            optimizerService.reshuffle(userId);
+        } else {
+            return ResponseEntity.badRequest().body("Stratégie inconnue : " + strategy);
+        }
         return ResponseEntity.ok("Schedule updated successfully.");
     }
 
-    
-    
+    /**
+     * Premiers créneaux libres (hors réunions et blocs Focus) d'une durée minimale.
+     *
+     * @param userId l'ID de l'utilisateur.
+     * @param from instant de départ de la recherche (maintenant par défaut).
+     * @param duration durée minimale d'un créneau, en minutes.
+     * @param limit nombre maximal de créneaux retournés.
+     * @return les créneaux libres dans l'ordre chronologique.
+     */
+    @GetMapping("/free-slots")
+    public ResponseEntity<List<TimeSlot>> getFreeSlots(
+            @RequestParam Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "30") long duration,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (duration <= 0 || limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        return ResponseEntity.ok(freeSlotService.findFreeSlots(userId, start, duration, limit));
+    }
 }
@@ -1,22 +1,40 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.GoogleQuotaUsage;
+import com.example.backend.dto.SyncCycleReport;
+import com.example.backend.service.CalendarSyncScheduler;
 import com.example.backend.service.CalendarSyncService;
+import com.example.backend.service.GoogleApiRateLimiter;
+import com.example.backend.service.GoogleWatchService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/sync")
 @CrossOrigin(origins = "http://localhost:5173")
 public class SyncController {
 
     private final CalendarSyncService syncService;
+    private final CalendarSyncScheduler syncScheduler;
+    private final GoogleWatchService watchService;
+    private final GoogleApiRateLimiter rateLimiter;
 
-    public SyncController(CalendarSyncService syncService) {
+    public SyncController(CalendarSyncService syncService, CalendarSyncScheduler syncScheduler,
+                          GoogleWatchService watchService, GoogleApiRateLimiter rateLimiter) {
         this.syncService = syncService;
+        this.syncScheduler = syncScheduler;
+        this.watchService = watchService;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
      * Déclenche une synchronisation manuelle pour un utilisateur
+     *
+     * @return 200, 429 avec {@code Retry-After} si le quota Google est épuisé, 500 sinon
      */
     @PostMapping("/user/{userId}")
     public ResponseEntity<String> syncUser(@PathVariable Long userId) {
@@ -24,7 +42,61 @@ public class SyncController {
             syncService.syncUser(userId);
             return ResponseEntity.ok("Synchronisation réussie !");
         } catch (Exception e) {
+            GoogleApiRateLimiter.QuotaWaitTimeoutException quota = quotaTimeout(e);
+            if (quota != null) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf((quota.getRetryAfterMs() + 999) / 1000))
+                        .body("Quota Google momentanément épuisé, réessayez plus tard.");
+            }
             return ResponseEntity.status(500).body("Erreur : " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // L'attente de quota remonte enveloppée par les couches de synchronisation
+    private static GoogleApiRateLimiter.QuotaWaitTimeoutException quotaTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof GoogleApiRateLimiter.QuotaWaitTimeoutException quota) {
+                return quota;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rapport du dernier cycle de synchronisation planifiée : durée du cycle et latence par utilisateur.
+     *
+     * @return 200 avec le rapport, ou 204 si aucun cycle n'a encore eu lieu
+     */
+    @GetMapping("/scheduler")
+    public ResponseEntity<SyncCycleReport> lastCycle() {
+        return syncScheduler.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Consommation des budgets de requêtes Google (Calendar, Distance Matrix) : jetons disponibles,
+     * files d'attente et attente moyenne par priorité, refus de Google pour dépassement de quota.
+     */
+    @GetMapping("/quota")
+    public List<GoogleQuotaUsage> quotaUsage() {
+        return rateLimiter.usage();
+    }
+
+    /**
+     * Webhook des canaux Google Calendar ({@code events.watch}). Google n'envoie que des en-têtes :
+     * l'utilisateur est marqué à resynchroniser, la synchronisation a lieu hors de la requête.
+     *
+     * @return 200 si la notification est acceptée, 404 si le canal est inconnu ou le secret invalide
+     */
+    @PostMapping("/google/notifications")
+    public ResponseEntity<Void> googleNotification(
+            @RequestHeader(value = "X-Goog-Channel-ID", required = false) String channelId,
+            @RequestHeader(value = "X-Goog-Channel-Token", required = false) String token,
+            @RequestHeader(value = "X-Goog-Resource-ID", required = false) String resourceId,
+            @RequestHeader(value = "X-Goog-Resource-State", required = false) String state) {
+        return watchService.onNotification(channelId, token, resourceId, state)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rapport d'un reshuffle global (tous les utilisateurs actifs).
+ *
+ * @param status          RUNNING pendant l'exécution, COMPLETED ensuite
+ * @param totalUsers      nombre d'utilisateurs à traiter
+ * @param processedUsers  nombre d'utilisateurs déjà traités (succès + échecs)
+ * @param usersPerSecond  débit mesuré depuis le début du run
+ * @param timings         temps de traitement par utilisateur (dans l'ordre de fin)
+ */
+public record BulkReshuffleReport(
+        String status,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        int maxConcurrency,
+        int totalUsers,
+        int processedUsers,
+        int succeeded,
+        int failed,
+        double progressPercent,
+        long elapsedMs,
+        double usersPerSecond,
+        List<UserTiming> timings) {
+
+    /**
+     * Résultat du reshuffle d'un utilisateur.
+     */
+    public record UserTiming(Long userId, long durationMs, boolean success, String error) {}
+}
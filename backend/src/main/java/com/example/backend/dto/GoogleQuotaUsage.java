@@ -0,0 +1,29 @@
+package com.example.backend.dto;
+
+/**
+ * Consommation du budget de requêtes d'une API Google (limiteur partagé).
+ *
+ * @param api                   API concernée (CALENDAR, DISTANCE_MATRIX)
+ * @param ratePerSecond         débit autorisé
+ * @param burst                 taille du seau (rafale maximale)
+ * @param availableTokens       jetons disponibles (négatif : dette d'un batch ou d'un refus de Google)
+ * @param waitingInteractive    requêtes interactives en attente de jetons
+ * @param grantedInteractive    requêtes interactives accordées depuis le démarrage
+ * @param avgWaitMsInteractive  attente moyenne d'une requête interactive accordée
+ * @param timedOut              requêtes abandonnées faute de jetons dans le délai
+ * @param quotaExceeded         refus de Google pour dépassement de quota
+ */
+public record GoogleQuotaUsage(
+        String api,
+        double ratePerSecond,
+        int burst,
+        double availableTokens,
+        int waitingInteractive,
+        int waitingBackground,
+        long grantedInteractive,
+        long grantedBackground,
+        long avgWaitMsInteractive,
+        long avgWaitMsBackground,
+        long timedOut,
+        long quotaExceeded) {
+}
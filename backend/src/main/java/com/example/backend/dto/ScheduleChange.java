@@ -0,0 +1,64 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Modification d'un événement, transmise au reshuffle incrémental.
+ *
+ * L'ancien intervalle est la zone libérée, le nouveau la zone bloquée ;
+ * le nouvel intervalle est vide (null) quand l'événement est supprimé.
+ *
+ * @param eventId  identifiant de l'événement modifié ou supprimé
+ * @param oldStart début avant modification
+ * @param oldEnd   fin avant modification
+ * @param newStart début après modification (null si suppression)
+ * @param newEnd   fin après modification (null si suppression)
+ */
+public record ScheduleChange(
+        Long eventId,
+        LocalDateTime oldStart,
+        LocalDateTime oldEnd,
+        LocalDateTime newStart,
+        LocalDateTime newEnd) {
+
+    public static ScheduleChange deleted(Long eventId, LocalDateTime oldStart, LocalDateTime oldEnd) {
+        return new ScheduleChange(eventId, oldStart, oldEnd, null, null);
+    }
+
+    public boolean isDeletion() {
+        return newStart == null || newEnd == null;
+    }
+
+    /**
+     * Vrai si les deux intervalles sont identiques (seul le titre ou le lieu a changé).
+     */
+    public boolean isNoOp() {
+        return !isDeletion() && newStart.equals(oldStart) && newEnd.equals(oldEnd);
+    }
+
+    /**
+     * Début de la zone touchée (union de l'ancien et du nouvel intervalle).
+     */
+    public LocalDateTime windowStart() {
+        return min(oldStart, newStart);
+    }
+
+    /**
+     * Fin de la zone touchée (union de l'ancien et du nouvel intervalle).
+     */
+    public LocalDateTime windowEnd() {
+        return max(oldEnd, newEnd);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
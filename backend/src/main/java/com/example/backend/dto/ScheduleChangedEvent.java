@@ -0,0 +1,10 @@
+package com.example.backend.dto;
+
+/**
+ * Modification d'agenda publiée par l'écriture d'un événement, traitée après le commit par
+ * le reshuffle incrémental (voir IncrementalReshuffleService).
+ *
+ * @param userId propriétaire de l'événement modifié
+ * @param change ancien et nouvel intervalle de l'événement
+ */
+public record ScheduleChangedEvent(Long userId, ScheduleChange change) {}
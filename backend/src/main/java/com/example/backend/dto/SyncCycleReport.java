@@ -0,0 +1,38 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rapport d'un cycle de synchronisation planifiée (tous les utilisateurs liés à Google).
+ *
+ * @param maxConcurrency  nombre maximal de synchronisations simultanées
+ * @param eligibleUsers   utilisateurs ayant un token Google au début du cycle
+ * @param skipped         utilisateurs ignorés car leur synchronisation précédente tourne encore
+ * @param timedOut        utilisateurs ayant dépassé le délai par utilisateur
+ * @param elapsedMs       durée du cycle
+ * @param p50Ms           latence médiane d'une synchronisation utilisateur (hors ignorés)
+ * @param timings         latence et issue par utilisateur (dans l'ordre de fin)
+ */
+public record SyncCycleReport(
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        int maxConcurrency,
+        int eligibleUsers,
+        int succeeded,
+        int failed,
+        int skipped,
+        int timedOut,
+        long elapsedMs,
+        long p50Ms,
+        long p95Ms,
+        long maxMs,
+        List<UserSyncTiming> timings) {
+
+    /**
+     * Issue de la synchronisation d'un utilisateur.
+     */
+    public enum Outcome { SUCCESS, FAILED, TIMED_OUT, SKIPPED }
+
+    public record UserSyncTiming(Long userId, long durationMs, Outcome outcome, String error) {}
+}
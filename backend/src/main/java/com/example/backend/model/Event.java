@@ -7,7 +7,6 @@ import java.util.Objects;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import org.hibernate.annotations.Index;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -22,14 +21,22 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.PreRemove;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 /**
  * Représente un événement dans le calendrier.
  */
 @Entity
+// Un événement Google n'est importé qu'une fois par utilisateur ; sert aussi d'index aux recherches par lot
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_event_user_google_event_id",
+        columnNames = {"user_id", "google_event_id"}))
 public class Event {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Séquence avec pré-allocation : permet à Hibernate de grouper les INSERT en lots JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     private Long id;
 
     private String summary;
@@ -65,7 +72,7 @@ public class Event {
     @Enumerated(EnumType.STRING)
     private EventStatus status = EventStatus.PLANNED;
 
-    @Index(name = "idx_google_event_id")
+    @Column(name = "google_event_id")
     private String googleEventId;
 
     @Column(name = "last_synced_at")
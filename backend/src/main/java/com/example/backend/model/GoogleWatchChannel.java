@@ -0,0 +1,75 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Canal de notifications Google Calendar ({@code events.watch}) ouvert pour un utilisateur.
+ *
+ * Google appelle le webhook à chaque changement de l'agenda ; la notification ne porte pas le
+ * détail des modifications, elle marque seulement l'utilisateur à resynchroniser ({@code dirtyAt}).
+ * Un canal expire : il est rouvert avant {@code expiresAt} par {@code GoogleWatchService}.
+ */
+@Entity
+@Table(name = "google_watch_channel", indexes = {
+        @Index(name = "idx_watch_channel_user", columnList = "user_id"),
+        @Index(name = "idx_watch_channel_channel", columnList = "channel_id", unique = true)
+})
+public class GoogleWatchChannel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Identifiant choisi à l'ouverture, renvoyé par Google dans X-Goog-Channel-ID
+    @Column(name = "channel_id", nullable = false, length = 64)
+    private String channelId;
+
+    // Identifiant de la ressource surveillée attribué par Google (nécessaire pour fermer le canal)
+    @Column(nullable = false)
+    private String resourceId;
+
+    // Secret renvoyé dans X-Goog-Channel-Token : écarte les notifications forgées
+    @Column(nullable = false, length = 64)
+    private String token;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Dernière notification pas encore traitée (null = rien à synchroniser)
+    private LocalDateTime dirtyAt;
+
+    public GoogleWatchChannel() {} // Obligatoire pour JPA
+
+    public GoogleWatchChannel(Long userId, String channelId, String resourceId, String token,
+                              LocalDateTime expiresAt) {
+        this.userId = userId;
+        this.channelId = channelId;
+        this.resourceId = resourceId;
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getChannelId() { return channelId; }
+    public void setChannelId(String channelId) { this.channelId = channelId; }
+
+    public String getResourceId() { return resourceId; }
+    public void setResourceId(String resourceId) { this.resourceId = resourceId; }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getDirtyAt() { return dirtyAt; }
+    public void setDirtyAt(LocalDateTime dirtyAt) { this.dirtyAt = dirtyAt; }
+}
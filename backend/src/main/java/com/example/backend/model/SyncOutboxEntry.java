@@ -0,0 +1,71 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Intention d'export vers Google d'un événement modifié localement, enregistrée dans la même
+ * transaction que l'écriture qui la motive.
+ *
+ * Les écritures successives d'un même événement ne créent pas de nouvelle ligne : elles
+ * repoussent {@code lastRequestedAt}. Le worker attend un moment de calme (debounce) sur
+ * l'ensemble des événements de l'utilisateur avant de les exporter, puis supprime l'intention.
+ */
+@Entity
+@Table(name = "sync_outbox", indexes = @Index(name = "idx_sync_outbox_user", columnList = "user_id, event_id"))
+public class SyncOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Pas de clé étrangère : l'intention survit à la suppression locale de l'événement
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    // Première demande non traitée : borne l'attente quand les écritures ne s'arrêtent pas
+    @Column(nullable = false)
+    private LocalDateTime firstRequestedAt;
+
+    // Dernière demande : point de départ du délai de calme
+    @Column(nullable = false)
+    private LocalDateTime lastRequestedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Prochaine tentative après un échec (null = dès que possible)
+    private LocalDateTime nextAttemptAt;
+
+    public SyncOutboxEntry() {} // Obligatoire pour JPA
+
+    public SyncOutboxEntry(Long userId, Long eventId, LocalDateTime requestedAt) {
+        this.userId = userId;
+        this.eventId = eventId;
+        this.firstRequestedAt = requestedAt;
+        this.lastRequestedAt = requestedAt;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getEventId() { return eventId; }
+    public void setEventId(Long eventId) { this.eventId = eventId; }
+
+    public LocalDateTime getFirstRequestedAt() { return firstRequestedAt; }
+    public void setFirstRequestedAt(LocalDateTime firstRequestedAt) { this.firstRequestedAt = firstRequestedAt; }
+
+    public LocalDateTime getLastRequestedAt() { return lastRequestedAt; }
+    public void setLastRequestedAt(LocalDateTime lastRequestedAt) { this.lastRequestedAt = lastRequestedAt; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+}
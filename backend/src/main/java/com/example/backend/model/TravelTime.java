@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class TravelTime {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "travel_time_seq")
+    @SequenceGenerator(name = "travel_time_seq", sequenceName = "travel_time_seq", allocationSize = 50)
     private Long id;
 
     // Événement de départ, pour avoir le point de départ du trajet
@@ -1,6 +1,8 @@
 package com.example.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
@@ -11,7 +13,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 /**
  * Représente un utilisateur de l'application.
  * Un utilisateur a un nom d'utilisateur unique, un mot de passe, et des listes d'événements et de tâches associés.
+ *
+ * Les mises à jour ne portent que sur les colonnes modifiées : une synchronisation qui enregistre son
+ * jeton Google n'écrase pas un token d'accès rafraîchi entre-temps.
  */
+@DynamicUpdate
 @Entity
 @Table(name = "users")
 public class User {
@@ -45,6 +51,29 @@ public class User {
     @Column(name = "google_refresh_token", length = 1024)
     private String googleRefreshToken;
 
+    // Expiration du token d'accès Google (null si inconnue) : il est rafraîchi peu avant
+    @JsonIgnore
+    @Column(name = "google_token_expires_at")
+    private LocalDateTime googleTokenExpiresAt;
+
+    // Début de la dernière synchronisation Google réussie (détection incrémentale des conflits)
+    @Column(name = "last_google_sync_at")
+    private LocalDateTime lastGoogleSyncAt;
+
+    // Jeton nextSyncToken de Google Calendar : le prochain import ne récupère que les changements
+    @JsonIgnore
+    @Column(name = "google_sync_token", length = 1024)
+    private String googleSyncToken;
+
+    // Cadence adaptative du cycle planifié (voir SyncIntervalPolicy) : intervalle courant et prochaine échéance
+    @JsonIgnore
+    @Column(name = "google_sync_interval_ms")
+    private Long googleSyncIntervalMs;
+
+    @JsonIgnore
+    @Column(name = "next_google_sync_at")
+    private LocalDateTime nextGoogleSyncAt;
+
     /**
      * Constructeur par défaut.
      */
@@ -115,6 +144,41 @@ public class User {
         this.googleRefreshToken = googleRefreshToken;
     }
 
+    public LocalDateTime getGoogleTokenExpiresAt() {
+        return googleTokenExpiresAt;
+    }
+    public void setGoogleTokenExpiresAt(LocalDateTime googleTokenExpiresAt) {
+        this.googleTokenExpiresAt = googleTokenExpiresAt;
+    }
+
+    public LocalDateTime getLastGoogleSyncAt() {
+        return lastGoogleSyncAt;
+    }
+    public void setLastGoogleSyncAt(LocalDateTime lastGoogleSyncAt) {
+        this.lastGoogleSyncAt = lastGoogleSyncAt;
+    }
+
+    public String getGoogleSyncToken() {
+        return googleSyncToken;
+    }
+    public void setGoogleSyncToken(String googleSyncToken) {
+        this.googleSyncToken = googleSyncToken;
+    }
+
+    public Long getGoogleSyncIntervalMs() {
+        return googleSyncIntervalMs;
+    }
+    public void setGoogleSyncIntervalMs(Long googleSyncIntervalMs) {
+        this.googleSyncIntervalMs = googleSyncIntervalMs;
+    }
+
+    public LocalDateTime getNextGoogleSyncAt() {
+        return nextGoogleSyncAt;
+    }
+    public void setNextGoogleSyncAt(LocalDateTime nextGoogleSyncAt) {
+        this.nextGoogleSyncAt = nextGoogleSyncAt;
+    }
+
     // Méthode utilitaire pour vérifier si l'utilisateur est connecté à Google
     public boolean isGoogleLinked() {
         return this.googleAccessToken != null && !this.googleAccessToken.isEmpty();
@@ -1,7 +1,10 @@
 package com.example.backend.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -42,9 +45,84 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // méthode de recherche pour éviter les doublons lors des synchronisations futures
     Optional<Event> findByGoogleEventId(String googleEventId);
 
+    /**
+     * Événements d'un utilisateur correspondant à un lot d'identifiants Google, en une requête.
+     * La localisation et la tâche liée (relations chargées immédiatement) sont jointes.
+     */
+    @Query("SELECT e FROM Event e LEFT JOIN FETCH e.location LEFT JOIN FETCH e.task " +
+           "WHERE e.user.id = :userId AND e.googleEventId IN :googleEventIds")
+    List<Event> findByUserIdAndGoogleEventIdIn(Long userId, Collection<String> googleEventIds);
+
+    /**
+     * Index googleEventId → événement local pour un lot d'identifiants (ex : une page d'import).
+     *
+     * @return une table modifiable, vide si {@code googleEventIds} est vide
+     */
+    default Map<String, Event> findByGoogleEventIds(Long userId, Collection<String> googleEventIds) {
+        Map<String, Event> byGoogleId = new HashMap<>();
+        if (googleEventIds.isEmpty()) {
+            return byGoogleId;
+        }
+        for (Event event : findByUserIdAndGoogleEventIdIn(userId, googleEventIds)) {
+            byGoogleId.putIfAbsent(event.getGoogleEventId(), event);
+        }
+        return byGoogleId;
+    }
+
+    /**
+     * Événements à exporter vers Google : suppressions en attente, modifications PENDING et
+     * créations locales jamais envoyées. Le prédicat reprend celui de l'index partiel
+     * {@code idx_event_needs_export} (schema-postgresql.sql) : sur PostgreSQL, le coût dépend
+     * du nombre de changements en attente, pas de l'historique de l'utilisateur.
+     */
+    @Query("SELECT e FROM Event e LEFT JOIN FETCH e.location LEFT JOIN FETCH e.task " +
+           "WHERE e.user.id = :userId " +
+           "AND (e.status = com.example.backend.model.Event.EventStatus.PENDING_DELETION " +
+           "OR e.syncStatus = com.example.backend.model.Event.SyncStatus.PENDING " +
+           "OR (e.source = com.example.backend.model.Event.EventSource.LOCAL AND e.googleEventId IS NULL))")
+    List<Event> findNeedingExport(Long userId);
+
     // Pour récupérer ce qui doit être envoyé vers Google
     List<Event> findByUser_IdAndSourceAndSyncStatus(Long userId, Event.EventSource source, Event.SyncStatus status);
 
     // Pour le nettoyage ou les logs
     List<Event> findByUser_IdAndLastSyncedAtAfter(Long userId, LocalDateTime since);
+
+    /**
+     * Référence légère vers un événement importé de Google (projection, sans chargement d'entité).
+     */
+    interface GoogleEventRef {
+        Long getId();
+        String getGoogleEventId();
+        Long getLocationId();
+    }
+
+    /**
+     * Identifiants des événements importés de Google d'un utilisateur.
+     * Sert à la détection des orphelins sans charger les entités ni leurs relations.
+     */
+    @Query("SELECT e.id AS id, e.googleEventId AS googleEventId, l.id AS locationId " +
+           "FROM Event e LEFT JOIN e.location l WHERE e.user.id = :userId " +
+           "AND e.source = com.example.backend.model.Event.EventSource.GOOGLE " +
+           "AND e.googleEventId IS NOT NULL")
+    List<GoogleEventRef> findGoogleEventRefs(Long userId);
+
+    /**
+     * Événements actifs modifiés depuis une date donnée : en attente d'export,
+     * jamais synchronisés, ou synchronisés après {@code since}.
+     * Sert à la détection incrémentale des conflits.
+     */
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId " +
+           "AND e.status <> com.example.backend.model.Event.EventStatus.PENDING_DELETION " +
+           "AND (e.syncStatus = com.example.backend.model.Event.SyncStatus.PENDING " +
+           "OR e.lastSyncedAt IS NULL OR e.lastSyncedAt > :since)")
+    List<Event> findTouchedSince(Long userId, LocalDateTime since);
+
+    /**
+     * Événements actifs qui chevauchent l'intervalle [start, end[.
+     */
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId " +
+           "AND e.status <> com.example.backend.model.Event.EventStatus.PENDING_DELETION " +
+           "AND e.startTime < :end AND e.endTime > :start")
+    List<Event> findOverlapping(Long userId, LocalDateTime start, LocalDateTime end);
 }
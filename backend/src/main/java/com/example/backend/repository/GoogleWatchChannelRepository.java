@@ -0,0 +1,54 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.GoogleWatchChannel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface GoogleWatchChannelRepository extends JpaRepository<GoogleWatchChannel, Long> {
+
+    List<GoogleWatchChannel> findByUserId(Long userId);
+
+    /**
+     * Marque l'utilisateur du canal à resynchroniser. Le canal doit être connu et le secret
+     * correspondre (0 = notification inconnue ou forgée).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE GoogleWatchChannel c SET c.dirtyAt = :notifiedAt " +
+           "WHERE c.channelId = :channelId AND c.token = :token AND c.resourceId = :resourceId")
+    int markDirty(String channelId, String token, String resourceId, LocalDateTime notifiedAt);
+
+    // Synchronisation ignorée (déjà en cours) : l'utilisateur reste à traiter
+    @Modifying
+    @Transactional
+    @Query("UPDATE GoogleWatchChannel c SET c.dirtyAt = :notifiedAt WHERE c.userId = :userId")
+    int markDirtyByUser(Long userId, LocalDateTime notifiedAt);
+
+    /**
+     * Utilisateurs notifiés, toujours liés à Google, par ancienneté de la notification.
+     */
+    @Query("SELECT c.userId FROM GoogleWatchChannel c WHERE c.dirtyAt IS NOT NULL " +
+           "AND EXISTS (SELECT u.id FROM User u WHERE u.id = c.userId " +
+           "AND u.googleAccessToken IS NOT NULL AND TRIM(u.googleAccessToken) <> '') " +
+           "GROUP BY c.userId ORDER BY MIN(c.dirtyAt)")
+    List<Long> findDirtyUserIds();
+
+    // Les notifications reçues après le début de la synchronisation sont conservées
+    @Modifying
+    @Transactional
+    @Query("UPDATE GoogleWatchChannel c SET c.dirtyAt = NULL " +
+           "WHERE c.userId = :userId AND c.dirtyAt <= :drainedUpTo")
+    int clearDirty(Long userId, LocalDateTime drainedUpTo);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GoogleWatchChannel c WHERE c.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,54 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.SyncOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncOutboxRepository extends JpaRepository<SyncOutboxEntry, Long> {
+
+    // Regroupe une nouvelle demande avec l'intention déjà en attente pour l'événement (0 = aucune)
+    @Modifying
+    @Query("UPDATE SyncOutboxEntry e SET e.lastRequestedAt = :requestedAt " +
+           "WHERE e.userId = :userId AND e.eventId = :eventId")
+    int touch(Long userId, Long eventId, LocalDateTime requestedAt);
+
+    /**
+     * Utilisateurs à synchroniser : aucune écriture depuis {@code quietSince}, ou première demande
+     * antérieure à {@code overdueSince} (les rafales continues ne retardent pas indéfiniment).
+     */
+    @Query("SELECT e.userId FROM SyncOutboxEntry e " +
+           "WHERE e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now " +
+           "GROUP BY e.userId " +
+           "HAVING MAX(e.lastRequestedAt) <= :quietSince OR MIN(e.firstRequestedAt) <= :overdueSince " +
+           "ORDER BY MIN(e.firstRequestedAt)")
+    List<Long> findReadyUserIds(LocalDateTime now, LocalDateTime quietSince, LocalDateTime overdueSince);
+
+    // Événements de l'utilisateur à exporter (hors nouvel essai programmé plus tard)
+    @Query("SELECT DISTINCT e.eventId FROM SyncOutboxEntry e " +
+           "WHERE e.userId = :userId AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now)")
+    List<Long> findReadyEventIds(Long userId, LocalDateTime now);
+
+    // Les demandes arrivées pendant l'export (lastRequestedAt postérieur) sont conservées
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncOutboxEntry e " +
+           "WHERE e.userId = :userId AND e.eventId = :eventId AND e.lastRequestedAt <= :drainedUpTo")
+    int deleteDrained(Long userId, Long eventId, LocalDateTime drainedUpTo);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncOutboxEntry e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :retryAt " +
+           "WHERE e.userId = :userId AND e.eventId = :eventId")
+    int markFailed(Long userId, Long eventId, LocalDateTime retryAt);
+
+    @Query("SELECT COALESCE(MAX(e.attempts), 0) FROM SyncOutboxEntry e " +
+           "WHERE e.userId = :userId AND e.eventId = :eventId")
+    int findAttempts(Long userId, Long eventId);
+}
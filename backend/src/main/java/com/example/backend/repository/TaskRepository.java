@@ -1,8 +1,12 @@
 package com.example.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.model.Task;
@@ -32,4 +36,28 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     void deleteByUser_IdAndPriority(Long userId, int priority);
 
     List<Task> findByUser_IdAndTitleContainingIgnoreCase(Long userId, String title);
+
+    // Utilisateurs ayant au moins une tâche à placer (non terminée, sans événement) : périmètre du reshuffle global
+    @Query("SELECT DISTINCT t.user.id FROM Task t WHERE t.event IS NULL " +
+           "AND t.status <> com.example.backend.model.Task.TaskStatus.DONE")
+    List<Long> findUserIdsWithUnscheduledTasks();
+
+    // Tâches non terminées et pas encore placées (reshuffle incrémental)
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.event IS NULL " +
+           "AND t.status <> com.example.backend.model.Task.TaskStatus.DONE")
+    List<Task> findUnscheduledByUserId(Long userId);
+
+    // Tâches non terminées dont l'événement chevauche [start, end[ (reshuffle incrémental)
+    @Query("SELECT t FROM Task t JOIN FETCH t.event e WHERE t.user.id = :userId " +
+           "AND t.status <> com.example.backend.model.Task.TaskStatus.DONE " +
+           "AND e.startTime < :end AND e.endTime > :start")
+    List<Task> findScheduledOverlapping(Long userId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Détache en masse les tâches planifiées sur les événements donnés (la tâche reste, sans créneau),
+     * comme le fait Event#preRemove lors d'une suppression unitaire.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.event = NULL WHERE t.event.id IN :eventIds")
+    int detachFromEvents(Collection<Long> eventIds);
 }
@@ -1,10 +1,13 @@
 package com.example.backend.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.model.Event;
@@ -48,4 +51,15 @@ public interface TravelTimeRepository extends JpaRepository<TravelTime, Long> {
      * @return liste des temps de trajet
      */
     Optional<TravelTime> findByFromEventAndToEvent(Event fromEvent, Event toEvent);
-}
\ No newline at end of file
+
+    /**
+     * Suppression groupée des temps de trajet partant de ou arrivant à l'un des événements
+     * (à exécuter avant la suppression groupée des événements : contourne les cascades JPA).
+     *
+     * @param eventIds les identifiants des événements
+     * @return le nombre de temps de trajet supprimés
+     */
+    @Modifying
+    @Query("DELETE FROM TravelTime t WHERE t.fromEvent.id IN :eventIds OR t.toEvent.id IN :eventIds")
+    int deleteByEventIds(Collection<Long> eventIds);
+}
@@ -1,9 +1,14 @@
 package com.example.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.backend.model.User;
 
@@ -28,4 +33,83 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     Optional<User> findById(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Identifiants des utilisateurs ayant lié un compte Google (token d'accès non vide),
+     * sans charger les entités.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.googleAccessToken IS NOT NULL " +
+           "AND TRIM(u.googleAccessToken) <> '' ORDER BY u.id")
+    List<Long> findIdsWithGoogleToken();
+
+    /**
+     * Utilisateurs liés à Google à interroger par le cycle planifié : sans canal de notifications
+     * actif et arrivés à leur échéance ({@code nextGoogleSyncAt}, voir SyncIntervalPolicy), ou dont
+     * la dernière synchronisation réussie est antérieure à {@code syncedBefore} (filet de sécurité
+     * contre les notifications perdues).
+     */
+    @Query("SELECT u.id FROM User u WHERE u.googleAccessToken IS NOT NULL " +
+           "AND TRIM(u.googleAccessToken) <> '' " +
+           "AND (u.lastGoogleSyncAt IS NULL OR u.lastGoogleSyncAt < :syncedBefore " +
+           "OR ((u.nextGoogleSyncAt IS NULL OR u.nextGoogleSyncAt <= :now) " +
+           "AND NOT EXISTS (SELECT c.id FROM GoogleWatchChannel c " +
+           "WHERE c.userId = u.id AND c.expiresAt > :now))) ORDER BY u.id")
+    List<Long> findIdsDueForPolling(LocalDateTime now, LocalDateTime syncedBefore);
+
+    /**
+     * Utilisateurs liés à Google sans canal de notifications valable au-delà de {@code renewBefore}
+     * (jamais ouvert, ou proche de l'expiration).
+     */
+    @Query("SELECT u.id FROM User u WHERE u.googleAccessToken IS NOT NULL " +
+           "AND TRIM(u.googleAccessToken) <> '' " +
+           "AND NOT EXISTS (SELECT c.id FROM GoogleWatchChannel c " +
+           "WHERE c.userId = u.id AND c.expiresAt > :renewBefore) ORDER BY u.id")
+    List<Long> findIdsNeedingWatchChannel(LocalDateTime renewBefore);
+
+    /**
+     * Enregistre des tokens Google rafraîchis sans réécrire le reste de l'utilisateur
+     * (l'entité de l'appelant peut être périmée).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.googleAccessToken = :accessToken, u.googleRefreshToken = :refreshToken, " +
+           "u.googleTokenExpiresAt = :expiresAt WHERE u.id = :userId")
+    int updateGoogleTokens(Long userId, String accessToken, String refreshToken, LocalDateTime expiresAt);
+
+    /**
+     * Ramène l'utilisateur à l'intervalle de synchronisation {@code intervalMs}, avec une échéance
+     * au plus tard à {@code dueBy} (une échéance plus proche est conservée).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.googleSyncIntervalMs = :intervalMs, u.nextGoogleSyncAt = " +
+           "CASE WHEN u.nextGoogleSyncAt IS NULL OR u.nextGoogleSyncAt > :dueBy THEN :dueBy " +
+           "ELSE u.nextGoogleSyncAt END WHERE u.id = :userId")
+    int resetGoogleSyncInterval(Long userId, Long intervalMs, LocalDateTime dueBy);
+
+    /**
+     * Enregistre une synchronisation réussie sans réécrire le reste de l'utilisateur : date de la
+     * synchronisation, intervalle et échéance calculés depuis {@code intervalAtStart} (-1 : aucun).
+     * Si l'intervalle ou l'échéance ont changé pendant la synchronisation (écriture locale, autre
+     * synchronisation), l'intervalle le plus court et l'échéance la plus proche sont conservés.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastGoogleSyncAt = :syncedAt, " +
+           "u.googleSyncIntervalMs = CASE WHEN (COALESCE(u.googleSyncIntervalMs, -1L) <> :intervalAtStart " +
+           "OR u.nextGoogleSyncAt > :syncedAt) AND u.googleSyncIntervalMs < :intervalMs " +
+           "THEN u.googleSyncIntervalMs ELSE :intervalMs END, " +
+           "u.nextGoogleSyncAt = CASE WHEN (COALESCE(u.googleSyncIntervalMs, -1L) <> :intervalAtStart " +
+           "OR u.nextGoogleSyncAt > :syncedAt) AND u.nextGoogleSyncAt < :nextSyncAt " +
+           "THEN u.nextGoogleSyncAt ELSE :nextSyncAt END WHERE u.id = :userId")
+    int recordGoogleSync(Long userId, LocalDateTime syncedAt, Long intervalAtStart, Long intervalMs,
+                         LocalDateTime nextSyncAt);
+
+    /**
+     * Reporte la prochaine synchronisation planifiée sans toucher à l'intervalle (après un échec).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.nextGoogleSyncAt = :nextSyncAt WHERE u.id = :userId")
+    int postponeGoogleSync(Long userId, LocalDateTime nextSyncAt);
+}
@@ -2,6 +2,7 @@ package com.example.backend.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import java.util.ArrayList;
 import java.util.List;
 import com.example.backend.service.parser.FileParsingService;
 import com.example.backend.service.impl.AISchedulingService;
@@ -49,16 +50,18 @@ public class AIWorkflowService {
      * ÉTAPE 2 : Transformer les records immuables en entités JPA persistantes.
      */
     public void saveValidatedTasks(List<AIProposedTask> proposals, User user) {
+        List<Task> tasks = new ArrayList<>();
         for (AIProposedTask dto : proposals) {
             Task t = new Task();
             t.setTitle(dto.title());
             t.setEstimatedDuration(dto.durationMinutes());
             t.setPriority(2); // Valeur par défaut
-            
-            // On appelle la méthode officielle du projet
-            // Cela va gérer le Status, l'Assignee, et les contraintes DB proprement
-            taskService.createTask(t, user.getId());
+            tasks.add(t);
         }
+
+        // On appelle la méthode officielle du projet (version groupée)
+        // Cela va gérer le Status, l'Assignee, et les contraintes DB proprement
+        taskService.createTasks(tasks, user.getId());
     }
 
     public void finalizeAndSchedule(AIPlanningResponse validatedResponse, User user) {
@@ -0,0 +1,231 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BulkReshuffleReport;
+import com.example.backend.dto.BulkReshuffleReport.UserTiming;
+import com.example.backend.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ré-optimisation de l'emploi du temps de tous les utilisateurs actifs.
+ *
+ * Chaque utilisateur est traité dans un thread virtuel ; un sémaphore borne le nombre
+ * de reshuffles simultanés. Chaque reshuffle réserve en plus sa connexion JDBC sur le
+ * {@link ConnectionBudget} partagé avec le cycle de synchronisation : les deux traitements
+ * peuvent se chevaucher sans épuiser le pool. Chaque appel à
+ * {@link ScheduleOptimizerService#reshuffle(Long)} passe par le proxy Spring et ouvre
+ * sa propre transaction : l'échec d'un utilisateur n'annule rien chez les autres.
+ */
+@Service
+public class BulkReshuffleService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkReshuffleService.class);
+
+    private final ScheduleOptimizerService optimizerService;
+    private final TaskRepository taskRepository;
+    private final ConnectionBudget connectionBudget;
+
+    @Value("${app.reshuffle.bulk.max-concurrency:8}")
+    private int maxConcurrency;
+
+    // Run en cours ou dernier run terminé (null tant qu'aucun run n'a eu lieu)
+    private volatile BulkRun currentRun;
+
+    public BulkReshuffleService(ScheduleOptimizerService optimizerService, TaskRepository taskRepository,
+                                ConnectionBudget connectionBudget) {
+        this.optimizerService = optimizerService;
+        this.taskRepository = taskRepository;
+        this.connectionBudget = connectionBudget;
+    }
+
+    /**
+     * Re-optimisation nocturne (désactivable avec app.reshuffle.bulk.cron=-).
+     */
+    @Scheduled(cron = "${app.reshuffle.bulk.cron:0 0 3 * * *}")
+    public void nightlyReshuffle() {
+        BulkRun run = tryStart();
+        if (run == null) {
+            log.warn("[BULK-RESHUFFLE] Run nocturne ignoré : un run est déjà en cours.");
+            return;
+        }
+        execute(run);
+    }
+
+    /**
+     * Lance un run en arrière-plan et rend la main immédiatement.
+     *
+     * @return le rapport initial, ou vide si un run est déjà en cours
+     */
+    public Optional<BulkReshuffleReport> startAsync() {
+        BulkRun run = tryStart();
+        if (run == null) {
+            return Optional.empty();
+        }
+        Thread.ofVirtual().name("bulk-reshuffle").start(() -> execute(run));
+        return Optional.of(run.toReport());
+    }
+
+    /**
+     * Lance un run et attend sa fin.
+     *
+     * @return le rapport final, ou vide si un run est déjà en cours
+     */
+    public Optional<BulkReshuffleReport> runNow() {
+        BulkRun run = tryStart();
+        if (run == null) {
+            return Optional.empty();
+        }
+        execute(run);
+        return Optional.of(run.toReport());
+    }
+
+    /**
+     * Progression du run en cours, ou rapport du dernier run.
+     */
+    public Optional<BulkReshuffleReport> getReport() {
+        BulkRun run = currentRun;
+        return run == null ? Optional.empty() : Optional.of(run.toReport());
+    }
+
+    private synchronized BulkRun tryStart() {
+        if (currentRun != null && currentRun.isRunning()) {
+            return null;
+        }
+        List<Long> userIds = taskRepository.findUserIdsWithUnscheduledTasks();
+        currentRun = new BulkRun(userIds, effectiveConcurrency());
+        return currentRun;
+    }
+
+    // Une connexion par reshuffle : jamais plus de reshuffles que de connexions au budget
+    private int effectiveConcurrency() {
+        int poolCap = connectionBudget.capacity();
+        if (maxConcurrency > poolCap) {
+            log.warn("[BULK-RESHUFFLE] Parallélisme {} ramené à {} (budget de {} connexions).",
+                     maxConcurrency, poolCap, poolCap);
+        }
+        return Math.max(1, Math.min(maxConcurrency, poolCap));
+    }
+
+    private void execute(BulkRun run) {
+        log.info("[BULK-RESHUFFLE] Démarrage : {} utilisateur(s), {} en parallèle maximum.",
+                 run.userIds.size(), run.maxConcurrency);
+
+        Semaphore permits = new Semaphore(run.maxConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long userId : run.userIds) {
+                executor.submit(() -> reshuffleUser(run, permits, userId));
+            }
+        } // close() attend la fin de tous les utilisateurs
+        run.finish();
+
+        BulkReshuffleReport report = run.toReport();
+        log.info("[BULK-RESHUFFLE] Terminé en {} ms. Succès : {}, Échecs : {}, Débit : {} utilisateurs/s",
+                 report.elapsedMs(), report.succeeded(), report.failed(),
+                 String.format("%.1f", report.usersPerSecond()));
+    }
+
+    private void reshuffleUser(BulkRun run, Semaphore permits, Long userId) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.record(new UserTiming(userId, 0, false, "Interrompu"));
+            return;
+        }
+        try {
+            connectionBudget.acquire(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permits.release();
+            run.record(new UserTiming(userId, 0, false, "Interrompu"));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            optimizerService.reshuffle(userId);
+            run.record(new UserTiming(userId, elapsedMs(start), true, null));
+        } catch (Exception e) {
+            // Isolation : une erreur sur un utilisateur ne bloque pas les autres
+            log.error("[BULK-RESHUFFLE] Erreur pour l'utilisateur {} : {}", userId, e.getMessage(), e);
+            run.record(new UserTiming(userId, elapsedMs(start), false, e.getMessage()));
+        } finally {
+            connectionBudget.release(1);
+            permits.release();
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * État mutable d'un run, partagé entre les threads virtuels.
+     */
+    private static final class BulkRun {
+        private final List<Long> userIds;
+        private final int maxConcurrency;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final Queue<UserTiming> timings = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+
+        private BulkRun(List<Long> userIds, int maxConcurrency) {
+            this.userIds = userIds;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        private boolean isRunning() {
+            return finishedAt == null;
+        }
+
+        private void record(UserTiming timing) {
+            timings.add(timing);
+            (timing.success() ? succeeded : failed).incrementAndGet();
+        }
+
+        private void finish() {
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+        }
+
+        private BulkReshuffleReport toReport() {
+            boolean running = isRunning();
+            long elapsedMs = ((running ? System.nanoTime() : finishedNanos) - startNanos) / 1_000_000;
+            int processed = succeeded.get() + failed.get();
+            double progress = userIds.isEmpty() ? 100.0 : processed * 100.0 / userIds.size();
+            double throughput = elapsedMs == 0 ? 0.0 : processed * 1000.0 / elapsedMs;
+
+            return new BulkReshuffleReport(
+                    running ? "RUNNING" : "COMPLETED",
+                    startedAt,
+                    finishedAt,
+                    maxConcurrency,
+                    userIds.size(),
+                    processed,
+                    succeeded.get(),
+                    failed.get(),
+                    progress,
+                    elapsedMs,
+                    throughput,
+                    new ArrayList<>(timings));
+        }
+    }
+}
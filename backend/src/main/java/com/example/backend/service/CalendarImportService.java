@@ -4,11 +4,12 @@ import com.example.backend.model.Event;
 import com.example.backend.model.Location;
 import com.example.backend.model.User;
 import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.LocationRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TravelTimeRepository;
 import com.example.backend.service.parser.ICalendarParser;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.EventDateTime;
@@ -18,16 +19,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,19 +48,43 @@ public class CalendarImportService {
 
     private static final Logger log         = LoggerFactory.getLogger(CalendarImportService.class);
     private static final String CALENDAR_ID = "primary";
+    private static final String STATUS_CANCELLED = "cancelled";
+    private static final int    HTTP_GONE        = 410;
+    private static final int    MAX_PAGE_SIZE    = 2500;
+    // Identifiants par requête de suppression groupée (bien en deçà des limites de paramètres JDBC)
+    private static final int    ORPHAN_DELETE_BATCH = 5000;
 
     @Value("${google.calendar.timezone:Europe/Paris}")
-    private String defaultTimezone;
-
-    @Value("${google.calendar.sync.window.days:2}")
-    private int syncWindowDays;
-
-    private final EventRepository eventRepository;
-    private final ICalendarParser  parser;
-
-    public CalendarImportService(EventRepository eventRepository, ICalendarParser parser) {
-        this.eventRepository = eventRepository;
-        this.parser          = parser;
+    private String defaultTimezone = "Europe/Paris";
+
+    // Taille des pages demandées à Google (maximum accepté par l'API : 2500)
+    @Value("${google.calendar.sync.page-size:250}")
+    private int pageSize = 250;
+
+    private final EventRepository      eventRepository;
+    private final TravelTimeRepository travelTimeRepository;
+    private final TaskRepository       taskRepository;
+    private final LocationRepository   locationRepository;
+    private final ICalendarParser      parser;
+    private final GoogleCalendarClientFactory clientFactory;
+    private final TransactionTemplate  pageTransaction;
+
+    public CalendarImportService(EventRepository eventRepository,
+                                 TravelTimeRepository travelTimeRepository,
+                                 TaskRepository taskRepository,
+                                 LocationRepository locationRepository,
+                                 ICalendarParser parser,
+                                 GoogleCalendarClientFactory clientFactory,
+                                 PlatformTransactionManager transactionManager) {
+        this.eventRepository      = eventRepository;
+        this.travelTimeRepository = travelTimeRepository;
+        this.taskRepository       = taskRepository;
+        this.locationRepository   = locationRepository;
+        this.parser               = parser;
+        this.clientFactory        = clientFactory;
+        // Une transaction par page importée, indépendante de celle de la synchronisation
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.pageTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     // ── existing ICS file import (unchanged) ────────────────────────────────
@@ -61,24 +98,18 @@ public class CalendarImportService {
     }
 
     // ── authenticated Calendar client ────────────────────────────────────────
-    private Calendar buildCalendarClient(User user) throws IOException, GeneralSecurityException {
-        GoogleCredential credential = new GoogleCredential();
-        credential.setAccessToken(user.getGoogleAccessToken());
-
-        return new Calendar.Builder(
-                GoogleNetHttpTransport.newTrustedTransport(),
-                JacksonFactory.getDefaultInstance(),
-                credential)
-                .setApplicationName("EDT-Intelligent")
-                .build();
+    Calendar buildCalendarClient(User user) {
+        return clientFactory.clientFor(user);
     }
 
     // ── pull Google events into the local DB with deduplication ──────────────
     /**
      * Synchronise les événements Google Calendar vers la base de données locale.
      * 
-     * CORRECTION : Cette méthode a été améliorée pour mieux gérer les mises à jour
-     * d'événements existants, notamment les changements d'horaires.
+     * Import incrémental : si l'utilisateur possède un jeton de synchronisation (nextSyncToken
+     * de l'import précédent), seuls les événements créés, modifiés ou annulés depuis sont demandés.
+     * Sans jeton, ou si Google l'a invalidé (410 Gone), une synchronisation complète paginée
+     * est effectuée puis le nouveau jeton est conservé sur l'utilisateur.
      * 
      * @param user L'utilisateur dont on synchronise les événements
      * @return Le nombre d'événements importés/mis à jour
@@ -91,204 +122,387 @@ public class CalendarImportService {
             throw new RuntimeException("Token Google non disponible");
         }
 
-        // 1. Définir une date de début loin dans le passé (ex: il y a 1 an ou 30 jours)
-        // Cela permet de récupérer les événements même si l'horloge du serveur est déréglée (2026)
-        long pastTime = System.currentTimeMillis() - (365L * 24 * 60 * 60 * 1000); // -1 an
-        
-        ZoneId  zone        = ZoneId.of(defaultTimezone);
-        Instant windowStart = Instant.now();
-        Instant windowEnd   = Instant.now().plusSeconds(syncWindowDays * 24L * 60 * 60);
-
-        int importedCount = 0;
-        int updatedCount = 0;
+        ZoneId zone = ZoneId.of(defaultTimezone);
 
         try {
             Calendar client = buildCalendarClient(user);
 
-            // CORRECTION : Récupération de TOUS les événements (pas de limite à 20)
-            // ou augmentation significative de la limite
-            Events events = client.events().list(CALENDAR_ID)
-                    .setMaxResults(100) // Augmenté de 20 à 100 pour couvrir plus d'événements
-                    .setTimeMin(new DateTime(pastTime))
-                    .setOrderBy("startTime")
-                    .setSingleEvents(true)
-                    .execute();
-
-            log.info("[PULL] Requête envoyée avec timeMin = {}", new DateTime(pastTime));
-            log.info("[PULL] Nombre d'événements trouvés : {}", events.getItems() != null ? events.getItems().size() : 0);
-
-            if (events.getItems() == null || events.getItems().isEmpty()) {
-                log.info("[PULL] Aucun événement Google pour l'utilisateur {}.", user.getId());
-                
-                // ── GESTION DES SUPPRESSIONS même si la liste est vide ──────────────────────
-                // Si Google ne retourne aucun événement, tous les événements locaux de source GOOGLE
-                // doivent être considérés comme supprimés
-                int deletedCount = deleteOrphanedGoogleEvents(user, events.getItems());
-                if (deletedCount > 0) {
-                    log.info("[PULL] {} événement(s) supprimé(s) car absents de Google Calendar", deletedCount);
+            if (user.getGoogleSyncToken() != null) {
+                try {
+                    return pullIncremental(client, user, zone);
+                } catch (GoogleJsonResponseException e) {
+                    if (e.getStatusCode() != HTTP_GONE) {
+                        throw e;
+                    }
+                    // Jeton expiré ou invalidé côté Google : on repart de zéro
+                    log.warn("[PULL] Jeton de synchronisation expiré pour l'utilisateur {} (410 Gone) : "
+                            + "synchronisation complète.", user.getId());
+                    user.setGoogleSyncToken(null);
                 }
-                
-                return 0;
             }
 
-            log.info("[PULL] {} événement(s) trouvé(s) dans Google Calendar pour l'utilisateur {}", 
-                    events.getItems().size(), user.getId());
-            
-            for (var gEvent : events.getItems()) {
-                String        googleId = gEvent.getId();
-                String        summary  = gEvent.getSummary() != null ? gEvent.getSummary() : "Sans titre";
-                LocalDateTime start    = toLocalDateTime(gEvent.getStart(),  zone);
-                LocalDateTime end      = toLocalDateTime(gEvent.getEnd(),    zone);
-
-                // Récupération de la localisation
-                String googleLocation = gEvent.getLocation();
-
-                Optional<Event> existing = eventRepository.findByGoogleEventId(googleId);
-
-                if (existing.isPresent()) {
-                    // Amélioration de la logique de mise à jour
-                    Event toUpdate = existing.get();
-
-                    // Si syncStatus == PENDING, l'utilisateur a fait une modification
-                    // manuelle qui n'a pas encore été envoyée à Google.
-                    // On laisse pushLocalEventsToGoogle() gérer la réconciliation.
-
-                    if (toUpdate.getSyncStatus() == Event.SyncStatus.PENDING) {
-                        log.info("[PULL] Événement '{}' (id={}) ignoré lors de l'import : " +
-                                "modification locale en attente d'export (syncStatus=PENDING).",
-                                toUpdate.getSummary(), toUpdate.getId());
-                        continue; // <- skip, on ne touche pas à cet événement
-                    }
+            return pullFull(client, user, zone);
 
-                    boolean hasChanged = false;
+        } catch (IOException e) {
+            log.error("[PULL] Erreur I/O lors de l'import pour l'utilisateur {} : {}",
+                      user.getId(), e.getMessage());
+            throw new RuntimeException("Erreur de communication avec Google Calendar: " + e.getMessage(), e);
 
-                    // Comparaison et mise à jour du titre avec log détaillé
-                    if (!toUpdate.getSummary().equals(summary)) {
-                        toUpdate.setSummary(summary);
-                        hasChanged = true;
-                    }
+            
+        } catch (Exception e) {
+            log.error("[PULL] Erreur inattendue lors de l'import pour l'utilisateur {} : {}",
+                      user.getId(), e.getMessage(), e);
+            throw new RuntimeException("Erreur inattendue lors de la synchronisation", e);
+        }
+    }
 
-                    // CORRECTION CRITIQUE : Comparaison des dates avec log détaillé pour déboguer
-                    if (!toUpdate.getStartTime().equals(start)) {
-                        toUpdate.setStartTime(start);
-                        hasChanged = true;
-                    }
-                    
-                    if (!toUpdate.getEndTime().equals(end)) {
-                        toUpdate.setEndTime(end);
-                        hasChanged = true;
-                    }
+    /**
+     * Synchronisation complète : toutes les pages depuis un an, puis suppression des
+     * événements locaux absents de Google. Seuls les identifiants Google sont conservés
+     * entre les pages pour la détection des orphelins.
+     */
+    private int pullFull(Calendar client, User user, ZoneId zone) throws IOException {
+        Set<String> currentGoogleIds = new HashSet<>();
+        int[] changedCount = {0};
+
+        PullSummary summary = streamPages(client, user, null, page -> {
+            for (var gEvent : page) {
+                if (gEvent.getId() != null && !gEvent.getId().isBlank()) {
+                    currentGoogleIds.add(gEvent.getId());
+                }
+            }
+            changedCount[0] += inPageTransaction(() -> applyGoogleEvents(user, page, zone));
+        });
+
+        log.info("[PULL] Synchronisation complète pour l'utilisateur {} : {} événement(s) Google sur {} page(s) en {} ms",
+                user.getId(), summary.items(), summary.pages(), summary.elapsedMs());
+
+        // ── GESTION DES SUPPRESSIONS (Google → Local) ───────────────────────────────
+        // Si un événement a été supprimé sur Google, il ne figure plus dans la liste retournée.
+        // On doit donc identifier et supprimer les événements locaux orphelins.
+        int deletedCount = inPageTransaction(() -> deleteOrphanedGoogleEvents(user, currentGoogleIds));
+        if (deletedCount > 0) {
+            log.info("[PULL] {} événement(s) supprimé(s) car absents de Google Calendar", deletedCount);
+        }
 
-                    // Mise à jour de la localisation
-                    if (updateLocationIfNeeded(toUpdate, googleLocation)) {
-                        hasChanged = true;
-                    }
+        user.setGoogleSyncToken(summary.nextSyncToken());
+        return changedCount[0];
+    }
 
-                    if (hasChanged) {
-                        // AJOUT IMPORTANT : Mise à jour du timestamp de synchronisation et du statut
-                        toUpdate.setLastSyncedAt(LocalDateTime.now());
-                        toUpdate.setSyncStatus(Event.SyncStatus.SYNCED);
-                        
-                        eventRepository.save(toUpdate);
-                        updatedCount++;
-                        log.debug("[PULL] Événement {} mis à jour.", googleId);
-                    }
+    /**
+     * Synchronisation incrémentale : seuls les changements depuis le jeton enregistré.
+     * Les événements annulés (status = cancelled) sont supprimés localement.
+     *
+     * @throws GoogleJsonResponseException 410 si Google a invalidé le jeton
+     */
+    private int pullIncremental(Calendar client, User user, ZoneId zone) throws IOException {
+        int[] counts = {0, 0};
+
+        PullSummary summary = streamPages(client, user, user.getGoogleSyncToken(), page -> {
+            List<com.google.api.services.calendar.model.Event> changed = new ArrayList<>();
+            Set<String> cancelledIds = new HashSet<>();
+            for (var gEvent : page) {
+                if (STATUS_CANCELLED.equals(gEvent.getStatus())) {
+                    cancelledIds.add(gEvent.getId());
                 } else {
-                    Event newEvent = new Event(summary, start, end, user);
-                    newEvent.setGoogleEventId(googleId);
-                    newEvent.setSource(Event.EventSource.GOOGLE);
-                    newEvent.setLastSyncedAt(LocalDateTime.now());
-                    newEvent.setSyncStatus(Event.SyncStatus.SYNCED);
-                    
-                    // Mise à jour de la localisation lors de la création
-                    if (googleLocation != null && !googleLocation.trim().isEmpty()) {
-                        Location location = new Location();
-                        location.setAddress(googleLocation);
-                        newEvent.setLocation(location);
-                        log.debug("[PULL] Localisation définie : {}", googleLocation);
+                    changed.add(gEvent);
+                }
+            }
+            inPageTransaction(() -> {
+                counts[0] += applyGoogleEvents(user, changed, zone);
+                counts[1] += deleteCancelledGoogleEvents(user, cancelledIds);
+                return null;
+            });
+        });
+
+        if (summary.items() == 0) {
+            log.debug("[PULL] Aucun changement Google pour l'utilisateur {}.", user.getId());
+        } else {
+            log.info("[PULL] Synchronisation incrémentale pour l'utilisateur {} : {} changement(s) sur {} page(s) en {} ms",
+                    user.getId(), summary.items(), summary.pages(), summary.elapsedMs());
+        }
+        if (counts[1] > 0) {
+            log.info("[PULL] {} événement(s) supprimé(s) car annulés dans Google Calendar", counts[1]);
+        }
+
+        user.setGoogleSyncToken(summary.nextSyncToken());
+        return counts[0];
+    }
+
+    /**
+     * Bilan d'un parcours de pages.
+     */
+    private record PullSummary(int pages, int items, long elapsedMs, String nextSyncToken) {}
+
+    /**
+     * Parcourt le listing Google page par page, en flux : la page k+1 est demandée pendant que
+     * la page k est traitée. Au plus deux pages sont en mémoire (celle traitée et celle en vol),
+     * quelle que soit la taille de l'agenda.
+     *
+     * @param syncToken   jeton de synchronisation, ou null pour une synchronisation complète
+     * @param pageHandler traitement d'une page (appelé dans le thread appelant, pages dans l'ordre)
+     */
+    private PullSummary streamPages(Calendar client, User user, String syncToken,
+                                    Consumer<List<com.google.api.services.calendar.model.Event>> pageHandler)
+            throws IOException {
+        // Date de début loin dans le passé (il y a 1 an) : couvre une horloge serveur déréglée
+        DateTime timeMin = new DateTime(System.currentTimeMillis() - (365L * 24 * 60 * 60 * 1000));
+        long started = System.nanoTime();
+        int pages = 0;
+        int items = 0;
+
+        // Les threads de préchargement héritent de la priorité de l'appelant (quota Google partagé)
+        GoogleApiRateLimiter.Priority priority = GoogleApiRateLimiter.currentPriority();
+        try (ExecutorService fetcher = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Events> next = fetcher.submit(() -> GoogleApiRateLimiter.callWithPriority(priority,
+                    () -> fetchPage(client, syncToken, timeMin, null)));
+            long fetchStarted = System.nanoTime();
+            try {
+                while (true) {
+                    Events page = awaitPage(next);
+                    long fetchMs = elapsedMs(fetchStarted);
+                    pages++;
+
+                    // Préchargement de la page suivante pendant le traitement de celle-ci
+                    String pageToken = page.getNextPageToken();
+                    next = pageToken == null ? null
+                            : fetcher.submit(() -> GoogleApiRateLimiter.callWithPriority(priority,
+                                    () -> fetchPage(client, syncToken, timeMin, pageToken)));
+                    fetchStarted = System.nanoTime();
+
+                    List<com.google.api.services.calendar.model.Event> pageItems =
+                            page.getItems() != null ? page.getItems() : List.of();
+                    long applyStarted = System.nanoTime();
+                    pageHandler.accept(pageItems);
+                    items += pageItems.size();
+
+                    log.debug("[PULL] Utilisateur {} – page {} : {} événement(s), attente {} ms, traitement {} ms",
+                            user.getId(), pages, pageItems.size(), fetchMs, elapsedMs(applyStarted));
+
+                    if (next == null) {
+                        return new PullSummary(pages, items, elapsedMs(started), page.getNextSyncToken());
                     }
-                    
-                    eventRepository.save(newEvent);
-                    importedCount++;
-                    log.debug("[PULL] Nouvel événement importé (googleId={}, titre={}).", googleId, summary);
+                }
+            } finally {
+                if (next != null) {
+                    next.cancel(true);
                 }
             }
+        }
+    }
 
-            log.info("[PULL] Synchronisation terminée pour l'utilisateur {} : {} nouveaux, {} mis à jour", 
-                    user.getId(), importedCount, updatedCount);
+    private Events fetchPage(Calendar client, String syncToken, DateTime timeMin, String pageToken)
+            throws IOException {
+        Calendar.Events.List request = client.events().list(CALENDAR_ID)
+                .setMaxResults(Math.min(Math.max(1, pageSize), MAX_PAGE_SIZE))
+                .setSingleEvents(true)
+                .setPageToken(pageToken);
+        if (syncToken != null) {
+            // timeMin est interdit avec un syncToken : la fenêtre est celle de la synchronisation complète
+            request.setSyncToken(syncToken);
+        } else {
+            request.setTimeMin(timeMin);
+        }
+        return request.execute();
+    }
 
-            // ── GESTION DES SUPPRESSIONS (Google → Local) ───────────────────────────────
-            // Si un événement a été supprimé sur Google, il ne figure plus dans la liste retournée.
-            // On doit donc identifier et supprimer les événements locaux orphelins.
-            int deletedCount = deleteOrphanedGoogleEvents(user, events.getItems());
-            
-            if (deletedCount > 0) {
-                log.info("[PULL] {} événement(s) supprimé(s) car absents de Google Calendar", deletedCount);
+    private static Events awaitPage(Future<Events> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import Google interrompu", e);
+        } catch (ExecutionException e) {
+            // Remonte l'erreur d'origine (ex : 410 Gone) telle quelle
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
             }
+            throw new IOException(e.getCause());
+        }
+    }
 
-            return importedCount + updatedCount;
+    /**
+     * Exécute le traitement d'une page dans sa propre transaction courte : les écritures d'une
+     * page sont validées sans attendre la fin de l'import.
+     */
+    private <T> T inPageTransaction(Supplier<T> work) {
+        return pageTransaction.execute(status -> work.get());
+    }
 
-        } catch (IOException e) {
-            log.error("[PULL] Erreur I/O lors de l'import pour l'utilisateur {} : {}",
-                      user.getId(), e.getMessage());
-            throw new RuntimeException("Erreur de communication avec Google Calendar: " + e.getMessage(), e);
-            
-        } catch (GeneralSecurityException e) {
-            log.error("[PULL] Erreur de sécurité lors de l'import pour l'utilisateur {} : {}",
-                      user.getId(), e.getMessage());
-            throw new RuntimeException("Erreur de sécurité lors de la connexion à Google", e);
-            
-        } catch (Exception e) {
-            log.error("[PULL] Erreur inattendue lors de l'import pour l'utilisateur {} : {}",
-                      user.getId(), e.getMessage(), e);
-            throw new RuntimeException("Erreur inattendue lors de la synchronisation", e);
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Crée ou met à jour les événements locaux correspondant aux événements Google reçus.
+     *
+     * @return le nombre d'événements créés ou modifiés
+     */
+    private int applyGoogleEvents(User user, List<com.google.api.services.calendar.model.Event> googleEvents,
+                                  ZoneId zone) {
+        int importedCount = 0;
+        int updatedCount = 0;
+
+        // Créations et mises à jour envoyées en un seul saveAll (lots JDBC)
+        List<Event> toSave = new ArrayList<>();
+
+        // Résolution des événements locaux de la page en une seule requête IN
+        Map<String, Event> localByGoogleId = eventRepository.findByGoogleEventIds(user.getId(),
+                googleEvents.stream()
+                        .map(com.google.api.services.calendar.model.Event::getId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()));
+
+        for (var gEvent : googleEvents) {
+            String        googleId = gEvent.getId();
+            String        summary  = gEvent.getSummary() != null ? gEvent.getSummary() : "Sans titre";
+            LocalDateTime start    = toLocalDateTime(gEvent.getStart(),  zone);
+            LocalDateTime end      = toLocalDateTime(gEvent.getEnd(),    zone);
+
+            // Récupération de la localisation
+            String googleLocation = gEvent.getLocation();
+
+            Event existing = localByGoogleId.get(googleId);
+
+            if (existing != null) {
+                Event toUpdate = existing;
+
+                // Si syncStatus == PENDING, l'utilisateur a fait une modification
+                // manuelle qui n'a pas encore été envoyée à Google.
+                // On laisse pushLocalEventsToGoogle() gérer la réconciliation.
+
+                if (toUpdate.getSyncStatus() == Event.SyncStatus.PENDING) {
+                    log.info("[PULL] Événement '{}' (id={}) ignoré lors de l'import : " +
+                            "modification locale en attente d'export (syncStatus=PENDING).",
+                            toUpdate.getSummary(), toUpdate.getId());
+                    continue; // <- skip, on ne touche pas à cet événement
+                }
+
+                boolean hasChanged = false;
+
+                if (!toUpdate.getSummary().equals(summary)) {
+                    toUpdate.setSummary(summary);
+                    hasChanged = true;
+                }
+
+                if (!toUpdate.getStartTime().equals(start)) {
+                    toUpdate.setStartTime(start);
+                    hasChanged = true;
+                }
+                
+                if (!toUpdate.getEndTime().equals(end)) {
+                    toUpdate.setEndTime(end);
+                    hasChanged = true;
+                }
+
+                // Mise à jour de la localisation
+                if (updateLocationIfNeeded(toUpdate, googleLocation)) {
+                    hasChanged = true;
+                }
+
+                if (hasChanged) {
+                    toUpdate.setLastSyncedAt(LocalDateTime.now());
+                    toUpdate.setSyncStatus(Event.SyncStatus.SYNCED);
+                    
+                    toSave.add(toUpdate);
+                    updatedCount++;
+                    log.debug("[PULL] Événement {} mis à jour.", googleId);
+                }
+            } else {
+                Event newEvent = new Event(summary, start, end, user);
+                newEvent.setGoogleEventId(googleId);
+                newEvent.setSource(Event.EventSource.GOOGLE);
+                newEvent.setLastSyncedAt(LocalDateTime.now());
+                newEvent.setSyncStatus(Event.SyncStatus.SYNCED);
+                
+                // Mise à jour de la localisation lors de la création
+                if (googleLocation != null && !googleLocation.trim().isEmpty()) {
+                    Location location = new Location();
+                    location.setAddress(googleLocation);
+                    newEvent.setLocation(location);
+                    log.debug("[PULL] Localisation définie : {}", googleLocation);
+                }
+                
+                toSave.add(newEvent);
+                localByGoogleId.put(googleId, newEvent);
+                importedCount++;
+                log.debug("[PULL] Nouvel événement importé (googleId={}, titre={}).", googleId, summary);
+            }
+        }
+
+        eventRepository.saveAll(toSave);
+
+        if (importedCount + updatedCount > 0) {
+            log.info("[PULL] Synchronisation terminée pour l'utilisateur {} : {} nouveaux, {} mis à jour",
+                    user.getId(), importedCount, updatedCount);
         }
+        return importedCount + updatedCount;
+    }
+
+    /**
+     * Supprime les événements locaux (source = GOOGLE) annulés sur Google Calendar.
+     *
+     * @param user         L'utilisateur concerné
+     * @param cancelledIds Les googleEventId marqués « cancelled » par la synchronisation incrémentale
+     * @return Le nombre d'événements supprimés
+     */
+    private int deleteCancelledGoogleEvents(User user, Set<String> cancelledIds) {
+        List<Event> cancelled = eventRepository.findByGoogleEventIds(user.getId(), cancelledIds).values().stream()
+                .filter(e -> e.getSource() == Event.EventSource.GOOGLE)
+                .collect(Collectors.toList());
+        for (Event event : cancelled) {
+            log.debug("[PULL] Suppression de l'événement annulé '{}' (googleId={})",
+                     event.getSummary(), event.getGoogleEventId());
+        }
+        eventRepository.deleteAll(cancelled);
+        return cancelled.size();
     }
 
     /**
      * Supprime les événements locaux qui proviennent de Google mais qui n'existent plus sur Google Calendar.
      * 
-     * Cette méthode compare les googleEventId présents en base locale avec ceux retournés par l'API Google.
-     * Les événements locaux orphelins (source = GOOGLE mais absents de la liste Google) sont supprimés.
+     * Les identifiants locaux (projection légère, sans charger les entités) sont confrontés à l'ensemble
+     * des googleEventId retournés par l'API, en temps linéaire. Les orphelins sont ensuite supprimés
+     * par requêtes groupées ; les cascades JPA ne s'appliquant pas aux suppressions en masse,
+     * les dépendances sont traitées explicitement, dans l'ordre des clés étrangères :
+     * temps de trajet, lien des tâches (conservées, sans créneau), événements, puis localisations.
      * 
      * @param user L'utilisateur concerné
-     * @param googleEvents La liste des événements actuellement présents sur Google Calendar
+     * @param currentGoogleIds Les identifiants des événements actuellement présents sur Google Calendar
      * @return Le nombre d'événements supprimés
      */
-    
-    private int deleteOrphanedGoogleEvents(User user, List<com.google.api.services.calendar.model.Event> googleEvents) {
-        // 1. Extraire les googleEventId actuellement sur Google
-        List<String> currentGoogleIds = googleEvents != null ? googleEvents.stream()
-                .map(com.google.api.services.calendar.model.Event::getId)
-                .filter(id -> id != null && !id.trim().isEmpty())
-                .collect(Collectors.toList()) : List.of();
-
-        // 2. Récupérer tous les événements locaux de l'utilisateur ayant une source GOOGLE
-        List<Event> localGoogleEvents = eventRepository.findByUser_Id(user.getId()).stream()
-                .filter(e -> e.getSource() == Event.EventSource.GOOGLE)
-                .filter(e -> e.getGoogleEventId() != null && !e.getGoogleEventId().trim().isEmpty())
-                .collect(Collectors.toList());
-
-        // 3. Identifier les événements locaux qui ne sont plus sur Google
-        List<Event> orphanedEvents = localGoogleEvents.stream()
-                .filter(localEvent -> !currentGoogleIds.contains(localEvent.getGoogleEventId()))
-                .collect(Collectors.toList());
-
-        // 4. Supprimer les événements orphelins
-        int deletedCount = 0;
-        for (Event orphan : orphanedEvents) {
-            try {
-                log.debug("[PULL] Suppression de l'événement orphelin '{}' (googleId={})", 
-                         orphan.getSummary(), orphan.getGoogleEventId());
-                eventRepository.delete(orphan);
-                deletedCount++;
-            } catch (Exception e) {
-                log.error("[PULL] Erreur lors de la suppression de l'événement orphelin {} : {}", 
-                         orphan.getId(), e.getMessage());
+    private int deleteOrphanedGoogleEvents(User user, Set<String> currentGoogleIds) {
+        List<Long> orphanIds = new ArrayList<>();
+        List<Long> orphanLocationIds = new ArrayList<>();
+        for (EventRepository.GoogleEventRef ref : eventRepository.findGoogleEventRefs(user.getId())) {
+            if (!ref.getGoogleEventId().isBlank() && !currentGoogleIds.contains(ref.getGoogleEventId())) {
+                orphanIds.add(ref.getId());
+                if (ref.getLocationId() != null) {
+                    orphanLocationIds.add(ref.getLocationId());
+                }
             }
         }
+        if (orphanIds.isEmpty()) {
+            return 0;
+        }
+
+        // Lots bornés : le nombre de paramètres d'une clause IN est limité par les pilotes JDBC
+        for (int from = 0; from < orphanIds.size(); from += ORPHAN_DELETE_BATCH) {
+            List<Long> batch = orphanIds.subList(from, Math.min(orphanIds.size(), from + ORPHAN_DELETE_BATCH));
+            travelTimeRepository.deleteByEventIds(batch);
+            taskRepository.detachFromEvents(batch);
+            eventRepository.deleteAllByIdInBatch(batch);
+        }
+        for (int from = 0; from < orphanLocationIds.size(); from += ORPHAN_DELETE_BATCH) {
+            locationRepository.deleteAllByIdInBatch(
+                    orphanLocationIds.subList(from, Math.min(orphanLocationIds.size(), from + ORPHAN_DELETE_BATCH)));
+        }
 
-        return deletedCount;
+        log.debug("[PULL] Événements orphelins supprimés pour l'utilisateur {} : {}", user.getId(), orphanIds);
+        return orphanIds.size();
     }
 
     /**
@@ -1,66 +1,296 @@
 package com.example.backend.service;
 
-import com.example.backend.model.User;
+import com.example.backend.dto.SyncCycleReport;
+import com.example.backend.dto.SyncCycleReport.Outcome;
+import com.example.backend.dto.SyncCycleReport.UserSyncTiming;
+import com.example.backend.repository.GoogleWatchChannelRepository;
 import com.example.backend.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Synchronisation planifiée de tous les utilisateurs liés à Google.
+ *
+ * Chaque utilisateur est synchronisé dans son propre thread virtuel ; un sémaphore partagé entre
+ * les cycles borne le nombre de synchronisations simultanées. Une synchronisation mobilise deux
+ * connexions JDBC (la transaction de {@link CalendarSyncService#syncUser(Long)} et celle de la page
+ * importée, en REQUIRES_NEW) : le parallélisme est donc maintenu sous la moitié du pool, et les
+ * deux connexions sont réservées sur le {@link ConnectionBudget} partagé avec le reshuffle global.
+ *
+ * Un utilisateur qui dépasse le délai est compté en échec (TIMED_OUT) sans bloquer le cycle ;
+ * tant que sa synchronisation tourne encore, les cycles suivants l'ignorent (SKIPPED).
+ *
+ * Chaque utilisateur a sa propre échéance ({@link SyncIntervalPolicy}) : le cycle, lancé toutes
+ * les {@code app.sync.rate} ms, ne synchronise que les utilisateurs arrivés à échéance. Un échec
+ * reporte l'utilisateur de l'intervalle initial au lieu de le relancer à chaque passage.
+ *
+ * Les utilisateurs notifiés par Google (canal {@code events.watch}, voir {@link GoogleWatchService})
+ * sont synchronisés dans les secondes qui suivent par {@link #syncNotifiedUsers()}, sous le même
+ * sémaphore. Le cycle planifié ne les interroge plus qu'en filet de sécurité, quand leur dernière
+ * synchronisation date de plus de {@code app.sync.watch.safety-net-ms}.
+ */
 @Component
 public class CalendarSyncScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(CalendarSyncScheduler.class);
 
+    // Transaction de syncUser + transaction REQUIRES_NEW de la page importée
+    private static final int CONNECTIONS_PER_SYNC = 2;
+
     private final UserRepository userRepository;
     private final CalendarSyncService calendarSyncService;
+    private final GoogleWatchChannelRepository channelRepository;
+    private final SyncIntervalPolicy syncIntervalPolicy;
+    private final ConnectionBudget connectionBudget;
+
+    @Value("${app.sync.scheduler.max-concurrency:4}")
+    private int maxConcurrency = 4;
+
+    @Value("${app.sync.scheduler.user-timeout-ms:120000}")
+    private long userTimeoutMs = 120_000;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize = 10;
+
+    @Value("${app.sync.watch.safety-net-ms:21600000}")
+    private long safetyNetMs = 21_600_000;
+
+    // Utilisateurs dont la synchronisation est en cours (y compris celles ayant dépassé le délai)
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile Semaphore permits;
+    private volatile SyncCycleReport lastReport;
 
     public CalendarSyncScheduler(UserRepository userRepository,
-                                  CalendarSyncService calendarSyncService) {
+                                  CalendarSyncService calendarSyncService,
+                                  GoogleWatchChannelRepository channelRepository,
+                                  SyncIntervalPolicy syncIntervalPolicy,
+                                  ConnectionBudget connectionBudget) {
         this.userRepository = userRepository;
         this.calendarSyncService = calendarSyncService;
+        this.channelRepository = channelRepository;
+        this.syncIntervalPolicy = syncIntervalPolicy;
+        this.connectionBudget = connectionBudget;
     }
 
     /**
-     * Job planifié toutes les 15 min (configurable via app.sync.rate).
-     * Périmètre : uniquement les utilisateurs avec un token OAuth2 valide.
-     * 
+     * Job planifié toutes les minutes (configurable via app.sync.rate).
+     * Périmètre : les utilisateurs avec un token OAuth2 valide, sans canal de notifications actif
+     * et arrivés à leur échéance, ou non synchronisés depuis {@code app.sync.watch.safety-net-ms}.
+     *
      * Effectue une synchronisation bidirectionnelle :
      * - Import des événements Google → Local
      * - Export des événements Local → Google
      */
-    @Scheduled(fixedDelayString = "${app.sync.rate:900000}", initialDelay = 10000)
+    @Scheduled(fixedDelayString = "${app.sync.rate:60000}", initialDelayString = "${app.sync.initial-delay-ms:10000}")
     public void syncAllUsers() {
-        log.info("[SYNC-SCHEDULER] Démarrage du cycle de synchronisation bidirectionnelle.");
+        Semaphore cyclePermits = permits();
+        int concurrency = effectiveConcurrency();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> userIds = userRepository.findIdsDueForPolling(now, now.minusNanos(safetyNetMs * 1_000_000));
 
-        List<User> eligibleUsers = userRepository.findAll().stream()
-                .filter(u -> u.getGoogleAccessToken() != null
-                          && !u.getGoogleAccessToken().isBlank())
-                .collect(Collectors.toList());
+        log.info("[SYNC-SCHEDULER] Démarrage du cycle : {} utilisateur(s) éligible(s), {} en parallèle maximum.",
+                 userIds.size(), concurrency);
 
-        log.info("[SYNC-SCHEDULER] {} utilisateur(s) éligible(s).", eligibleUsers.size());
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        Queue<UserSyncTiming> timings = new ConcurrentLinkedQueue<>();
 
-        int totalSuccess = 0;
-        int totalFailures = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long userId : userIds) {
+                executor.submit(() -> timings.add(syncWithinBudget(userId, cyclePermits)));
+            }
+        } // close() attend la fin (ou l'expiration) de chaque utilisateur
+
+        SyncCycleReport report = toReport(startedAt, concurrency, userIds.size(),
+                                          elapsedMs(startNanos), new ArrayList<>(timings));
+        lastReport = report;
+
+        log.info("[SYNC-SCHEDULER] Cycle terminé en {} ms. Succès : {}, Échecs : {}, Délais dépassés : {}, "
+                 + "Ignorés : {}, Latence p50/p95/max : {}/{}/{} ms",
+                 report.elapsedMs(), report.succeeded(), report.failed(), report.timedOut(),
+                 report.skipped(), report.p50Ms(), report.p95Ms(), report.maxMs());
+    }
+
+    /**
+     * Synchronise les utilisateurs notifiés par Google depuis le dernier passage.
+     * Une rafale de notifications pour un même utilisateur ne donne qu'une synchronisation.
+     * Un échec n'est pas rejoué ici (il le serait toutes les secondes) : la prochaine notification
+     * ou le filet de sécurité du cycle planifié le rattrape.
+     */
+    @Scheduled(fixedDelayString = "${app.sync.watch.drain-ms:5000}", initialDelay = 10000)
+    public void syncNotifiedUsers() {
+        List<Long> userIds = channelRepository.findDirtyUserIds();
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        log.debug("[SYNC-SCHEDULER] {} utilisateur(s) notifié(s) par Google", userIds.size());
+        Semaphore cyclePermits = permits();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long userId : userIds) {
+                executor.submit(() -> {
+                    // Les notifications reçues pendant la synchronisation la relanceront au passage suivant
+                    LocalDateTime drainedUpTo = LocalDateTime.now();
+                    channelRepository.clearDirty(userId, drainedUpTo);
+                    UserSyncTiming timing = syncWithinBudget(userId, cyclePermits);
+                    if (timing.outcome() == Outcome.SKIPPED) {
+                        // La synchronisation en cours a pu démarrer avant la notification
+                        channelRepository.markDirtyByUser(userId, drainedUpTo);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Rapport du dernier cycle terminé (durée, latence par utilisateur).
+     */
+    public Optional<SyncCycleReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    private UserSyncTiming syncWithinBudget(Long userId, Semaphore cyclePermits) {
+        if (!inFlight.add(userId)) {
+            log.warn("[SYNC-SCHEDULER] Utilisateur {} ignoré : synchronisation précédente encore en cours.", userId);
+            return new UserSyncTiming(userId, 0, Outcome.SKIPPED, null);
+        }
 
-        for (User user : eligibleUsers) {
+        try {
+            cyclePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.remove(userId);
+            return new UserSyncTiming(userId, 0, Outcome.FAILED, "Interrompu");
+        }
+        try {
+            connectionBudget.acquire(CONNECTIONS_PER_SYNC);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cyclePermits.release();
+            inFlight.remove(userId);
+            return new UserSyncTiming(userId, 0, Outcome.FAILED, "Interrompu");
+        }
+
+        long start = System.nanoTime();
+        // Le permis et la place « en cours » ne sont rendus qu'à la fin réelle de la synchronisation :
+        // une synchronisation bloquée au-delà du délai continue d'occuper ses connexions
+        CompletableFuture<Void> sync = new CompletableFuture<>();
+        Thread.ofVirtual().name("calendar-sync-" + userId).start(() -> {
             try {
-                // Synchronisation bidirectionnelle complète
-                calendarSyncService.syncUser(user.getId());
-                totalSuccess++;
-                
-            } catch (Exception e) {
-                // Isolation : une erreur sur un utilisateur ne bloque pas les autres
-                log.error("[SYNC-SCHEDULER] Erreur pour l'utilisateur {} : {}",
-                          user.getId(), e.getMessage(), e);
-                totalFailures++;
+                // Synchronisation de fond : les requêtes interactives passent avant sur le quota Google
+                GoogleApiRateLimiter.callWithPriority(GoogleApiRateLimiter.Priority.BACKGROUND, () -> {
+                    calendarSyncService.syncUser(userId);
+                    return null;
+                });
+                sync.complete(null);
+            } catch (Throwable e) {
+                sync.completeExceptionally(e);
+            } finally {
+                inFlight.remove(userId);
+                connectionBudget.release(CONNECTIONS_PER_SYNC);
+                cyclePermits.release();
+            }
+        });
+
+        try {
+            sync.get(userTimeoutMs, TimeUnit.MILLISECONDS);
+            return new UserSyncTiming(userId, elapsedMs(start), Outcome.SUCCESS, null);
+
+        } catch (TimeoutException e) {
+            log.error("[SYNC-SCHEDULER] Utilisateur {} : délai de {} ms dépassé.", userId, userTimeoutMs);
+            syncIntervalPolicy.afterFailure(userId);
+            return new UserSyncTiming(userId, elapsedMs(start), Outcome.TIMED_OUT, "Délai dépassé");
+
+        } catch (ExecutionException e) {
+            // Isolation : une erreur sur un utilisateur ne bloque pas les autres
+            Throwable cause = e.getCause();
+            log.error("[SYNC-SCHEDULER] Erreur pour l'utilisateur {} : {}", userId, cause.getMessage(), cause);
+            syncIntervalPolicy.afterFailure(userId);
+            return new UserSyncTiming(userId, elapsedMs(start), Outcome.FAILED, cause.getMessage());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new UserSyncTiming(userId, elapsedMs(start), Outcome.FAILED, "Interrompu");
+        }
+    }
+
+    // Deux connexions par synchronisation : on reste sous la moitié du pool (requêtes HTTP comprises)
+    private int effectiveConcurrency() {
+        int poolCap = Math.max(1, (connectionPoolSize - 1) / CONNECTIONS_PER_SYNC);
+        if (maxConcurrency > poolCap) {
+            log.warn("[SYNC-SCHEDULER] Parallélisme {} ramené à {} (pool de {} connexions).",
+                     maxConcurrency, poolCap, connectionPoolSize);
+        }
+        return Math.max(1, Math.min(maxConcurrency, poolCap));
+    }
+
+    private Semaphore permits() {
+        Semaphore current = permits;
+        if (current == null) {
+            synchronized (this) {
+                if (permits == null) {
+                    permits = new Semaphore(effectiveConcurrency());
+                }
+                current = permits;
+            }
+        }
+        return current;
+    }
+
+    private static SyncCycleReport toReport(LocalDateTime startedAt, int concurrency, int eligibleUsers,
+                                            long elapsedMs, List<UserSyncTiming> timings) {
+        int succeeded = 0, failed = 0, skipped = 0, timedOut = 0;
+        List<Long> latencies = new ArrayList<>();
+        for (UserSyncTiming timing : timings) {
+            switch (timing.outcome()) {
+                case SUCCESS -> succeeded++;
+                case FAILED -> failed++;
+                case TIMED_OUT -> timedOut++;
+                case SKIPPED -> skipped++;
             }
+            if (timing.outcome() != Outcome.SKIPPED) {
+                latencies.add(timing.durationMs());
+            }
+        }
+        latencies.sort(null);
+
+        return new SyncCycleReport(startedAt, LocalDateTime.now(), concurrency, eligibleUsers,
+                succeeded, failed, skipped, timedOut, elapsedMs,
+                percentile(latencies, 50), percentile(latencies, 95),
+                latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1),
+                timings);
+    }
+
+    // Méthode du rang le plus proche
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
         }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
 
-        log.info("[SYNC-SCHEDULER] Cycle de synchronisation terminé. " +
-                 "Succès : {}, Échecs : {}", totalSuccess, totalFailures);
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
-}
\ No newline at end of file
+}
@@ -9,14 +9,24 @@ import com.example.backend.model.ActivityCategory;
 import com.example.backend.model.User;
 import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.scheduling.ConflictSweeper;
+import com.example.backend.service.scheduling.ConflictSweeper.OverlapPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,15 +38,24 @@ public class CalendarSyncService {
     private final EventRepository eventRepository;
     private final GoogleCalendarService googleCalendarService;
     private final CalendarImportService calendarImportService;
+    private final SyncIntervalPolicy syncIntervalPolicy;
+    private final GoogleSyncLocks syncLocks;
+
+    @Value("${app.sync.conflicts.incremental:false}")
+    private boolean incrementalConflictDetection;
 
     public CalendarSyncService(UserRepository userRepository, 
                                EventRepository eventRepository,
                                GoogleCalendarService googleCalendarService, 
-                               CalendarImportService calendarImportService) {
+                               CalendarImportService calendarImportService,
+                               SyncIntervalPolicy syncIntervalPolicy,
+                               GoogleSyncLocks syncLocks) {
         this.userRepository = userRepository;
         this.eventRepository = eventRepository;
         this.googleCalendarService = googleCalendarService;
         this.calendarImportService = calendarImportService;
+        this.syncIntervalPolicy = syncIntervalPolicy;
+        this.syncLocks = syncLocks;
     }
 
     /**
@@ -59,6 +78,14 @@ public class CalendarSyncService {
         backoff = @Backoff(delay = 2000, multiplier = 2)
     )
     public void syncUser(Long userId) throws Exception {
+        // Jamais en même temps qu'un export de l'outbox pour cet utilisateur (voir GoogleSyncLocks)
+        syncLocks.callLocked(userId, () -> {
+            syncUserLocked(userId);
+            return null;
+        });
+    }
+
+    private void syncUserLocked(Long userId) throws Exception {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
 
@@ -69,6 +96,8 @@ public class CalendarSyncService {
         log.info("[SYNC] Début de la synchronisation bidirectionnelle pour l'utilisateur {}", userId);
 
         try {
+            LocalDateTime syncStartedAt = LocalDateTime.now();
+
             // ── ÉTAPE 0 : DÉTECTION DES CONFLITS ──────────────────────────────
             log.debug("[SYNC] Vérification des conflits de créneaux...");
             SyncConflictDTO conflicts = detectScheduleConflicts(user);
@@ -100,6 +129,10 @@ public class CalendarSyncService {
             log.info("[SYNC] Synchronisation terminée : {} importés, {} exportés", 
                      importedCount, exportedCount);
 
+            // Repère pour la prochaine détection incrémentale des conflits et prochaine synchronisation
+            // planifiée : plus tôt si l'agenda bouge, plus tard s'il est calme
+            syncIntervalPolicy.afterSync(user, syncStartedAt, importedCount + exportedCount);
+
         } catch (SyncConflictException e) {
             // Conflits détectés - on relance l'exception pour le contrôleur
             throw e;
@@ -122,12 +155,18 @@ public class CalendarSyncService {
      * Un conflit existe si deux événements se chevauchent dans le temps :
      * - startA < endB ET endA > startB
      * 
+     * Les paires sont trouvées par balayage (voir {@link ConflictSweeper}) en O(n log n + k).
+     * En mode incrémental ({@code app.sync.conflicts.incremental=true}), seuls les événements
+     * modifiés depuis la dernière synchronisation réussie sont confrontés à leurs voisins.
+     * 
      * @param user L'utilisateur dont on vérifie les événements
      * @return Un DTO contenant la liste des conflits détectés
      */
     private SyncConflictDTO detectScheduleConflicts(User user) {
-        SyncConflictDTO conflictDTO = new SyncConflictDTO();
-        
+        if (incrementalConflictDetection && user.getLastGoogleSyncAt() != null) {
+            return detectScheduleConflictsSince(user, user.getLastGoogleSyncAt());
+        }
+
         // Récupérer tous les événements de l'utilisateur (GOOGLE et LOCAL)
         List<Event> allEvents = eventRepository.findByUser_Id(user.getId());
         
@@ -136,50 +175,95 @@ public class CalendarSyncService {
                 .filter(e -> e.getStatus() != Event.EventStatus.PENDING_DELETION)
                 .collect(Collectors.toList());
 
-        // Comparaison de chaque paire d'événements
-        for (int i = 0; i < activeEvents.size(); i++) {
-            Event eventA = activeEvents.get(i);
-            
-            for (int j = i + 1; j < activeEvents.size(); j++) {
-                Event eventB = activeEvents.get(j);
-                
-                // Vérification du chevauchement temporel
-                if (eventsOverlap(eventA, eventB)) {
-                    // Création de l'objet conflit pour eventA
-                    ConflictingEvent conflictA = new ConflictingEvent(
-                        eventA.getId(),
-                        eventA.getSummary(),
-                        eventA.getStartTime(),
-                        eventA.getEndTime(),
-                        eventA.getSource().toString()
-                    );
-                    conflictA.setConflictingWithId(eventB.getId());
-                    conflictA.setConflictingWithTitle(eventB.getSummary());
-                    conflictA.setConflictingWithSource(eventB.getSource().toString());
-                    
-                    conflictDTO.addConflict(conflictA);
-                    
-                    log.debug("[CONFLICT] Événement '{}' ({}) chevauche '{}' ({})",
-                             eventA.getSummary(), eventA.getSource(),
-                             eventB.getSummary(), eventB.getSource());
-                }
+        return toConflictDTO(ConflictSweeper.findOverlaps(activeEvents));
+    }
+
+    /**
+     * Détection incrémentale : seuls les événements touchés depuis {@code since} sont
+     * confrontés aux événements qui les chevauchent.
+     * 
+     * Les paires entre deux événements non modifiés sont ignorées : elles existaient déjà
+     * lors de la synchronisation précédente, qui n'a pu réussir que sans conflit.
+     */
+    private SyncConflictDTO detectScheduleConflictsSince(User user, LocalDateTime since) {
+        List<Event> touched = eventRepository.findTouchedSince(user.getId(), since);
+        if (touched.isEmpty()) {
+            return new SyncConflictDTO();
+        }
+
+        Set<Long> touchedIds = new HashSet<>();
+        Map<Long, Event> scope = new LinkedHashMap<>();
+        for (Event event : touched) {
+            touchedIds.add(event.getId());
+            scope.put(event.getId(), event);
+        }
+
+        // Une requête par fenêtre (intervalles touchés fusionnés) pour charger les voisins
+        for (LocalDateTime[] window : mergeWindows(touched)) {
+            for (Event neighbour : eventRepository.findOverlapping(user.getId(), window[0], window[1])) {
+                scope.putIfAbsent(neighbour.getId(), neighbour);
             }
         }
-        
-        return conflictDTO;
+
+        List<OverlapPair> pairs = ConflictSweeper.findOverlaps(new ArrayList<>(scope.values())).stream()
+                .filter(p -> touchedIds.contains(p.first().getId()) || touchedIds.contains(p.second().getId()))
+                .collect(Collectors.toList());
+
+        log.debug("[CONFLICT] Détection incrémentale : {} événement(s) modifié(s), {} candidat(s)",
+                  touched.size(), scope.size());
+        return toConflictDTO(pairs);
     }
 
     /**
-     * Vérifie si deux événements se chevauchent dans le temps.
-     * 
-     * @param eventA Premier événement
-     * @param eventB Second événement
-     * @return true si les événements se chevauchent
+     * Fusionne les intervalles des événements modifiés en fenêtres disjointes.
      */
-    private boolean eventsOverlap(Event eventA, Event eventB) {
-        // Événements se chevauchent si : startA < endB ET endA > startB
-        return eventA.getStartTime().isBefore(eventB.getEndTime()) 
-            && eventA.getEndTime().isAfter(eventB.getStartTime());
+    private List<LocalDateTime[]> mergeWindows(List<Event> events) {
+        List<Event> sorted = events.stream()
+                .filter(e -> e.getStartTime() != null && e.getEndTime() != null)
+                .sorted(Comparator.comparing(Event::getStartTime))
+                .collect(Collectors.toList());
+
+        List<LocalDateTime[]> windows = new ArrayList<>();
+        for (Event event : sorted) {
+            LocalDateTime[] last = windows.isEmpty() ? null : windows.get(windows.size() - 1);
+            if (last != null && !event.getStartTime().isAfter(last[1])) {
+                if (event.getEndTime().isAfter(last[1])) {
+                    last[1] = event.getEndTime();
+                }
+            } else {
+                windows.add(new LocalDateTime[] { event.getStartTime(), event.getEndTime() });
+            }
+        }
+        return windows;
+    }
+
+    private SyncConflictDTO toConflictDTO(List<OverlapPair> pairs) {
+        SyncConflictDTO conflictDTO = new SyncConflictDTO();
+
+        for (OverlapPair pair : pairs) {
+            Event eventA = pair.first();
+            Event eventB = pair.second();
+
+            // Création de l'objet conflit pour eventA
+            ConflictingEvent conflictA = new ConflictingEvent(
+                eventA.getId(),
+                eventA.getSummary(),
+                eventA.getStartTime(),
+                eventA.getEndTime(),
+                eventA.getSource().toString()
+            );
+            conflictA.setConflictingWithId(eventB.getId());
+            conflictA.setConflictingWithTitle(eventB.getSummary());
+            conflictA.setConflictingWithSource(eventB.getSource().toString());
+
+            conflictDTO.addConflict(conflictA);
+
+            log.debug("[CONFLICT] Événement '{}' ({}) chevauche '{}' ({})",
+                     eventA.getSummary(), eventA.getSource(),
+                     eventB.getSummary(), eventB.getSource());
+        }
+
+        return conflictDTO;
     }
 
     /**
@@ -207,56 +291,37 @@ public class CalendarSyncService {
         log.info("[EXPORT] {} événements locaux à synchroniser pour l'utilisateur {}", 
                  eventsToSync.size(), user.getId());
 
-        int successCount = 0;
-
-        for (Event event : eventsToSync) {
-            try {
-                // Vérifier si l'événement doit être supprimé de Google
-                if (event.getStatus() == Event.EventStatus.PENDING_DELETION) {
-                    if (event.getGoogleEventId() != null) {
-                        googleCalendarService.deleteEventFromGoogle(event);
-                        log.debug("[EXPORT] Événement '{}' supprimé de Google", event.getSummary());
-                    }
-                    // Supprimer l'événement local
-                    eventRepository.delete(event);
-                } else {
-                    // Créer ou mettre à jour l'événement sur Google
-                    googleCalendarService.pushEventToGoogle(event);
-                    successCount++;
-                    log.debug("[EXPORT] Événement '{}' synchronisé vers Google", event.getSummary());
-                }
-            } catch (GoogleApiException e) {
-                // Erreur réseau - on relance pour le retry
-                throw e;
-            } catch (Exception e) {
-                log.error("[EXPORT] Erreur lors de la synchronisation de l'événement '{}' : {}", 
-                         event.getSummary(), e.getMessage());
-                // Marquer l'événement en conflit
-                event.setSyncStatus(Event.SyncStatus.CONFLICT);
-                eventRepository.save(event);
-            }
+        // Créations, mises à jour et suppressions partent par lots de 50 opérations ;
+        // chaque réponse individuelle est reportée sur l'événement (SYNCED, FAILED...)
+        GoogleCalendarService.BatchExportResult result = googleCalendarService.exportEvents(user, eventsToSync);
+
+        // Suppressions confirmées par Google (ou jamais exportées) : on supprime localement
+        if (!result.deleted().isEmpty()) {
+            eventRepository.deleteAll(result.deleted());
+            log.debug("[EXPORT] {} événements supprimés localement après propagation", result.deleted().size());
+        }
+        if (!result.pending().isEmpty()) {
+            log.warn("[EXPORT] {} événements reportés au prochain cycle (erreurs transitoires)",
+                     result.pending().size());
         }
 
-        return successCount;
+        return result.synced().size();
     }
 
     /**
      * Récupère les événements locaux qui nécessitent une synchronisation vers Google.
+     * La sélection est faite en base (voir {@link #needsSyncToGoogle(Event)} pour les critères).
      * 
      * @param user L'utilisateur concerné
      * @return Liste des événements à synchroniser
      */
     private List<Event> getLocalEventsNeedingSync(User user) {
-        // Récupérer tous les événements de l'utilisateur
-        List<Event> allEvents = eventRepository.findByUser_Id(user.getId());
-
-        return allEvents.stream()
-                .filter(event -> needsSyncToGoogle(event))
-                .collect(Collectors.toList());
+        return eventRepository.findNeedingExport(user.getId());
     }
 
     /**
      * Détermine si un événement doit être synchronisé vers Google.
+     * Doit rester aligné sur {@link EventRepository#findNeedingExport(Long)}.
      * 
      * Matrice de décision :
      *   PENDING_DELETION → toujours exporter (suppression à propager)
@@ -329,6 +394,55 @@ public class CalendarSyncService {
         log.info("[SYNC-EVENT] Événement synchronisé avec succès");
     }
 
+    /**
+     * Propage vers Google la modification locale d'un seul événement : une écriture
+     * (insert, update ou delete via le googleEventId stocké), sans import ni détection de conflits.
+     * L'import complet reste réservé au cycle planifié.
+     *
+     * Sérialisé avec {@link #syncUser} pour le même utilisateur ({@link GoogleSyncLocks}).
+     *
+     * @param userId  L'utilisateur propriétaire de l'événement
+     * @param eventId L'identifiant de l'événement modifié
+     * @return true si une écriture a été envoyée à Google, false s'il n'y avait rien à exporter
+     * @throws GoogleApiException si Google refuse ou n'est pas joignable (l'événement reste PENDING)
+     */
+    @Transactional
+    public boolean pushEventChange(Long userId, Long eventId) {
+        return syncLocks.callLocked(userId, () -> pushEventChangeLocked(eventId));
+    }
+
+    private boolean pushEventChangeLocked(Long eventId) {
+        Event event = eventRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            // Supprimé localement sans avoir jamais été exporté
+            log.debug("[SYNC-EVENT] Événement {} introuvable : rien à exporter", eventId);
+            return false;
+        }
+
+        User user = event.getUser();
+        if (user.getGoogleAccessToken() == null || user.getGoogleAccessToken().isBlank()) {
+            log.debug("[SYNC-EVENT] Utilisateur {} sans token Google : export de l'événement {} ignoré",
+                      user.getId(), eventId);
+            return false;
+        }
+
+        if (event.getStatus() == Event.EventStatus.PENDING_DELETION) {
+            googleCalendarService.deleteEventFromGoogle(event);
+            eventRepository.delete(event);
+            log.info("[SYNC-EVENT] Suppression de l'événement {} propagée à Google", eventId);
+            return true;
+        }
+
+        // Déjà exporté entre-temps (cycle planifié) ou en conflit : rien à envoyer
+        if (!needsSyncToGoogle(event)) {
+            log.debug("[SYNC-EVENT] Événement {} déjà à jour sur Google", eventId);
+            return false;
+        }
+
+        googleCalendarService.pushEventToGoogle(event);
+        return true;
+    }
+
     // Dans CalendarSyncService.java, méthode convertToGoogleEvent
     /**
      * Convertit un événement interne en événement Google Calendar.
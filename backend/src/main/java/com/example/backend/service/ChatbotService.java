@@ -2,6 +2,7 @@ package com.example.backend.service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -159,7 +160,7 @@ public class ChatbotService {
     User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
 
-    int count = 0;
+    List<Event> toSave = new ArrayList<>();
     for (Map<String, Object> data : eventsData) {
         try {
             String summary = data.get("summary").toString();
@@ -168,15 +169,16 @@ public class ChatbotService {
             
             // Note : Si votre entité Event ne gère pas encore la catégorie, 
             // ignorez data.get("category") pour l'instant.
-            Event event = new Event(summary, start, end, user);
-            eventRepository.save(event);
-            count++;
+            toSave.add(new Event(summary, start, end, user));
         } catch (Exception e) {
             System.err.println("Erreur lors de l'ajout d'un événement du batch : " + e.getMessage());
         }
     }
 
-    return String.format("Succès ! J'ai ajouté %d événements à votre agenda.", count);
+    // Un seul saveAll : les INSERT partent en lots JDBC
+    eventRepository.saveAll(toSave);
+
+    return String.format("Succès ! J'ai ajouté %d événements à votre agenda.", toSave.size());
 }
     private String deleteEventsInRange(Long userId, LocalDateTime start, LocalDateTime end, String label) {
         List<Event> toDelete = eventRepository.findByUser_IdAndStartTimeBetween(userId, start, end);
@@ -0,0 +1,46 @@
+package com.example.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Connexions JDBC que les traitements de masse peuvent occuper ensemble.
+ *
+ * Le cycle de synchronisation (deux connexions par utilisateur) et le reshuffle global (une par
+ * utilisateur) ont chacun leur parallélisme, mais peuvent tourner en même temps : sans budget
+ * commun, leur somme dépasserait le pool Hikari et les requêtes HTTP attendraient une connexion.
+ * Une connexion du pool reste hors budget pour ces requêtes.
+ */
+@Component
+public class ConnectionBudget {
+
+    private final int capacity;
+    // Équitable : une synchronisation qui attend deux connexions n'est pas doublée indéfiniment
+    private final Semaphore connections;
+
+    public ConnectionBudget(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.capacity = Math.max(1, poolSize - 1);
+        this.connections = new Semaphore(capacity, true);
+    }
+
+    /**
+     * Réserve {@code count} connexions (au plus la capacité), en attendant qu'elles se libèrent.
+     */
+    public void acquire(int count) throws InterruptedException {
+        connections.acquire(Math.min(count, capacity));
+    }
+
+    public void release(int count) {
+        connections.release(Math.min(count, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int available() {
+        return connections.availablePermits();
+    }
+}
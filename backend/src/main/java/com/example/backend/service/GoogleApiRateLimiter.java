@@ -0,0 +1,319 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.GoogleQuotaUsage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limiteur de débit partagé par tout le trafic vers les API Google (seau à jetons par API).
+ *
+ * Les quotas Google sont fixés par projet : chaque API a son budget (requêtes par seconde et
+ * rafale), commun à tous les utilisateurs et à tous les services. Deux classes de priorité :
+ * les requêtes interactives (un utilisateur attend la réponse) passent avant les requêtes de fond
+ * (synchronisations planifiées, file d'export, renouvellement des canaux), qui laissent en outre
+ * une réserve de jetons ({@code google.quota.interactive-reserve}) aux premières.
+ *
+ * {@link #acquire} bloque le thread appelant jusqu'à l'obtention des jetons, comme les bibliothèques
+ * Google qu'il précède. L'attente repose sur un {@link ReentrantLock} : les threads virtuels des
+ * tâches de fond libèrent leur porteur pendant qu'ils attendent. Les requêtes interactives
+ * occupent un thread de requête HTTP : leur attente est bornée plus court
+ * ({@code google.quota.interactive-max-wait-ms}), puis l'appelant répond sans Google (429 avec
+ * {@code Retry-After} pour une synchronisation manuelle, estimation locale pour un trajet).
+ */
+@Component
+public class GoogleApiRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleApiRateLimiter.class);
+
+    public enum Api { CALENDAR, DISTANCE_MATRIX }
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    @Value("${google.quota.calendar.requests-per-second:10}")
+    private double calendarRate = 10;
+
+    @Value("${google.quota.calendar.burst:20}")
+    private int calendarBurst = 20;
+
+    @Value("${google.quota.distance-matrix.requests-per-second:10}")
+    private double distanceMatrixRate = 10;
+
+    @Value("${google.quota.distance-matrix.burst:10}")
+    private int distanceMatrixBurst = 10;
+
+    // Part de la rafale que les requêtes de fond ne peuvent pas consommer
+    @Value("${google.quota.interactive-reserve:0.2}")
+    private double interactiveReserve = 0.2;
+
+    @Value("${google.quota.max-wait-ms:30000}")
+    private long maxWaitMs = 30_000;
+
+    // Un utilisateur attend la réponse : au-delà, mieux vaut lui indiquer quand réessayer
+    @Value("${google.quota.interactive-max-wait-ms:2000}")
+    private long interactiveMaxWaitMs = 2_000;
+
+    // Priorité des appels du thread courant (interactive par défaut)
+    private static final ThreadLocal<Priority> CURRENT = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    private final Map<Api, Bucket> buckets = new EnumMap<>(Api.class);
+
+    /**
+     * Exécute une tâche de fond : ses appels Google cèdent la place aux requêtes interactives.
+     */
+    public static void runInBackground(Runnable task) {
+        Priority previous = CURRENT.get();
+        CURRENT.set(Priority.BACKGROUND);
+        try {
+            task.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Exécute {@code task} avec la priorité donnée, par exemple pour transmettre la priorité
+     * de l'appelant à un thread de préchargement.
+     */
+    public static <T> T callWithPriority(Priority priority, Callable<T> task) throws Exception {
+        Priority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return task.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static Priority currentPriority() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attend les jetons pour un appel synchrone, avec la priorité du thread courant.
+     *
+     * @throws QuotaWaitTimeoutException si l'attente dépasse la borne de cette priorité
+     */
+    public void acquire(Api api, int permits) throws QuotaWaitTimeoutException {
+        acquire(api, currentPriority(), permits);
+    }
+
+    /**
+     * Réserve {@code permits} requêtes sur le budget de l'API, en bloquant jusqu'à leur obtention.
+     *
+     * @throws QuotaWaitTimeoutException si l'attente dépasse {@code google.quota.interactive-max-wait-ms}
+     *         (interactive) ou {@code google.quota.max-wait-ms} (fond), ou si le thread est
+     *         interrompu : la requête ne doit pas être envoyée
+     */
+    public void acquire(Api api, Priority priority, int permits) throws QuotaWaitTimeoutException {
+        bucket(api).acquire(priority, Math.max(1, permits));
+    }
+
+    /**
+     * Google a refusé une requête pour dépassement de quota : le seau est vidé pendant une seconde,
+     * le temps que le quota de Google se reconstitue.
+     */
+    public void reportQuotaExceeded(Api api) {
+        bucket(api).penalize();
+    }
+
+    /**
+     * Consommation actuelle des budgets, par API.
+     */
+    public List<GoogleQuotaUsage> usage() {
+        List<GoogleQuotaUsage> usage = new ArrayList<>();
+        for (Api api : Api.values()) {
+            usage.add(bucket(api).usage());
+        }
+        return usage;
+    }
+
+    private synchronized Bucket bucket(Api api) {
+        return buckets.computeIfAbsent(api, a -> switch (a) {
+            case CALENDAR -> new Bucket(a, calendarRate, calendarBurst);
+            case DISTANCE_MATRIX -> new Bucket(a, distanceMatrixRate, distanceMatrixBurst);
+        });
+    }
+
+    /**
+     * Attente de quota dépassée : la requête n'est pas envoyée à Google.
+     */
+    public static class QuotaWaitTimeoutException extends java.io.IOException {
+
+        private final long retryAfterMs;
+
+        public QuotaWaitTimeoutException(Api api, long maxWaitMs, long retryAfterMs) {
+            super("Quota Google " + api + " : aucun jeton disponible après " + maxWaitMs + " ms");
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        /** Délai estimé avant que le budget permette à nouveau la requête. */
+        public long getRetryAfterMs() { return retryAfterMs; }
+    }
+
+    // Place d'un appelant dans une file, comparée par identité
+    private static final class Waiter {}
+
+    /**
+     * Seau à jetons d'une API. Une demande supérieure à la rafale (batch de 50 opérations) est
+     * accordée dès que le seau est plein et le laisse en dette : le débit moyen reste respecté.
+     */
+    private final class Bucket {
+
+        private final Api api;
+        private final double ratePerSecond;
+        private final int capacity;
+        private final double reserve;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // Signalé quand la tête d'une file change ou que des jetons sont rendus disponibles
+        private final Condition changed = lock.newCondition();
+
+        private double tokens;
+        private long refilledAtNanos = System.nanoTime();
+
+        private final ArrayDeque<Waiter> interactive = new ArrayDeque<>();
+        private final ArrayDeque<Waiter> background = new ArrayDeque<>();
+
+        private final AtomicLong[] granted = {new AtomicLong(), new AtomicLong()};
+        private final AtomicLong[] waitedNanos = {new AtomicLong(), new AtomicLong()};
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong quotaExceeded = new AtomicLong();
+
+        Bucket(Api api, double ratePerSecond, int capacity) {
+            this.api = api;
+            this.ratePerSecond = Math.max(0.001, ratePerSecond);
+            this.capacity = Math.max(1, capacity);
+            this.reserve = Math.floor(this.capacity * Math.min(Math.max(interactiveReserve, 0), 1));
+            this.tokens = this.capacity;
+        }
+
+        void acquire(Priority priority, int permits) throws QuotaWaitTimeoutException {
+            long enqueuedNanos = System.nanoTime();
+            long waitMs = priority == Priority.INTERACTIVE ? Math.min(interactiveMaxWaitMs, maxWaitMs) : maxWaitMs;
+            long deadline = enqueuedNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, waitMs));
+            Waiter waiter = new Waiter();
+            ArrayDeque<Waiter> queue = priority == Priority.INTERACTIVE ? interactive : background;
+            lock.lock();
+            try {
+                queue.add(waiter);
+                while (true) {
+                    refill();
+                    boolean head = queue.peek() == waiter
+                            && (priority == Priority.INTERACTIVE || interactive.isEmpty());
+                    if (head && tryTake(priority, permits)) {
+                        queue.poll();
+                        changed.signalAll();
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        leave(queue, waiter);
+                        timedOut.incrementAndGet();
+                        log.warn("[QUOTA] Attente de {} ms dépassée pour une requête {} ({})", waitMs, api, priority);
+                        throw new QuotaWaitTimeoutException(api, waitMs, retryAfterMs(priority, permits));
+                    }
+                    // La tête attend les jetons manquants ; les suivantes attendent d'arriver en tête
+                    changed.awaitNanos(head ? Math.min(remaining, nanosUntil(priority, permits)) : remaining);
+                }
+            } catch (InterruptedException e) {
+                leave(queue, waiter);
+                Thread.currentThread().interrupt();
+                throw new QuotaWaitTimeoutException(api, waitMs, retryAfterMs(priority, permits));
+            } finally {
+                lock.unlock();
+            }
+            granted[priority.ordinal()].incrementAndGet();
+            waitedNanos[priority.ordinal()].addAndGet(System.nanoTime() - enqueuedNanos);
+        }
+
+        // Appelé sous verrou : la demande abandonnée ne bloque plus celles qui la suivent
+        private void leave(ArrayDeque<Waiter> queue, Waiter waiter) {
+            queue.remove(waiter);
+            changed.signalAll();
+        }
+
+        void penalize() {
+            lock.lock();
+            try {
+                refill();
+                tokens = Math.min(tokens, 0) - ratePerSecond;
+            } finally {
+                lock.unlock();
+            }
+            quotaExceeded.incrementAndGet();
+            log.warn("[QUOTA] Quota {} dépassé côté Google : envois suspendus une seconde", api);
+        }
+
+        // Délai avant que le seau contienne les jetons requis (au moins 1 ms pour ne pas boucler)
+        private long nanosUntil(Priority priority, int permits) {
+            double missing = threshold(priority, permits) - tokens;
+            return Math.max(1_000_000L, (long) Math.ceil(missing / ratePerSecond * 1e9));
+        }
+
+        // Appelé sous verrou : les demandes encore en file passent avant celle qui abandonne
+        private long retryAfterMs(Priority priority, int permits) {
+            int ahead = interactive.size() + (priority == Priority.BACKGROUND ? background.size() : 0);
+            double missing = threshold(priority, permits) + ahead - tokens;
+            return Math.max(1_000L, (long) Math.ceil(missing / ratePerSecond * 1000));
+        }
+
+        private boolean tryTake(Priority priority, int permits) {
+            if (tokens < threshold(priority, permits)) {
+                return false;
+            }
+            tokens -= permits;
+            return true;
+        }
+
+        // Jetons requis : la demande (au plus la rafale), plus la réserve pour les requêtes de fond
+        private double threshold(Priority priority, int permits) {
+            double floor = priority == Priority.BACKGROUND ? reserve : 0;
+            return floor + Math.min(permits, capacity - floor);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAtNanos) / 1e9 * ratePerSecond);
+            refilledAtNanos = now;
+        }
+
+        GoogleQuotaUsage usage() {
+            double available;
+            int waitingInteractive;
+            int waitingBackground;
+            lock.lock();
+            try {
+                refill();
+                available = tokens;
+                waitingInteractive = interactive.size();
+                waitingBackground = background.size();
+            } finally {
+                lock.unlock();
+            }
+            return new GoogleQuotaUsage(api.name(), ratePerSecond, capacity,
+                    Math.floor(available * 10) / 10, waitingInteractive, waitingBackground,
+                    granted[0].get(), granted[1].get(),
+                    averageWaitMs(Priority.INTERACTIVE), averageWaitMs(Priority.BACKGROUND),
+                    timedOut.get(), quotaExceeded.get());
+        }
+
+        private long averageWaitMs(Priority priority) {
+            long count = granted[priority.ordinal()].get();
+            return count == 0 ? 0 : waitedNanos[priority.ordinal()].get() / count / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.calendar.Calendar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fabrique unique des clients Google Calendar.
+ *
+ * Le transport HTTP (et son magasin de certificats TLS) est chargé une seule fois et partagé :
+ * il est thread-safe et réutilise ses connexions. Les clients authentifiés sont mémorisés par
+ * utilisateur dans un cache LRU borné ; un client est reconstruit dès que le token d'accès de
+ * l'utilisateur change, et invalidé lors de la liaison ou déliaison du compte Google.
+ *
+ * Chaque requête envoyée par ces clients (import paginé, opérations unitaires, parties d'un batch)
+ * consomme un jeton du budget Calendar de {@link GoogleApiRateLimiter}.
+ */
+@Component
+public class GoogleCalendarClientFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleCalendarClientFactory.class);
+    private static final String APPLICATION_NAME = "EDT-Intelligent";
+
+    @Value("${google.calendar.client-cache.max-size:1000}")
+    private int maxCachedClients = 1000;
+
+    // Vide : serveurs Google. Renseignée pour viser un serveur Calendar simulé (tests de performance)
+    @Value("${google.calendar.root-url:}")
+    private String rootUrl = "";
+
+    private final HttpTransport transport;
+    private final GoogleApiRateLimiter rateLimiter;
+    private final JsonFactory jsonFactory = JacksonFactory.getDefaultInstance();
+
+    // Ordre d'accès : l'entrée la moins récemment utilisée est évincée en premier
+    private final Map<Long, CachedClient> clients = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedClient> eldest) {
+            return size() > maxCachedClients;
+        }
+    };
+
+    @Autowired
+    public GoogleCalendarClientFactory(GoogleApiRateLimiter rateLimiter) throws GeneralSecurityException, IOException {
+        this(GoogleNetHttpTransport.newTrustedTransport(), rateLimiter);
+    }
+
+    GoogleCalendarClientFactory(HttpTransport transport) {
+        this(transport, new GoogleApiRateLimiter());
+    }
+
+    GoogleCalendarClientFactory(HttpTransport transport, GoogleApiRateLimiter rateLimiter) {
+        this.transport = transport;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Transport HTTP partagé, à utiliser aussi pour les appels OAuth (échange de code, refresh).
+     */
+    public HttpTransport transport() {
+        return transport;
+    }
+
+    public JsonFactory jsonFactory() {
+        return jsonFactory;
+    }
+
+    private record CachedClient(String accessToken, Calendar client) {}
+
+    /**
+     * Client Calendar authentifié avec le token d'accès de l'utilisateur, construit au premier appel
+     * puis réutilisé jusqu'à son invalidation ou jusqu'au changement de ce token.
+     */
+    public Calendar clientFor(User user) {
+        if (user.getId() == null) {
+            return build(user);
+        }
+        synchronized (clients) {
+            CachedClient cached = clients.get(user.getId());
+            if (cached == null || !Objects.equals(cached.accessToken(), user.getGoogleAccessToken())) {
+                cached = new CachedClient(user.getGoogleAccessToken(), build(user));
+                clients.put(user.getId(), cached);
+            }
+            return cached.client();
+        }
+    }
+
+    /**
+     * Oublie le client d'un utilisateur : le prochain appel le reconstruira avec ses tokens à jour.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (clients) {
+            if (clients.remove(userId) != null) {
+                log.debug("[GOOGLE-CLIENT] Client Calendar invalidé pour l'utilisateur {}", userId);
+            }
+        }
+    }
+
+    int cachedClients() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    private Calendar build(User user) {
+        // Token d'accès seul : les rafraîchissements passent par GoogleTokenManager, qui les enregistre
+        GoogleCredential credential = new GoogleCredential().setAccessToken(user.getGoogleAccessToken());
+
+        log.debug("[GOOGLE-CLIENT] Client Calendar construit pour l'utilisateur {}", user.getId());
+        Calendar.Builder builder = new Calendar.Builder(transport, jsonFactory, throttled(credential))
+                .setApplicationName(APPLICATION_NAME);
+        if (rootUrl != null && !rootUrl.isBlank()) {
+            builder.setRootUrl(rootUrl.endsWith("/") ? rootUrl : rootUrl + "/");
+        }
+        return builder.build();
+    }
+
+    private HttpRequestInitializer throttled(GoogleCredential credential) {
+        return request -> {
+            credential.initialize(request);
+            HttpExecuteInterceptor authorization = request.getInterceptor();
+            request.setInterceptor(r -> {
+                // L'enveloppe d'un batch ne compte pas : chacune de ses parties passe par cet intercepteur
+                if (!isBatchEnvelope(r)) {
+                    rateLimiter.acquire(GoogleApiRateLimiter.Api.CALENDAR, 1);
+                }
+                if (authorization != null) {
+                    authorization.intercept(r);
+                }
+            });
+            request.setResponseInterceptor(response -> {
+                if (response.getStatusCode() == 429) {
+                    rateLimiter.reportQuotaExceeded(GoogleApiRateLimiter.Api.CALENDAR);
+                }
+            });
+        };
+    }
+
+    private static boolean isBatchEnvelope(HttpRequest request) {
+        String path = request.getUrl().getRawPath();
+        return path != null && path.startsWith("/batch/");
+    }
+}
@@ -4,15 +4,15 @@ import com.example.backend.exception.GoogleApiException;
 import com.example.backend.model.Event;
 import com.example.backend.model.User;
 import com.example.backend.repository.EventRepository;
-import com.example.backend.repository.UserRepository;
-
-import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
-import com.google.api.client.googleapis.auth.oauth2.GoogleRefreshTokenRequest;
-import com.google.api.client.googleapis.auth.oauth2.GoogleTokenResponse;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Channel;
 import com.google.api.services.calendar.model.EventDateTime;
 import com.google.api.client.util.DateTime;
 
@@ -23,16 +23,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Service pour la gestion des interactions avec Google Calendar API.
  * 
- * AMÉLIORATION : Gestion automatique du rafraîchissement du token d'accès
- * quand il expire (401 Unauthorized).
+ * AMÉLIORATION : Gestion automatique du rafraîchissement du token d'accès, avant son
+ * expiration (voir {@link GoogleTokenManager}) ou, à défaut, sur un 401 Unauthorized.
  */
 @Service
 public class GoogleCalendarService {
@@ -43,88 +45,55 @@ public class GoogleCalendarService {
     @Value("${google.calendar.timezone:Europe/Paris}")
     private String defaultTimezone;
 
-    @Value("${google.client.id}")
-    private String clientId;
+    // Limite de l'API Calendar : 50 opérations par requête batch
+    static final int MAX_BATCH_SIZE = 50;
+
+    @Value("${google.calendar.batch.max-attempts:3}")
+    private int batchMaxAttempts = 3;
 
-    @Value("${google.client.secret}")
-    private String clientSecret;
+    @Value("${google.calendar.batch.retry-delay-ms:500}")
+    private long batchRetryDelayMs = 500;
 
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final GoogleCalendarClientFactory clientFactory;
+    private final GoogleTokenManager tokenManager;
 
-    public GoogleCalendarService(EventRepository eventRepository, UserRepository userRepository) {
+    public GoogleCalendarService(EventRepository eventRepository, GoogleCalendarClientFactory clientFactory,
+                                 GoogleTokenManager tokenManager) {
         this.eventRepository = eventRepository;
-        this.userRepository = userRepository;
+        this.clientFactory = clientFactory;
+        this.tokenManager = tokenManager;
     }
 
     /**
-     * AMÉLIORATION : Construit un client Calendar avec gestion automatique du token expiré.
-     * 
-     * Si le token est expiré, cette méthode tentera de le rafraîchir automatiquement
-     * avant de créer le client.
-     */
-    public Calendar buildCalendarClient(User user) throws IOException, GeneralSecurityException {
-        return buildCalendarClient(user, false);
-    }
-
-    /**
-     * Version interne avec support du retry après refresh token.
-     * 
-     * CORRECTION CRITIQUE : Utilisation du Builder pour GoogleCredential
-     * 
-     * @param user L'utilisateur
-     * @param isRetry true si c'est un retry après refresh du token
+     * Client Calendar de l'utilisateur, fourni par la fabrique partagée (transport unique,
+     * client mémorisé jusqu'au prochain changement de tokens).
      */
-    private Calendar buildCalendarClient(User user, boolean isRetry) throws IOException, GeneralSecurityException {
-        // Récupérer la version la plus récente de l'utilisateur depuis la DB
-        User freshUser = userRepository.findById(user.getId())
-                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
-
-        NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-        JacksonFactory jsonFactory = JacksonFactory.getDefaultInstance();
-        
-        GoogleCredential.Builder credentialBuilder = new GoogleCredential.Builder()
-                .setTransport(httpTransport)
-                .setJsonFactory(jsonFactory)
-                .setClientSecrets(clientId, clientSecret);
-
-        // Construire le credential
-        GoogleCredential credential = credentialBuilder.build();
-        
-        // Configurer les tokens APRÈS la construction
-        credential.setAccessToken(freshUser.getGoogleAccessToken());
-        
-        // Si on a un refresh token, le configurer aussi
-        if (freshUser.getGoogleRefreshToken() != null && !freshUser.getGoogleRefreshToken().isBlank()) {
-            credential.setRefreshToken(freshUser.getGoogleRefreshToken());
-        }
-        
-        log.debug("[BUILDER] Client Calendar construit avec succès pour l'utilisateur {}", user.getId());
-
-        return new Calendar.Builder(httpTransport, jsonFactory, credential)
-                .setApplicationName("EDT-Intelligent")
-                .build();
+    public Calendar buildCalendarClient(User user) {
+        return clientFactory.clientFor(user);
     }
 
     /**
      * Wrapper pour exécuter une opération Google Calendar avec retry automatique.
      * 
-     * Si l'opération échoue avec un 401, on tente de rafraîchir le token et de réessayer.
+     * Le token est rafraîchi avant l'appel s'il expire bientôt. Si l'opération échoue malgré tout
+     * avec un 401 (token révoqué, expiration inconnue), on tente de rafraîchir le token et de réessayer.
      */
-    private <T> T executeWithRetry(User user, CalendarOperation<T> operation) throws IOException, GeneralSecurityException {
+    private <T> T executeWithRetry(User user, CalendarOperation<T> operation) throws IOException {
+        ensureFreshToken(user);
         try {
-            Calendar client = buildCalendarClient(user, false);
+            Calendar client = buildCalendarClient(user);
             return operation.execute(client);
             
         } catch (IOException e) {
             // Si erreur 401 (token expiré), tenter de rafraîchir
-            if (e.getMessage() != null && e.getMessage().contains("401")) {
+            if (isUnauthorized(e)) {
                 log.warn("[GOOGLE-API] Token expiré détecté, tentative de rafraîchissement...");
                 
                 if (refreshAccessToken(user)) {
                     // Token rafraîchi, réessayer l'opération
                     log.info("[GOOGLE-API] Nouvelle tentative après rafraîchissement du token");
-                    Calendar client = buildCalendarClient(user, true);
+                    Calendar client = buildCalendarClient(user);
                     return operation.execute(client);
                 } else {
                     // Impossible de rafraîchir le token
@@ -142,6 +111,23 @@ public class GoogleCalendarService {
         }
     }
 
+    private void ensureFreshToken(User user) {
+        if (!tokenManager.ensureFresh(user)) {
+            throw new GoogleApiException(
+                "Token Google expiré et impossible de le rafraîchir. L'utilisateur doit se reconnecter.",
+                "TOKEN_EXPIRED",
+                false
+            );
+        }
+    }
+
+    private static boolean isUnauthorized(IOException e) {
+        if (e instanceof HttpResponseException http) {
+            return http.getStatusCode() == 401;
+        }
+        return e.getMessage() != null && e.getMessage().contains("401");
+    }
+
     /**
      * Interface fonctionnelle pour les opérations Google Calendar.
      */
@@ -224,15 +210,6 @@ public class GoogleCalendarService {
                 "IO_ERROR",
                 true
             );
-            
-        } catch (GeneralSecurityException e) {
-            log.error("[PUSH] Erreur de sécurité : {}", e.getMessage());
-            throw new GoogleApiException(
-                "Erreur de sécurité lors de la connexion à Google",
-                e,
-                "SECURITY_ERROR",
-                false
-            );
         }
     }
 
@@ -277,7 +254,17 @@ public class GoogleCalendarService {
             log.error("[DELETE] Erreur Google API : {}", e.getMessage());
             throw e;
             
-        } catch (IOException | GeneralSecurityException e) {
+        } catch (IOException e) {
+            // Déjà absent de Google (404/410) : la suppression est acquise, comme dans l'export par lots
+            if (e instanceof GoogleJsonResponseException gone
+                    && (gone.getStatusCode() == 404 || gone.getStatusCode() == 410)) {
+                log.info("[DELETE] Événement '{}' déjà absent de Google Calendar (googleId={}).",
+                         event.getSummary(), event.getGoogleEventId());
+                event.setGoogleEventId(null);
+                event.setSyncStatus(Event.SyncStatus.SYNCED);
+                eventRepository.save(event);
+                return;
+            }
             log.error("[DELETE] Erreur lors de la suppression : {}", e.getMessage());
             throw new GoogleApiException(
                 "Erreur lors de la suppression sur Google Calendar",
@@ -288,31 +275,341 @@ public class GoogleCalendarService {
         }
     }
 
+    /**
+     * Ouvre un canal de notifications ({@code events.watch}) sur l'agenda principal de l'utilisateur.
+     *
+     * @param channelId identifiant unique choisi par l'application
+     * @param token     secret renvoyé par Google avec chaque notification
+     * @param address   URL HTTPS du webhook
+     * @param ttlMs     durée de vie demandée (Google peut l'écourter)
+     * @return le canal accepté par Google (resourceId, expiration effective)
+     */
+    public Channel watchEvents(User user, String channelId, String token, String address, long ttlMs) {
+        Channel request = new Channel()
+                .setId(channelId)
+                .setType("web_hook")
+                .setAddress(address)
+                .setToken(token)
+                .setParams(Map.of("ttl", String.valueOf(Math.max(1, ttlMs / 1000))));
+        try {
+            Channel channel = executeWithRetry(user, client ->
+                    client.events().watch(CALENDAR_ID, request).execute());
+            log.info("[WATCH] Canal {} ouvert pour l'utilisateur {}", channelId, user.getId());
+            return channel;
+        } catch (IOException e) {
+            throw new GoogleApiException("Ouverture du canal de notifications impossible", e, "WATCH_ERROR", true);
+        }
+    }
+
+    /**
+     * Ferme un canal de notifications. Un canal déjà expiré ou inconnu (404) est ignoré.
+     */
+    public void stopChannel(User user, String channelId, String resourceId) {
+        try {
+            executeWithRetry(user, client -> {
+                client.channels().stop(new Channel().setId(channelId).setResourceId(resourceId)).execute();
+                return null;
+            });
+            log.debug("[WATCH] Canal {} fermé pour l'utilisateur {}", channelId, user.getId());
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() != 404) {
+                throw new GoogleApiException("Fermeture du canal de notifications impossible", e, "WATCH_ERROR", true);
+            }
+        } catch (IOException e) {
+            throw new GoogleApiException("Fermeture du canal de notifications impossible", e, "WATCH_ERROR", true);
+        }
+    }
+
     /**
      * Exporte une liste d'événements vers Google Calendar.
-     * 
+     *
      * @param events Liste des événements à exporter
      * @param user L'utilisateur propriétaire des événements
      * @return Le nombre d'événements exportés avec succès
      */
     @Transactional
     public int pushEventsToGoogle(List<Event> events, User user) {
-        int successCount = 0;
-        
+        if (events.isEmpty()) {
+            return 0;
+        }
+        BatchExportResult result = exportEvents(user, events);
+
+        log.info("[PUSH-BATCH] {} événements exportés sur {} pour l'utilisateur {}",
+                 result.synced().size(), events.size(), user.getId());
+
+        return result.synced().size();
+    }
+
+    // ── Export par requêtes batch ───────────────────────────────────────────
+    /**
+     * Bilan d'un export par lots.
+     *
+     * @param synced  événements créés ou mis à jour sur Google (SYNCED)
+     * @param deleted événements en attente de suppression, supprimés de Google ou déjà absents :
+     *                à supprimer localement par l'appelant
+     * @param failed  événements refusés définitivement (FAILED, ou CONFLICT si non convertibles)
+     * @param pending événements en échec transitoire après toutes les tentatives : statut inchangé,
+     *                repris au prochain cycle de synchronisation
+     */
+    public record BatchExportResult(List<Event> synced, List<Event> deleted,
+                                    List<Event> failed, List<Event> pending) {}
+
+    private enum ExportOperation { INSERT, UPDATE, DELETE }
+
+    /**
+     * Opération d'export d'un événement et sa réponse dans le lot.
+     */
+    private static final class ExportItem {
+        private final Event event;
+        private final ExportOperation operation;
+        private String googleId;
+        private GoogleJsonError error;
+        private boolean answered;
+        // Refusé avant l'envoi (événement non convertible) : statut CONFLICT déjà posé
+        private boolean localError;
+
+        private ExportItem(Event event, ExportOperation operation) {
+            this.event = event;
+            this.operation = operation;
+        }
+
+        private boolean succeeded() {
+            // Un événement déjà absent de Google est considéré comme supprimé
+            return answered && (error == null
+                    || (operation == ExportOperation.DELETE && (error.getCode() == 404 || error.getCode() == 410)));
+        }
+
+        private boolean unauthorized() {
+            return answered && error != null && error.getCode() == 401;
+        }
+
+        // Quotas dépassés, erreurs serveur, ou pas de réponse (échec du lot) : l'opération peut être rejouée
+        private boolean retryable() {
+            if (!answered) {
+                return true;
+            }
+            if (error == null) {
+                return false;
+            }
+            int code = error.getCode();
+            if (code == 429 || code >= 500) {
+                return true;
+            }
+            return code == 403 && error.getErrors() != null && error.getErrors().stream()
+                    .anyMatch(e -> "rateLimitExceeded".equals(e.getReason())
+                            || "userRateLimitExceeded".equals(e.getReason()));
+        }
+    }
+
+    /**
+     * Exporte créations, mises à jour et suppressions en requêtes batch Google
+     * (au plus {@value #MAX_BATCH_SIZE} opérations par requête HTTP).
+     *
+     * Chaque réponse individuelle est reportée sur l'événement correspondant. Seules les opérations
+     * en échec transitoire (quota, 5xx, lot non abouti) sont rejouées, jusqu'à
+     * {@code google.calendar.batch.max-attempts} tentatives ; un 401 déclenche un unique
+     * rafraîchissement du token avant de rejouer les opérations concernées.
+     *
+     * @throws GoogleApiException si le token est expiré et ne peut pas être rafraîchi
+     */
+    @Transactional
+    public BatchExportResult exportEvents(User user, List<Event> events) {
+        List<Event> synced = new ArrayList<>();
+        List<Event> deleted = new ArrayList<>();
+        List<Event> failed = new ArrayList<>();
+
+        List<ExportItem> remaining = new ArrayList<>();
         for (Event event : events) {
+            boolean hasGoogleId = event.getGoogleEventId() != null && !event.getGoogleEventId().isBlank();
+            if (event.getStatus() == Event.EventStatus.PENDING_DELETION) {
+                if (hasGoogleId) {
+                    remaining.add(new ExportItem(event, ExportOperation.DELETE));
+                } else {
+                    deleted.add(event); // Jamais envoyé à Google : suppression locale seulement
+                }
+            } else {
+                remaining.add(new ExportItem(event, hasGoogleId ? ExportOperation.UPDATE : ExportOperation.INSERT));
+            }
+        }
+
+        if (!remaining.isEmpty()) {
+            if (user.getGoogleAccessToken() == null || user.getGoogleAccessToken().isBlank()) {
+                log.warn("[PUSH-BATCH] Utilisateur {} sans token Google — export ignoré.", user.getId());
+                return new BatchExportResult(synced, deleted, failed, toEvents(remaining));
+            }
+
+            ensureFreshToken(user);
+            Calendar client = buildCalendarClient(user);
+            boolean tokenRefreshed = false;
+
+            for (int attempt = 1; attempt <= Math.max(1, batchMaxAttempts) && !remaining.isEmpty(); attempt++) {
+                if (attempt > 1) {
+                    pauseBeforeRetry(attempt);
+                }
+                for (int from = 0; from < remaining.size(); from += MAX_BATCH_SIZE) {
+                    executeBatch(client, remaining.subList(from, Math.min(remaining.size(), from + MAX_BATCH_SIZE)));
+                }
+
+                List<ExportItem> retry = new ArrayList<>();
+                boolean unauthorized = false;
+                for (ExportItem item : remaining) {
+                    if (item.succeeded()) {
+                        applySuccess(item, synced, deleted);
+                    } else if (item.localError) {
+                        failed.add(item.event);
+                    } else if (item.unauthorized() && !tokenRefreshed) {
+                        unauthorized = true;
+                        retry.add(item);
+                    } else if (item.retryable()) {
+                        retry.add(item);
+                    } else {
+                        log.warn("[PUSH-BATCH] Opération {} refusée pour l'événement '{}' : {} {}",
+                                 item.operation, item.event.getSummary(),
+                                 item.error != null ? item.error.getCode() : "-",
+                                 item.error != null ? item.error.getMessage() : "");
+                        item.event.setSyncStatus(Event.SyncStatus.FAILED);
+                        failed.add(item.event);
+                    }
+                }
+
+                if (unauthorized) {
+                    tokenRefreshed = true;
+                    log.warn("[PUSH-BATCH] Token expiré détecté, tentative de rafraîchissement...");
+                    if (!refreshAccessToken(user)) {
+                        eventRepository.saveAll(concat(synced, failed));
+                        throw new GoogleApiException(
+                            "Token Google expiré et impossible de le rafraîchir. L'utilisateur doit se reconnecter.",
+                            "TOKEN_EXPIRED",
+                            false
+                        );
+                    }
+                    client = buildCalendarClient(user);
+                }
+
+                for (ExportItem item : retry) {
+                    item.answered = false;
+                    item.error = null;
+                }
+                if (!retry.isEmpty()) {
+                    log.info("[PUSH-BATCH] Tentative {} : {} opération(s) à rejouer pour l'utilisateur {}",
+                             attempt, retry.size(), user.getId());
+                }
+                remaining = retry;
+            }
+        }
+
+        eventRepository.saveAll(concat(synced, failed));
+
+        if (!remaining.isEmpty()) {
+            log.warn("[PUSH-BATCH] {} opération(s) toujours en échec pour l'utilisateur {} : reportées au prochain cycle",
+                     remaining.size(), user.getId());
+        }
+        log.info("[PUSH-BATCH] Utilisateur {} : {} exporté(s), {} supprimé(s), {} en échec, {} reporté(s)",
+                 user.getId(), synced.size(), deleted.size(), failed.size(), remaining.size());
+
+        return new BatchExportResult(synced, deleted, failed, toEvents(remaining));
+    }
+
+    /**
+     * Envoie un lot d'opérations en une requête HTTP. Un échec de la requête elle-même
+     * laisse les opérations sans réponse (donc rejouables).
+     */
+    private void executeBatch(Calendar client, List<ExportItem> items) {
+        BatchRequest batch = client.batch();
+        for (ExportItem item : items) {
             try {
-                pushEventToGoogle(event);
-                successCount++;
-            } catch (Exception e) {
-                log.error("[PUSH-BATCH] Erreur lors de l'export de l'événement '{}' : {}",
-                         event.getSummary(), e.getMessage());
+                queue(client, batch, item);
+            } catch (RuntimeException | IOException e) {
+                // Événement non convertible (dates manquantes...) : erreur locale, pas de nouvel essai
+                log.error("[PUSH-BATCH] Événement '{}' non exportable : {}", item.event.getSummary(), e.getMessage());
+                item.answered = true;
+                item.localError = true;
+                item.error = new GoogleJsonError();
+                item.error.setCode(0);
+                item.error.setMessage(e.getMessage());
+                item.event.setSyncStatus(Event.SyncStatus.CONFLICT);
             }
         }
-        
-        log.info("[PUSH-BATCH] {} événements exportés sur {} pour l'utilisateur {}",
-                 successCount, events.size(), user.getId());
-        
-        return successCount;
+        if (batch.size() == 0) {
+            return;
+        }
+        try {
+            batch.execute();
+        } catch (IOException e) {
+            log.warn("[PUSH-BATCH] Échec de la requête batch ({} opération(s)) : {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void queue(Calendar client, BatchRequest batch, ExportItem item) throws IOException {
+        Event event = item.event;
+        switch (item.operation) {
+            case INSERT -> client.events().insert(CALENDAR_ID, convertToGoogleEvent(event))
+                    .queue(batch, callback(item));
+            case UPDATE -> client.events().update(CALENDAR_ID, event.getGoogleEventId(), convertToGoogleEvent(event))
+                    .queue(batch, callback(item));
+            case DELETE -> client.events().delete(CALENDAR_ID, event.getGoogleEventId())
+                    .queue(batch, callback(item));
+        }
+    }
+
+    private static <T> JsonBatchCallback<T> callback(ExportItem item) {
+        return new JsonBatchCallback<>() {
+            @Override
+            public void onSuccess(T result, HttpHeaders responseHeaders) {
+                item.answered = true;
+                if (result instanceof com.google.api.services.calendar.model.Event googleEvent) {
+                    item.googleId = googleEvent.getId();
+                }
+            }
+
+            @Override
+            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                item.answered = true;
+                item.error = error;
+            }
+        };
+    }
+
+    private static void applySuccess(ExportItem item, List<Event> synced, List<Event> deleted) {
+        Event event = item.event;
+        switch (item.operation) {
+            case DELETE -> deleted.add(event);
+            case INSERT -> {
+                event.setGoogleEventId(item.googleId);
+                event.setSource(Event.EventSource.LOCAL);
+                markSynced(event, synced);
+            }
+            case UPDATE -> markSynced(event, synced);
+        }
+    }
+
+    private static void markSynced(Event event, List<Event> synced) {
+        event.setSyncStatus(Event.SyncStatus.SYNCED);
+        event.setLastSyncedAt(java.time.LocalDateTime.now());
+        synced.add(event);
+    }
+
+    // Attente exponentielle entre deux tentatives (retryDelay, 2×retryDelay, ...)
+    private void pauseBeforeRetry(int attempt) {
+        long delay = batchRetryDelayMs * (1L << (attempt - 2));
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Event> toEvents(List<ExportItem> items) {
+        return items.stream().map(item -> item.event).collect(Collectors.toList());
+    }
+
+    private static List<Event> concat(List<Event> first, List<Event> second) {
+        List<Event> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
     }
 
     // ── LocalDateTime  →  Google EventDateTime ──────────────────────────────
@@ -385,45 +682,13 @@ public class GoogleCalendarService {
     }
 
      /**
-     * NOUVELLE MÉTHODE : Rafraîchit automatiquement le token d'accès Google.
+     * Rafraîchit le token d'accès Google après un refus (401), via {@link GoogleTokenManager} :
+     * un rafraîchissement concurrent pour le même utilisateur est partagé.
      * 
      * @param user L'utilisateur dont on doit rafraîchir le token
      * @return true si le rafraîchissement a réussi, false sinon
      */
-    @Transactional
     protected boolean refreshAccessToken(User user) {
-        if (user.getGoogleRefreshToken() == null || user.getGoogleRefreshToken().isBlank()) {
-            log.warn("[TOKEN-REFRESH] Pas de refresh token disponible pour l'utilisateur {}", user.getId());
-            return false;
-        }
-
-        try {
-            log.info("[TOKEN-REFRESH] Rafraîchissement du token pour l'utilisateur {}", user.getId());
-            
-            GoogleTokenResponse response = new GoogleRefreshTokenRequest(
-                new NetHttpTransport(),
-                JacksonFactory.getDefaultInstance(),
-                user.getGoogleRefreshToken(),
-                clientId,
-                clientSecret
-            ).execute();
-
-            // Mise à jour du token d'accès
-            user.setGoogleAccessToken(response.getAccessToken());
-            
-            // Certains refresh peuvent aussi renouveler le refresh token
-            if (response.getRefreshToken() != null) {
-                user.setGoogleRefreshToken(response.getRefreshToken());
-                log.debug("[TOKEN-REFRESH] Refresh token également renouvelé");
-            }
-            
-            userRepository.save(user);
-            log.info("[TOKEN-REFRESH] Token rafraîchi avec succès pour l'utilisateur {}", user.getId());
-            return true;
-            
-        } catch (IOException e) {
-            log.error("[TOKEN-REFRESH] Échec du rafraîchissement du token : {}", e.getMessage());
-            return false;
-        }
+        return tokenManager.refreshAfterRejection(user);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.example.backend.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Verrou par utilisateur des échanges avec Google Calendar.
+ *
+ * Une synchronisation complète et l'export d'un seul événement (outbox) lisent les mêmes événements
+ * PENDING : exécutés en même temps, ils inséreraient tous deux l'événement encore sans googleEventId
+ * et le dupliqueraient sur Google. Le verrou est pris avant la première lecture et rendu à la fin de
+ * la transaction, une fois les googleEventId enregistrés et visibles des autres transactions.
+ */
+@Component
+public class GoogleSyncLocks extends PerUserLocks {
+}
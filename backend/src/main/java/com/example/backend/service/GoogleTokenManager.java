@@ -0,0 +1,203 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+
+import com.google.api.client.auth.oauth2.TokenResponse;
+import com.google.api.client.googleapis.auth.oauth2.GoogleRefreshTokenRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens d'accès Google : rafraîchissement anticipé et dédoublonné par utilisateur.
+ *
+ * Le token est rafraîchi {@code google.oauth.refresh-skew-ms} avant son expiration, avant l'appel
+ * à Google : un appel ne part plus avec un token périmé pour échouer en 401. Les rafraîchissements
+ * concurrents d'un même utilisateur (cycle planifié, file d'export, notifications) partagent un
+ * seul appel à Google ; les nouveaux tokens sont enregistrés une fois, puis appliqués à l'entité
+ * de chaque appelant.
+ *
+ * L'enregistrement a sa propre transaction : un rafraîchissement pendant une synchronisation ne
+ * verrouille pas la ligne de l'utilisateur jusqu'à la fin de celle-ci (les écritures locales de
+ * l'utilisateur la mettent à jour), et les tokens ne sont pas perdus si elle est annulée.
+ */
+@Component
+public class GoogleTokenManager {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleTokenManager.class);
+
+    @Value("${google.client.id:}")
+    private String clientId = "";
+
+    @Value("${google.client.secret:}")
+    private String clientSecret = "";
+
+    // Marge avant expiration en deçà de laquelle le token est rafraîchi
+    @Value("${google.oauth.refresh-skew-ms:300000}")
+    private long refreshSkewMs = 300_000;
+
+    private final UserRepository userRepository;
+    private final GoogleCalendarClientFactory clientFactory;
+    private final TransactionTemplate tokenTransaction;
+
+    // Rafraîchissements en cours : un seul appel à Google par utilisateur
+    private final ConcurrentHashMap<Long, CompletableFuture<GoogleTokens>> inFlight = new ConcurrentHashMap<>();
+
+    // Derniers tokens obtenus, pour les entités chargées avant leur enregistrement
+    private final ConcurrentHashMap<Long, GoogleTokens> latest = new ConcurrentHashMap<>();
+
+    record GoogleTokens(String accessToken, String refreshToken, LocalDateTime expiresAt) {}
+
+    public GoogleTokenManager(UserRepository userRepository, GoogleCalendarClientFactory clientFactory,
+                              PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.clientFactory = clientFactory;
+        this.tokenTransaction = new TransactionTemplate(transactionManager);
+        this.tokenTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Rafraîchit le token de l'utilisateur s'il expire dans moins de {@code refresh-skew-ms}.
+     * Sans expiration connue (tokens enregistrés avant son suivi), le token est utilisé tel quel :
+     * le premier 401 le rafraîchit et fixe son expiration.
+     *
+     * @return false si le token a expiré et n'a pas pu être rafraîchi
+     */
+    public boolean ensureFresh(User user) {
+        if (user.getId() == null || !expiresSoon(user.getGoogleTokenExpiresAt())) {
+            return true;
+        }
+        GoogleTokens tokens = refresh(user, user.getGoogleAccessToken());
+        if (tokens == null) {
+            // Le token encore valable quelques instants reste utilisable
+            return user.getGoogleTokenExpiresAt().isAfter(LocalDateTime.now());
+        }
+        apply(user, tokens);
+        return true;
+    }
+
+    /**
+     * Rafraîchit le token après un refus de Google (401), sauf si un appel concurrent vient de
+     * le faire : ses tokens sont alors repris sans nouvel appel.
+     *
+     * @return true si l'utilisateur porte désormais un nouveau token
+     */
+    public boolean refreshAfterRejection(User user) {
+        if (user.getId() == null) {
+            return false;
+        }
+        GoogleTokens tokens = refresh(user, user.getGoogleAccessToken());
+        if (tokens == null) {
+            return false;
+        }
+        apply(user, tokens);
+        return true;
+    }
+
+    /**
+     * Oublie les tokens mémorisés de l'utilisateur (liaison ou déliaison du compte Google).
+     */
+    public void forget(Long userId) {
+        if (userId != null) {
+            latest.remove(userId);
+        }
+    }
+
+    /**
+     * Expiration absolue d'un token reçu de Google, ou null si la réponse ne la précise pas.
+     */
+    static LocalDateTime expiryOf(TokenResponse response) {
+        Long expiresIn = response.getExpiresInSeconds();
+        return expiresIn != null ? LocalDateTime.now().plusSeconds(expiresIn) : null;
+    }
+
+    private boolean expiresSoon(LocalDateTime expiresAt) {
+        return expiresAt != null && !expiresAt.isAfter(LocalDateTime.now().plusNanos(refreshSkewMs * 1_000_000));
+    }
+
+    /**
+     * Premier appelant : interroge Google et publie le résultat. Les suivants attendent ce résultat.
+     *
+     * @param staleAccessToken token à remplacer ; des tokens plus récents déjà obtenus suffisent
+     * @return les nouveaux tokens, ou null si le rafraîchissement est impossible
+     */
+    private GoogleTokens refresh(User user, String staleAccessToken) {
+        Long userId = user.getId();
+        CompletableFuture<GoogleTokens> mine = new CompletableFuture<>();
+        CompletableFuture<GoogleTokens> running = inFlight.putIfAbsent(userId, mine);
+        if (running != null) {
+            log.debug("[TOKEN-REFRESH] Rafraîchissement déjà en cours pour l'utilisateur {}, attente", userId);
+            return running.join();
+        }
+
+        GoogleTokens tokens = null;
+        try {
+            GoogleTokens known = latest.get(userId);
+            if (known != null && !Objects.equals(known.accessToken(), staleAccessToken)
+                    && !expiresSoon(known.expiresAt())) {
+                tokens = known;
+            } else {
+                tokens = requestNewTokens(user);
+            }
+        } finally {
+            mine.complete(tokens);
+            inFlight.remove(userId, mine);
+        }
+        return tokens;
+    }
+
+    private GoogleTokens requestNewTokens(User user) {
+        if (user.getGoogleRefreshToken() == null || user.getGoogleRefreshToken().isBlank()) {
+            log.warn("[TOKEN-REFRESH] Pas de refresh token disponible pour l'utilisateur {}", user.getId());
+            return null;
+        }
+
+        TokenResponse response;
+        try {
+            log.info("[TOKEN-REFRESH] Rafraîchissement du token pour l'utilisateur {}", user.getId());
+            response = new GoogleRefreshTokenRequest(
+                clientFactory.transport(),
+                clientFactory.jsonFactory(),
+                user.getGoogleRefreshToken(),
+                clientId,
+                clientSecret
+            ).execute();
+        } catch (IOException e) {
+            log.error("[TOKEN-REFRESH] Échec du rafraîchissement du token : {}", e.getMessage());
+            return null;
+        }
+
+        // Certains refresh peuvent aussi renouveler le refresh token
+        String refreshToken = response.getRefreshToken() != null
+                ? response.getRefreshToken()
+                : user.getGoogleRefreshToken();
+        GoogleTokens tokens = new GoogleTokens(response.getAccessToken(), refreshToken, expiryOf(response));
+
+        // Google a pu invalider l'ancien refresh token : les nouveaux sont validés tout de suite
+        tokenTransaction.executeWithoutResult(status -> userRepository.updateGoogleTokens(
+                user.getId(), tokens.accessToken(), tokens.refreshToken(), tokens.expiresAt()));
+        latest.put(user.getId(), tokens);
+        // Le client mémorisé porte l'ancien token
+        clientFactory.invalidate(user.getId());
+        log.info("[TOKEN-REFRESH] Token rafraîchi avec succès pour l'utilisateur {}", user.getId());
+        return tokens;
+    }
+
+    private static void apply(User user, GoogleTokens tokens) {
+        user.setGoogleAccessToken(tokens.accessToken());
+        user.setGoogleRefreshToken(tokens.refreshToken());
+        user.setGoogleTokenExpiresAt(tokens.expiresAt());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.backend.service;
+
+import com.example.backend.model.GoogleWatchChannel;
+import com.example.backend.model.User;
+import com.example.backend.repository.GoogleWatchChannelRepository;
+import com.example.backend.repository.UserRepository;
+import com.google.api.services.calendar.model.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Notifications Google Calendar ({@code events.watch}) : ouverture et renouvellement des canaux,
+ * réception des notifications du webhook.
+ *
+ * Une notification marque seulement l'utilisateur à resynchroniser ; c'est
+ * {@link CalendarSyncScheduler#syncNotifiedUsers()} qui vide cette file. Les canaux expirent
+ * (7 jours au plus chez Google) : ils sont rouverts {@code app.sync.watch.renew-before-ms} avant
+ * leur expiration. Tant qu'un utilisateur n'a pas de canal actif, le cycle planifié l'interroge
+ * comme avant.
+ */
+@Service
+public class GoogleWatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(GoogleWatchService.class);
+
+    // État envoyé par Google juste après l'ouverture d'un canal (aucun changement à traiter)
+    static final String STATE_SYNC = "sync";
+
+    private final GoogleWatchChannelRepository channelRepository;
+    private final UserRepository userRepository;
+    private final GoogleCalendarService googleCalendarService;
+
+    @Value("${app.sync.watch.enabled:false}")
+    private boolean enabled = false;
+
+    // URL publique HTTPS du webhook (ex : https://api.example.com/api/sync/google/notifications)
+    @Value("${app.sync.watch.address:}")
+    private String address = "";
+
+    @Value("${app.sync.watch.ttl-ms:604800000}")
+    private long ttlMs = 604_800_000;
+
+    @Value("${app.sync.watch.renew-before-ms:86400000}")
+    private long renewBeforeMs = 86_400_000;
+
+    public GoogleWatchService(GoogleWatchChannelRepository channelRepository,
+                              UserRepository userRepository,
+                              GoogleCalendarService googleCalendarService) {
+        this.channelRepository = channelRepository;
+        this.userRepository = userRepository;
+        this.googleCalendarService = googleCalendarService;
+    }
+
+    /**
+     * Traite une notification reçue par le webhook.
+     *
+     * @return false si le canal est inconnu ou le secret invalide
+     */
+    public boolean onNotification(String channelId, String token, String resourceId, String state) {
+        if (channelId == null || token == null || resourceId == null) {
+            return false;
+        }
+        if (STATE_SYNC.equals(state)) {
+            // Le message de confirmation peut précéder l'enregistrement du canal
+            log.debug("[WATCH] Canal {} confirmé par Google", channelId);
+            return true;
+        }
+
+        if (channelRepository.markDirty(channelId, token, resourceId, LocalDateTime.now()) == 0) {
+            log.warn("[WATCH] Notification ignorée : canal {} inconnu ou secret invalide", channelId);
+            return false;
+        }
+        log.debug("[WATCH] Notification '{}' reçue sur le canal {}", state, channelId);
+        return true;
+    }
+
+    /**
+     * Ouvre un canal pour chaque utilisateur lié qui n'en a pas, ou dont le canal expire bientôt.
+     */
+    @Scheduled(fixedDelayString = "${app.sync.watch.renew-check-ms:600000}", initialDelay = 15000)
+    public void renewChannels() {
+        if (!enabled) {
+            return;
+        }
+        if (address == null || address.isBlank()) {
+            log.warn("[WATCH] app.sync.watch.address non renseignée : notifications désactivées");
+            return;
+        }
+
+        GoogleApiRateLimiter.runInBackground(this::renewDueChannels);
+    }
+
+    private void renewDueChannels() {
+        LocalDateTime now = LocalDateTime.now();
+        channelRepository.deleteExpired(now);
+        List<Long> userIds = userRepository.findIdsNeedingWatchChannel(now.plusNanos(renewBeforeMs * 1_000_000));
+
+        int opened = 0;
+        for (Long userId : userIds) {
+            try {
+                User user = userRepository.findById(userId).orElse(null);
+                if (user != null) {
+                    openChannel(user);
+                    opened++;
+                }
+            } catch (Exception e) {
+                // L'utilisateur reste couvert par le cycle planifié ; nouvel essai au prochain passage
+                log.warn("[WATCH] Ouverture du canal impossible pour l'utilisateur {} : {}", userId, e.getMessage());
+            }
+        }
+        if (opened > 0) {
+            log.info("[WATCH] {} canal(aux) ouvert(s) ou renouvelé(s)", opened);
+        }
+    }
+
+    /**
+     * Ouvre un nouveau canal pour l'utilisateur puis ferme les précédents. Une notification
+     * restée en attente sur un ancien canal est reportée sur le nouveau.
+     */
+    public GoogleWatchChannel openChannel(User user) {
+        List<GoogleWatchChannel> previous = channelRepository.findByUserId(user.getId());
+
+        String channelId = UUID.randomUUID().toString();
+        String token = UUID.randomUUID().toString();
+        Channel channel = googleCalendarService.watchEvents(user, channelId, token, address, ttlMs);
+
+        LocalDateTime expiresAt = channel.getExpiration() != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(channel.getExpiration()), ZoneId.systemDefault())
+                : LocalDateTime.now().plusNanos(ttlMs * 1_000_000);
+        GoogleWatchChannel opened = new GoogleWatchChannel(
+                user.getId(), channelId, channel.getResourceId(), token, expiresAt);
+        for (GoogleWatchChannel old : previous) {
+            if (old.getDirtyAt() != null
+                    && (opened.getDirtyAt() == null || old.getDirtyAt().isAfter(opened.getDirtyAt()))) {
+                opened.setDirtyAt(old.getDirtyAt());
+            }
+        }
+        opened = channelRepository.save(opened);
+
+        for (GoogleWatchChannel old : previous) {
+            try {
+                googleCalendarService.stopChannel(user, old.getChannelId(), old.getResourceId());
+            } catch (Exception e) {
+                // Le canal expirera de lui-même ; ses notifications seront refusées (canal inconnu)
+                log.debug("[WATCH] Fermeture du canal {} impossible : {}", old.getChannelId(), e.getMessage());
+            }
+            channelRepository.delete(old);
+        }
+        return opened;
+    }
+}
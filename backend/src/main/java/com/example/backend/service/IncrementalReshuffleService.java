@@ -0,0 +1,72 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ScheduleChange;
+import com.example.backend.dto.ScheduleChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reshuffle incrémental déclenché par l'écriture d'un événement, hors de la requête.
+ *
+ * La modification n'est traitée qu'après le commit de l'écriture (rien n'est replacé si elle
+ * est annulée), dans un thread virtuel : la création, la modification et la suppression d'un
+ * événement ne paient ni le chargement de l'horizon ni un éventuel reshuffle complet. Les
+ * modifications d'un même utilisateur sont traitées l'une après l'autre, dans l'ordre des commits ;
+ * chaque {@link ScheduleOptimizerService#reshuffleWindow} ouvre sa propre transaction.
+ */
+@Service
+public class IncrementalReshuffleService {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalReshuffleService.class);
+
+    private final ScheduleOptimizerService optimizerService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Dernier reshuffle en attente ou en cours par utilisateur (retiré une fois terminé)
+    private final Map<Long, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+    public IncrementalReshuffleService(ScheduleOptimizerService optimizerService) {
+        this.optimizerService = optimizerService;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        submit(event.userId(), event.change());
+    }
+
+    /**
+     * Met le reshuffle en file derrière ceux déjà demandés pour cet utilisateur.
+     */
+    CompletableFuture<Void> submit(Long userId, ScheduleChange change) {
+        CompletableFuture<Void> next = pending.compute(userId, (id, previous) ->
+                (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                        .thenRunAsync(() -> reshuffle(userId, change), executor));
+        next.whenComplete((ignored, error) -> pending.remove(userId, next));
+        return next;
+    }
+
+    private void reshuffle(Long userId, ScheduleChange change) {
+        try {
+            optimizerService.reshuffleWindow(userId, change);
+        } catch (Exception e) {
+            // Les tâches restent où elles étaient : le prochain reshuffle les replacera
+            log.error("[RESHUFFLE] Échec du reshuffle incrémental pour l'utilisateur {} : {}",
+                      userId, e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
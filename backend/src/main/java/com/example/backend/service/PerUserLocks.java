@@ -0,0 +1,57 @@
+package com.example.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous par utilisateur gardés jusqu'à la fin de la transaction courante : les écritures du
+ * détenteur sont validées et visibles avant qu'un autre traitement du même utilisateur ne relise.
+ * Réentrants : un traitement verrouillé peut en appeler un autre du même type.
+ */
+public abstract class PerUserLocks {
+
+    private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Attend le verrou de l'utilisateur et le garde jusqu'à la fin de la transaction courante
+     * (jusqu'au retour de {@code body} hors transaction).
+     */
+    public <T, E extends Exception> T callLocked(Long userId, LockedCall<T, E> body) throws E {
+        ReentrantLock lock = locks.computeIfAbsent(userId, id -> new ReentrantLock());
+        lock.lock();
+        boolean releasedOnCompletion = false;
+        try {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lock.unlock();
+                    }
+                });
+                releasedOnCompletion = true;
+            }
+            return body.call();
+        } finally {
+            if (!releasedOnCompletion) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Vrai si un traitement verrouillé est en cours pour cet utilisateur (dans un autre thread).
+     */
+    public boolean isBusy(Long userId) {
+        ReentrantLock lock = locks.get(userId);
+        return lock != null && lock.isLocked() && !lock.isHeldByCurrentThread();
+    }
+
+    @FunctionalInterface
+    public interface LockedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
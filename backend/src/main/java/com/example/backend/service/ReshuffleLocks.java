@@ -0,0 +1,16 @@
+package com.example.backend.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Verrou par utilisateur des placements de tâches.
+ *
+ * Reshuffle complet (manuel, nocturne, assistant), reshuffle incrémental et planification d'une
+ * tâche lisent les tâches sans événement puis leur en créent un : deux placements simultanés du
+ * même utilisateur créeraient chacun un événement pour la même tâche. Le verrou est pris avant la
+ * lecture des tâches et rendu à la fin de la transaction, une fois les liens tâche → événement
+ * enregistrés.
+ */
+@Component
+public class ReshuffleLocks extends PerUserLocks {
+}
@@ -1,5 +1,16 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.ScheduleChange;
+
 public interface ScheduleOptimizerService {
     void reshuffle(Long userId);
+
+    /**
+     * Reshuffle incrémental après la modification ou la suppression d'un événement :
+     * seules les tâches concernées par la zone libérée ou bloquée sont replacées.
+     * Par défaut, repli sur le reshuffle complet.
+     */
+    default void reshuffleWindow(Long userId, ScheduleChange change) {
+        reshuffle(userId);
+    }
 }
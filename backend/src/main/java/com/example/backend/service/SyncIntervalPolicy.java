@@ -0,0 +1,82 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cadence de synchronisation planifiée propre à chaque utilisateur, réglée sur la fréquence
+ * de ses changements.
+ *
+ * Une synchronisation qui importe ou exporte des changements divise l'intervalle par deux
+ * (jusqu'à {@code app.sync.interval.min-ms}) ; une synchronisation sans changement le double
+ * (jusqu'à {@code app.sync.interval.max-ms}). Une écriture locale ramène aussitôt l'utilisateur
+ * à l'intervalle minimal. L'intervalle et l'échéance sont enregistrés sur l'utilisateur : la
+ * cadence survit aux redémarrages. Avec min = max, la cadence redevient fixe.
+ */
+@Component
+public class SyncIntervalPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncIntervalPolicy.class);
+
+    private final UserRepository userRepository;
+
+    @Value("${app.sync.interval.initial-ms:900000}")
+    private long initialMs = 900_000;
+
+    @Value("${app.sync.interval.min-ms:300000}")
+    private long minMs = 300_000;
+
+    @Value("${app.sync.interval.max-ms:21600000}")
+    private long maxMs = 21_600_000;
+
+    public SyncIntervalPolicy(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Enregistre la synchronisation réussie, l'intervalle et l'échéance suivante. L'utilisateur,
+     * chargé au début de la synchronisation, n'est pas modifié : une requête ciblée préserve une
+     * écriture locale survenue entre-temps (voir {@link UserRepository#recordGoogleSync}).
+     *
+     * @param syncStartedAt début de la synchronisation (point de départ de l'échéance)
+     * @param changes       événements importés ou exportés par la synchronisation
+     */
+    public void afterSync(User user, LocalDateTime syncStartedAt, int changes) {
+        Long observed = user.getGoogleSyncIntervalMs();
+        long current = observed != null ? observed : initialMs;
+        long next = clamp(changes > 0 ? current / 2 : current * 2);
+
+        userRepository.recordGoogleSync(user.getId(), syncStartedAt, observed != null ? observed : -1L, next,
+                syncStartedAt.plusNanos(next * 1_000_000));
+        log.debug("[SYNC-INTERVAL] Utilisateur {} : {} changement(s), prochaine synchronisation dans {} s",
+                  user.getId(), changes, next / 1000);
+    }
+
+    /**
+     * Synchronisation planifiée en échec : nouvel essai après l'intervalle initial, sans modifier
+     * l'intervalle appris.
+     */
+    public void afterFailure(Long userId) {
+        userRepository.postponeGoogleSync(userId, LocalDateTime.now().plusNanos(clamp(initialMs) * 1_000_000));
+    }
+
+    /**
+     * Écriture locale : l'utilisateur est actif, sa cadence repart de l'intervalle minimal.
+     */
+    public void onLocalEdit(Long userId) {
+        long interval = clamp(minMs);
+        userRepository.resetGoogleSyncInterval(userId, interval,
+                LocalDateTime.now().plusNanos(interval * 1_000_000));
+    }
+
+    private long clamp(long intervalMs) {
+        long floor = Math.max(1, minMs);
+        return Math.min(Math.max(intervalMs, floor), Math.max(floor, maxMs));
+    }
+}
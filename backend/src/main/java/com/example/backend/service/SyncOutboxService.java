@@ -0,0 +1,146 @@
+package com.example.backend.service;
+
+import com.example.backend.model.SyncOutboxEntry;
+import com.example.backend.repository.SyncOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * File persistante des exports Google à effectuer après une écriture locale.
+ *
+ * Les écritures d'événements n'appellent plus Google : elles enregistrent une intention par
+ * événement ({@link #enqueue(Long, Long)}), dans leur propre transaction, et rendent la main. Le
+ * worker ({@link #drain()}) traite un utilisateur une fois ses écritures calmées depuis
+ * {@code app.sync.outbox.debounce-ms} : chaque événement modifié part en une seule écriture
+ * (insert, update ou delete), quel que soit le nombre de modifications de la rafale. L'import
+ * complet depuis Google reste l'affaire du cycle planifié.
+ * Une intention en échec est rejouée avec un délai croissant, puis abandonnée (le cycle planifié
+ * exporte de toute façon les événements restés PENDING).
+ */
+@Service
+public class SyncOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncOutboxService.class);
+
+    private final SyncOutboxRepository outboxRepository;
+    private final CalendarSyncService calendarSyncService;
+    private final SyncIntervalPolicy syncIntervalPolicy;
+    private final GoogleSyncLocks syncLocks;
+
+    @Value("${app.sync.outbox.debounce-ms:2000}")
+    private long debounceMs = 2000;
+
+    @Value("${app.sync.outbox.max-delay-ms:30000}")
+    private long maxDelayMs = 30_000;
+
+    @Value("${app.sync.outbox.max-concurrency:2}")
+    private int maxConcurrency = 2;
+
+    @Value("${app.sync.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${app.sync.outbox.retry-delay-ms:5000}")
+    private long retryDelayMs = 5000;
+
+    public SyncOutboxService(SyncOutboxRepository outboxRepository, CalendarSyncService calendarSyncService,
+                             SyncIntervalPolicy syncIntervalPolicy, GoogleSyncLocks syncLocks) {
+        this.outboxRepository = outboxRepository;
+        this.calendarSyncService = calendarSyncService;
+        this.syncIntervalPolicy = syncIntervalPolicy;
+        this.syncLocks = syncLocks;
+    }
+
+    /**
+     * Demande l'export vers Google d'un événement modifié. Rejoint la transaction de l'écriture :
+     * si elle est annulée, la demande l'est aussi. Une nouvelle demande ramène aussi l'utilisateur
+     * à la cadence de synchronisation la plus rapide ({@link SyncIntervalPolicy}).
+     */
+    @Transactional
+    public void enqueue(Long userId, Long eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (outboxRepository.touch(userId, eventId, now) == 0) {
+            outboxRepository.save(new SyncOutboxEntry(userId, eventId, now));
+            // Une demande déjà en file signifie que la cadence a été réinitialisée à l'instant
+            syncIntervalPolicy.onLocalEdit(userId);
+        }
+        log.debug("[SYNC-OUTBOX] Export demandé pour l'événement {} (utilisateur {})", eventId, userId);
+    }
+
+    /**
+     * Traite les utilisateurs dont les écritures sont calmées (ou en attente depuis trop longtemps).
+     */
+    @Scheduled(fixedDelayString = "${app.sync.outbox.poll-ms:500}", initialDelay = 5000)
+    public void drain() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> userIds = outboxRepository.findReadyUserIds(
+                now, now.minusNanos(debounceMs * 1_000_000), now.minusNanos(maxDelayMs * 1_000_000));
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        log.debug("[SYNC-OUTBOX] {} utilisateur(s) à exporter", userIds.size());
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long userId : userIds) {
+                executor.submit(() -> GoogleApiRateLimiter.runInBackground(() -> drainUser(userId, permits)));
+            }
+        }
+    }
+
+    private void drainUser(Long userId, Semaphore permits) {
+        if (syncLocks.isBusy(userId)) {
+            // Synchronisation en cours (éventuellement au-delà de son délai) : elle exporte déjà les
+            // événements PENDING ; les demandes restent en file pour le passage suivant
+            log.debug("[SYNC-OUTBOX] Utilisateur {} en cours de synchronisation : export reporté", userId);
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        try {
+            for (Long eventId : outboxRepository.findReadyEventIds(userId, LocalDateTime.now())) {
+                drainEvent(userId, eventId);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void drainEvent(Long userId, Long eventId) {
+        // Les demandes postérieures à cet instant resteront dans la file pour la prochaine passe
+        LocalDateTime drainedUpTo = LocalDateTime.now();
+        try {
+            if (calendarSyncService.pushEventChange(userId, eventId)) {
+                log.info("[SYNC-OUTBOX] Événement {} de l'utilisateur {} exporté", eventId, userId);
+            }
+            outboxRepository.deleteDrained(userId, eventId, drainedUpTo);
+
+        } catch (Exception e) {
+            int attempts = outboxRepository.findAttempts(userId, eventId) + 1;
+            if (attempts >= maxAttempts) {
+                log.error("[SYNC-OUTBOX] Événement {} : abandon après {} tentatives : {}",
+                          eventId, attempts, e.getMessage());
+                outboxRepository.deleteDrained(userId, eventId, drainedUpTo);
+            } else {
+                long delay = retryDelayMs * (1L << (attempts - 1));
+                log.warn("[SYNC-OUTBOX] Événement {} : échec de la tentative {} ({}), nouvel essai dans {} ms",
+                         eventId, attempts, e.getMessage(), delay);
+                outboxRepository.markFailed(userId, eventId, LocalDateTime.now().plusNanos(delay * 1_000_000));
+            }
+        }
+    }
+}
@@ -18,6 +18,9 @@ public interface TaskService {
     // Créer une nouvelle tâche (non planifiée)
     Task createTask(Task task, Long userId);
 
+    // Créer plusieurs tâches d'un coup (insertion groupée)
+    List<Task> createTasks(List<Task> tasks, Long userId);
+
     // Note : On ajoute userId pour savoir QUI tente de modifier
     Task updateTask(Long id, Task task, Long userId);
 
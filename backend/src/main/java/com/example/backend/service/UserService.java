@@ -3,8 +3,6 @@ package com.example.backend.service;
 import org.springframework.stereotype.Service;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeTokenRequest;
 import com.google.api.client.googleapis.auth.oauth2.GoogleTokenResponse;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.example.backend.model.User;
@@ -27,9 +25,14 @@ public class UserService {
     private String redirectUri;
 
     private final UserRepository userRepository;
+    private final GoogleCalendarClientFactory calendarClientFactory;
+    private final GoogleTokenManager tokenManager;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, GoogleCalendarClientFactory calendarClientFactory,
+                       GoogleTokenManager tokenManager) {
         this.userRepository = userRepository;
+        this.calendarClientFactory = calendarClientFactory;
+        this.tokenManager = tokenManager;
     }
 
     /**
@@ -137,8 +140,8 @@ public class UserService {
      */
     public User saveGoogleTokens(Long userId, String code) throws IOException {
         GoogleTokenResponse response = new GoogleAuthorizationCodeTokenRequest(
-                new NetHttpTransport(),
-                JacksonFactory.getDefaultInstance(),
+                calendarClientFactory.transport(),
+                calendarClientFactory.jsonFactory(),
                 "https://oauth2.googleapis.com/token",
                 clientId,
                 clientSecret,
@@ -150,6 +153,11 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
 
         user.setGoogleAccessToken(response.getAccessToken());
+        user.setGoogleTokenExpiresAt(GoogleTokenManager.expiryOf(response));
+        // Le compte lié peut avoir changé : le prochain import repart d'une synchronisation complète
+        user.setGoogleSyncToken(null);
+        user.setGoogleSyncIntervalMs(null);
+        user.setNextGoogleSyncAt(null);
         
         // Le refresh token n'est envoyé par Google que lors de la première autorisation 
         // ou si l'accès est forcé en mode "offline"
@@ -157,7 +165,11 @@ public class UserService {
             user.setGoogleRefreshToken(response.getRefreshToken());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // Le client Calendar et les tokens mémorisés sont ceux du compte précédent
+        calendarClientFactory.invalidate(userId);
+        tokenManager.forget(userId);
+        return saved;
     }
 
     /**
@@ -174,7 +186,14 @@ public class UserService {
 
         user.setGoogleAccessToken(null);
         user.setGoogleRefreshToken(null);
-
-        return userRepository.save(user);
+        user.setGoogleTokenExpiresAt(null);
+        user.setGoogleSyncToken(null);
+        user.setGoogleSyncIntervalMs(null);
+        user.setNextGoogleSyncAt(null);
+
+        User saved = userRepository.save(user);
+        calendarClientFactory.invalidate(userId);
+        tokenManager.forget(userId);
+        return saved;
     }
 }
\ No newline at end of file
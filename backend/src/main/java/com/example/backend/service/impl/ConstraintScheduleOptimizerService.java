@@ -0,0 +1,344 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.TimeSlot;
+import com.example.backend.model.Event;
+import com.example.backend.model.Task;
+import com.example.backend.model.Task.TaskStatus;
+import com.example.backend.model.UserFocusPreference;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.service.ReshuffleLocks;
+import com.example.backend.service.ScheduleOptimizerService;
+import com.example.backend.service.scheduling.TimelineIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Optimiseur sous contraintes, alternative au placement glouton de {@link DefaultScheduleOptimizerService}.
+ *
+ * Un plan est un ordre de passage des tâches ; chaque tâche y est placée au premier créneau
+ * libre depuis le curseur (réunions et créneaux Focus exclus), ce qui comble les trous laissés
+ * par les tâches précédentes. Une recherche locale (recuit simulé sur permutations) cherche
+ * l'ordre de coût minimal dans un budget de temps fixe ({@code app.optimizer.time-budget-ms}) ;
+ * le meilleur plan trouvé à l'échéance est enregistré. L'échéance est vérifiée à chaque tâche
+ * placée : seul l'ordre initial (celui du glouton) est toujours évalué en entier.
+ *
+ * Coût d'un plan, pondéré par la priorité (1 = haute) :
+ * - retard sur la deadline (très pénalisé)
+ * - délai entre le curseur et le début de la tâche (les tâches importantes passent en premier)
+ * - petits trous inutilisables (< 30 min) créés autour de la tâche
+ */
+@Service("constraintScheduleOptimizerService")
+public class ConstraintScheduleOptimizerService implements ScheduleOptimizerService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConstraintScheduleOptimizerService.class);
+
+    private static final long LATE_FIXED_PENALTY = 100_000L;
+    private static final long LATE_MINUTE_PENALTY = 1_000L;
+    private static final long SMALL_GAP_PENALTY = 60L;
+    private static final long SMALL_GAP_MINUTES = 30L;
+
+    private final EventRepository eventRepository;
+    private final TaskRepository taskRepository;
+    private final FocusService focusService;
+    private final ReshuffleLocks reshuffleLocks;
+
+    @Value("${app.optimizer.time-budget-ms:200}")
+    private long timeBudgetMs = 200;
+
+    public ConstraintScheduleOptimizerService(EventRepository eventRepository,
+                                              TaskRepository taskRepository,
+                                              FocusService focusService,
+                                              ReshuffleLocks reshuffleLocks) {
+        this.eventRepository = eventRepository;
+        this.taskRepository = taskRepository;
+        this.focusService = focusService;
+        this.reshuffleLocks = reshuffleLocks;
+    }
+
+    @Override
+    @Transactional
+    public void reshuffle(Long userId) {
+        // Un seul placement à la fois par utilisateur, jusqu'au commit (voir ReshuffleLocks)
+        reshuffleLocks.callLocked(userId, () -> {
+            reshuffleLocked(userId);
+            return null;
+        });
+    }
+
+    private void reshuffleLocked(Long userId) {
+        List<Event> events = eventRepository.findByUser_IdOrderByStartTime(userId);
+        List<Task> tasks = taskRepository.findByUser_Id(userId);
+
+        // Même curseur que le placement glouton : 8h00 aujourd'hui ou maintenant si plus tard
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = now.withHour(8).withMinute(0).withSecond(0).withNano(0);
+        if (cursor.isBefore(now)) {
+            cursor = now;
+        }
+
+        List<Task> changedTasks = new ArrayList<>();
+        List<Task> toPlace = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getStatus() == TaskStatus.DONE || task.getEvent() != null) {
+                continue;
+            }
+            if (task.getDeadline() != null && task.getDeadline().isBefore(now)) {
+                task.setLate(true);
+                changedTasks.add(task);
+                continue;
+            }
+            toPlace.add(task);
+        }
+
+        if (!toPlace.isEmpty()) {
+            LocalDateTime from = cursor;
+            List<Event> upcoming = events.stream()
+                    .filter(e -> e.getEndTime() != null && e.getEndTime().isAfter(from))
+                    .collect(Collectors.toList());
+
+            Problem problem = new Problem(from, toPlace, TimelineIndex.of(upcoming), focusWindows(userId, events));
+            int[] bestOrder = search(problem);
+            LocalDateTime[] starts = problem.decode(bestOrder).starts();
+
+            List<Event> newEvents = new ArrayList<>();
+            for (int i = 0; i < toPlace.size(); i++) {
+                Task task = toPlace.get(i);
+                Event taskEvent = new Event(task.getTitle(), starts[i],
+                        starts[i].plusMinutes(task.getEstimatedDuration()), task.getUser());
+                newEvents.add(taskEvent);
+                task.setEvent(taskEvent);
+                changedTasks.add(task);
+            }
+            eventRepository.saveAll(newEvents);
+        }
+
+        taskRepository.saveAll(changedTasks);
+        focusService.invalidate(userId);
+    }
+
+    /**
+     * Recuit simulé sur l'ordre de placement, borné par le budget de temps.
+     */
+    int[] search(Problem problem) {
+        long startNanos = System.nanoTime();
+        long budgetNanos = Duration.ofMillis(Math.max(0, timeBudgetMs)).toNanos();
+        long deadline = startNanos + budgetNanos;
+
+        // Ordre du glouton, toujours évalué : c'est le plan rendu si le budget est épuisé
+        int[] current = problem.deadlineFirstOrder();
+        long currentCost = problem.decode(current).cost();
+        int[] priorityFirst = problem.priorityFirstOrder();
+        Plan priorityPlan = problem.decode(priorityFirst, deadline);
+        if (priorityPlan != null && priorityPlan.cost() < currentCost) {
+            current = priorityFirst;
+            currentCost = priorityPlan.cost();
+        }
+        int[] best = current.clone();
+        long bestCost = currentCost;
+        long initialCost = currentCost;
+
+        int n = current.length;
+        SplittableRandom random = new SplittableRandom(n);
+        double initialTemperature = Math.max(1.0, currentCost * 0.05);
+        long iterations = 0;
+
+        while (n > 1) {
+            long elapsed = System.nanoTime() - startNanos;
+            if (elapsed >= budgetNanos) {
+                break;
+            }
+
+            int[] candidate = current.clone();
+            int i = random.nextInt(n);
+            int j = random.nextInt(n - 1);
+            if (j >= i) j++;
+            if (random.nextBoolean()) {
+                int tmp = candidate[i];
+                candidate[i] = candidate[j];
+                candidate[j] = tmp;
+            } else {
+                moveElement(candidate, i, j);
+            }
+
+            Plan plan = problem.decode(candidate, deadline);
+            if (plan == null) {
+                break; // Budget épuisé pendant l'évaluation
+            }
+            long cost = plan.cost();
+            double temperature = initialTemperature * (1.0 - (double) elapsed / budgetNanos);
+            if (cost <= currentCost
+                    || random.nextDouble() < Math.exp((currentCost - cost) / temperature)) {
+                current = candidate;
+                currentCost = cost;
+                if (cost < bestCost) {
+                    best = candidate;
+                    bestCost = cost;
+                }
+            }
+            iterations++;
+        }
+
+        log.info("[OPTIMIZER] {} tâche(s), {} itération(s) en {} ms, coût {} → {}",
+                 n, iterations, (System.nanoTime() - startNanos) / 1_000_000, initialCost, bestCost);
+        return best;
+    }
+
+    private static void moveElement(int[] order, int from, int to) {
+        int value = order[from];
+        if (from < to) {
+            System.arraycopy(order, from + 1, order, from, to - from);
+        } else {
+            System.arraycopy(order, to, order, to + 1, from - to);
+        }
+        order[to] = value;
+    }
+
+    /**
+     * Créneaux Focus par jour, calculés à la demande à partir des événements déjà chargés.
+     */
+    private FocusWindows focusWindows(Long userId, List<Event> events) {
+        UserFocusPreference prefs = focusService.getPreferences(userId);
+        if (!prefs.isFocusModeEnabled()) {
+            return date -> List.of();
+        }
+        Map<LocalDate, List<Event>> eventsByDay = events.stream()
+                .filter(e -> e.getStartTime() != null && e.getEndTime() != null)
+                .collect(Collectors.groupingBy(e -> e.getStartTime().toLocalDate()));
+        Map<LocalDate, List<TimeSlot>> memo = new HashMap<>();
+        return date -> memo.computeIfAbsent(date,
+                d -> focusService.computeFocusSlots(prefs, d, eventsByDay.getOrDefault(d, List.of())));
+    }
+
+    @FunctionalInterface
+    interface FocusWindows {
+        List<TimeSlot> forDay(LocalDate date);
+    }
+
+    record Plan(LocalDateTime[] starts, long cost) {}
+
+    /**
+     * Données figées du problème : curseur, tâches à placer, agenda occupé et créneaux Focus.
+     */
+    static final class Problem {
+        private static final Comparator<Task> BY_DEADLINE = Comparator.comparing(Task::getDeadline,
+                Comparator.nullsLast(Comparator.naturalOrder()));
+
+        private final LocalDateTime cursor;
+        private final List<Task> tasks;
+        private final TimelineIndex busy;
+        private final FocusWindows focusWindows;
+
+        Problem(LocalDateTime cursor, List<Task> tasks, TimelineIndex busy, FocusWindows focusWindows) {
+            this.cursor = cursor;
+            this.tasks = tasks;
+            this.busy = busy;
+            this.focusWindows = focusWindows;
+        }
+
+        // Ordres initiaux de la recherche : deadline puis priorité (ordre du glouton), ou l'inverse
+        int[] deadlineFirstOrder() {
+            return orderBy(BY_DEADLINE.thenComparing(Task::getPriority));
+        }
+
+        int[] priorityFirstOrder() {
+            return orderBy(Comparator.comparing(Task::getPriority).thenComparing(BY_DEADLINE));
+        }
+
+        private int[] orderBy(Comparator<Task> comparator) {
+            return IntStream.range(0, tasks.size()).boxed()
+                    .sorted((a, b) -> comparator.compare(tasks.get(a), tasks.get(b)))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * Place les tâches dans l'ordre donné et calcule le coût du plan obtenu.
+         */
+        Plan decode(int[] order) {
+            return decode(order, Long.MAX_VALUE);
+        }
+
+        /**
+         * Comme {@link #decode(int[])}, mais abandonne (null) dès que {@code deadlineNanos}
+         * ({@link System#nanoTime()}) est dépassé ; {@link Long#MAX_VALUE} = sans échéance.
+         */
+        Plan decode(int[] order, long deadlineNanos) {
+            TimelineIndex timeline = busy.copy();
+            LocalDateTime[] starts = new LocalDateTime[tasks.size()];
+            long cost = 0;
+
+            for (int index : order) {
+                if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+                    return null;
+                }
+                Task task = tasks.get(index);
+                long duration = task.getEstimatedDuration();
+                long weight = Math.max(1, 6 - task.getPriority());
+
+                LocalDateTime start = firstFit(timeline, duration);
+                LocalDateTime end = start.plusMinutes(duration);
+                starts[index] = start;
+
+                cost += weight * Duration.between(cursor, start).toMinutes();
+                if (task.getDeadline() != null && end.isAfter(task.getDeadline())) {
+                    cost += LATE_FIXED_PENALTY
+                            + LATE_MINUTE_PENALTY * weight * Duration.between(task.getDeadline(), end).toMinutes();
+                }
+                cost += SMALL_GAP_PENALTY * (smallGap(timeline.busyEndBefore(start), start)
+                        + smallGap(end, timeline.nextBusyStart(end)));
+
+                timeline.add(start, end);
+            }
+            return new Plan(starts, cost);
+        }
+
+        private static int smallGap(LocalDateTime from, LocalDateTime to) {
+            if (from == null || to == null || !to.isAfter(from)) {
+                return 0;
+            }
+            return Duration.between(from, to).toMinutes() < SMALL_GAP_MINUTES ? 1 : 0;
+        }
+
+        /**
+         * Premier début libre depuis le curseur, hors réunions et hors créneaux Focus.
+         */
+        private LocalDateTime firstFit(TimelineIndex timeline, long duration) {
+            LocalDateTime start = cursor;
+            while (true) {
+                start = timeline.nextFreeStart(start, duration);
+                LocalDateTime focusEnd = focusCollisionEnd(start, start.plusMinutes(duration));
+                if (focusEnd == null) {
+                    return start;
+                }
+                start = focusEnd;
+            }
+        }
+
+        private LocalDateTime focusCollisionEnd(LocalDateTime start, LocalDateTime end) {
+            for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+                for (TimeSlot slot : focusWindows.forDay(day)) {
+                    if (start.isBefore(slot.end()) && end.isAfter(slot.start())) {
+                        return slot.end();
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
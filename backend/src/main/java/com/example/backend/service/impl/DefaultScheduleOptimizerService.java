@@ -1,60 +1,100 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.ScheduleChange;
+import com.example.backend.dto.TimeSlot;
 import com.example.backend.model.Event;
 import com.example.backend.model.Task;
 import com.example.backend.model.Task.TaskStatus;
+import com.example.backend.model.UserFocusPreference;
 import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.TaskRepository;
+import com.example.backend.service.ReshuffleLocks;
 import com.example.backend.service.ScheduleOptimizerService;
+import com.example.backend.service.SyncOutboxService;
+import com.example.backend.service.scheduling.TimelineIndex;
 import com.example.backend.service.strategy.TaskSelectionStrategy;
 import com.example.backend.service.TravelTimeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@Primary
 public class DefaultScheduleOptimizerService implements ScheduleOptimizerService {
 
+    private static final Comparator<Task> TASK_ORDER = Comparator
+            .comparing(Task::getDeadline, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Task::getPriority);
+
     private final EventRepository eventRepository;
     private final TaskRepository taskRepository;
     private final TaskSelectionStrategy taskSelectionStrategy;
     private final TravelTimeService travelTimeService;
     private final FocusService focusService; // AJOUT : Dépendance au service de Focus
+    private final SyncOutboxService syncOutboxService;
+    private final ReshuffleLocks reshuffleLocks;
+
+    // Horizon (jours après la zone modifiée) chargé par le reshuffle incrémental
+    @Value("${app.reshuffle.incremental.horizon-days:14}")
+    private long horizonDays = 14;
 
     public DefaultScheduleOptimizerService(EventRepository eventRepository,
                                            TaskRepository taskRepository,
                                            TaskSelectionStrategy taskSelectionStrategy,
                                            TravelTimeService travelTimeService,
-                                           FocusService focusService) {
+                                           FocusService focusService,
+                                           SyncOutboxService syncOutboxService,
+                                           ReshuffleLocks reshuffleLocks) {
         this.eventRepository = eventRepository;
         this.taskRepository = taskRepository;
         this.taskSelectionStrategy = taskSelectionStrategy;
         this.travelTimeService = travelTimeService;
         this.focusService = focusService;
+        this.syncOutboxService = syncOutboxService;
+        this.reshuffleLocks = reshuffleLocks;
     }
 
     @Override
     @Transactional
     public void reshuffle(Long userId) {
+        // Un seul placement à la fois par utilisateur, jusqu'au commit (voir ReshuffleLocks)
+        reshuffleLocks.callLocked(userId, () -> {
+            reshuffleLocked(userId);
+            return null;
+        });
+    }
+
+    private void reshuffleLocked(Long userId) {
         // 1. Charger l'existant
         List<Event> events = eventRepository.findByUser_IdOrderByStartTime(userId);
         List<Task> tasks = taskRepository.findByUser_Id(userId);
+        // L'agenda va changer : les journées Focus mémorisées sont oubliées
+        focusService.invalidate(userId);
+        // Index des plages occupées, construit une seule fois (collisions en O(log n))
+        TimelineIndex timeline = TimelineIndex.of(events);
+        FocusDays focus = new FocusDays(userId, events);
 
     // 3️⃣ Trier les tâches par deadline (plus proche d'abord) 
     // puis par priorité (1 avant 5)
-    tasks.sort(Comparator
-        .comparing(Task::getDeadline, Comparator.nullsLast(Comparator.naturalOrder()))
-        .thenComparing(Task::getPriority) 
-    );
+    tasks.sort(TASK_ORDER);
         // 3. Initialiser le curseur (8h00 aujourd'hui ou l'heure actuelle si plus tard)
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime cursor = now.withHour(8).withMinute(0).withSecond(0).withNano(0);
-        if (cursor.isBefore(now)) {
-            cursor = now;
-        }
+        LocalDateTime cursor = initialCursor(now);
+
+        // Écritures accumulées puis envoyées en lots JDBC (hibernate.jdbc.batch_size)
+        Map<Task, Event> placements = new LinkedHashMap<>();
+        List<Task> changedTasks = new ArrayList<>();
 
         for (Task task : tasks) {
             // Ignorer les tâches déjà faites ou déjà liées à un événement valide
@@ -65,65 +105,290 @@ public class DefaultScheduleOptimizerService implements ScheduleOptimizerService
             // Marquer comme en retard si la deadline est dépassée
             if (task.getDeadline() != null && task.getDeadline().isBefore(now)) {
                 task.setLate(true);
-                taskRepository.save(task);
+                changedTasks.add(task);
                 continue;
             }
 
-            boolean placed = false;
-            
-            // On cherche un créneau en boucle jusqu'à ce que la tâche soit placée
-            while (!placed) {
-                LocalDateTime potentialStart = cursor;
-                LocalDateTime potentialEnd = cursor.plusMinutes(task.getEstimatedDuration());
-
-                // A. Vérifier les collisions avec les ÉVÉNEMENTS existants
-                Event collisionEvent = findCollision(potentialStart, potentialEnd, events);
-                
-                if (collisionEvent != null) {
-                    // Si collision avec une réunion, on déplace le curseur après celle-ci
-                    cursor = collisionEvent.getEndTime();
-                    continue;
+            LocalDateTime start = findSlot(timeline, focus, cursor, task.getEstimatedDuration());
+            Event taskEvent = placeTask(task, start, timeline, focus);
+            placements.put(task, taskEvent);
+            changedTasks.add(task);
+
+            // On met à jour le curseur pour la tâche suivante
+            cursor = taskEvent.getEndTime();
+        }
+
+        // Les événements d'abord : les tâches référencent leur event_id
+        saveAndLink(placements, List.of());
+        taskRepository.saveAll(changedTasks);
+    }
+
+    /**
+     * Reshuffle limité à la zone touchée par une modification d'agenda.
+     *
+     * - zone bloquée (nouvel intervalle) : les tâches dont l'événement la chevauche sont déplacées
+     * - zone libérée (ancien intervalle) : les tâches non placées dont la deadline le permet y sont proposées
+     *
+     * Les autres tâches ne sont pas touchées. Une tâche délogée garde son événement, simplement déplacé :
+     * sa copie Google éventuelle est mise à jour, pas dupliquée. Seuls les événements de
+     * [zone, zone + horizon] sont chargés ; une tâche qui ne trouve pas de place dans l'horizon
+     * déclenche un reshuffle complet.
+     */
+    @Override
+    @Transactional
+    public void reshuffleWindow(Long userId, ScheduleChange change) {
+        reshuffleLocks.callLocked(userId, () -> {
+            reshuffleWindowLocked(userId, change);
+            return null;
+        });
+    }
+
+    private void reshuffleWindowLocked(Long userId, ScheduleChange change) {
+        if (change.windowStart() == null || change.windowEnd() == null) {
+            reshuffle(userId);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = initialCursor(now);
+        if (!change.windowEnd().isAfter(cursor)) {
+            return; // Modification dans le passé : rien à replacer
+        }
+        LocalDateTime from = change.windowStart().isAfter(cursor) ? change.windowStart() : cursor;
+        LocalDateTime horizonEnd = change.windowEnd().plusDays(horizonDays);
+        focusService.invalidate(userId);
+
+        // 1. Tâches délogées par la zone bloquée : leur événement sera déplacé
+        List<Task> candidates = new ArrayList<>();
+        Map<Task, Event> displaced = new LinkedHashMap<>();
+        if (!change.isDeletion()) {
+            for (Task task : taskRepository.findScheduledOverlapping(userId, change.newStart(), change.newEnd())) {
+                if (task.getEvent().getId() != null && task.getEvent().getId().equals(change.eventId())) {
+                    continue; // L'événement déplacé est lui-même le créneau de la tâche
                 }
+                displaced.put(task, task.getEvent());
+                candidates.add(task);
+            }
+        }
+
+        // 2. Tâches non placées dont la fenêtre [maintenant, deadline] atteint la zone
+        for (Task task : taskRepository.findUnscheduledByUserId(userId)) {
+            if (task.getDeadline() == null || task.getDeadline().isAfter(from)) {
+                candidates.add(task);
+            }
+        }
+
+        List<Task> changedTasks = new ArrayList<>(candidates);
+        if (candidates.isEmpty()) {
+            return;
+        }
 
-                // B. Vérifier si le créneau est bloqué par le MODE FOCUS
-                if (focusService.estBloqueParLeFocus(userId, potentialStart, potentialEnd)) {
-                    // Si bloqué par le focus, on avance par petits pas (ex: 15min) pour chercher le prochain trou
-                    cursor = cursor.plusMinutes(15);
-                    continue;
+        candidates.sort(TASK_ORDER);
+        // Journées entières : les créneaux Focus d'un jour dépendent de tous ses événements
+        TimelineIndex timeline = new TimelineIndex();
+        List<Event> kept = new ArrayList<>();
+        for (Event event : eventRepository.findOverlapping(userId, from.toLocalDate().atStartOfDay(),
+                horizonEnd.toLocalDate().plusDays(1).atStartOfDay())) {
+            boolean deletedEvent = change.isDeletion() && event.getId() != null && event.getId().equals(change.eventId());
+            if (!deletedEvent && !displaced.containsValue(event)) {
+                timeline.add(event.getStartTime(), event.getEndTime());
+                kept.add(event);
+            }
+        }
+        FocusDays focus = new FocusDays(userId, kept);
+
+        Map<Task, Event> placements = new LinkedHashMap<>();
+        List<Event> movedEvents = new ArrayList<>();
+        List<Event> retiredEvents = new ArrayList<>();
+        boolean overflow = false;
+        for (Task task : candidates) {
+            Event current = displaced.get(task);
+            if (task.getDeadline() != null && task.getDeadline().isBefore(now)) {
+                task.setLate(true);
+                if (current != null) {
+                    retire(task, current, retiredEvents);
+                }
+                continue;
+            }
+            LocalDateTime start = findSlot(timeline, focus, from, task.getEstimatedDuration());
+            if (start.plusMinutes(task.getEstimatedDuration()).isAfter(horizonEnd)) {
+                overflow = true; // Hors de l'horizon chargé : laissée au reshuffle complet
+                if (current != null) {
+                    retire(task, current, retiredEvents);
                 }
+                continue;
+            }
+            if (current != null) {
+                moveTaskEvent(task, current, start, timeline, focus);
+                movedEvents.add(current);
+            } else {
+                placements.put(task, placeTask(task, start, timeline, focus));
+            }
+        }
+
+        saveAndLink(placements, movedEvents);
+        taskRepository.saveAll(changedTasks);
+        deleteRetired(retiredEvents);
+        enqueueGoogleChanges(userId, candidates, movedEvents, retiredEvents);
+
+        if (overflow) {
+            reshuffle(userId);
+        }
+    }
+
+    private static LocalDateTime initialCursor(LocalDateTime now) {
+        // 8h00 aujourd'hui ou l'heure actuelle si plus tard
+        LocalDateTime cursor = now.withHour(8).withMinute(0).withSecond(0).withNano(0);
+        return cursor.isBefore(now) ? now : cursor;
+    }
+
+    /**
+     * Premier début >= cursor libre de réunions ET de focus pour une tâche de la durée donnée.
+     */
+    private LocalDateTime findSlot(TimelineIndex timeline, FocusDays focus, LocalDateTime cursor, long durationMinutes) {
+        while (true) {
+            LocalDateTime potentialStart = cursor;
+            LocalDateTime potentialEnd = cursor.plusMinutes(durationMinutes);
+
+            // A. Vérifier les collisions avec les ÉVÉNEMENTS existants
+            LocalDateTime collisionEnd = timeline.findCollisionEnd(potentialStart, potentialEnd);
+            if (collisionEnd != null) {
+                // Si collision avec une réunion, on déplace le curseur après la plage occupée
+                cursor = collisionEnd;
+                continue;
+            }
+
+            // B. Vérifier si le créneau est bloqué par le MODE FOCUS
+            if (focus.blocks(potentialStart, potentialEnd)) {
+                // Si bloqué par le focus, on avance par petits pas (ex: 15min) pour chercher le prochain trou
+                cursor = cursor.plusMinutes(15);
+                continue;
+            }
+
+            // C. Le créneau est libre de réunions ET de focus
+            return potentialStart;
+        }
+    }
+
+    /**
+     * Crée l'événement de la tâche et enregistre le créneau pour les tâches suivantes.
+     * La tâche n'est liée à l'événement qu'après son enregistrement (voir {@link #saveAndLink}).
+     */
+    private Event placeTask(Task task, LocalDateTime start, TimelineIndex timeline, FocusDays focus) {
+        LocalDateTime end = start.plusMinutes(task.getEstimatedDuration());
+        Event taskEvent = new Event(task.getTitle(), start, end, task.getUser());
+
+        timeline.add(start, end);
+        focus.add(taskEvent);
+        return taskEvent;
+    }
+
+    /**
+     * Déplace l'événement existant d'une tâche délogée. Une copie Google est marquée à exporter.
+     */
+    private void moveTaskEvent(Task task, Event event, LocalDateTime start, TimelineIndex timeline, FocusDays focus) {
+        LocalDateTime end = start.plusMinutes(task.getEstimatedDuration());
+        event.setStartTime(start);
+        event.setEndTime(end);
+        if (hasGoogleCopy(event)) {
+            event.setSyncStatus(Event.SyncStatus.PENDING);
+        }
+
+        timeline.add(start, end);
+        focus.add(event);
+    }
 
-                // C. Si on arrive ici, le créneau est libre de réunions ET de focus !
-                Event taskEvent = new Event(
-                        task.getTitle(),
-                        potentialStart,
-                        potentialEnd,
-                        task.getUser()
-                );
-
-                eventRepository.save(taskEvent);
-                task.setEvent(taskEvent);
-                taskRepository.save(task);
-
-                // On met à jour le curseur pour la tâche suivante
-                cursor = taskEvent.getEndTime();
-                placed = true;
-                
-                // On rafraîchit la liste des événements pour inclure celui qu'on vient de créer
-                events.add(taskEvent);
-                events.sort(Comparator.comparing(Event::getStartTime));
+    /**
+     * Détache une tâche délogée qui ne peut pas être replacée dans la zone. Comme dans
+     * EventServiceImpl.deleteEvent, un événement présent chez Google est marqué à supprimer
+     * (l'export supprime la copie Google puis la ligne), les autres sont supprimés directement.
+     */
+    private void retire(Task task, Event event, List<Event> retiredEvents) {
+        task.setEvent(null);
+        if (hasGoogleCopy(event)) {
+            event.setStatus(Event.EventStatus.PENDING_DELETION);
+            event.setSyncStatus(Event.SyncStatus.PENDING);
+        }
+        retiredEvents.add(event);
+    }
+
+    private void deleteRetired(List<Event> retiredEvents) {
+        List<Event> localOnly = retiredEvents.stream().filter(event -> !hasGoogleCopy(event)).toList();
+        if (!localOnly.isEmpty()) {
+            eventRepository.deleteAll(localOnly);
+        }
+    }
+
+    // Export différé des événements déplacés ou supprimés qui ont une copie Google
+    private void enqueueGoogleChanges(Long userId, List<Task> candidates, List<Event> movedEvents,
+                                      List<Event> retiredEvents) {
+        if (candidates.isEmpty() || !candidates.get(0).getUser().isGoogleLinked()) {
+            return;
+        }
+        for (List<Event> events : List.of(movedEvents, retiredEvents)) {
+            for (Event event : events) {
+                if (hasGoogleCopy(event)) {
+                    syncOutboxService.enqueue(userId, event.getId());
+                }
             }
         }
     }
 
+    private static boolean hasGoogleCopy(Event event) {
+        return event.getGoogleEventId() != null && !event.getGoogleEventId().isBlank();
+    }
+
     /**
-     * Vérifie si un créneau temporel chevauche un événement existant.
+     * Enregistre les nouveaux événements (et les événements déplacés) puis rattache les nouveaux
+     * à leurs tâches.
+     *
+     * Lier une tâche gérée à un événement encore transitoire ferait échouer le flush automatique
+     * déclenché par la prochaine requête (ex : chargement d'une journée Focus dans findSlot).
      */
-    private Event findCollision(LocalDateTime start, LocalDateTime end, List<Event> events) {
-        return events.stream()
-                .filter(e -> start.isBefore(e.getEndTime()) && end.isAfter(e.getStartTime()))
-                .findFirst()
-                .orElse(null);
+    private void saveAndLink(Map<Task, Event> placements, List<Event> movedEvents) {
+        List<Event> events = new ArrayList<>(placements.values());
+        events.addAll(movedEvents);
+        eventRepository.saveAll(events);
+        placements.forEach(Task::setEvent);
     }
 
+    /**
+     * Créneaux Focus par jour pendant un placement, calculés en mémoire à partir des événements
+     * chargés et des placements pas encore enregistrés (comme ConstraintScheduleOptimizerService) :
+     * le résultat ne dépend ni du cache de FocusService ni de ce que la base contient déjà.
+     */
+    private final class FocusDays {
+        private final UserFocusPreference prefs;
+        private final Map<LocalDate, List<Event>> eventsByDay = new HashMap<>();
+        private final Map<LocalDate, List<TimeSlot>> slotsByDay = new HashMap<>();
+
+        FocusDays(Long userId, Collection<Event> events) {
+            this.prefs = focusService.getPreferences(userId);
+            events.forEach(this::add);
+        }
+
+        boolean blocks(LocalDateTime start, LocalDateTime end) {
+            if (!prefs.isFocusModeEnabled()) {
+                return false;
+            }
+            List<TimeSlot> slots = slotsByDay.computeIfAbsent(start.toLocalDate(), day ->
+                    focusService.computeFocusSlots(prefs, day, eventsByDay.getOrDefault(day, List.of())));
+            for (TimeSlot slot : slots) {
+                if (start.isBefore(slot.end()) && end.isAfter(slot.start())) {
+                    return true;
+                }
+            }
+            return false;
+        }
 
-}
\ No newline at end of file
+        // Un placement ou un déplacement : les créneaux de sa journée sont recalculés à la demande
+        void add(Event event) {
+            if (!prefs.isFocusModeEnabled() || event.getStartTime() == null || event.getEndTime() == null) {
+                return;
+            }
+            LocalDate day = event.getStartTime().toLocalDate();
+            eventsByDay.computeIfAbsent(day, d -> new ArrayList<>()).add(event);
+            slotsByDay.remove(day);
+        }
+    }
+}
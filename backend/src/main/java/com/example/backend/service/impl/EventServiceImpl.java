@@ -2,6 +2,8 @@ package com.example.backend.service.impl;
 
 import com.example.backend.controller.EventController.EventRequest;
 import com.example.backend.dto.EventDTO;
+import com.example.backend.dto.ScheduleChange;
+import com.example.backend.dto.ScheduleChangedEvent;
 import com.example.backend.model.ActivityCategory;
 import com.example.backend.model.Event;
 import com.example.backend.model.Location;
@@ -10,7 +12,7 @@ import com.example.backend.model.User;
 import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.TravelTimeRepository;
 import com.example.backend.repository.UserRepository;
-import com.example.backend.service.SyncDelegateService;
+import com.example.backend.service.SyncOutboxService;
 import com.example.backend.service.EventService;
 import com.example.backend.service.TravelTimeCalculator;
 import com.example.backend.service.TravelTimeService;
@@ -19,6 +21,8 @@ import com.example.backend.repository.TeamRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -50,7 +54,13 @@ public class EventServiceImpl implements EventService {
     private final TravelTimeCalculator simpleCalculator;
 
     // Injection des dépendances nécessaires
-    private final SyncDelegateService syncDelegateService;
+    private final SyncOutboxService syncOutboxService;
+    private final FocusService focusService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Replacer les tâches autour d'un événement déplacé ou supprimé
+    @Value("${app.reshuffle.incremental.enabled:true}")
+    private boolean incrementalReshuffleEnabled = true;
 
     public EventServiceImpl(EventRepository eventRepository, 
                             UserRepository userRepository,
@@ -59,7 +69,9 @@ public class EventServiceImpl implements EventService {
                             TravelTimeCalculator primaryCalculator,
                             @Qualifier("simpleTravelTimeCalculator") TravelTimeCalculator simpleCalculator,
                             TeamRepository teamRepository,
-                            SyncDelegateService syncDelegateService) {
+                            SyncOutboxService syncOutboxService,
+                            FocusService focusService,
+                            ApplicationEventPublisher eventPublisher) {
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
         this.travelTimeService = travelTimeService;
@@ -67,7 +79,29 @@ public class EventServiceImpl implements EventService {
         this.primaryCalculator = primaryCalculator;
         this.simpleCalculator = simpleCalculator;
         this.teamRepository = teamRepository;
-        this.syncDelegateService = syncDelegateService;
+        this.syncOutboxService = syncOutboxService;
+        this.focusService = focusService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Les créneaux Focus mémorisés dépendent de l'agenda : on les oublie à chaque écriture
+    private void invalidateFocusCache(Event event) {
+        if (event.getUser() != null) {
+            focusService.invalidate(event.getUser().getId());
+        }
+    }
+
+    // Reshuffle incrémental : seules les tâches proches de la zone modifiée sont replacées,
+    // après le commit et hors de la requête (IncrementalReshuffleService)
+    private void reshuffleAround(Event event, ScheduleChange change) {
+        if (!incrementalReshuffleEnabled || event.getUser() == null || change.isNoOp()) {
+            return;
+        }
+        eventPublisher.publishEvent(new ScheduleChangedEvent(event.getUser().getId(), change));
+    }
+
+    private static ScheduleChange changeOf(Event event, LocalDateTime oldStart, LocalDateTime oldEnd) {
+        return new ScheduleChange(event.getId(), oldStart, oldEnd, event.getStartTime(), event.getEndTime());
     }
 
     // --- Helper pour choisir le calculateur ---
@@ -174,15 +208,16 @@ public class EventServiceImpl implements EventService {
                     
                     // C. Si c'est faisable, on sauvegarde l'événement
                     Event savedEvent = eventRepository.save(event);
+                    invalidateFocusCache(savedEvent);
                     
                     // On force la création avec la durée calculée pour être cohérent
                     // (Ici on utilise une méthode interne ou on met à jour manuellement si createTravelTime recalcule)
                     // Pour simplifier, on suppose que createTravelTime fait le job, mais pour le RECALCUL global, on sera plus explicite.
                     travelTimeService.createTravelTimeWithDuration(previousEvent, savedEvent, mode, durationMinutes);
                     
-                    // Synchronisation Google APRÈS sauvegarde, dans une transaction séparée
+                    // Synchronisation Google différée : intention enregistrée avec l'événement
                     if (user.isGoogleLinked()) {
-                        syncDelegateService.syncGoogleCalendarInNewTransaction(user.getId());
+                        syncOutboxService.enqueue(user.getId(), savedEvent.getId());
                     }
                     
                     return savedEvent;
@@ -197,11 +232,12 @@ public class EventServiceImpl implements EventService {
 
         // Sauvegarde de l'événement
         Event savedEvent = eventRepository.save(event);
+        invalidateFocusCache(event);
         
-        // ── SYNCHRONISATION GOOGLE (TRANSACTION SÉPARÉE) ──
-        // CORRECTION : On appelle la méthode avec transaction séparée
+        // ── SYNCHRONISATION GOOGLE (DIFFÉRÉE) ──
+        // L'intention est enregistrée dans la même transaction ; le worker de l'outbox n'exporte que cet événement
         if (user.isGoogleLinked()) {
-            syncDelegateService.syncGoogleCalendarInNewTransaction(user.getId());
+            syncOutboxService.enqueue(user.getId(), savedEvent.getId());
         } else {
             log.info("[EVENT-CREATE] Synchronisation Google sautée : Le compte n'est pas lié.");
         }
@@ -212,13 +248,15 @@ public class EventServiceImpl implements EventService {
     /**
      * Met à jour un événement existant.
      * 
-     * CORRECTION MAJEURE : La synchronisation Google est maintenant dans une
-     * transaction séparée pour éviter le rollback de la mise à jour locale.
+     * La synchronisation Google est différée (outbox) : seul cet événement sera exporté ; elle ne bloque
+     * pas la requête et son échec ne peut pas annuler la mise à jour locale.
      */
     @Override
     @Transactional
     public Event updateEvent(Long id, EventRequest eventRequest) {
         Event event = getEventById(id);
+        LocalDateTime oldStart = event.getStartTime();
+        LocalDateTime oldEnd = event.getEndTime();
 
         // Mise à jour des champs
         if (eventRequest.getSummary() != null) {
@@ -272,7 +310,9 @@ public class EventServiceImpl implements EventService {
                 }
                 
                 Event savedEvent = eventRepository.save(event);
+                invalidateFocusCache(event);
                 travelTimeService.createTravelTimeWithDuration(previousEvent, savedEvent, mode, durationMinutes);
+                reshuffleAround(savedEvent, changeOf(savedEvent, oldStart, oldEnd));
                 
                 // Marquer pour synchronisation si événement Google
                 if (savedEvent.getGoogleEventId() != null) {
@@ -280,14 +320,10 @@ public class EventServiceImpl implements EventService {
                     eventRepository.save(savedEvent);
                 }
                 
-                // Synchronisation Google dans transaction séparée
+                // Synchronisation Google différée
                 User user = event.getUser();
                 if (user.isGoogleLinked()) {
-                    try {
-                        syncDelegateService.syncGoogleCalendarInNewTransaction(user.getId());
-                    } catch (Exception e) {
-                        log.warn("Impossible de marquer l'événement pour synchronisation : {}", e.getMessage());
-                    }
+                    syncOutboxService.enqueue(user.getId(), savedEvent.getId());
                 }
                 
                 return savedEvent;
@@ -296,6 +332,8 @@ public class EventServiceImpl implements EventService {
 
         // Sauvegarder AVANT la synchronisation
         Event updatedEvent = eventRepository.save(event);
+        invalidateFocusCache(event);
+        reshuffleAround(updatedEvent, changeOf(updatedEvent, oldStart, oldEnd));
 
         // Marquer pour synchronisation si c'est un événement Google
         if (updatedEvent.getGoogleEventId() != null) {
@@ -303,12 +341,11 @@ public class EventServiceImpl implements EventService {
             eventRepository.save(updatedEvent);
         }
 
-        // ── SYNCHRONISATION GOOGLE (TRANSACTION SÉPARÉE - NON BLOQUANTE) ──
+        // ── SYNCHRONISATION GOOGLE (DIFFÉRÉE - NON BLOQUANTE) ──
         User user = event.getUser();
         if (user.isGoogleLinked()) {
-            // Cette méthode utilise REQUIRES_NEW, donc une transaction séparée
-            // Si elle échoue, updatedEvent est déjà sauvegardé et ne sera PAS rollback
-            syncDelegateService.syncGoogleCalendarInNewTransaction(user.getId());
+            // Un échec de synchronisation n'affecte jamais la mise à jour locale : le worker la rejoue
+            syncOutboxService.enqueue(user.getId(), updatedEvent.getId());
         } else {
             log.debug("[EVENT-UPDATE] Synchronisation Google sautée : Le compte n'est pas lié.");
         }
@@ -323,6 +360,7 @@ public class EventServiceImpl implements EventService {
         }
         
         Event eventToDelete = getEventById(id);
+        invalidateFocusCache(eventToDelete);
         
         // Si l'événement a un googleEventId, le marquer pour suppression
         if (eventToDelete.getGoogleEventId() != null && !eventToDelete.getGoogleEventId().trim().isEmpty()) {
@@ -330,10 +368,10 @@ public class EventServiceImpl implements EventService {
             eventToDelete.setSyncStatus(Event.SyncStatus.PENDING);
             eventRepository.save(eventToDelete);
             
-            // Synchronisation Google dans transaction séparée
+            // Suppression propagée à Google par le worker de l'outbox
             User user = eventToDelete.getUser();
             if (user.isGoogleLinked()) {
-                syncDelegateService.syncGoogleCalendarInNewTransaction(user.getId());
+                syncOutboxService.enqueue(user.getId(), id);
             } else {
                 log.debug("[EVENT-DELETE] Synchronisation Google sautée : Le compte n'est pas lié.");
             }
@@ -342,6 +380,9 @@ public class EventServiceImpl implements EventService {
             eventRepository.deleteById(id);
             log.info("Événement {} supprimé directement (pas synchronisé avec Google)", id);
         }
+
+        reshuffleAround(eventToDelete,
+                ScheduleChange.deleted(id, eventToDelete.getStartTime(), eventToDelete.getEndTime()));
     }
 
     @Override
@@ -452,6 +493,7 @@ public Event addExternalEvent(EventDTO eventDto, Long userId) {
     }
 
     Event savedEvent = eventRepository.save(event);
+    invalidateFocusCache(event);
 
     // --- 🔍 LOG DE VÉRIFICATION ---
     List<Event> allUserEvents = eventRepository.findByUser_IdOrderByStartTime(userId);
@@ -469,7 +511,7 @@ public Event addExternalEvent(EventDTO eventDto, Long userId) {
 
     // 2. Synchro Google (ton code actuel)
     if (user.isGoogleLinked()) {
-        syncDelegateService.syncGoogleCalendarInNewTransaction(user.getId());
+        syncOutboxService.enqueue(user.getId(), savedEvent.getId());
     }
 
     return savedEvent;
@@ -6,15 +6,20 @@ import com.example.backend.model.UserFocusPreference;
 import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.UserFocusPreferenceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class FocusService {
@@ -25,8 +30,31 @@ public class FocusService {
     @Autowired
     private UserFocusPreferenceRepository preferenceRepository;
 
+    // Durée de vie des créneaux Focus mémorisés (0 = pas de cache)
+    @Value("${app.focus.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    // Nombre maximal de journées mémorisées (les moins récemment lues sont évincées)
+    @Value("${app.focus.cache-max-days:10000}")
+    private int maxCachedDays = 10_000;
+
     private record ScheduleBlock(LocalDateTime start, LocalDateTime end) {}
 
+    private record FocusDayKey(Long userId, LocalDate date) {}
+
+    /**
+     * Journée mémorisée : préférences et créneaux Focus calculés à partir de l'agenda.
+     */
+    private record FocusDay(UserFocusPreference prefs, List<TimeSlot> focusSlots, long expiresAt) {}
+
+    // LRU en ordre d'accès, protégée par son propre verrou
+    private final Map<FocusDayKey, FocusDay> focusDays = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FocusDayKey, FocusDay> eldest) {
+            return size() > maxCachedDays;
+        }
+    };
+
     // =========================================================================
     // PARTIE PAUL : GESTION DES PRÉFÉRENCES ET VALIDATION DE CHARGE
     // =========================================================================
@@ -43,7 +71,9 @@ public class FocusService {
         existing.setMinFocusDuration(newPrefs.getMinFocusDuration());
         existing.setPreferredFocusTime(newPrefs.getPreferredFocusTime());
         existing.setFocusModeEnabled(newPrefs.isFocusModeEnabled());
-        return preferenceRepository.save(existing);
+        UserFocusPreference saved = preferenceRepository.save(existing);
+        invalidate(userId);
+        return saved;
     }
 
     public void validateDayNotOverloaded(Long userId, LocalDateTime dateTime) {
@@ -68,15 +98,108 @@ public class FocusService {
     // =========================================================================
 
     public List<TimeSlot> findFreeGaps(Long userId, LocalDate date) {
-        LocalDateTime dayStart = date.atTime(8, 0);
-        LocalDateTime dayEnd = date.atTime(20, 0);
-        
-        List<Event> events = eventRepository.findByUser_IdAndStartTimeBetween(userId, date.atStartOfDay(), date.atTime(23, 59, 59));
+        return computeFreeGaps(date, toSortedBlocks(loadDayEvents(userId, date)));
+    }
+
+    public List<TimeSlot> getOptimizedFocusSlots(Long userId, LocalDate date) {
+        return computeFocusSlotsFromGaps(getPreferences(userId), date, findFreeGaps(userId, date));
+    }
+
+    public boolean estBloqueParLeFocus(Long userId, LocalDateTime debut, LocalDateTime fin) {
+        FocusDay day = getFocusDay(userId, debut.toLocalDate());
+        if (!day.prefs().isFocusModeEnabled()) {
+            return false;
+        }
+
+        for (TimeSlot slot : day.focusSlots()) {
+            if (debut.isBefore(slot.end()) && fin.isAfter(slot.start())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // =========================================================================
+    // CACHE DES CRÉNEAUX FOCUS
+    // =========================================================================
+
+    /**
+     * Oublie les journées mémorisées d'un utilisateur.
+     * À appeler dès que ses événements ou ses préférences changent.
+     *
+     * Dans une transaction, les journées sont oubliées une seconde fois après le commit :
+     * une lecture concurrente a pu entre-temps mémoriser l'état d'avant la modification.
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long userId) {
+        synchronized (focusDays) {
+            focusDays.keySet().removeIf(key -> key.userId().equals(userId));
+        }
+    }
+
+    private FocusDay getFocusDay(Long userId, LocalDate date) {
+        if (cacheTtlMs <= 0) {
+            return loadFocusDay(userId, date, 0);
+        }
+
+        long now = System.currentTimeMillis();
+        FocusDayKey key = new FocusDayKey(userId, date);
+        FocusDay cached;
+        synchronized (focusDays) {
+            cached = focusDays.get(key);
+        }
+        if (cached != null && cached.expiresAt() > now) {
+            return cached;
+        }
+
+        // Chargement hors verrou : les autres journées restent lisibles pendant la requête
+        FocusDay loaded = loadFocusDay(userId, date, now + cacheTtlMs);
+        synchronized (focusDays) {
+            focusDays.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    private FocusDay loadFocusDay(Long userId, LocalDate date, long expiresAt) {
+        UserFocusPreference prefs = getPreferences(userId);
+        if (!prefs.isFocusModeEnabled()) {
+            // Inutile de charger l'agenda : rien n'est bloqué
+            return new FocusDay(prefs, List.of(), expiresAt);
+        }
+        List<ScheduleBlock> blocks = toSortedBlocks(loadDayEvents(userId, date));
+        List<TimeSlot> slots = computeFocusSlotsFromGaps(prefs, date, computeFreeGaps(date, blocks));
+        return new FocusDay(prefs, slots, expiresAt);
+    }
 
-        List<ScheduleBlock> busyBlocks = events.stream()
+    private List<Event> loadDayEvents(Long userId, LocalDate date) {
+        return eventRepository.findByUser_IdAndStartTimeBetween(userId, date.atStartOfDay(), date.atTime(23, 59, 59));
+    }
+
+    // =========================================================================
+    // CALCULS (sans accès à la base)
+    // =========================================================================
+
+    private List<ScheduleBlock> toSortedBlocks(List<Event> events) {
+        return events.stream()
                 .map(e -> new ScheduleBlock(e.getStartTime(), e.getEndTime()))
                 .sorted(Comparator.comparing(ScheduleBlock::start))
                 .toList();
+    }
+
+    private List<TimeSlot> computeFreeGaps(LocalDate date, List<ScheduleBlock> busyBlocks) {
+        LocalDateTime dayStart = date.atTime(8, 0);
+        LocalDateTime dayEnd = date.atTime(20, 0);
 
         List<TimeSlot> gaps = new ArrayList<>();
         LocalDateTime currentPointer = dayStart;
@@ -97,9 +220,20 @@ public class FocusService {
         return gaps;
     }
 
-    public List<TimeSlot> getOptimizedFocusSlots(Long userId, LocalDate date) {
-        UserFocusPreference prefs = getPreferences(userId);
-        List<TimeSlot> allGaps = findFreeGaps(userId, date);
+    /**
+     * Créneaux Focus d'une journée calculés à partir d'événements déjà chargés (aucun accès à la base).
+     * Retourne une liste vide si le mode Focus est désactivé.
+     *
+     * @param dayEvents les événements commençant ce jour-là
+     */
+    public List<TimeSlot> computeFocusSlots(UserFocusPreference prefs, LocalDate date, List<Event> dayEvents) {
+        if (!prefs.isFocusModeEnabled()) {
+            return List.of();
+        }
+        return computeFocusSlotsFromGaps(prefs, date, computeFreeGaps(date, toSortedBlocks(dayEvents)));
+    }
+
+    private List<TimeSlot> computeFocusSlotsFromGaps(UserFocusPreference prefs, LocalDate date, List<TimeSlot> allGaps) {
         List<TimeSlot> optimized = new ArrayList<>();
 
         // Logique de conversion des Enums en heures
@@ -128,20 +262,5 @@ public class FocusService {
             }
         }
         return optimized;
-    } 
-
-    public boolean estBloqueParLeFocus(Long userId, LocalDateTime debut, LocalDateTime fin) {
-        UserFocusPreference prefs = getPreferences(userId);
-        if (!prefs.isFocusModeEnabled()) {
-            return false;
-        }
-
-        List<TimeSlot> focusSlots = getOptimizedFocusSlots(userId, debut.toLocalDate());
-        for (TimeSlot slot : focusSlots) {
-            if (debut.isBefore(slot.end()) && fin.isAfter(slot.start())) {
-                return true;
-            }
-        }
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.TimeSlot;
+import com.example.backend.model.Event;
+import com.example.backend.model.UserFocusPreference;
+import com.example.backend.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche des créneaux libres d'un utilisateur.
+ *
+ * Une seule requête charge les événements de l'horizon ; les créneaux Focus sont
+ * calculés en mémoire à partir de ces mêmes événements. Réunions et blocs Focus
+ * sont ensuite triés et parcourus en une passe pour en extraire les trous.
+ */
+@Service
+public class FreeSlotService {
+
+    private final EventRepository eventRepository;
+    private final FocusService focusService;
+
+    // Horizon de recherche (jours après l'instant de départ)
+    @Value("${app.free-slots.horizon-days:14}")
+    private long horizonDays = 14;
+
+    public FreeSlotService(EventRepository eventRepository, FocusService focusService) {
+        this.eventRepository = eventRepository;
+        this.focusService = focusService;
+    }
+
+    /**
+     * Premiers créneaux libres d'au moins {@code minDurationMinutes}, à partir de {@code from}.
+     *
+     * @param limit nombre maximal de créneaux retournés
+     * @return les créneaux dans l'ordre chronologique (vide si l'horizon est complet)
+     */
+    public List<TimeSlot> findFreeSlots(Long userId, LocalDateTime from, long minDurationMinutes, int limit) {
+        List<TimeSlot> freeSlots = new ArrayList<>();
+        if (limit <= 0) {
+            return freeSlots;
+        }
+        LocalDateTime horizonEnd = from.plusDays(horizonDays);
+
+        // Depuis minuit : les créneaux Focus d'une journée dépendent de tous ses événements
+        List<Event> events = eventRepository.findOverlapping(userId, from.toLocalDate().atStartOfDay(), horizonEnd);
+        List<TimeSlot> busy = busySlots(userId, events, from.toLocalDate(), horizonEnd.toLocalDate());
+        busy.sort(Comparator.comparing(TimeSlot::start));
+
+        LocalDateTime cursor = from;
+        for (TimeSlot slot : busy) {
+            if (!slot.end().isAfter(cursor)) {
+                continue;
+            }
+            LocalDateTime gapEnd = slot.start().isBefore(horizonEnd) ? slot.start() : horizonEnd;
+            if (Duration.between(cursor, gapEnd).toMinutes() >= minDurationMinutes) {
+                freeSlots.add(new TimeSlot(cursor, gapEnd));
+                if (freeSlots.size() == limit) {
+                    return freeSlots;
+                }
+            }
+            cursor = slot.end();
+            if (!cursor.isBefore(horizonEnd)) {
+                return freeSlots;
+            }
+        }
+
+        if (Duration.between(cursor, horizonEnd).toMinutes() >= minDurationMinutes) {
+            freeSlots.add(new TimeSlot(cursor, horizonEnd));
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Réunions et créneaux Focus (si le mode est actif) sur les journées de l'horizon.
+     */
+    private List<TimeSlot> busySlots(Long userId, List<Event> events, LocalDate firstDay, LocalDate lastDay) {
+        List<TimeSlot> busy = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (event.getStartTime() != null && event.getEndTime() != null) {
+                busy.add(new TimeSlot(event.getStartTime(), event.getEndTime()));
+            }
+        }
+
+        UserFocusPreference prefs = focusService.getPreferences(userId);
+        if (prefs.isFocusModeEnabled()) {
+            Map<LocalDate, List<Event>> eventsByDay = events.stream()
+                    .filter(e -> e.getStartTime() != null && e.getEndTime() != null)
+                    .collect(Collectors.groupingBy(e -> e.getStartTime().toLocalDate()));
+            for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+                busy.addAll(focusService.computeFocusSlots(prefs, day, eventsByDay.getOrDefault(day, List.of())));
+            }
+        }
+        return busy;
+    }
+}
@@ -14,6 +14,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import com.example.backend.model.Location;
 import com.example.backend.model.TravelTime.TransportMode;
+import com.example.backend.service.GoogleApiRateLimiter;
+import com.example.backend.service.GoogleApiRateLimiter.Api;
 import com.example.backend.service.TravelTimeCalculator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -29,21 +31,29 @@ public class GoogleMapsTravelTimeCalculator implements TravelTimeCalculator {
     private final RestTemplate restTemplate;
     private final SimpleTravelTimeCalculator fallbackCalculator;
     private final ObjectMapper mapper;
+    private final GoogleApiRateLimiter rateLimiter;
 
     private static final String API_URL = "https://maps.googleapis.com/maps/api/distancematrix/json";
 
     @Autowired
-    public GoogleMapsTravelTimeCalculator(RestTemplateBuilder restTemplateBuilder) {
+    public GoogleMapsTravelTimeCalculator(RestTemplateBuilder restTemplateBuilder, GoogleApiRateLimiter rateLimiter) {
         this.restTemplate = restTemplateBuilder.build();
         this.fallbackCalculator = new SimpleTravelTimeCalculator();
         this.mapper = new ObjectMapper();
+        this.rateLimiter = rateLimiter;
     }
 
-    // Constructeur secondaire pour les tests unitaires (Spring l'ignorera grâce à l'annotation au-dessus)
+    // Constructeurs secondaires pour les tests unitaires (Spring les ignorera grâce à l'annotation au-dessus)
     public GoogleMapsTravelTimeCalculator(RestTemplate restTemplate, SimpleTravelTimeCalculator fallbackCalculator, ObjectMapper mapper) {
+        this(restTemplate, fallbackCalculator, mapper, new GoogleApiRateLimiter());
+    }
+
+    public GoogleMapsTravelTimeCalculator(RestTemplate restTemplate, SimpleTravelTimeCalculator fallbackCalculator,
+                                          ObjectMapper mapper, GoogleApiRateLimiter rateLimiter) {
         this.restTemplate = restTemplate;
         this.fallbackCalculator = fallbackCalculator;
         this.mapper = mapper;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -71,6 +81,7 @@ public class GoogleMapsTravelTimeCalculator implements TravelTimeCalculator {
             System.err.println("   Mode: " + mapTransportMode(mode));
             System.err.println("   URL:  " + uri);
 
+            rateLimiter.acquire(Api.DISTANCE_MATRIX, 1);
             String json = restTemplate.getForObject(uri, String.class);
 
             // --- AJOUT DEBUG ---
@@ -82,6 +93,13 @@ public class GoogleMapsTravelTimeCalculator implements TravelTimeCalculator {
 
             // Vérification statut global
             String status = root.path("status").asText();
+            if ("OVER_QUERY_LIMIT".equals(status)) {
+                // Quota du projet momentanément dépassé : tout le trafic ralentit, puis un seul nouvel essai
+                rateLimiter.reportQuotaExceeded(Api.DISTANCE_MATRIX);
+                rateLimiter.acquire(Api.DISTANCE_MATRIX, 1);
+                root = mapper.readTree(restTemplate.getForObject(uri, String.class));
+                status = root.path("status").asText();
+            }
             if (!"OK".equals(status)) {
                 logGlobalError(root); // Utilisation de la méthode helper définie plus bas
                 return fallbackCalculator.calculateTravelTime(from, to, mode);
@@ -119,6 +137,8 @@ public class GoogleMapsTravelTimeCalculator implements TravelTimeCalculator {
 
         } catch (RestClientException e) {
             System.err.println("💥 HTTP error: " + e.getMessage());
+        } catch (GoogleApiRateLimiter.QuotaWaitTimeoutException e) {
+            System.err.println(" Rate limit: " + e.getMessage() + " — fallback");
         } catch (Exception e) {
             System.err.println("💥 Unexpected error: " + e.getClass().getSimpleName());
             e.printStackTrace();
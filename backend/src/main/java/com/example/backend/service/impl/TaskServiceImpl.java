@@ -6,8 +6,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.example.backend.dto.TimeSlot;
 import com.example.backend.model.Event;
 import com.example.backend.model.Task;
 import com.example.backend.model.Task.TaskStatus;
@@ -17,6 +20,7 @@ import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.TaskRepository;
 import com.example.backend.repository.TeamRepository; 
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.ReshuffleLocks;
 import com.example.backend.service.TaskService;
 
 import jakarta.transaction.Transactional;
@@ -29,13 +33,18 @@ public class TaskServiceImpl implements TaskService {
     private final UserRepository userRepository;
     private final TeamRepository teamRepository;
     private final FocusService focusService;
+    private final FreeSlotService freeSlotService;
+    private final ReshuffleLocks reshuffleLocks;
 
-    public TaskServiceImpl(TaskRepository taskRepository, EventRepository eventRepository, UserRepository userRepository, TeamRepository teamRepository,FocusService focusService) {
+    public TaskServiceImpl(TaskRepository taskRepository, EventRepository eventRepository, UserRepository userRepository, TeamRepository teamRepository,FocusService focusService,
+                           FreeSlotService freeSlotService, ReshuffleLocks reshuffleLocks) {
         this.taskRepository = taskRepository;
         this.eventRepository = eventRepository;
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
         this.focusService = focusService;
+        this.freeSlotService = freeSlotService;
+        this.reshuffleLocks = reshuffleLocks;
     }
 
     
@@ -94,6 +103,31 @@ public class TaskServiceImpl implements TaskService {
         User creator = userRepository.findById(creatorId)
             .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé avec l'ID: " + creatorId));
 
+        prepareNewTask(task, creator);
+        return taskRepository.save(task);
+    }
+
+    /**
+     * Crée plusieurs tâches pour un même créateur en une seule transaction.
+     * Les règles de validation sont celles de {@link #createTask(Task, Long)} ;
+     * les INSERT partent en lots via un unique saveAll.
+     */
+    @Override
+    @Transactional
+    public List<Task> createTasks(List<Task> tasks, Long creatorId) {
+        User creator = userRepository.findById(creatorId)
+            .orElseThrow(() -> new IllegalArgumentException("Utilisateur non trouvé avec l'ID: " + creatorId));
+
+        for (Task task : tasks) {
+            prepareNewTask(task, creator);
+        }
+        return taskRepository.saveAll(tasks);
+    }
+
+    /**
+     * Applique les règles de création : créateur, assigné, équipe et statut initial.
+     */
+    private void prepareNewTask(Task task, User creator) {
         task.setUser(creator);
 
         User assigneeCandidate; 
@@ -134,7 +168,6 @@ public class TaskServiceImpl implements TaskService {
         }
 
         task.setStatus(TaskStatus.PENDING_CREATION);
-        return taskRepository.save(task);
     }
     // --- RM-03 : DROITS DE MODIFICATION ---
 
@@ -210,6 +243,7 @@ public class TaskServiceImpl implements TaskService {
         // Supprimer l'événement associé s'il existe
         if (existing.getEvent() != null && existing.getEvent().getId() != null) {
             eventRepository.deleteById(existing.getEvent().getId());
+            focusService.invalidate(existing.getUser().getId());
         }
         taskRepository.deleteById(id);
     }
@@ -226,53 +260,35 @@ public Task planifyTask(Long taskId, LocalDateTime start, LocalDateTime end) {
         throw new IllegalStateException("Impossible de planifier une tâche sans utilisateur associé");
     }
 
+    // Jamais en même temps qu'un reshuffle du même utilisateur (voir ReshuffleLocks) : la tâche est
+    // relue sous le verrou pour ne pas écraser ce qu'un reshuffle terminé entre-temps y a enregistré
+    return reshuffleLocks.callLocked(user.getId(), () -> planifyLocked(taskId, start, end));
+}
+
+private Task planifyLocked(Long taskId, LocalDateTime start, LocalDateTime end) {
+    Task task = taskRepository.findById(taskId)
+            .orElseThrow(() -> new IllegalArgumentException("Tâche non trouvée"));
+    User user = task.getUser();
+
     // --- ALLOCATION INTELLIGENTE (First-Fit + Focus Aware) ---
     if (start == null || end == null) {
-        long durationMinutes = task.getEstimatedDuration(); 
-        List<Event> userEvents = eventRepository.findByUser_IdOrderByStartTime(user.getId());
-        
-        LocalDateTime now = LocalDateTime.now();
-        // On commence à chercher à partir de maintenant
-        LocalDateTime currentCheckTime = now.plusMinutes(10); 
-
-        for (Event existingEvent : userEvents) {
-            // On calcule la fin potentielle de la tâche si on la met à currentCheckTime
-            LocalDateTime potentialEnd = currentCheckTime.plusMinutes(durationMinutes);
-
-            // CONDITION MODIFIÉE : 
-            // 1. Est-ce qu'il y a assez de place avant le prochain événement ?
-            // 2. ET est-ce que ce créneau n'est PAS bloqué par un Bloc Focus ?
-            if (potentialEnd.isBefore(existingEvent.getStartTime()) && 
-                !focusService.estBloqueParLeFocus(user.getId(), currentCheckTime, potentialEnd)) {
-                
-                start = currentCheckTime;
-                end = potentialEnd;
-                break;
-            }
-            
-            // Si le créneau est pris par un événement OU bloqué par le Focus, 
-            // on saute après l'événement existant.
-            currentCheckTime = existingEvent.getEndTime();
-        }
-
-        // Si aucun trou n'a été trouvé entre les événements (ou si la liste est vide)
-        // On vérifie après le dernier événement, tout en respectant le Focus
-        if (start == null) {
-            start = currentCheckTime;
-            end = currentCheckTime.plusMinutes(durationMinutes);
-            
-            // Sécurité : Si l'emplacement après le dernier événement tombe dans un bloc Focus
-            // On décale de 15 min en 15 min jusqu'à trouver la sortie du bloc Focus
-            while (focusService.estBloqueParLeFocus(user.getId(), start, end)) {
-                start = start.plusMinutes(15);
-                end = start.plusMinutes(durationMinutes);
-            }
+        long durationMinutes = task.getEstimatedDuration();
+        // On commence à chercher à partir de maintenant (réunions et blocs Focus exclus)
+        List<TimeSlot> slots = freeSlotService.findFreeSlots(
+                user.getId(), LocalDateTime.now().plusMinutes(10), durationMinutes, 1);
+        if (slots.isEmpty()) {
+            // Agenda complet sur l'horizon de recherche : conflit, pas une erreur serveur
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Aucun créneau libre trouvé pour la tâche " + taskId);
         }
+        start = slots.get(0).start();
+        end = start.plusMinutes(durationMinutes);
     }
 
     // --- CRÉATION DE L'ÉVÉNEMENT ---
     Event event = new Event(task.getTitle(), start, end, user);
     event = eventRepository.save(event);
+    focusService.invalidate(user.getId());
 
     task.setEvent(event);
     return taskRepository.save(task);
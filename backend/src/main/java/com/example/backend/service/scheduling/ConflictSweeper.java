@@ -0,0 +1,84 @@
+package com.example.backend.service.scheduling;
+
+import com.example.backend.model.Event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Détection des chevauchements par balayage (sweep-line).
+ *
+ * Les événements sont parcourus par début croissant ; un tas trié par fin contient
+ * les événements encore « ouverts ». Avant de traiter un événement, on retire du tas
+ * ceux qui se terminent avant son début : tout ce qui reste le chevauche.
+ *
+ * Complexité : O(n log n + k) pour n événements et k paires en conflit,
+ * au lieu de O(n²) pour la comparaison de toutes les paires.
+ */
+public final class ConflictSweeper {
+
+    /**
+     * Paire d'événements qui se chevauchent. {@code first} est toujours celui qui
+     * apparaît en premier dans la liste fournie.
+     */
+    public record OverlapPair(Event first, Event second) {}
+
+    private ConflictSweeper() {}
+
+    /**
+     * Retourne toutes les paires d'événements qui se chevauchent
+     * (startA < endB ET endA > startB).
+     *
+     * Les paires sont renvoyées dans le même ordre qu'une double boucle i < j
+     * sur la liste d'entrée, ce qui garde un résultat stable pour l'appelant.
+     * Les événements sans début ou sans fin sont ignorés.
+     */
+    public static List<OverlapPair> findOverlaps(List<Event> events) {
+        List<Integer> byStart = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Event e = events.get(i);
+            if (e.getStartTime() != null && e.getEndTime() != null) {
+                byStart.add(i);
+            }
+        }
+        byStart.sort(Comparator.comparing(i -> events.get(i).getStartTime()));
+
+        PriorityQueue<Integer> active = new PriorityQueue<>(
+                Comparator.comparing(i -> events.get(i).getEndTime()));
+        List<int[]> pairs = new ArrayList<>();
+
+        for (int current : byStart) {
+            Event event = events.get(current);
+
+            // Les événements terminés avant le début courant ne peuvent plus chevaucher
+            while (!active.isEmpty() && !events.get(active.peek()).getEndTime().isAfter(event.getStartTime())) {
+                active.poll();
+            }
+
+            for (int other : active) {
+                if (overlap(events.get(other), event)) {
+                    pairs.add(new int[] { Math.min(current, other), Math.max(current, other) });
+                }
+            }
+            active.add(current);
+        }
+
+        pairs.sort(Comparator.<int[]>comparingInt(p -> p[0]).thenComparingInt(p -> p[1]));
+
+        List<OverlapPair> result = new ArrayList<>(pairs.size());
+        for (int[] p : pairs) {
+            result.add(new OverlapPair(events.get(p[0]), events.get(p[1])));
+        }
+        return result;
+    }
+
+    /**
+     * Vérifie si deux événements se chevauchent dans le temps.
+     */
+    public static boolean overlap(Event a, Event b) {
+        return a.getStartTime().isBefore(b.getEndTime())
+            && a.getEndTime().isAfter(b.getStartTime());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.backend.service.scheduling;
+
+import com.example.backend.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index en mémoire des plages occupées d'un agenda.
+ *
+ * Les événements sont fusionnés en intervalles disjoints, triés par début
+ * (TreeMap début → fin). Les intervalles ne se chevauchant pas, leurs fins sont
+ * elles aussi triées : le seul candidat à une collision avec [start, end[ est
+ * l'intervalle de plus grand début strictement inférieur à {@code end}.
+ *
+ * Complexités :
+ * - construction : O(n log n)
+ * - recherche de collision : O(log n)
+ * - insertion : O(log n) amorti (chaque fusion retire une entrée de l'index)
+ */
+public class TimelineIndex {
+
+    private final TreeMap<LocalDateTime, LocalDateTime> busy;
+
+    public TimelineIndex() {
+        this.busy = new TreeMap<>();
+    }
+
+    private TimelineIndex(TreeMap<LocalDateTime, LocalDateTime> busy) {
+        this.busy = busy;
+    }
+
+    /**
+     * Construit l'index à partir d'une liste d'événements (triée ou non).
+     * Les événements sans début ou sans fin sont ignorés.
+     */
+    public static TimelineIndex of(Collection<Event> events) {
+        TimelineIndex index = new TimelineIndex();
+        for (Event event : events) {
+            if (event.getStartTime() != null && event.getEndTime() != null) {
+                index.add(event.getStartTime(), event.getEndTime());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Marque [start, end[ comme occupé en fusionnant les plages qui le chevauchent.
+     * Deux plages simplement contiguës (fin == début) restent distinctes.
+     */
+    public void add(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime mergedStart = start;
+        LocalDateTime mergedEnd = end;
+
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = busy.lowerEntry(mergedEnd);
+        while (candidate != null && candidate.getValue().isAfter(mergedStart)) {
+            if (candidate.getKey().isBefore(mergedStart)) {
+                mergedStart = candidate.getKey();
+            }
+            if (candidate.getValue().isAfter(mergedEnd)) {
+                mergedEnd = candidate.getValue();
+            }
+            busy.remove(candidate.getKey());
+            candidate = busy.lowerEntry(mergedEnd);
+        }
+
+        // Une plage de même début (ex: événement de durée nulle) ne doit jamais être raccourcie
+        busy.merge(mergedStart, mergedEnd, (existing, added) -> existing.isAfter(added) ? existing : added);
+    }
+
+    /**
+     * Vérifie si [start, end[ chevauche une plage occupée.
+     *
+     * @return la fin de la plage occupée en collision (position à laquelle le curseur
+     *         peut sauter), ou null si le créneau est libre
+     */
+    public LocalDateTime findCollisionEnd(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = busy.lowerEntry(end);
+        if (candidate != null && candidate.getValue().isAfter(start)) {
+            return candidate.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Premier début >= {@code from} permettant de placer un créneau de
+     * {@code durationMinutes} sans collision.
+     */
+    public LocalDateTime nextFreeStart(LocalDateTime from, long durationMinutes) {
+        LocalDateTime cursor = from;
+        LocalDateTime collisionEnd;
+        while ((collisionEnd = findCollisionEnd(cursor, cursor.plusMinutes(durationMinutes))) != null) {
+            cursor = collisionEnd;
+        }
+        return cursor;
+    }
+
+    /**
+     * Fin de la dernière plage occupée commençant avant {@code time}, ou null.
+     */
+    public LocalDateTime busyEndBefore(LocalDateTime time) {
+        Map.Entry<LocalDateTime, LocalDateTime> entry = busy.lowerEntry(time);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Début de la première plage occupée commençant à partir de {@code time}, ou null.
+     */
+    public LocalDateTime nextBusyStart(LocalDateTime time) {
+        return busy.ceilingKey(time);
+    }
+
+    /**
+     * Copie indépendante de l'index (O(n)), utile pour évaluer un plan sans modifier l'original.
+     */
+    public TimelineIndex copy() {
+        return new TimelineIndex(new TreeMap<>(busy));
+    }
+
+    /**
+     * Nombre de plages occupées distinctes (après fusion).
+     */
+    public int size() {
+        return busy.size();
+    }
+}
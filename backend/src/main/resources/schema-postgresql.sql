@@ -0,0 +1,21 @@
+-- Index complémentaires à ceux générés par Hibernate (ddl-auto=update).
+-- Chaque instruction doit être idempotente : le script est rejoué à chaque démarrage.
+
+-- Événements à exporter vers Google (EventRepository.findNeedingExport) : seules les lignes
+-- en attente sont indexées, l'index reste petit quel que soit l'historique des utilisateurs.
+CREATE INDEX IF NOT EXISTS idx_event_needs_export ON event (user_id)
+    WHERE status = 'PENDING_DELETION'
+       OR sync_status = 'PENDING'
+       OR (source = 'LOCAL' AND google_event_id IS NULL);
+
+-- Échéances du cycle planifié (UserRepository.findIdsDueForPolling) : seuls les comptes liés à Google
+CREATE INDEX IF NOT EXISTS idx_users_next_google_sync ON users (next_google_sync_at)
+    WHERE google_access_token IS NOT NULL;
+
+-- Séquences des identifiants (allocationSize = 50) : créées par Hibernate à partir de 1 sur une
+-- base existante, elles sont alignées sur le plus grand id des tables. GREATEST ne fait jamais
+-- reculer une séquence déjà en avance (blocs réservés par une autre instance).
+SELECT setval('event_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM event), (SELECT last_value FROM event_seq), 1));
+SELECT setval('task_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM task), (SELECT last_value FROM task_seq), 1));
+SELECT setval('travel_time_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM travel_time), (SELECT last_value FROM travel_time_seq), 1));
+SELECT setval('activity_log_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM activity_log), (SELECT last_value FROM activity_log_seq), 1));
@@ -0,0 +1,74 @@
+package com.example.backend.config;
+
+import com.example.backend.repository.GoogleWatchChannelRepository;
+import com.example.backend.repository.SyncOutboxRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.CalendarSyncScheduler;
+import com.example.backend.service.CalendarSyncService;
+import com.example.backend.service.ConnectionBudget;
+import com.example.backend.service.GoogleSyncLocks;
+import com.example.backend.service.SyncIntervalPolicy;
+import com.example.backend.service.SyncOutboxService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class SchedulingConfigTest {
+
+    @Configuration
+    @EnableScheduling
+    static class Jobs {
+    }
+
+    @Test
+    void outboxDrainRunsWhileASyncCycleIsInProgress() throws Exception {
+        CountDownLatch cycleStarted = new CountDownLatch(1);
+        CountDownLatch releaseCycle = new CountDownLatch(1);
+        CountDownLatch drained = new CountDownLatch(1);
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        when(userRepository.findIdsDueForPolling(any(), any())).thenAnswer(inv -> {
+            // Cycle de synchronisation interminable (premier cycle après un déploiement)
+            cycleStarted.countDown();
+            releaseCycle.await(20, TimeUnit.SECONDS);
+            return List.of();
+        });
+        SyncOutboxRepository outboxRepository = Mockito.mock(SyncOutboxRepository.class);
+        when(outboxRepository.findReadyUserIds(any(), any(), any())).thenAnswer(inv -> {
+            drained.countDown();
+            return List.of();
+        });
+        CalendarSyncService calendarSyncService = Mockito.mock(CalendarSyncService.class);
+        SyncIntervalPolicy syncIntervalPolicy = Mockito.mock(SyncIntervalPolicy.class);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                    Map.of("app.sync.initial-delay-ms", "0")));
+            context.register(Jobs.class, SchedulingConfig.class);
+            context.registerBean(CalendarSyncScheduler.class, () -> new CalendarSyncScheduler(userRepository,
+                    calendarSyncService, Mockito.mock(GoogleWatchChannelRepository.class), syncIntervalPolicy,
+                    new ConnectionBudget(10)));
+            context.registerBean(SyncOutboxService.class, () -> new SyncOutboxService(outboxRepository,
+                    calendarSyncService, syncIntervalPolicy, new GoogleSyncLocks()));
+            context.refresh();
+
+            assertThat(cycleStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // Le vidage de l'outbox (premier passage après 5 s) n'attend pas la fin du cycle
+            assertThat(drained.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(releaseCycle.getCount()).isEqualTo(1);
+            releaseCycle.countDown();
+        }
+    }
+}
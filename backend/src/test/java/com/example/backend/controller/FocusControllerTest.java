@@ -1,10 +1,12 @@
 package com.example.backend.controller;
 
+import com.example.backend.config.WebConfig;
 import com.example.backend.dto.TimeSlot;
 import com.example.backend.service.impl.FocusService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,6 +27,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * que les paramètres sont bien reçus et que le JSON retourné est valide.
  */
 @WebMvcTest(FocusController.class) // On ne teste que ce contrôleur
+@Import(WebConfig.class) // Configuration CORS globale, combinée à celle du contrôleur
 public class FocusControllerTest {
 
     @Autowired
@@ -68,4 +71,21 @@ public class FocusControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest()); // Doit retourner une erreur 400
     }
-}
\ No newline at end of file
+
+    /**
+     * Test : Une requête du Frontend (en-tête Origin) est acceptée : la configuration CORS
+     * du contrôleur reste compatible avec allowCredentials(true) de la configuration globale.
+     */
+    @Test
+    void devraitAccepterLesRequetesCorsDuFrontend() throws Exception {
+        when(focusService.getOptimizedFocusSlots(eq(1L), any(LocalDate.class))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/focus/suggestions")
+                .param("userId", "1")
+                .param("date", "2024-10-25")
+                .header("Origin", "http://localhost:5173"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Origin", "http://localhost:5173"))
+                .andExpect(header().string("Access-Control-Allow-Credentials", "true"));
+    }
+}
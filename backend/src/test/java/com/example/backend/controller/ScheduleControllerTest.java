@@ -1,12 +1,17 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.TimeSlot;
 import com.example.backend.service.ScheduleOptimizerService;
+import com.example.backend.service.impl.FreeSlotService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -18,12 +23,18 @@ class ScheduleControllerTest {
     @Mock
     private ScheduleOptimizerService optimizerService;
 
+    @Mock
+    private ScheduleOptimizerService constraintOptimizerService;
+
+    @Mock
+    private FreeSlotService freeSlotService;
+
     private ScheduleController controller;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        controller = new ScheduleController(optimizerService);
+        controller = new ScheduleController(optimizerService, constraintOptimizerService, freeSlotService);
     }
 
     @Test
@@ -33,7 +44,7 @@ class ScheduleControllerTest {
         doNothing().when(optimizerService).reshuffle(eventId);
 
         // Act
-        ResponseEntity<String> response = controller.reshuffle(eventId);
+        ResponseEntity<String> response = controller.reshuffle(eventId, "default");
 
         // Assert
         assertEquals(200, response.getStatusCode().value());
@@ -48,11 +59,55 @@ class ScheduleControllerTest {
         doNothing().when(optimizerService).reshuffle(eventId);
 
         // Act
-        ResponseEntity<String> response = controller.reshuffle(eventId);
+        ResponseEntity<String> response = controller.reshuffle(eventId, "default");
 
         // Assert
         assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
         verify(optimizerService, times(1)).reshuffle(eventId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReshuffle_ConstraintStrategy() {
+        // Act
+        ResponseEntity<String> response = controller.reshuffle(1L, "constraint");
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        verify(constraintOptimizerService, times(1)).reshuffle(1L);
+        verifyNoInteractions(optimizerService);
+    }
+
+    @Test
+    void testReshuffle_UnknownStrategy() {
+        // Act
+        ResponseEntity<String> response = controller.reshuffle(1L, "contraint");
+
+        // Assert
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(optimizerService, constraintOptimizerService);
+    }
+
+    @Test
+    void testGetFreeSlots() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2030, 1, 7, 9, 0);
+        List<TimeSlot> slots = List.of(new TimeSlot(from, from.plusHours(1)));
+        when(freeSlotService.findFreeSlots(1L, from, 45, 3)).thenReturn(slots);
+
+        // Act
+        ResponseEntity<List<TimeSlot>> response = controller.getFreeSlots(1L, from, 45, 3);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(slots, response.getBody());
+    }
+
+    @Test
+    void testGetFreeSlots_InvalidDuration() {
+        ResponseEntity<List<TimeSlot>> response = controller.getFreeSlots(1L, null, 0, 3);
+
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(freeSlotService);
+    }
+}
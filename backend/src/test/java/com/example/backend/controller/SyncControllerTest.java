@@ -2,7 +2,12 @@ package com.example.backend.controller;
 
 import com.example.backend.exception.GoogleApiException;
 import com.example.backend.exception.SyncConflictException;
+import com.example.backend.dto.GoogleQuotaUsage;
+import com.example.backend.dto.SyncCycleReport;
+import com.example.backend.service.CalendarSyncScheduler;
 import com.example.backend.service.CalendarSyncService;
+import com.example.backend.service.GoogleApiRateLimiter;
+import com.example.backend.service.GoogleWatchService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -16,6 +21,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +41,15 @@ class SyncControllerTest {
     @MockitoBean
     private CalendarSyncService syncService;
 
+    @MockitoBean
+    private CalendarSyncScheduler syncScheduler;
+
+    @MockitoBean
+    private GoogleWatchService watchService;
+
+    @MockitoBean
+    private GoogleApiRateLimiter rateLimiter;
+
     // ═══════════════════════════════════════════════════════════════════════════
     // TESTS POUR : POST /api/sync/user/{userId}
     // ═══════════════════════════════════════════════════════════════════════════
@@ -146,6 +161,23 @@ class SyncControllerTest {
                     .andExpect(content().string(containsString("Erreur : Service Google indisponible")));
         }
 
+        @Test
+        @DisplayName("❌ Devrait retourner 429 avec Retry-After si le quota Google est épuisé")
+        void shouldReturn429_WhenQuotaWaitTimesOut() throws Exception {
+            // Given : l'attente de quota remonte enveloppée, comme depuis GoogleCalendarService
+            Long userId = 1L;
+            GoogleApiRateLimiter.QuotaWaitTimeoutException timeout = new GoogleApiRateLimiter.QuotaWaitTimeoutException(
+                    GoogleApiRateLimiter.Api.CALENDAR, 2_000, 4_200);
+            doThrow(new GoogleApiException("Erreur de communication avec Google Calendar", timeout, "IO_ERROR", true))
+                    .when(syncService).syncUser(userId);
+
+            // When & Then
+            mockMvc.perform(post("/api/sync/user/{userId}", userId)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "5"));
+        }
+
         @Test
         @DisplayName("❌ Devrait retourner 500 en cas d'IOException")
         void shouldReturn500_WhenIOExceptionOccurs() throws Exception {
@@ -217,4 +249,78 @@ class SyncControllerTest {
                     .andExpect(content().string(containsString("Erreur :")));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("GET /api/sync/scheduler - Rapport du dernier cycle planifié")
+    class SchedulerReportTests {
+
+        @Test
+        @DisplayName("✅ Devrait renvoyer la durée du cycle et la latence par utilisateur")
+        void shouldReturnLastCycleReport() throws Exception {
+            SyncCycleReport report = new SyncCycleReport(java.time.LocalDateTime.now(), java.time.LocalDateTime.now(),
+                    4, 1, 1, 0, 0, 0, 120, 80, 80, 80,
+                    java.util.List.of(new SyncCycleReport.UserSyncTiming(7L, 80, SyncCycleReport.Outcome.SUCCESS, null)));
+            when(syncScheduler.getLastReport()).thenReturn(java.util.Optional.of(report));
+
+            mockMvc.perform(get("/api/sync/scheduler"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.elapsedMs").value(120))
+                    .andExpect(jsonPath("$.timings[0].userId").value(7))
+                    .andExpect(jsonPath("$.timings[0].outcome").value("SUCCESS"));
+        }
+
+        @Test
+        @DisplayName("✅ Devrait renvoyer 204 tant qu'aucun cycle n'a eu lieu")
+        void shouldReturnNoContent_WhenNoCycleYet() throws Exception {
+            when(syncScheduler.getLastReport()).thenReturn(java.util.Optional.empty());
+
+            mockMvc.perform(get("/api/sync/scheduler"))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/sync/google/notifications - Webhook des canaux Google")
+    class GoogleNotificationTests {
+
+        @Test
+        @DisplayName("✅ Devrait transmettre les en-têtes Google et répondre 200")
+        void shouldAcceptKnownChannel() throws Exception {
+            when(watchService.onNotification("chan", "secret", "res", "exists")).thenReturn(true);
+
+            mockMvc.perform(post("/api/sync/google/notifications")
+                            .header("X-Goog-Channel-ID", "chan")
+                            .header("X-Goog-Channel-Token", "secret")
+                            .header("X-Goog-Resource-ID", "res")
+                            .header("X-Goog-Resource-State", "exists"))
+                    .andExpect(status().isOk());
+
+            verify(syncService, never()).syncUser(anyLong());
+        }
+
+        @Test
+        @DisplayName("❌ Devrait répondre 404 pour un canal inconnu ou sans en-têtes")
+        void shouldRejectUnknownChannel() throws Exception {
+            mockMvc.perform(post("/api/sync/google/notifications"))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/sync/quota - Consommation des quotas Google")
+    class QuotaUsageTests {
+
+        @Test
+        @DisplayName("✅ Devrait exposer la consommation par API")
+        void shouldExposeUsagePerApi() throws Exception {
+            when(rateLimiter.usage()).thenReturn(java.util.List.of(
+                    new GoogleQuotaUsage("CALENDAR", 10, 20, 12.5, 1, 3, 40, 200, 5, 120, 0, 1)));
+
+            mockMvc.perform(get("/api/sync/quota"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].api").value("CALENDAR"))
+                    .andExpect(jsonPath("$[0].waitingBackground").value(3))
+                    .andExpect(jsonPath("$[0].quotaExceeded").value(1));
+        }
+    }
+}
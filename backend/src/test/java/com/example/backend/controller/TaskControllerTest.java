@@ -11,8 +11,10 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
 
@@ -113,4 +115,15 @@ public class TaskControllerTest {
                 .param("end", "2024-12-30T11:00:00"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPlanifyTask_NoFreeSlot_ReturnsConflict() throws Exception {
+        Mockito.when(taskService.getTaskById(1L)).thenReturn(testTask);
+        Mockito.when(taskService.planifyTask(eq(1L), any(), any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Aucun créneau libre trouvé pour la tâche 1"));
+
+        mockMvc.perform(post("/api/tasks/1/planify"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Aucun créneau libre trouvé pour la tâche 1"));
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.backend.repository;
 
 import com.example.backend.model.Event;
+import com.example.backend.model.Location;
+import com.example.backend.model.Task;
+import com.example.backend.model.TravelTime;
 import com.example.backend.model.User;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -9,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +31,15 @@ class EventRepositoryTest {
     @Autowired
     private EventRepository eventRepository;
 
+    @Autowired
+    private TravelTimeRepository travelTimeRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
     @Test
     void testSaveEvent() {
         // Arrange
@@ -234,4 +248,123 @@ class EventRepositoryTest {
         assertTrue(exists);
         assertFalse(notExists);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindByGoogleEventIds_scopedToUser() {
+        // Arrange : le même événement Google partagé par deux utilisateurs
+        User owner = new User("henri", "password");
+        User other = new User("iris", "password");
+        entityManager.persist(owner);
+        entityManager.persist(other);
+
+        Event g1 = googleEvent("Point hebdo", "g1", owner);
+        Event g2 = googleEvent("Revue", "g2", owner);
+        Event sharedCopy = googleEvent("Point hebdo", "g1", other);
+        entityManager.persist(g1);
+        entityManager.persist(g2);
+        entityManager.persist(sharedCopy);
+        entityManager.flush();
+
+        // Act
+        Map<String, Event> found = eventRepository.findByGoogleEventIds(owner.getId(), List.of("g1", "g2", "absent"));
+
+        // Assert
+        assertEquals(2, found.size());
+        assertEquals(g1.getId(), found.get("g1").getId());
+        assertEquals(g2.getId(), found.get("g2").getId());
+        assertTrue(eventRepository.findByGoogleEventIds(owner.getId(), List.of()).isEmpty());
+    }
+
+    @Test
+    void testGoogleEventId_uniquePerUser() {
+        // Arrange
+        User user = new User("jules", "password");
+        entityManager.persist(user);
+        entityManager.persist(googleEvent("Original", "g1", user));
+        entityManager.flush();
+
+        // Act & Assert : un second import du même événement Google est refusé par la base
+        assertThrows(ConstraintViolationException.class, () -> {
+            entityManager.persist(googleEvent("Doublon", "g1", user));
+            entityManager.flush();
+        });
+    }
+
+    @Test
+    void testBulkDeleteOfGoogleOrphans_handlesDependents() {
+        // Arrange : un orphelin localisé, avec un trajet vers un autre événement et une tâche planifiée
+        User user = new User("karim", "password");
+        entityManager.persist(user);
+        Event orphan = googleEvent("Supprimé sur Google", "g-old", user);
+        orphan.setLocation(new Location("Gare de Lyon, 75012 Paris"));
+        Event kept = googleEvent("Toujours là", "g1", user);
+        entityManager.persist(orphan);
+        entityManager.persist(kept);
+        entityManager.persist(new TravelTime(orphan, kept, user, orphan.getEndTime(), 20));
+        Task task = new Task("Préparer", 30, 2, Task.TaskStatus.PENDING_CREATION, user, orphan);
+        entityManager.persist(task);
+        entityManager.flush();
+        Long locationId = orphan.getLocation().getId();
+
+        List<EventRepository.GoogleEventRef> refs = eventRepository.findGoogleEventRefs(user.getId());
+        assertEquals(2, refs.size());
+        List<Long> orphanIds = List.of(orphan.getId());
+
+        // Act : même séquence que l'import (les cascades JPA ne s'appliquent pas aux requêtes groupées)
+        travelTimeRepository.deleteByEventIds(orphanIds);
+        taskRepository.detachFromEvents(orphanIds);
+        eventRepository.deleteAllByIdInBatch(orphanIds);
+        locationRepository.deleteAllByIdInBatch(List.of(locationId));
+        entityManager.clear();
+
+        // Assert
+        assertFalse(eventRepository.existsById(orphan.getId()));
+        assertTrue(eventRepository.existsById(kept.getId()));
+        assertFalse(locationRepository.existsById(locationId));
+        assertTrue(travelTimeRepository.findByUser_Id(user.getId()).isEmpty());
+        Task detached = taskRepository.findById(task.getId()).orElseThrow();
+        assertNull(detached.getEvent());
+    }
+
+    @Test
+    void testFindNeedingExport_selectsOnlyPendingChanges() {
+        // Arrange
+        User user = new User("ines", "password");
+        User other = new User("paul", "password");
+        entityManager.persist(user);
+        entityManager.persist(other);
+
+        Event synced = googleEvent("À jour", "g1", user);
+        Event modified = googleEvent("Modifié", "g2", user);
+        modified.setSyncStatus(Event.SyncStatus.PENDING);
+        Event deleted = googleEvent("Supprimé", "g3", user);
+        deleted.setStatus(Event.EventStatus.PENDING_DELETION);
+        Event created = new Event("Créé localement", LocalDateTime.of(2025, 3, 4, 9, 0),
+                LocalDateTime.of(2025, 3, 4, 10, 0), user);
+        Event exported = new Event("Déjà exporté", LocalDateTime.of(2025, 3, 5, 9, 0),
+                LocalDateTime.of(2025, 3, 5, 10, 0), user);
+        exported.setGoogleEventId("g4");
+        Event otherUsers = new Event("Autre utilisateur", LocalDateTime.of(2025, 3, 4, 9, 0),
+                LocalDateTime.of(2025, 3, 4, 10, 0), other);
+        for (Event event : List.of(synced, modified, deleted, created, exported, otherUsers)) {
+            entityManager.persist(event);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Event> pending = eventRepository.findNeedingExport(user.getId());
+
+        // Assert
+        assertEquals(3, pending.size());
+        assertTrue(pending.stream().map(Event::getSummary).toList()
+                .containsAll(List.of("Modifié", "Supprimé", "Créé localement")));
+    }
+
+    private static Event googleEvent(String summary, String googleEventId, User user) {
+        Event event = new Event(summary, LocalDateTime.of(2025, 3, 3, 9, 0), LocalDateTime.of(2025, 3, 3, 10, 0), user);
+        event.setGoogleEventId(googleEventId);
+        event.setSource(Event.EventSource.GOOGLE);
+        return event;
+    }
+}
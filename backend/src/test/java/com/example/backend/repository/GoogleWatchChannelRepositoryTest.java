@@ -0,0 +1,102 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.GoogleWatchChannel;
+import com.example.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests d'intégration pour GoogleWatchChannelRepository (H2).
+ */
+@DataJpaTest
+class GoogleWatchChannelRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GoogleWatchChannelRepository channelRepository;
+
+    @Test
+    void markDirty_requiresMatchingChannelTokenAndResource() {
+        User user = linkedUser("ana");
+        entityManager.persistAndFlush(new GoogleWatchChannel(user.getId(), "chan", "res", "secret", NOW.plusDays(7)));
+
+        int forged = channelRepository.markDirty("chan", "wrong", "res", NOW);
+        int unknown = channelRepository.markDirty("other", "secret", "res", NOW);
+        int accepted = channelRepository.markDirty("chan", "secret", "res", NOW);
+        entityManager.clear();
+
+        assertThat(forged).isZero();
+        assertThat(unknown).isZero();
+        assertThat(accepted).isEqualTo(1);
+        assertThat(channelRepository.findDirtyUserIds()).containsExactly(user.getId());
+    }
+
+    @Test
+    void findDirtyUserIds_ignoresUnlinkedUsersAndOrdersByNotification() {
+        User first = linkedUser("first");
+        User second = linkedUser("second");
+        User unlinked = entityManager.persist(new User("unlinked", "password"));
+        dirtyChannel(second, "c2", NOW.minusSeconds(30));
+        dirtyChannel(first, "c1", NOW.minusSeconds(10));
+        dirtyChannel(unlinked, "c3", NOW.minusSeconds(60));
+        entityManager.flush();
+
+        List<Long> dirty = channelRepository.findDirtyUserIds();
+
+        assertThat(dirty).containsExactly(second.getId(), first.getId());
+    }
+
+    @Test
+    void clearDirty_keepsNotificationsReceivedDuringSync() {
+        User quiet = linkedUser("quiet");
+        User busy = linkedUser("busy");
+        dirtyChannel(quiet, "c1", NOW.minusSeconds(5));
+        dirtyChannel(busy, "c2", NOW.plusSeconds(1)); // notification pendant la synchronisation
+        entityManager.flush();
+
+        channelRepository.clearDirty(quiet.getId(), NOW);
+        channelRepository.clearDirty(busy.getId(), NOW);
+        entityManager.clear();
+
+        assertThat(channelRepository.findDirtyUserIds()).containsExactly(busy.getId());
+    }
+
+    @Test
+    void deleteExpired_removesOnlyExpiredChannels() {
+        User user = linkedUser("eve");
+        entityManager.persist(new GoogleWatchChannel(user.getId(), "old", "r1", "t1", NOW.minusMinutes(1)));
+        entityManager.persist(new GoogleWatchChannel(user.getId(), "new", "r2", "t2", NOW.plusDays(6)));
+        entityManager.flush();
+
+        int deleted = channelRepository.deleteExpired(NOW);
+        entityManager.clear();
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(channelRepository.findByUserId(user.getId()))
+                .extracting(GoogleWatchChannel::getChannelId).containsExactly("new");
+    }
+
+    private User linkedUser(String username) {
+        User user = new User(username, "password");
+        user.setGoogleAccessToken("token");
+        return entityManager.persist(user);
+    }
+
+    private void dirtyChannel(User user, String channelId, LocalDateTime dirtyAt) {
+        GoogleWatchChannel channel = new GoogleWatchChannel(user.getId(), channelId, "res-" + channelId,
+                "secret", NOW.plusDays(7));
+        channel.setDirtyAt(dirtyAt);
+        entityManager.persist(channel);
+    }
+}
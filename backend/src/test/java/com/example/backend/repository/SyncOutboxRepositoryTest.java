@@ -0,0 +1,92 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.SyncOutboxEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests d'intégration pour SyncOutboxRepository (H2).
+ */
+@DataJpaTest
+class SyncOutboxRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SyncOutboxRepository outboxRepository;
+
+    @Test
+    void touch_coalescesRequestsOnPendingIntentOfSameEvent() {
+        entityManager.persistAndFlush(new SyncOutboxEntry(1L, 10L, NOW.minusSeconds(10)));
+
+        int updated = outboxRepository.touch(1L, 10L, NOW);
+        int otherEvent = outboxRepository.touch(1L, 11L, NOW);
+        int otherUser = outboxRepository.touch(2L, 10L, NOW);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(otherEvent).isZero();
+        assertThat(otherUser).isZero();
+        SyncOutboxEntry entry = outboxRepository.findAll().get(0);
+        assertThat(entry.getFirstRequestedAt()).isEqualTo(NOW.minusSeconds(10));
+        assertThat(entry.getLastRequestedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void findReadyUserIds_waitsForQuietPeriodUnlessOverdue() {
+        // 1 : calme depuis 5 s → prêt
+        entityManager.persist(new SyncOutboxEntry(1L, 10L, NOW.minusSeconds(5)));
+        // 2 : modifié il y a 1 s → on attend encore
+        entityManager.persist(new SyncOutboxEntry(2L, 20L, NOW.minusSeconds(1)));
+        // 3 : rafale continue depuis 40 s → prêt malgré l'activité récente
+        SyncOutboxEntry overdue = new SyncOutboxEntry(3L, 30L, NOW.minusSeconds(40));
+        overdue.setLastRequestedAt(NOW.minusNanos(100_000_000));
+        entityManager.persist(overdue);
+        // 4 : en attente de nouvel essai après un échec
+        SyncOutboxEntry retrying = new SyncOutboxEntry(4L, 40L, NOW.minusSeconds(60));
+        retrying.setNextAttemptAt(NOW.plusSeconds(10));
+        entityManager.persist(retrying);
+        entityManager.flush();
+
+        List<Long> ready = outboxRepository.findReadyUserIds(NOW, NOW.minusSeconds(2), NOW.minusSeconds(30));
+
+        assertThat(ready).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void findReadyEventIds_skipsEventsWaitingForRetry() {
+        entityManager.persist(new SyncOutboxEntry(1L, 10L, NOW.minusSeconds(5)));
+        entityManager.persist(new SyncOutboxEntry(1L, 10L, NOW.minusSeconds(4))); // doublon concurrent
+        SyncOutboxEntry retrying = new SyncOutboxEntry(1L, 11L, NOW.minusSeconds(5));
+        retrying.setNextAttemptAt(NOW.plusSeconds(10));
+        entityManager.persist(retrying);
+        entityManager.persist(new SyncOutboxEntry(2L, 20L, NOW.minusSeconds(5)));
+        entityManager.flush();
+
+        assertThat(outboxRepository.findReadyEventIds(1L, NOW)).containsExactly(10L);
+    }
+
+    @Test
+    void deleteDrained_keepsRequestsMadeDuringExport() {
+        entityManager.persist(new SyncOutboxEntry(1L, 10L, NOW.minusSeconds(5)));
+        entityManager.persist(new SyncOutboxEntry(1L, 11L, NOW.minusSeconds(5)));
+        entityManager.flush();
+        outboxRepository.touch(1L, 11L, NOW.plusSeconds(1)); // écriture pendant l'export
+
+        outboxRepository.deleteDrained(1L, 10L, NOW);
+        outboxRepository.deleteDrained(1L, 11L, NOW);
+        entityManager.clear();
+
+        assertThat(outboxRepository.findAll()).extracting(SyncOutboxEntry::getEventId).containsExactly(11L);
+    }
+}
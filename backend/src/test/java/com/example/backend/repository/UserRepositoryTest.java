@@ -1,11 +1,13 @@
 package com.example.backend.repository;
 
+import com.example.backend.model.GoogleWatchChannel;
 import com.example.backend.model.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -358,4 +360,206 @@ class UserRepositoryTest {
         assertEquals("sam", foundSam.get().getUsername());
         assertEquals("tom", foundTom.get().getUsername());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindIdsWithGoogleToken_OnlyLinkedUsers() {
+        // Arrange
+        User linked = new User("linked", "password");
+        linked.setGoogleAccessToken("token");
+        User blank = new User("blank", "password");
+        blank.setGoogleAccessToken("   ");
+        User unlinked = new User("unlinked", "password");
+        entityManager.persist(linked);
+        entityManager.persist(blank);
+        entityManager.persist(unlinked);
+        entityManager.flush();
+
+        // Act
+        List<Long> ids = userRepository.findIdsWithGoogleToken();
+
+        // Assert
+        assertEquals(List.of(linked.getId()), ids);
+    }
+
+    @Test
+    void testFindIdsDueForPolling_skipsRecentlySyncedWatchedUsers() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 12, 0);
+        User unwatched = linkedUser("unwatched", now.minusMinutes(5));
+        User watched = linkedUser("watched", now.minusMinutes(5));
+        User watchedStale = linkedUser("watchedStale", now.minusHours(7));
+        User expiredChannel = linkedUser("expiredChannel", now.minusMinutes(5));
+        entityManager.persist(new GoogleWatchChannel(watched.getId(), "c1", "r1", "t1", now.plusDays(3)));
+        entityManager.persist(new GoogleWatchChannel(watchedStale.getId(), "c2", "r2", "t2", now.plusDays(3)));
+        entityManager.persist(new GoogleWatchChannel(expiredChannel.getId(), "c3", "r3", "t3", now.minusMinutes(1)));
+        entityManager.flush();
+
+        // Act
+        List<Long> ids = userRepository.findIdsDueForPolling(now, now.minusHours(6));
+
+        // Assert
+        assertEquals(List.of(unwatched.getId(), watchedStale.getId(), expiredChannel.getId()), ids);
+    }
+
+    @Test
+    void testFindIdsDueForPolling_respectsAdaptiveNextSync() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 12, 0);
+        User due = linkedUser("due", now.minusMinutes(30));
+        due.setNextGoogleSyncAt(now.minusMinutes(1));
+        User notYet = linkedUser("notYet", now.minusMinutes(30));
+        notYet.setNextGoogleSyncAt(now.plusHours(2));
+        User staleNotYet = linkedUser("staleNotYet", now.minusHours(7));
+        staleNotYet.setNextGoogleSyncAt(now.plusHours(2));
+        entityManager.flush();
+
+        // Act
+        List<Long> ids = userRepository.findIdsDueForPolling(now, now.minusHours(6));
+
+        // Assert : le filet de sécurité l'emporte sur une échéance lointaine
+        assertEquals(List.of(due.getId(), staleNotYet.getId()), ids);
+    }
+
+    @Test
+    void testResetGoogleSyncInterval_keepsEarlierDeadline() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 12, 0);
+        User idle = linkedUser("idle", now);
+        idle.setGoogleSyncIntervalMs(21_600_000L);
+        idle.setNextGoogleSyncAt(now.plusHours(6));
+        User soon = linkedUser("soon", now);
+        soon.setGoogleSyncIntervalMs(600_000L);
+        soon.setNextGoogleSyncAt(now.plusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        userRepository.resetGoogleSyncInterval(idle.getId(), 300_000L, now.plusMinutes(5));
+        userRepository.resetGoogleSyncInterval(soon.getId(), 300_000L, now.plusMinutes(5));
+        entityManager.clear();
+
+        // Assert
+        User reloadedIdle = userRepository.findById(idle.getId()).orElseThrow();
+        assertEquals(300_000L, reloadedIdle.getGoogleSyncIntervalMs());
+        assertEquals(now.plusMinutes(5), reloadedIdle.getNextGoogleSyncAt());
+        User reloadedSoon = userRepository.findById(soon.getId()).orElseThrow();
+        assertEquals(300_000L, reloadedSoon.getGoogleSyncIntervalMs());
+        assertEquals(now.plusMinutes(1), reloadedSoon.getNextGoogleSyncAt());
+    }
+
+    @Test
+    void testRecordGoogleSync_appliesComputedInterval() {
+        // Arrange
+        LocalDateTime syncedAt = LocalDateTime.of(2026, 3, 2, 12, 0);
+        User user = linkedUser("synced", syncedAt.minusHours(1));
+        user.setGoogleSyncIntervalMs(900_000L);
+        user.setNextGoogleSyncAt(syncedAt.minusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act : synchronisation sans changement, l'intervalle double
+        int updated = userRepository.recordGoogleSync(user.getId(), syncedAt, 900_000L, 1_800_000L,
+                syncedAt.plusMinutes(30));
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, updated);
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(syncedAt, reloaded.getLastGoogleSyncAt());
+        assertEquals(1_800_000L, reloaded.getGoogleSyncIntervalMs());
+        assertEquals(syncedAt.plusMinutes(30), reloaded.getNextGoogleSyncAt());
+        assertEquals("token", reloaded.getGoogleAccessToken());
+    }
+
+    @Test
+    void testRecordGoogleSync_keepsConcurrentReset() {
+        // Arrange : première synchronisation (aucun intervalle au départ)
+        LocalDateTime syncedAt = LocalDateTime.of(2026, 3, 2, 12, 0);
+        User user = linkedUser("edited", null);
+        entityManager.flush();
+        entityManager.clear();
+        // Écriture locale pendant la synchronisation
+        userRepository.resetGoogleSyncInterval(user.getId(), 300_000L, syncedAt.plusMinutes(5));
+
+        // Act
+        userRepository.recordGoogleSync(user.getId(), syncedAt, -1L, 1_800_000L, syncedAt.plusMinutes(30));
+        entityManager.clear();
+
+        // Assert : l'intervalle le plus court et l'échéance la plus proche sont conservés
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(syncedAt, reloaded.getLastGoogleSyncAt());
+        assertEquals(300_000L, reloaded.getGoogleSyncIntervalMs());
+        assertEquals(syncedAt.plusMinutes(5), reloaded.getNextGoogleSyncAt());
+    }
+
+    @Test
+    void testDynamicUpdate_keepsRefreshedToken() {
+        // Arrange : l'entité de la synchronisation est chargée avant le rafraîchissement du token
+        User user = linkedUser("stale", null);
+        entityManager.flush();
+        entityManager.clear();
+        User stale = userRepository.findById(user.getId()).orElseThrow();
+        userRepository.updateGoogleTokens(user.getId(), "refreshed", "refresh", LocalDateTime.of(2026, 3, 2, 13, 0));
+
+        // Act : l'import enregistre son jeton de synchronisation
+        stale.setGoogleSyncToken("next-sync-token");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("refreshed", reloaded.getGoogleAccessToken());
+        assertEquals("next-sync-token", reloaded.getGoogleSyncToken());
+    }
+
+    @Test
+    void testFindIdsNeedingWatchChannel_missingOrExpiringSoon() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 12, 0);
+        User none = linkedUser("none", null);
+        User fresh = linkedUser("fresh", null);
+        User expiring = linkedUser("expiring", null);
+        User unlinked = new User("unlinked", "password");
+        entityManager.persist(unlinked);
+        entityManager.persist(new GoogleWatchChannel(fresh.getId(), "c1", "r1", "t1", now.plusDays(5)));
+        entityManager.persist(new GoogleWatchChannel(expiring.getId(), "c2", "r2", "t2", now.plusHours(2)));
+        entityManager.flush();
+
+        // Act
+        List<Long> ids = userRepository.findIdsNeedingWatchChannel(now.plusDays(1));
+
+        // Assert
+        assertEquals(List.of(none.getId(), expiring.getId()), ids);
+    }
+
+    @Test
+    void testUpdateGoogleTokens_keepsOtherColumns() {
+        // Arrange
+        LocalDateTime syncedAt = LocalDateTime.of(2025, 3, 3, 9, 0);
+        User user = linkedUser("refreshed", syncedAt);
+        user.setGoogleSyncToken("sync-token");
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime expiresAt = LocalDateTime.of(2025, 3, 3, 10, 0);
+
+        // Act
+        int updated = userRepository.updateGoogleTokens(user.getId(), "new-token", "new-refresh", expiresAt);
+        entityManager.clear();
+
+        // Assert
+        assertEquals(1, updated);
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("new-token", reloaded.getGoogleAccessToken());
+        assertEquals("new-refresh", reloaded.getGoogleRefreshToken());
+        assertEquals(expiresAt, reloaded.getGoogleTokenExpiresAt());
+        assertEquals(syncedAt, reloaded.getLastGoogleSyncAt());
+        assertEquals("sync-token", reloaded.getGoogleSyncToken());
+    }
+
+    private User linkedUser(String username, LocalDateTime lastGoogleSyncAt) {
+        User user = new User(username, "password");
+        user.setGoogleAccessToken("token");
+        user.setLastGoogleSyncAt(lastGoogleSyncAt);
+        return entityManager.persist(user);
+    }
+}
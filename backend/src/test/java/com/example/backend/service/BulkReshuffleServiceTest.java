@@ -0,0 +1,114 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BulkReshuffleReport;
+import com.example.backend.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BulkReshuffleServiceTest {
+
+    private ScheduleOptimizerService optimizerService;
+    private TaskRepository taskRepository;
+    private ConnectionBudget connectionBudget;
+    private BulkReshuffleService service;
+
+    @BeforeEach
+    void setUp() {
+        optimizerService = Mockito.mock(ScheduleOptimizerService.class);
+        taskRepository = Mockito.mock(TaskRepository.class);
+        connectionBudget = new ConnectionBudget(10);
+        service = new BulkReshuffleService(optimizerService, taskRepository, connectionBudget);
+        ReflectionTestUtils.setField(service, "maxConcurrency", 4);
+    }
+
+    @Test
+    void runNow_reshufflesEveryActiveUserAndContinuesOnError() {
+        when(taskRepository.findUserIdsWithUnscheduledTasks()).thenReturn(List.of(1L, 2L, 3L));
+        doThrow(new RuntimeException("boom")).when(optimizerService).reshuffle(2L);
+
+        BulkReshuffleReport report = service.runNow().orElseThrow();
+
+        verify(optimizerService).reshuffle(1L);
+        verify(optimizerService).reshuffle(2L);
+        verify(optimizerService).reshuffle(3L);
+        assertThat(report.status()).isEqualTo("COMPLETED");
+        assertThat(report.totalUsers()).isEqualTo(3);
+        assertThat(report.succeeded()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.progressPercent()).isEqualTo(100.0);
+        assertThat(report.timings()).hasSize(3)
+                .anySatisfy(t -> {
+                    assertThat(t.userId()).isEqualTo(2L);
+                    assertThat(t.success()).isFalse();
+                    assertThat(t.error()).isEqualTo("boom");
+                });
+    }
+
+    @Test
+    void runNow_neverExceedsConcurrencyLimit() {
+        List<Long> userIds = LongStream.rangeClosed(1, 40).boxed().toList();
+        when(taskRepository.findUserIdsWithUnscheduledTasks()).thenReturn(userIds);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return null;
+        }).when(optimizerService).reshuffle(anyLong());
+
+        BulkReshuffleReport report = service.runNow().orElseThrow();
+
+        assertThat(report.succeeded()).isEqualTo(40);
+        assertThat(maxInFlight.get()).isBetween(1, 4);
+        assertThat(report.usersPerSecond()).isPositive();
+    }
+
+    @Test
+    void runNow_sharesConnectionBudgetWithRunningSyncs() throws Exception {
+        when(taskRepository.findUserIdsWithUnscheduledTasks())
+                .thenReturn(LongStream.rangeClosed(1, 20).boxed().toList());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            inFlight.decrementAndGet();
+            return null;
+        }).when(optimizerService).reshuffle(anyLong());
+
+        // Quatre synchronisations en cours occupent 8 des 9 connexions du budget
+        connectionBudget.acquire(8);
+        BulkReshuffleReport report = service.runNow().orElseThrow();
+
+        assertThat(report.succeeded()).isEqualTo(20);
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        assertThat(connectionBudget.available()).isEqualTo(1);
+    }
+
+    @Test
+    void runNow_capsConcurrencyToConnectionPool() {
+        service = new BulkReshuffleService(optimizerService, taskRepository, new ConnectionBudget(5));
+        ReflectionTestUtils.setField(service, "maxConcurrency", 8);
+        when(taskRepository.findUserIdsWithUnscheduledTasks()).thenReturn(List.of(1L));
+
+        assertThat(service.runNow().orElseThrow().maxConcurrency()).isEqualTo(4);
+    }
+
+    @Test
+    void getReport_isEmptyBeforeFirstRun() {
+        assertThat(service.getReport()).isEmpty();
+        verifyNoInteractions(optimizerService);
+    }
+}
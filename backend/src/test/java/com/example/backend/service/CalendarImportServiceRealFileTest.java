@@ -20,7 +20,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 
 @DataJpaTest
-@Import({ CalendarImportService.class, BiweeklyCalendarParser.class })
+@Import({ CalendarImportService.class, GoogleCalendarClientFactory.class, GoogleApiRateLimiter.class, BiweeklyCalendarParser.class })
 class CalendarImportServiceRealFileTest {
 
     @Autowired
@@ -3,17 +3,24 @@ package com.example.backend.service;
 import com.example.backend.model.User;
 import com.example.backend.model.Event;
 import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.LocationRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.repository.TravelTimeRepository;
 import com.example.backend.service.parser.ICalendarParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -23,6 +30,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.eq;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Events;
+
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -31,6 +44,11 @@ class CalendarImportServiceTest {
 
     private EventRepository eventRepository;
     private ICalendarParser parser;
+    private TravelTimeRepository travelTimeRepository;
+    private TaskRepository taskRepository;
+    private LocationRepository locationRepository;
+    private PlatformTransactionManager transactionManager;
+    private GoogleCalendarClientFactory clientFactory;
     private CalendarImportService importService;
     private User u1;
 
@@ -38,7 +56,13 @@ class CalendarImportServiceTest {
     void setUp() {
         eventRepository = mock(EventRepository.class);
         parser = mock(ICalendarParser.class);
-        importService = new CalendarImportService(eventRepository, parser);
+        travelTimeRepository = mock(TravelTimeRepository.class);
+        taskRepository = mock(TaskRepository.class);
+        locationRepository = mock(LocationRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        clientFactory = mock(GoogleCalendarClientFactory.class);
+        importService = new CalendarImportService(eventRepository, travelTimeRepository, taskRepository,
+                locationRepository, parser, clientFactory, transactionManager);
         
         u1 = new User();        //utilisateur factice
         u1.setId(1L);
@@ -112,16 +136,18 @@ class CalendarImportServiceTest {
     }
 
     @Test
-    void buildCalendarClient_reflection_returnsCalendar() throws Exception {
+    void buildCalendarClient_reflection_returnsSharedFactoryClient() throws Exception {
         User user = new User();
         user.setId(3L);
         user.setGoogleAccessToken("tok");
+        Calendar client = mock(Calendar.class);
+        when(clientFactory.clientFor(user)).thenReturn(client);
 
         Method m = CalendarImportService.class.getDeclaredMethod("buildCalendarClient", User.class);
         m.setAccessible(true);
 
         Object cal = m.invoke(importService, user);
-        assertThat(cal).isNotNull();
+        assertThat(cal).isSameAs(client);
     }
 
     @Test
@@ -129,22 +155,46 @@ class CalendarImportServiceTest {
         User user = new User();
         user.setId(4L);
 
-        Event e1 = new Event(); e1.setId(10L); e1.setSource(Event.EventSource.GOOGLE); e1.setGoogleEventId("g1");
-        Event e2 = new Event(); e2.setId(11L); e2.setSource(Event.EventSource.GOOGLE); e2.setGoogleEventId("g2");
-
-        when(eventRepository.findByUser_Id(4L)).thenReturn(List.of(e1, e2));
+        when(eventRepository.findGoogleEventRefs(4L)).thenReturn(List.of(
+                googleRef(10L, "g1", null),
+                googleRef(11L, "g2", 7L)));
 
-        // build googleEvents containing only g1
-        com.google.api.services.calendar.model.Event ge = new com.google.api.services.calendar.model.Event();
-        ge.setId("g1");
-        List<com.google.api.services.calendar.model.Event> googleList = List.of(ge);
+        // ids currently on Google: only g1
+        Set<String> googleIds = Set.of("g1");
 
-        Method m = CalendarImportService.class.getDeclaredMethod("deleteOrphanedGoogleEvents", User.class, List.class);
+        Method m = CalendarImportService.class.getDeclaredMethod("deleteOrphanedGoogleEvents", User.class, Set.class);
         m.setAccessible(true);
 
-        Object res = m.invoke(importService, user, googleList);
+        Object res = m.invoke(importService, user, googleIds);
         assertThat(res).isEqualTo(1);
-        verify(eventRepository, times(1)).delete(eq(e2));
+        // Suppression groupée, dépendances comprises, sans charger les entités
+        verify(travelTimeRepository).deleteByEventIds(List.of(11L));
+        verify(taskRepository).detachFromEvents(List.of(11L));
+        verify(eventRepository).deleteAllByIdInBatch(List.of(11L));
+        verify(locationRepository).deleteAllByIdInBatch(List.of(7L));
+        verify(eventRepository, never()).delete(any(Event.class));
+    }
+
+    @Test
+    void deleteOrphanedGoogleEvents_noOrphan_issuesNoDelete() throws Exception {
+        User user = new User();
+        user.setId(4L);
+        when(eventRepository.findGoogleEventRefs(4L)).thenReturn(List.of(googleRef(10L, "g1", null)));
+
+        Method m = CalendarImportService.class.getDeclaredMethod("deleteOrphanedGoogleEvents", User.class, Set.class);
+        m.setAccessible(true);
+
+        assertThat(m.invoke(importService, user, Set.of("g1"))).isEqualTo(0);
+        verifyNoInteractions(travelTimeRepository, taskRepository, locationRepository);
+        verify(eventRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    private static EventRepository.GoogleEventRef googleRef(Long id, String googleEventId, Long locationId) {
+        return new EventRepository.GoogleEventRef() {
+            @Override public Long getId() { return id; }
+            @Override public String getGoogleEventId() { return googleEventId; }
+            @Override public Long getLocationId() { return locationId; }
+        };
     }
 
     @Test
@@ -194,5 +244,103 @@ class CalendarImportServiceTest {
         LocalDateTime res3 = (LocalDateTime) m.invoke(importService, null, zone);
         assertThat(res3).isNotNull();
     }
-}
 
+    // ── import Google : synchronisation complète / incrémentale ───────────────
+
+    private Calendar.Events.List mockGoogleList(CalendarImportService service, User user) throws Exception {
+        Calendar client = mock(Calendar.class);
+        Calendar.Events events = mock(Calendar.Events.class);
+        Calendar.Events.List list = mock(Calendar.Events.List.class, RETURNS_SELF);
+        doReturn(client).when(service).buildCalendarClient(user);
+        when(client.events()).thenReturn(events);
+        when(events.list("primary")).thenReturn(list);
+        return list;
+    }
+
+    private static com.google.api.services.calendar.model.Event googleEvent(String id, String status) {
+        com.google.api.services.calendar.model.Event ge = new com.google.api.services.calendar.model.Event();
+        ge.setId(id);
+        ge.setStatus(status);
+        ge.setSummary("Réunion " + id);
+        ge.setStart(new com.google.api.services.calendar.model.EventDateTime()
+                .setDateTime(new com.google.api.client.util.DateTime(System.currentTimeMillis())));
+        ge.setEnd(new com.google.api.services.calendar.model.EventDateTime()
+                .setDateTime(new com.google.api.client.util.DateTime(System.currentTimeMillis() + 3_600_000)));
+        return ge;
+    }
+
+    @Test
+    void pullEventsFromGoogle_withoutSyncToken_readsAllPagesAndStoresToken() throws Exception {
+        CalendarImportService service = spy(importService);
+        u1.setGoogleAccessToken("tok");
+        Calendar.Events.List list = mockGoogleList(service, u1);
+
+        // 2 pages : la limite historique de 100 événements ne tronque plus l'import
+        when(list.execute()).thenReturn(
+                new Events().setItems(List.of(googleEvent("g1", "confirmed"))).setNextPageToken("p2"),
+                new Events().setItems(List.of(googleEvent("g2", "confirmed"))).setNextSyncToken("sync-1"));
+        when(eventRepository.findByGoogleEventIds(eq(1L), anyCollection())).thenAnswer(inv -> new HashMap<>());
+
+        when(eventRepository.findGoogleEventRefs(1L)).thenReturn(List.of(googleRef(20L, "g-old", null)));
+
+        int count = service.pullEventsFromGoogle(u1);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(u1.getGoogleSyncToken()).isEqualTo("sync-1");
+        verify(list).setPageToken("p2");
+        verify(list, never()).setSyncToken(anyString());
+        verify(eventRepository).deleteAllByIdInBatch(List.of(20L));
+        // Une transaction courte par page, plus une pour la suppression des orphelins
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void pullEventsFromGoogle_withSyncToken_appliesOnlyChanges() throws Exception {
+        CalendarImportService service = spy(importService);
+        u1.setGoogleAccessToken("tok");
+        u1.setGoogleSyncToken("sync-1");
+        Calendar.Events.List list = mockGoogleList(service, u1);
+
+        when(list.execute()).thenReturn(new Events()
+                .setItems(List.of(googleEvent("g1", "confirmed"), googleEvent("g2", "cancelled")))
+                .setNextSyncToken("sync-2"));
+
+        Event cancelled = new Event(); cancelled.setId(11L); cancelled.setUser(u1);
+        cancelled.setSource(Event.EventSource.GOOGLE); cancelled.setGoogleEventId("g2");
+        when(eventRepository.findByGoogleEventIds(eq(1L), anyCollection())).thenAnswer(inv ->
+                inv.<java.util.Collection<String>>getArgument(1).contains("g2")
+                        ? new HashMap<>(Map.of("g2", cancelled)) : new HashMap<>());
+
+        int count = service.pullEventsFromGoogle(u1);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(u1.getGoogleSyncToken()).isEqualTo("sync-2");
+        verify(list).setSyncToken("sync-1");
+        verify(list, never()).setTimeMin(any());
+        verify(eventRepository).deleteAll(List.of(cancelled));
+        // Pas de balayage complet des événements locaux en mode incrémental
+        verify(eventRepository, never()).findGoogleEventRefs(anyLong());
+    }
+
+    @Test
+    void pullEventsFromGoogle_expiredSyncToken_fallsBackToFullSync() throws Exception {
+        CalendarImportService service = spy(importService);
+        u1.setGoogleAccessToken("tok");
+        u1.setGoogleSyncToken("expired");
+        Calendar.Events.List list = mockGoogleList(service, u1);
+
+        GoogleJsonResponseException gone = new GoogleJsonResponseException(
+                new HttpResponseException.Builder(410, "Gone", new HttpHeaders()), null);
+        when(list.execute())
+                .thenThrow(gone)
+                .thenReturn(new Events().setItems(List.of(googleEvent("g1", "confirmed"))).setNextSyncToken("fresh"));
+        when(eventRepository.findByGoogleEventIds(eq(1L), anyCollection())).thenAnswer(inv -> new HashMap<>());
+        when(eventRepository.findGoogleEventRefs(1L)).thenReturn(List.of());
+
+        int count = service.pullEventsFromGoogle(u1);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(u1.getGoogleSyncToken()).isEqualTo("fresh");
+        verify(list).setTimeMin(any());
+    }
+}
@@ -1,35 +1,48 @@
 package com.example.backend.service;
 
-import com.example.backend.model.User;
+import com.example.backend.dto.SyncCycleReport;
+import com.example.backend.dto.SyncCycleReport.Outcome;
+import com.example.backend.repository.GoogleWatchChannelRepository;
 import com.example.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 class CalendarSyncSchedulerTest {
 
     private UserRepository userRepository;
     private CalendarSyncService calendarSyncService;
+    private GoogleWatchChannelRepository channelRepository;
+    private SyncIntervalPolicy syncIntervalPolicy;
+    private ConnectionBudget connectionBudget;
     private CalendarSyncScheduler scheduler;
 
     @BeforeEach
     void setUp() {
         userRepository = Mockito.mock(UserRepository.class);
         calendarSyncService = Mockito.mock(CalendarSyncService.class);
-        scheduler = new CalendarSyncScheduler(userRepository, calendarSyncService);
+        channelRepository = Mockito.mock(GoogleWatchChannelRepository.class);
+        syncIntervalPolicy = Mockito.mock(SyncIntervalPolicy.class);
+        connectionBudget = new ConnectionBudget(10);
+        scheduler = new CalendarSyncScheduler(userRepository, calendarSyncService, channelRepository, syncIntervalPolicy,
+                connectionBudget);
     }
 
     @Test
     void syncAllUsers_onlyCallsEligibleAndContinuesOnError() throws Exception {
-        User u1 = new User(); u1.setId(1L); u1.setGoogleAccessToken("tok1");
-        User u2 = new User(); u2.setId(2L); u2.setGoogleAccessToken(null);
-        User u3 = new User(); u3.setId(3L); u3.setGoogleAccessToken("tok3");
-
-        when(userRepository.findAll()).thenReturn(List.of(u1, u2, u3));
+        // La requête ne renvoie que les utilisateurs à interroger (1 et 3)
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of(1L, 3L));
 
         // u1 succeeds
         doNothing().when(calendarSyncService).syncUser(1L);
@@ -43,15 +56,171 @@ class CalendarSyncSchedulerTest {
         verify(calendarSyncService, times(1)).syncUser(1L);
         verify(calendarSyncService, times(1)).syncUser(3L);
         verify(calendarSyncService, never()).syncUser(2L);
+        verify(userRepository, never()).findAll();
+
+        SyncCycleReport report = scheduler.getLastReport().orElseThrow();
+        assertThat(report.eligibleUsers()).isEqualTo(2);
+        assertThat(report.succeeded()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.timings()).extracting(SyncCycleReport.UserSyncTiming::userId)
+                .containsExactlyInAnyOrder(1L, 3L);
+        // L'échec est reporté d'un intervalle au lieu d'être relancé à chaque passage
+        verify(syncIntervalPolicy).afterFailure(3L);
+        verify(syncIntervalPolicy, never()).afterFailure(1L);
     }
 
     @Test
     void syncAllUsers_noEligibleUsers_noCalls() throws Exception {
-        User u1 = new User(); u1.setId(1L); u1.setGoogleAccessToken(null);
-        when(userRepository.findAll()).thenReturn(List.of(u1));
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of());
 
         scheduler.syncAllUsers();
 
         verify(calendarSyncService, never()).syncUser(anyLong());
+        assertThat(scheduler.getLastReport()).get()
+                .extracting(SyncCycleReport::eligibleUsers).isEqualTo(0);
+    }
+
+    @Test
+    void syncAllUsers_neverExceedsParallelismCap() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "maxConcurrency", 3);
+        when(userRepository.findIdsDueForPolling(any(), any()))
+                .thenReturn(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(30);
+            running.decrementAndGet();
+            return null;
+        }).when(calendarSyncService).syncUser(anyLong());
+
+        scheduler.syncAllUsers();
+
+        verify(calendarSyncService, times(10)).syncUser(anyLong());
+        assertThat(maxRunning.get()).isBetween(2, 3);
+        assertThat(scheduler.getLastReport().orElseThrow().succeeded()).isEqualTo(10);
+    }
+
+    @Test
+    void syncAllUsers_reservesTwoConnectionsPerSyncOnSharedBudget() throws Exception {
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of(1L, 2L, 3L));
+        AtomicInteger minAvailable = new AtomicInteger(Integer.MAX_VALUE);
+        doAnswer(invocation -> {
+            minAvailable.accumulateAndGet(connectionBudget.available(), Math::min);
+            Thread.sleep(10);
+            return null;
+        }).when(calendarSyncService).syncUser(anyLong());
+
+        // Un reshuffle global occupe déjà 6 des 9 connexions : une seule synchronisation à la fois
+        connectionBudget.acquire(6);
+        scheduler.syncAllUsers();
+
+        assertThat(scheduler.getLastReport().orElseThrow().succeeded()).isEqualTo(3);
+        assertThat(minAvailable.get()).isEqualTo(1);
+        assertThat(connectionBudget.available()).isEqualTo(3);
+    }
+
+    @Test
+    void syncAllUsers_timesOutSlowUserAndSkipsItWhileStillRunning() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "userTimeoutMs", 100L);
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of(1L, 2L));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            finished.countDown();
+            return null;
+        }).when(calendarSyncService).syncUser(1L);
+
+        // Cycle 1 : l'utilisateur 1 dépasse le délai, l'utilisateur 2 n'est pas retardé
+        scheduler.syncAllUsers();
+        SyncCycleReport first = scheduler.getLastReport().orElseThrow();
+        assertThat(first.timedOut()).isEqualTo(1);
+        assertThat(first.succeeded()).isEqualTo(1);
+
+        // Cycle 2 : sa synchronisation tourne encore, il est ignoré
+        scheduler.syncAllUsers();
+        SyncCycleReport second = scheduler.getLastReport().orElseThrow();
+        assertThat(second.timings()).anySatisfy(timing -> {
+            assertThat(timing.userId()).isEqualTo(1L);
+            assertThat(timing.outcome()).isEqualTo(Outcome.SKIPPED);
+        });
+        verify(calendarSyncService, times(1)).syncUser(1L);
+
+        // Une fois terminé, il redevient éligible
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        scheduler.syncAllUsers();
+        verify(calendarSyncService, times(2)).syncUser(1L);
+    }
+
+    @Test
+    void syncAllUsers_capsParallelismBelowHalfOfConnectionPool() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "maxConcurrency", 50);
+        ReflectionTestUtils.setField(scheduler, "connectionPoolSize", 10);
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of(1L));
+
+        scheduler.syncAllUsers();
+
+        assertThat(scheduler.getLastReport().orElseThrow().maxConcurrency()).isEqualTo(4);
+    }
+
+    @Test
+    void syncAllUsers_pollsWatchedUsersOnlyAsSafetyNet() {
+        ReflectionTestUtils.setField(scheduler, "safetyNetMs", 6 * 3_600_000L);
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of());
+
+        scheduler.syncAllUsers();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> syncedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).findIdsDueForPolling(now.capture(), syncedBefore.capture());
+        assertThat(syncedBefore.getValue()).isEqualTo(now.getValue().minusHours(6));
+    }
+
+    @Test
+    void syncNotifiedUsers_syncsEachDirtyUserOnceAndClearsFlag() throws Exception {
+        when(channelRepository.findDirtyUserIds()).thenReturn(List.of(1L, 2L));
+
+        scheduler.syncNotifiedUsers();
+
+        verify(calendarSyncService, times(1)).syncUser(1L);
+        verify(calendarSyncService, times(1)).syncUser(2L);
+        verify(channelRepository).clearDirty(eq(1L), any());
+        verify(channelRepository).clearDirty(eq(2L), any());
+        verify(channelRepository, never()).markDirtyByUser(anyLong(), any());
+    }
+
+    @Test
+    void syncNotifiedUsers_keepsUserDirtyWhenSyncAlreadyRunning() throws Exception {
+        ReflectionTestUtils.setField(scheduler, "userTimeoutMs", 100L);
+        when(userRepository.findIdsDueForPolling(any(), any())).thenReturn(List.of(1L));
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(calendarSyncService).syncUser(1L);
+
+        // Le cycle planifié laisse une synchronisation de l'utilisateur 1 en cours
+        scheduler.syncAllUsers();
+        when(channelRepository.findDirtyUserIds()).thenReturn(List.of(1L));
+
+        scheduler.syncNotifiedUsers();
+
+        verify(calendarSyncService, times(1)).syncUser(1L);
+        verify(channelRepository).markDirtyByUser(eq(1L), any());
+        release.countDown();
+    }
+
+    @Test
+    void syncNotifiedUsers_nothingDirty_noCalls() {
+        when(channelRepository.findDirtyUserIds()).thenReturn(List.of());
+
+        scheduler.syncNotifiedUsers();
+
+        verifyNoInteractions(calendarSyncService);
     }
 }
@@ -13,22 +13,29 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -53,6 +60,12 @@ class CalendarSyncServiceTest {
     @Mock
     private CalendarImportService calendarImportService;
 
+    @Mock
+    private SyncIntervalPolicy syncIntervalPolicy;
+
+    @Spy
+    private GoogleSyncLocks syncLocks = new GoogleSyncLocks();
+
     @Spy
     @InjectMocks
     private CalendarSyncService calendarSyncService;
@@ -83,7 +96,7 @@ class CalendarSyncServiceTest {
 		void shouldReturnZero_WhenNoLocalEventsToSync() {
 			// Given
 			Long userId = 1L;
-			when(eventRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>());
+			when(eventRepository.findNeedingExport(userId)).thenReturn(new ArrayList<>());
 
 			// When
 			int result = calendarSyncService.pushLocalEventsToGoogle(validUser);
@@ -94,78 +107,177 @@ class CalendarSyncServiceTest {
 		}
 
 		@Test
-		@DisplayName("✅ Supprime et propage la suppression quand status PENDING_DELETION avec googleEventId")
-		void shouldDeleteEventOnGoogle_WhenPendingDeletionAndHasGoogleId() throws Exception {
+		@DisplayName("✅ Supprime localement les événements dont la suppression est confirmée par Google")
+		void shouldDeleteEventLocally_WhenDeletionConfirmedByBatch() throws Exception {
 			// Given
 			Long userId = 1L;
 			Event ev = createEvent(10L, "ToDelete", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
 			ev.setStatus(Event.EventStatus.PENDING_DELETION);
 			ev.setGoogleEventId("g-123");
 
-			when(eventRepository.findByUser_Id(userId)).thenReturn(Arrays.asList(ev));
+			when(eventRepository.findNeedingExport(userId)).thenReturn(Arrays.asList(ev));
+			when(googleCalendarService.exportEvents(validUser, List.of(ev)))
+					.thenReturn(exportResult(List.of(), List.of(ev), List.of(), List.of()));
 
 			// When
 			int result = calendarSyncService.pushLocalEventsToGoogle(validUser);
 
 			// Then
 			assertThat(result).isZero();
-			verify(googleCalendarService, times(1)).deleteEventFromGoogle(ev);
-			verify(eventRepository, times(1)).delete(ev);
+			verify(eventRepository, times(1)).deleteAll(List.of(ev));
 		}
 
 		@Test
-		@DisplayName("✅ Pousse un événement local vers Google et incrémente le compteur")
-		void shouldPushLocalEventToGoogle_AndCountSuccess() throws Exception {
+		@DisplayName("✅ Exporte les événements locaux en un lot et compte les succès")
+		void shouldPushLocalEventsInOneBatch_AndCountSuccess() throws Exception {
 			// Given
 			Long userId = 1L;
 			Event ev = createEvent(11L, "LocalCreate", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
 			ev.setGoogleEventId(null); // jamais poussé
+			Event failed = createEvent(12L, "Rejected", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
+			failed.setGoogleEventId(null);
 
-			when(eventRepository.findByUser_Id(userId)).thenReturn(Arrays.asList(ev));
-			doNothing().when(googleCalendarService).pushEventToGoogle(ev);
+			when(eventRepository.findNeedingExport(userId)).thenReturn(Arrays.asList(ev, failed));
+			when(googleCalendarService.exportEvents(validUser, List.of(ev, failed)))
+					.thenReturn(exportResult(List.of(ev), List.of(), List.of(failed), List.of()));
 
 			// When
 			int result = calendarSyncService.pushLocalEventsToGoogle(validUser);
 
 			// Then
 			assertThat(result).isEqualTo(1);
-			verify(googleCalendarService, times(1)).pushEventToGoogle(ev);
+			verify(googleCalendarService, times(1)).exportEvents(validUser, List.of(ev, failed));
+			verify(googleCalendarService, never()).pushEventToGoogle(any());
+			verify(eventRepository, never()).deleteAll(any());
 		}
 
 		@Test
-		@DisplayName("⚠️ Devrait propager GoogleApiException lors du push")
+		@DisplayName("⚠️ Devrait propager GoogleApiException lors de l'export")
 		void shouldPropagateGoogleApiException_WhenPushFails() throws Exception {
 			// Given
 			Long userId = 1L;
 			Event ev = createEvent(12L, "LocalCreate", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
 			ev.setGoogleEventId(null);
 
-			when(eventRepository.findByUser_Id(userId)).thenReturn(Arrays.asList(ev));
-				doThrow(new GoogleApiException("err", "CODE", true)).when(googleCalendarService).pushEventToGoogle(ev);
+			when(eventRepository.findNeedingExport(userId)).thenReturn(Arrays.asList(ev));
+			when(googleCalendarService.exportEvents(validUser, List.of(ev)))
+					.thenThrow(new GoogleApiException("err", "TOKEN_EXPIRED", false));
 
 			// When/Then
 			assertThatThrownBy(() -> calendarSyncService.pushLocalEventsToGoogle(validUser))
 							.isInstanceOf(GoogleApiException.class);
 		}
+	}
+
+	@Nested
+	@DisplayName("Export d'un seul événement - pushEventChange")
+	class DeltaPushTests {
 
 		@Test
-		@DisplayName("⚠️ Devrait marquer l'événement en CONFLICT quand push lève une exception inattendue")
-		void shouldMarkEventConflict_WhenPushThrowsUnexpectedException() throws Exception {
-			// Given
-			Long userId = 1L;
-			Event ev = createEvent(13L, "LocalCreate", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
-			ev.setGoogleEventId(null);
+		@DisplayName("✅ Met à jour uniquement l'événement modifié, sans import ni liste Google")
+		void shouldPushOnlyTheChangedEvent() throws Exception {
+			Event ev = createEvent(20L, "Modifié", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.GOOGLE);
+			ev.setGoogleEventId("g-20");
+			ev.setSyncStatus(Event.SyncStatus.PENDING);
+			when(eventRepository.findById(20L)).thenReturn(Optional.of(ev));
 
-			when(eventRepository.findByUser_Id(userId)).thenReturn(Arrays.asList(ev));
-			doThrow(new RuntimeException("boom")).when(googleCalendarService).pushEventToGoogle(ev);
+			boolean pushed = calendarSyncService.pushEventChange(1L, 20L);
 
-			// When
-			int result = calendarSyncService.pushLocalEventsToGoogle(validUser);
+			assertThat(pushed).isTrue();
+			verify(googleCalendarService, times(1)).pushEventToGoogle(ev);
+			verify(googleCalendarService, never()).exportEvents(any(), anyList());
+			verifyNoInteractions(calendarImportService);
+			verify(eventRepository, never()).findByUser_Id(anyLong());
+		}
 
-			// Then
-			assertThat(result).isZero();
-			verify(eventRepository, times(1)).save(argThat(saved -> saved.getSyncStatus() == Event.SyncStatus.CONFLICT));
+		@Test
+		@DisplayName("✅ Propage une suppression via le googleEventId puis supprime localement")
+		void shouldDeleteRemotelyThenLocally_WhenPendingDeletion() throws Exception {
+			Event ev = createEvent(21L, "Supprimé", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
+			ev.setGoogleEventId("g-21");
+			ev.setStatus(Event.EventStatus.PENDING_DELETION);
+			ev.setSyncStatus(Event.SyncStatus.PENDING);
+			when(eventRepository.findById(21L)).thenReturn(Optional.of(ev));
+
+			boolean pushed = calendarSyncService.pushEventChange(1L, 21L);
+
+			assertThat(pushed).isTrue();
+			verify(googleCalendarService).deleteEventFromGoogle(ev);
+			verify(eventRepository).delete(ev);
+			verify(googleCalendarService, never()).pushEventToGoogle(any());
+		}
+
+		@Test
+		@DisplayName("✅ N'envoie rien pour un événement déjà exporté ou disparu")
+		void shouldSkip_WhenAlreadySyncedOrMissing() throws Exception {
+			Event synced = createEvent(22L, "À jour", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
+			synced.setGoogleEventId("g-22");
+			when(eventRepository.findById(22L)).thenReturn(Optional.of(synced));
+			when(eventRepository.findById(23L)).thenReturn(Optional.empty());
+
+			assertThat(calendarSyncService.pushEventChange(1L, 22L)).isFalse();
+			assertThat(calendarSyncService.pushEventChange(1L, 23L)).isFalse();
+			verifyNoInteractions(googleCalendarService);
 		}
+
+		@Test
+		@DisplayName("🔒 Attend la fin d'une synchronisation en cours du même utilisateur")
+		void shouldWaitForRunningSyncOfSameUser() throws Exception {
+			// Événement encore jamais exporté : la synchronisation en cours l'insère sur Google
+			Event ev = createEvent(25L, "Nouveau", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
+			CountDownLatch importing = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			when(userRepository.findById(1L)).thenReturn(Optional.of(validUser));
+			when(eventRepository.findByUser_Id(1L)).thenReturn(new ArrayList<>());
+			when(calendarImportService.pullEventsFromGoogle(validUser)).thenAnswer(inv -> {
+				importing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return 0;
+			});
+			doAnswer(inv -> {
+				ev.setGoogleEventId("g-25");
+				ev.setSyncStatus(Event.SyncStatus.SYNCED);
+				return 1;
+			}).when(calendarSyncService).pushLocalEventsToGoogle(validUser);
+			when(eventRepository.findById(25L)).thenReturn(Optional.of(ev));
+
+			Thread sync = Thread.ofVirtual().start(() -> {
+				try {
+					calendarSyncService.syncUser(1L);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			assertThat(importing.await(2, TimeUnit.SECONDS)).isTrue();
+			CompletableFuture<Boolean> push = CompletableFuture.supplyAsync(
+					() -> calendarSyncService.pushEventChange(1L, 25L));
+
+			Thread.sleep(100);
+			assertThat(push).isNotDone();
+			release.countDown();
+			sync.join(2_000);
+
+			// Exporté par la synchronisation : l'outbox n'envoie pas de doublon
+			assertThat(push.get(2, TimeUnit.SECONDS)).isFalse();
+			verify(googleCalendarService, never()).pushEventToGoogle(any());
+		}
+
+		@Test
+		@DisplayName("⚠️ Propage l'erreur Google pour que l'outbox rejoue l'export")
+		void shouldPropagateGoogleApiException() throws Exception {
+			Event ev = createEvent(24L, "Nouveau", LocalDateTime.now(), LocalDateTime.now().plusHours(1), Event.EventSource.LOCAL);
+			when(eventRepository.findById(24L)).thenReturn(Optional.of(ev));
+			doThrow(new GoogleApiException("indisponible", "IO_ERROR", true))
+					.when(googleCalendarService).pushEventToGoogle(ev);
+
+			assertThatThrownBy(() -> calendarSyncService.pushEventChange(1L, 24L))
+					.isInstanceOf(GoogleApiException.class);
+		}
+	}
+
+	private static GoogleCalendarService.BatchExportResult exportResult(
+			List<Event> synced, List<Event> deleted, List<Event> failed, List<Event> pending) {
+		return new GoogleCalendarService.BatchExportResult(synced, deleted, failed, pending);
 	}
 
 	@Nested
@@ -215,6 +327,28 @@ class CalendarSyncServiceTest {
             // Note: pushLocalEventsToGoogle is called but we can't verify it directly as it's in the same class
         }
 
+        @Test
+        @DisplayName("✅ Devrait planifier la prochaine synchronisation selon les changements importés et exportés")
+        void shouldScheduleNextSync_FromChangeCount() throws Exception {
+            // Given
+            Long userId = 1L;
+            when(userRepository.findById(userId)).thenReturn(Optional.of(validUser));
+            when(eventRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>());
+            when(calendarImportService.pullEventsFromGoogle(validUser)).thenReturn(3);
+            doReturn(2).when(calendarSyncService).pushLocalEventsToGoogle(validUser);
+
+            LocalDateTime before = LocalDateTime.now();
+
+            // When
+            calendarSyncService.syncUser(userId);
+
+            // Then : la date de synchronisation est enregistrée par la politique, pas sur l'entité
+            ArgumentCaptor<LocalDateTime> syncedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(syncIntervalPolicy).afterSync(eq(validUser), syncedAt.capture(), eq(5));
+            assertThat(syncedAt.getValue()).isBetween(before, LocalDateTime.now());
+            assertThat(validUser.getLastGoogleSyncAt()).isNull();
+        }
+
         @Test
         @DisplayName("❌ Devrait lever RuntimeException quand utilisateur non trouvé")
         void shouldThrowException_WhenUserNotFound() {
@@ -532,6 +666,65 @@ class CalendarSyncServiceTest {
                         assertThat(conflicts).hasSizeGreaterThanOrEqualTo(2);
                     });
         }
+
+        @Test
+        @DisplayName("⚠️ Mode incrémental : conflit entre un événement modifié et son voisin")
+        void shouldDetectConflictIncrementally_WhenTouchedEventOverlapsNeighbour() {
+            // Given
+            Long userId = 1L;
+            validUser.setLastGoogleSyncAt(LocalDateTime.of(2026, 2, 13, 8, 0));
+            ReflectionTestUtils.setField(calendarSyncService, "incrementalConflictDetection", true);
+
+            Event touched = createEvent(1L, "Modifié",
+                    LocalDateTime.of(2026, 2, 14, 10, 0),
+                    LocalDateTime.of(2026, 2, 14, 11, 0),
+                    Event.EventSource.LOCAL);
+            touched.setSyncStatus(Event.SyncStatus.PENDING);
+            Event neighbour = createEvent(2L, "Voisin",
+                    LocalDateTime.of(2026, 2, 14, 10, 30),
+                    LocalDateTime.of(2026, 2, 14, 11, 30),
+                    Event.EventSource.GOOGLE);
+
+            when(userRepository.findById(userId)).thenReturn(Optional.of(validUser));
+            when(eventRepository.findTouchedSince(userId, validUser.getLastGoogleSyncAt()))
+                    .thenReturn(List.of(touched));
+            when(eventRepository.findOverlapping(userId, touched.getStartTime(), touched.getEndTime()))
+                    .thenReturn(List.of(touched, neighbour));
+
+            // When/Then
+            assertThatThrownBy(() -> calendarSyncService.syncUser(userId))
+                    .isInstanceOf(SyncConflictException.class)
+                    .extracting(e -> ((SyncConflictException) e).getConflictDetails().getConflicts())
+                    .satisfies(conflicts -> {
+                        assertThat(conflicts).hasSize(1);
+                        assertThat(conflicts.get(0).getEventId()).isEqualTo(1L);
+                        assertThat(conflicts.get(0).getConflictingWithId()).isEqualTo(2L);
+                    });
+            verify(eventRepository, never()).findByUser_Id(anyLong());
+        }
+
+        @Test
+        @DisplayName("✅ Mode incrémental : aucun événement modifié, la synchro aboutit")
+        void shouldSkipNeighbourLookup_WhenNothingTouchedSinceLastSync() throws Exception {
+            // Given
+            Long userId = 1L;
+            LocalDateTime lastSync = LocalDateTime.of(2026, 2, 13, 8, 0);
+            validUser.setLastGoogleSyncAt(lastSync);
+            ReflectionTestUtils.setField(calendarSyncService, "incrementalConflictDetection", true);
+
+            when(userRepository.findById(userId)).thenReturn(Optional.of(validUser));
+            when(eventRepository.findTouchedSince(userId, lastSync)).thenReturn(new ArrayList<>());
+            when(calendarImportService.pullEventsFromGoogle(validUser)).thenReturn(0);
+
+            // When
+            calendarSyncService.syncUser(userId);
+
+            // Then
+            verify(eventRepository, never()).findOverlapping(anyLong(), any(), any());
+            ArgumentCaptor<LocalDateTime> syncedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+            verify(syncIntervalPolicy).afterSync(eq(validUser), syncedAt.capture(), eq(0));
+            assertThat(syncedAt.getValue()).isAfter(lastSync);
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
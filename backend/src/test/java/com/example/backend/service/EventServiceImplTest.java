@@ -7,10 +7,12 @@ import com.example.backend.repository.TeamRepository;
 import com.example.backend.repository.TravelTimeRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.service.impl.EventServiceImpl;
+import com.example.backend.service.impl.FocusService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,7 +31,9 @@ class EventServiceImplTest {
     private TeamRepository teamRepository;
     private TravelTimeCalculator primaryCalculator;
     private TravelTimeCalculator simpleCalculator;
-    private SyncDelegateService syncDelegateService;
+    private SyncOutboxService syncOutboxService;
+    private FocusService focusService;
+    private ApplicationEventPublisher eventPublisher;
 
     private EventServiceImpl service;
 
@@ -42,10 +46,13 @@ class EventServiceImplTest {
         teamRepository = Mockito.mock(TeamRepository.class);
         primaryCalculator = Mockito.mock(TravelTimeCalculator.class);
         simpleCalculator = Mockito.mock(TravelTimeCalculator.class);
-        syncDelegateService = Mockito.mock(SyncDelegateService.class);
+        syncOutboxService = Mockito.mock(SyncOutboxService.class);
+        focusService = Mockito.mock(FocusService.class);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
 
         service = new EventServiceImpl(eventRepository, userRepository, travelTimeService,
-                travelTimeRepository, primaryCalculator, simpleCalculator, teamRepository, syncDelegateService);
+                travelTimeRepository, primaryCalculator, simpleCalculator, teamRepository, syncOutboxService, focusService,
+                eventPublisher);
     }
 
     @Test
@@ -71,4 +78,38 @@ class EventServiceImplTest {
 
         assertThrows(IllegalArgumentException.class, () -> service.deleteEvent(555L));
     }
+
+    @Test
+    void deleteEvent_googleEvent_enqueuesSyncInsteadOfSyncingInline() {
+        User user = new User();
+        user.setId(7L);
+        user.setGoogleAccessToken("token");
+        Event event = new Event();
+        event.setId(42L);
+        event.setUser(user);
+        event.setGoogleEventId("g-42");
+        when(eventRepository.existsById(42L)).thenReturn(true);
+        when(eventRepository.findById(42L)).thenReturn(Optional.of(event));
+
+        service.deleteEvent(42L);
+
+        assertThat(event.getStatus()).isEqualTo(Event.EventStatus.PENDING_DELETION);
+        verify(syncOutboxService).enqueue(7L, 42L);
+    }
+
+    @Test
+    void deleteEvent_unlinkedUser_doesNotEnqueue() {
+        User user = new User();
+        user.setId(8L);
+        Event event = new Event();
+        event.setId(43L);
+        event.setUser(user);
+        event.setGoogleEventId("g-43");
+        when(eventRepository.existsById(43L)).thenReturn(true);
+        when(eventRepository.findById(43L)).thenReturn(Optional.of(event));
+
+        service.deleteEvent(43L);
+
+        Mockito.verifyNoInteractions(syncOutboxService);
+    }
 }
@@ -2,6 +2,8 @@ package com.example.backend.service;
 
 import com.example.backend.controller.EventController.EventRequest;
 import com.example.backend.controller.EventController.LocationRequest;
+import com.example.backend.dto.ScheduleChange;
+import com.example.backend.dto.ScheduleChangedEvent;
 import com.example.backend.model.Event;
 import com.example.backend.model.Location;
 import com.example.backend.model.Team;
@@ -14,12 +16,14 @@ import com.example.backend.repository.UserRepository;
 import com.example.backend.service.TravelTimeCalculator;
 import com.example.backend.service.TravelTimeService;
 import com.example.backend.service.impl.EventServiceImpl;
+import com.example.backend.service.impl.FocusService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -46,6 +50,12 @@ public class EventServiceTest {
     @Mock
     private TravelTimeService travelTimeService;
 
+    @Mock
+    private FocusService focusService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EventServiceImpl eventService;
 
@@ -140,6 +150,8 @@ public class EventServiceTest {
 
         // THEN
         verify(eventRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new ScheduleChangedEvent(1L,
+                ScheduleChange.deleted(1L, event.getStartTime(), event.getEndTime())));
     }
 
     @Test
@@ -201,6 +213,28 @@ public class EventServiceTest {
         // THEN
         assertEquals("Updated Summary", updated.getSummary());
         verify(eventRepository).save(event);
+        // Horaires inchangés : rien à replacer
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testUpdateEvent_MovedTriggersIncrementalReshuffle() {
+        // GIVEN
+        LocalDateTime oldStart = event.getStartTime();
+        LocalDateTime oldEnd = event.getEndTime();
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(eventRepository.save(any(Event.class))).thenReturn(event);
+
+        EventRequest updateReq = new EventRequest();
+        updateReq.setStartTime(oldStart.plusHours(2));
+        updateReq.setEndTime(oldEnd.plusHours(2));
+
+        // WHEN
+        eventService.updateEvent(1L, updateReq);
+
+        // THEN
+        verify(eventPublisher).publishEvent(new ScheduleChangedEvent(1L,
+                new ScheduleChange(1L, oldStart, oldEnd, oldStart.plusHours(2), oldEnd.plusHours(2))));
     }
     
     @Test
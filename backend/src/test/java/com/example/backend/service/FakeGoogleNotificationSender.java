@@ -0,0 +1,64 @@
+package com.example.backend.service;
+
+import com.google.api.services.calendar.model.Channel;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Doublure locale de Google pour les canaux {@code events.watch} : mémorise les canaux ouverts
+ * et appelle le webhook avec les mêmes en-têtes que Google, sans accès réseau.
+ */
+class FakeGoogleNotificationSender {
+
+    static final String WEBHOOK = "/api/sync/google/notifications";
+
+    private final MockMvc mockMvc;
+    private final Map<Long, Channel> channelsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong messageNumber = new AtomicLong();
+
+    FakeGoogleNotificationSender(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    /**
+     * Réponse de Google à {@code events.watch} : le canal devient le canal actif de l'utilisateur.
+     */
+    Channel watch(Long userId, String channelId, String token, long ttlMs) {
+        Channel channel = new Channel()
+                .setId(channelId)
+                .setToken(token)
+                .setResourceId("resource-" + userId + "-" + messageNumber.incrementAndGet())
+                .setExpiration(System.currentTimeMillis() + ttlMs);
+        channelsByUser.put(userId, channel);
+        return channel;
+    }
+
+    Channel activeChannel(Long userId) {
+        return channelsByUser.get(userId);
+    }
+
+    // Message de confirmation envoyé par Google juste après l'ouverture du canal
+    ResultActions sendSync(Long userId) throws Exception {
+        return send(activeChannel(userId), activeChannel(userId).getToken(), "sync");
+    }
+
+    // Changement dans l'agenda de l'utilisateur
+    ResultActions notifyChange(Long userId) throws Exception {
+        return send(activeChannel(userId), activeChannel(userId).getToken(), "exists");
+    }
+
+    ResultActions send(Channel channel, String token, String state) throws Exception {
+        return mockMvc.perform(post(WEBHOOK)
+                .header("X-Goog-Channel-ID", channel.getId())
+                .header("X-Goog-Channel-Token", token)
+                .header("X-Goog-Resource-ID", channel.getResourceId())
+                .header("X-Goog-Resource-State", state)
+                .header("X-Goog-Message-Number", messageNumber.incrementAndGet()));
+    }
+}
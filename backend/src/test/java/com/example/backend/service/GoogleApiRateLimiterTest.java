@@ -0,0 +1,216 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.GoogleQuotaUsage;
+import com.example.backend.service.GoogleApiRateLimiter.Api;
+import com.example.backend.service.GoogleApiRateLimiter.Priority;
+import com.example.backend.service.GoogleApiRateLimiter.QuotaWaitTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoogleApiRateLimiterTest {
+
+    private GoogleApiRateLimiter limiter;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new GoogleApiRateLimiter();
+        // Débit lent : aucun jeton ne se reconstitue pendant les assertions
+        ReflectionTestUtils.setField(limiter, "calendarRate", 1.0);
+        ReflectionTestUtils.setField(limiter, "calendarBurst", 5);
+        ReflectionTestUtils.setField(limiter, "interactiveReserve", 0.4);
+        ReflectionTestUtils.setField(limiter, "maxWaitMs", 5_000L);
+        ReflectionTestUtils.setField(limiter, "interactiveMaxWaitMs", 5_000L);
+        callers = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void acquire_withinBurst_grantedImmediately_thenPacedAtRate() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1);
+        }
+        CompletableFuture<Void> sixth = acquireInThread(Priority.INTERACTIVE, 1);
+
+        awaitWaiting(1, 0);
+        assertThat(sixth).isNotDone();
+        sixth.get(3, TimeUnit.SECONDS);
+
+        GoogleQuotaUsage usage = usage(Api.CALENDAR);
+        assertThat(usage.grantedInteractive()).isEqualTo(6);
+        assertThat(usage.waitingInteractive()).isZero();
+    }
+
+    @Test
+    void background_leavesReserveToInteractive() throws Exception {
+        // Rafale de 5, réserve de 2 : le fond s'arrête à 3 jetons consommés
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(Api.CALENDAR, Priority.BACKGROUND, 1);
+        }
+        CompletableFuture<Void> queued = acquireInThread(Priority.BACKGROUND, 1);
+        awaitWaiting(0, 1);
+
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1);
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1);
+        assertThat(queued).isNotDone();
+        assertThat(usage(Api.CALENDAR).waitingBackground()).isEqualTo(1);
+        assertThat(usage(Api.CALENDAR).grantedInteractive()).isEqualTo(2);
+    }
+
+    @Test
+    void interactive_servedBeforeQueuedBackground() throws Exception {
+        ReflectionTestUtils.setField(limiter, "calendarRate", 20.0);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1);
+        }
+        List<String> order = new ArrayList<>();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            all.add(acquireInThread(Priority.BACKGROUND, 1)
+                    .thenRun(() -> { synchronized (order) { order.add("background"); } }));
+        }
+        awaitWaiting(0, 3);
+        all.add(acquireInThread(Priority.INTERACTIVE, 1)
+                .thenRun(() -> { synchronized (order) { order.add("interactive"); } }));
+
+        CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(order.get(0)).isEqualTo("interactive");
+        assertThat(order).hasSize(4);
+    }
+
+    @Test
+    void acquire_largerThanBurst_grantedWhenFullAndRepaidLater() throws Exception {
+        // Batch de 50 opérations avec une rafale de 5 : accordé, le seau reste en dette
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 50);
+
+        assertThat(usage(Api.CALENDAR).availableTokens()).isLessThan(-40);
+        acquireInThread(Priority.INTERACTIVE, 1);
+        awaitWaiting(1, 0);
+    }
+
+    @Test
+    void acquire_beyondMaxWait_failsWithoutSending() throws Exception {
+        ReflectionTestUtils.setField(limiter, "maxWaitMs", 50L);
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 50);
+
+        CompletableFuture<Void> pending = acquireInThread(Priority.BACKGROUND, 1);
+        assertThatThrownBy(() -> pending.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(QuotaWaitTimeoutException.class);
+        assertThatThrownBy(() -> limiter.acquire(Api.CALENDAR, 1))
+                .isInstanceOf(QuotaWaitTimeoutException.class);
+
+        GoogleQuotaUsage usage = usage(Api.CALENDAR);
+        assertThat(usage.timedOut()).isEqualTo(2);
+        // Les demandes abandonnées quittent la file
+        assertThat(usage.waitingInteractive()).isZero();
+        assertThat(usage.waitingBackground()).isZero();
+    }
+
+    @Test
+    void interactive_givesUpAfterShortBound_whileBackgroundKeepsWaiting() throws Exception {
+        ReflectionTestUtils.setField(limiter, "interactiveMaxWaitMs", 50L);
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 50);
+        CompletableFuture<Void> background = acquireInThread(Priority.BACKGROUND, 1);
+        awaitWaiting(0, 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1))
+                .isInstanceOfSatisfying(QuotaWaitTimeoutException.class,
+                        // Dette de 45 jetons à 1 jeton/s : l'appelant sait quand réessayer
+                        e -> assertThat(e.getRetryAfterMs()).isGreaterThan(40_000));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        assertThat(background).isNotDone();
+        assertThat(usage(Api.CALENDAR).waitingBackground()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_interrupted_leavesQueueAndRestoresFlag() throws Exception {
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 50);
+        List<Boolean> interrupted = new ArrayList<>();
+        Thread caller = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1);
+            } catch (QuotaWaitTimeoutException e) {
+                interrupted.add(Thread.currentThread().isInterrupted());
+            }
+        });
+        awaitWaiting(1, 0);
+
+        caller.interrupt();
+        caller.join(2_000);
+
+        assertThat(interrupted).containsExactly(true);
+        assertThat(usage(Api.CALENDAR).waitingInteractive()).isZero();
+    }
+
+    @Test
+    void reportQuotaExceeded_pausesTrafficAndIsCounted() throws Exception {
+        limiter.reportQuotaExceeded(Api.DISTANCE_MATRIX);
+
+        GoogleQuotaUsage usage = usage(Api.DISTANCE_MATRIX);
+        assertThat(usage.quotaExceeded()).isEqualTo(1);
+        assertThat(usage.availableTokens()).isNegative();
+        // Les budgets sont indépendants
+        limiter.acquire(Api.CALENDAR, Priority.INTERACTIVE, 1);
+        assertThat(usage(Api.CALENDAR).grantedInteractive()).isEqualTo(1);
+    }
+
+    @Test
+    void runInBackground_appliesToCurrentThreadOnly() throws Exception {
+        List<Priority> seen = new ArrayList<>();
+        GoogleApiRateLimiter.runInBackground(() -> seen.add(GoogleApiRateLimiter.currentPriority()));
+        seen.add(GoogleApiRateLimiter.currentPriority());
+        seen.add(GoogleApiRateLimiter.callWithPriority(Priority.BACKGROUND, GoogleApiRateLimiter::currentPriority));
+
+        assertThat(seen).containsExactly(Priority.BACKGROUND, Priority.INTERACTIVE, Priority.BACKGROUND);
+        assertThat(GoogleApiRateLimiter.currentPriority()).isEqualTo(Priority.INTERACTIVE);
+    }
+
+    // Appel bloquant depuis un autre thread, pour observer l'attente depuis le test
+    private CompletableFuture<Void> acquireInThread(Priority priority, int permits) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                limiter.acquire(Api.CALENDAR, priority, permits);
+            } catch (QuotaWaitTimeoutException e) {
+                throw new CompletionException(e);
+            }
+        }, callers);
+    }
+
+    private void awaitWaiting(int interactive, int background) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        GoogleQuotaUsage usage = usage(Api.CALENDAR);
+        while ((usage.waitingInteractive() != interactive || usage.waitingBackground() != background)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            usage = usage(Api.CALENDAR);
+        }
+        assertThat(usage.waitingInteractive()).isEqualTo(interactive);
+        assertThat(usage.waitingBackground()).isEqualTo(background);
+    }
+
+    private GoogleQuotaUsage usage(Api api) {
+        return limiter.usage().stream().filter(u -> u.api().equals(api.name())).findFirst().orElseThrow();
+    }
+}
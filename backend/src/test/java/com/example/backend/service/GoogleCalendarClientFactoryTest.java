@@ -0,0 +1,148 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.GoogleQuotaUsage;
+import com.example.backend.model.User;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.calendar.Calendar;
+import com.google.api.services.calendar.model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoogleCalendarClientFactoryTest {
+
+    private MockHttpTransport transport;
+    private GoogleCalendarClientFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        transport = new MockHttpTransport();
+        factory = new GoogleCalendarClientFactory(transport);
+    }
+
+    @Test
+    void clientFor_reusesClientAndSharedTransport() {
+        User user = user(1L, "token");
+
+        Calendar first = factory.clientFor(user);
+        Calendar second = factory.clientFor(user);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getRequestFactory().getTransport()).isSameAs(transport);
+        assertThat(factory.clientFor(user(2L, "other")).getRequestFactory().getTransport()).isSameAs(transport);
+    }
+
+    @Test
+    void invalidate_rebuildsClientWithCurrentTokens() {
+        User user = user(1L, "old-token");
+        Calendar before = factory.clientFor(user);
+
+        user.setGoogleAccessToken("new-token");
+        factory.invalidate(1L);
+        Calendar after = factory.clientFor(user);
+
+        assertThat(after).isNotSameAs(before);
+    }
+
+    @Test
+    void cache_isBoundedAndEvictsLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(factory, "maxCachedClients", 2);
+        User first = user(1L, "a");
+        Calendar firstClient = factory.clientFor(first);
+        factory.clientFor(user(2L, "b"));
+        factory.clientFor(first); // 1 redevient le plus récent
+        factory.clientFor(user(3L, "c"));
+
+        assertThat(factory.cachedClients()).isEqualTo(2);
+        assertThat(factory.clientFor(first)).isSameAs(firstClient);
+    }
+
+    @Test
+    void rootUrl_redirectsRequestsAndBatches() {
+        ReflectionTestUtils.setField(factory, "rootUrl", "http://localhost:8089");
+
+        Calendar client = factory.clientFor(user(1L, "token"));
+
+        assertThat(client.getRootUrl()).isEqualTo("http://localhost:8089/");
+        assertThat(client.getBaseUrl()).isEqualTo("http://localhost:8089/calendar/v3/");
+        assertThat(client.batch().getBatchUrl().build()).isEqualTo("http://localhost:8089/batch/calendar/v3");
+    }
+
+    @Test
+    void requests_consumeCalendarBudget_oneTokenPerBatchPart() throws Exception {
+        GoogleApiRateLimiter limiter = new GoogleApiRateLimiter();
+        List<String> urls = new ArrayList<>();
+        MockHttpTransport recording = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                urls.add(url);
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("multipart/mixed; boundary=b")
+                                .setContent("--b\r\nContent-Type: application/http\r\n\r\nHTTP/1.1 204 No Content\r\n\r\n\r\n"
+                                        + "--b\r\nContent-Type: application/http\r\n\r\nHTTP/1.1 204 No Content\r\n\r\n\r\n--b--");
+                    }
+                };
+            }
+        };
+        Calendar client = new GoogleCalendarClientFactory(recording, limiter).clientFor(user(1L, "token"));
+
+        var batch = client.batch();
+        JsonBatchCallback<Void> ignore = new JsonBatchCallback<>() {
+            @Override public void onSuccess(Void v, HttpHeaders headers) { }
+            @Override public void onFailure(GoogleJsonError e, HttpHeaders headers) { }
+        };
+        client.events().delete("primary", "g1").queue(batch, ignore);
+        client.events().delete("primary", "g2").queue(batch, ignore);
+        batch.execute();
+
+        // Une seule requête HTTP, mais deux opérations décomptées du quota Calendar
+        assertThat(urls).hasSize(1);
+        assertThat(calendarUsage(limiter).grantedInteractive()).isEqualTo(2);
+    }
+
+    @Test
+    void tooManyRequests_reportedToLimiter() {
+        GoogleApiRateLimiter limiter = new GoogleApiRateLimiter();
+        MockHttpTransport throttled = new MockHttpTransport.Builder()
+                .setLowLevelHttpResponse(new MockLowLevelHttpResponse().setStatusCode(429)
+                        .setContentType("application/json")
+                        .setContent("{\"error\":{\"code\":429,\"message\":\"Rate Limit Exceeded\"}}"))
+                .build();
+        Calendar client = new GoogleCalendarClientFactory(throttled, limiter).clientFor(user(1L, "token"));
+
+        assertThatThrownBy(() -> client.events().insert("primary", new Event()).execute())
+                .isInstanceOf(GoogleJsonResponseException.class);
+
+        GoogleQuotaUsage usage = calendarUsage(limiter);
+        assertThat(usage.grantedInteractive()).isEqualTo(1);
+        assertThat(usage.quotaExceeded()).isEqualTo(1);
+    }
+
+    private static GoogleQuotaUsage calendarUsage(GoogleApiRateLimiter limiter) {
+        return limiter.usage().stream().filter(u -> u.api().equals("CALENDAR")).findFirst().orElseThrow();
+    }
+
+    private static User user(Long id, String accessToken) {
+        User user = new User();
+        user.setId(id);
+        user.setGoogleAccessToken(accessToken);
+        return user;
+    }
+}
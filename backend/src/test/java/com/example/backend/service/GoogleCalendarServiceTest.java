@@ -3,13 +3,23 @@ package com.example.backend.service;
 import com.example.backend.model.Event;
 import com.example.backend.model.User;
 import com.example.backend.repository.EventRepository;
-import com.example.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.calendar.Calendar;
 import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -31,47 +41,154 @@ import java.util.concurrent.atomic.AtomicInteger;
 class GoogleCalendarServiceTest {
 
     private EventRepository eventRepository;
-    private UserRepository userRepository;
+    private GoogleCalendarClientFactory clientFactory;
+    private GoogleTokenManager tokenManager;
     private GoogleCalendarService service;
 
     @BeforeEach
     void setUp() {
         eventRepository = Mockito.mock(EventRepository.class);
-        userRepository = Mockito.mock(UserRepository.class);
-        service = new GoogleCalendarService(eventRepository, userRepository);
+        clientFactory = Mockito.mock(GoogleCalendarClientFactory.class);
+        tokenManager = Mockito.mock(GoogleTokenManager.class);
+        when(tokenManager.ensureFresh(any())).thenReturn(true);
+        service = new GoogleCalendarService(eventRepository, clientFactory, tokenManager);
     }
 
     @Test
-    void buildCalendarClient_userNotFound_throws() {
+    void buildCalendarClient_usesSharedFactoryWithoutReadingUser() {
         User user = new User();
         user.setId(999L);
+        Calendar client = Mockito.mock(Calendar.class);
+        when(clientFactory.clientFor(user)).thenReturn(client);
 
-        when(userRepository.findById(999L)).thenReturn(java.util.Optional.empty());
-
-        assertThrows(RuntimeException.class, () -> service.buildCalendarClient(user));
+        assertThat(service.buildCalendarClient(user)).isSameAs(client);
+        Mockito.verifyNoInteractions(tokenManager);
     }
 
     @Test
     void pushEventsToGoogle_countsSuccessfulPushes() throws Exception {
-        User user = new User();
-        user.setId(2L);
-        user.setGoogleAccessToken("token");
-
-        Event e1 = new Event();
-        e1.setId(1L);
-        e1.setUser(user);
+        User user = googleUser();
+        Event e1 = localEvent(1L, user, null);
+        Event e2 = localEvent(2L, user, null);
 
-        Event e2 = new Event();
-        e2.setId(2L);
-        e2.setUser(user);
-
-        GoogleCalendarService spySvc = spy(service);
-        // stub out the heavy pushEventToGoogle to avoid external calls
-        doNothing().when(spySvc).pushEventToGoogle(e1);
-        doNothing().when(spySvc).pushEventToGoogle(e2);
+        List<String> requests = new ArrayList<>();
+        GoogleCalendarService spySvc = withFakeClient(user, requests,
+                batchResponse(part(200, "{\"id\":\"g1\"}"), part(200, "{\"id\":\"g2\"}")));
 
         int count = spySvc.pushEventsToGoogle(List.of(e1, e2), user);
+
         assertThat(count).isEqualTo(2);
+        assertThat(requests).hasSize(1); // une seule requête HTTP pour les deux créations
+        assertThat(e1.getGoogleEventId()).isEqualTo("g1");
+        assertThat(e2.getGoogleEventId()).isEqualTo("g2");
+        assertThat(e1.getSyncStatus()).isEqualTo(Event.SyncStatus.SYNCED);
+        assertThat(e1.getLastSyncedAt()).isNotNull();
+    }
+
+    @Test
+    void exportEvents_mapsEachBatchResponseToItsEvent() throws Exception {
+        User user = googleUser();
+        Event created = localEvent(1L, user, null);
+        Event rejected = localEvent(2L, user, "g-rejected");
+        Event removed = localEvent(3L, user, "g-gone");
+        removed.setStatus(Event.EventStatus.PENDING_DELETION);
+        Event neverExported = localEvent(4L, user, null);
+        neverExported.setStatus(Event.EventStatus.PENDING_DELETION);
+
+        List<String> requests = new ArrayList<>();
+        GoogleCalendarService spySvc = withFakeClient(user, requests, batchResponse(
+                part(200, "{\"id\":\"g-new\"}"),
+                part(400, error(400, "invalid")),
+                part(404, error(404, "notFound"))));
+
+        GoogleCalendarService.BatchExportResult result =
+                spySvc.exportEvents(user, List.of(created, rejected, removed, neverExported));
+
+        assertThat(result.synced()).containsExactly(created);
+        assertThat(result.failed()).containsExactly(rejected);
+        // Absent de Google (404) ou jamais exporté : suppression locale seulement
+        assertThat(result.deleted()).containsExactlyInAnyOrder(removed, neverExported);
+        assertThat(result.pending()).isEmpty();
+        assertThat(rejected.getSyncStatus()).isEqualTo(Event.SyncStatus.FAILED);
+        assertThat(requests).hasSize(1);
+        verify(eventRepository).saveAll(List.of(created, rejected));
+    }
+
+    @Test
+    void exportEvents_keepsConflictForUnconvertibleEvents() throws Exception {
+        User user = googleUser();
+        Event ok = localEvent(1L, user, null);
+        Event withoutDates = localEvent(2L, user, null);
+        withoutDates.setStartTime(null);
+        withoutDates.setEndTime(null);
+
+        List<String> requests = new ArrayList<>();
+        GoogleCalendarService spySvc = withFakeClient(user, requests, batchResponse(part(200, "{\"id\":\"g1\"}")));
+
+        GoogleCalendarService.BatchExportResult result = spySvc.exportEvents(user, List.of(ok, withoutDates));
+
+        assertThat(result.synced()).containsExactly(ok);
+        assertThat(result.failed()).containsExactly(withoutDates);
+        // Erreur locale : ni envoyée, ni rejouée, et le statut CONFLICT n'est pas écrasé par FAILED
+        assertThat(withoutDates.getSyncStatus()).isEqualTo(Event.SyncStatus.CONFLICT);
+        assertThat(requests).hasSize(1);
+        assertThat(countParts(requests.get(0))).isEqualTo(1);
+    }
+
+    @Test
+    void exportEvents_retriesOnlyTransientFailures() throws Exception {
+        User user = googleUser();
+        Event ok = localEvent(1L, user, null);
+        Event throttled = localEvent(2L, user, null);
+
+        List<String> requests = new ArrayList<>();
+        GoogleCalendarService spySvc = withFakeClient(user, requests,
+                batchResponse(part(200, "{\"id\":\"g1\"}"), part(503, error(503, "backendError"))),
+                batchResponse(part(200, "{\"id\":\"g2\"}")));
+
+        GoogleCalendarService.BatchExportResult result = spySvc.exportEvents(user, List.of(ok, throttled));
+
+        assertThat(result.synced()).containsExactly(ok, throttled);
+        assertThat(requests).hasSize(2);
+        // Le second lot ne rejoue que l'opération en échec
+        assertThat(countParts(requests.get(1))).isEqualTo(1);
+        assertThat(throttled.getGoogleEventId()).isEqualTo("g2");
+    }
+
+    @Test
+    void exportEvents_keepsPendingWhenRetriesAreExhausted() throws Exception {
+        User user = googleUser();
+        Event throttled = localEvent(1L, user, null);
+        throttled.setSyncStatus(Event.SyncStatus.PENDING);
+
+        List<String> requests = new ArrayList<>();
+        String rateLimited = batchResponse(part(429, error(429, "rateLimitExceeded")));
+        GoogleCalendarService spySvc = withFakeClient(user, requests, rateLimited, rateLimited, rateLimited);
+
+        GoogleCalendarService.BatchExportResult result = spySvc.exportEvents(user, List.of(throttled));
+
+        assertThat(result.pending()).containsExactly(throttled);
+        assertThat(requests).hasSize(3);
+        assertThat(throttled.getSyncStatus()).isEqualTo(Event.SyncStatus.PENDING);
+    }
+
+    @Test
+    void exportEvents_splitsOperationsInBatchesOfFifty() throws Exception {
+        User user = googleUser();
+        List<Event> events = new ArrayList<>();
+        for (long i = 0; i < 120; i++) {
+            events.add(localEvent(i, user, null));
+        }
+
+        List<String> requests = new ArrayList<>();
+        GoogleCalendarService spySvc = withFakeClient(user, requests,
+                successes(0, 50), successes(50, 50), successes(100, 20));
+
+        GoogleCalendarService.BatchExportResult result = spySvc.exportEvents(user, events);
+
+        assertThat(result.synced()).hasSize(120);
+        assertThat(requests).extracting(GoogleCalendarServiceTest::countParts).containsExactly(50, 50, 20);
+        assertThat(events.get(119).getGoogleEventId()).isEqualTo("g119");
     }
 
     @Test
@@ -81,14 +198,6 @@ class GoogleCalendarServiceTest {
         tz.setAccessible(true);
         tz.set(service, "UTC");
 
-        // set client id/secret to avoid NPE in GoogleCredential builder
-        Field cid = GoogleCalendarService.class.getDeclaredField("clientId");
-        cid.setAccessible(true);
-        cid.set(service, "cid");
-        Field csec = GoogleCalendarService.class.getDeclaredField("clientSecret");
-        csec.setAccessible(true);
-        csec.set(service, "csecret");
-
         // build an event with details
         com.example.backend.model.Event ev = new com.example.backend.model.Event();
         ev.setId(99L);
@@ -119,13 +228,14 @@ class GoogleCalendarServiceTest {
     }
 
     @Test
-    void refreshAccessToken_noRefreshToken_returnsFalse() {
+    void refreshAccessToken_delegatesToTokenManager() {
         com.example.backend.model.User user = new com.example.backend.model.User();
         user.setId(5L);
         user.setGoogleRefreshToken(null);
 
         boolean ok = service.refreshAccessToken(user);
         assertThat(ok).isFalse();
+        verify(tokenManager).refreshAfterRejection(user);
     }
 
     @Test
@@ -169,7 +279,6 @@ class GoogleCalendarServiceTest {
         com.example.backend.model.User user = new com.example.backend.model.User();
         user.setId(42L);
         user.setGoogleAccessToken("tok");
-        when(userRepository.findById(42L)).thenReturn(java.util.Optional.of(user));
 
         // find private CalendarOperation interface
         Class<?> opIface = Arrays.stream(GoogleCalendarService.class.getDeclaredClasses())
@@ -195,14 +304,6 @@ class GoogleCalendarServiceTest {
 
         Object opProxy = Proxy.newProxyInstance(opIface.getClassLoader(), new Class[]{opIface}, handler);
 
-        // ensure clientId/secret set to avoid NPE in GoogleCredential builder
-        Field cid = GoogleCalendarService.class.getDeclaredField("clientId");
-        cid.setAccessible(true);
-        cid.set(service, "cid");
-        Field csec = GoogleCalendarService.class.getDeclaredField("clientSecret");
-        csec.setAccessible(true);
-        csec.set(service, "csecret");
-
         Method exec = GoogleCalendarService.class.getDeclaredMethod("executeWithRetry", com.example.backend.model.User.class, opIface);
         exec.setAccessible(true);
 
@@ -215,15 +316,6 @@ class GoogleCalendarServiceTest {
         com.example.backend.model.User user = new com.example.backend.model.User();
         user.setId(43L);
         user.setGoogleAccessToken("tok");
-        when(userRepository.findById(43L)).thenReturn(java.util.Optional.of(user));
-
-        // set client id/secret to avoid NPE in GoogleCredential builder
-        Field cid = GoogleCalendarService.class.getDeclaredField("clientId");
-        cid.setAccessible(true);
-        cid.set(service, "cid");
-        Field csec = GoogleCalendarService.class.getDeclaredField("clientSecret");
-        csec.setAccessible(true);
-        csec.set(service, "csecret");
 
         // spy the service so we can stub refreshAccessToken
         GoogleCalendarService spySvc = spy(service);
@@ -267,25 +359,18 @@ class GoogleCalendarServiceTest {
 
     @Test
     void pushEventsToGoogle_partialFailures_countsOnlySuccesses() throws Exception {
-        User user = new User();
-        user.setId(2L);
-        user.setGoogleAccessToken("token");
+        User user = googleUser();
+        Event e1 = localEvent(1L, user, null);
+        Event e2 = localEvent(2L, user, null);
 
-        Event e1 = new Event();
-        e1.setId(1L);
-        e1.setUser(user);
-
-        Event e2 = new Event();
-        e2.setId(2L);
-        e2.setUser(user);
-
-        GoogleCalendarService spySvc = spy(service);
-        // e1 succeeds, e2 throws
-        doNothing().when(spySvc).pushEventToGoogle(e1);
-        doThrow(new RuntimeException("boom")).when(spySvc).pushEventToGoogle(e2);
+        List<String> requests = new ArrayList<>();
+        // e1 réussit, e2 est refusé définitivement
+        GoogleCalendarService spySvc = withFakeClient(user, requests,
+                batchResponse(part(200, "{\"id\":\"g1\"}"), part(400, error(400, "invalid"))));
 
         int count = spySvc.pushEventsToGoogle(List.of(e1, e2), user);
         assertThat(count).isEqualTo(1);
+        assertThat(e2.getSyncStatus()).isEqualTo(Event.SyncStatus.FAILED);
     }
 
     @Test
@@ -303,14 +388,6 @@ class GoogleCalendarServiceTest {
         tz.setAccessible(true);
         tz.set(service, "UTC");
 
-        // set client id/secret to avoid NPE in GoogleCredential builder
-        Field cid = GoogleCalendarService.class.getDeclaredField("clientId");
-        cid.setAccessible(true);
-        cid.set(service, "cid");
-        Field csec = GoogleCalendarService.class.getDeclaredField("clientSecret");
-        csec.setAccessible(true);
-        csec.set(service, "csecret");
-
         com.example.backend.model.Event ev = new com.example.backend.model.Event();
         ev.setSummary("NoExtras");
         ev.setStartTime(LocalDateTime.now());
@@ -336,18 +413,156 @@ class GoogleCalendarServiceTest {
         ev.setGoogleEventId("someId");
         ev.setSummary("toDel");
 
-        when(userRepository.findById(55L)).thenReturn(java.util.Optional.of(user));
-
-        // ensure client id/secret to avoid NPE in GoogleCredential.Builder
-        Field cid = GoogleCalendarService.class.getDeclaredField("clientId");
-        cid.setAccessible(true);
-        cid.set(service, "cid");
-        Field csec = GoogleCalendarService.class.getDeclaredField("clientSecret");
-        csec.setAccessible(true);
-        csec.set(service, "csecret");
+        // Google répond 500 à la suppression
+        MockHttpTransport failing = new MockHttpTransport.Builder()
+                .setLowLevelHttpResponse(new MockLowLevelHttpResponse().setStatusCode(500))
+                .build();
+        when(clientFactory.clientFor(user)).thenReturn(new GoogleCalendarClientFactory(failing).clientFor(user));
 
         assertThrows(com.example.backend.exception.GoogleApiException.class, () -> service.deleteEventFromGoogle(ev));
         // when deletion fails, local event should not be saved with null googleId
         verify(eventRepository, org.mockito.Mockito.never()).save(any());
     }
+
+    @Test
+    void watchEvents_sendsWebhookChannelAndReturnsGoogleResource() {
+        com.example.backend.model.User user = new com.example.backend.model.User();
+        user.setId(57L);
+        user.setGoogleAccessToken("token");
+
+        List<String> requests = new ArrayList<>();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws java.io.IOException {
+                        requests.add(url + " " + getContentAsString());
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("application/json")
+                                .setContent("{\"kind\":\"api#channel\",\"id\":\"chan-1\","
+                                        + "\"resourceId\":\"res-1\",\"expiration\":\"1790000000000\"}");
+                    }
+                };
+            }
+        };
+        when(clientFactory.clientFor(user)).thenReturn(new GoogleCalendarClientFactory(transport).clientFor(user));
+
+        com.google.api.services.calendar.model.Channel channel = service.watchEvents(
+                user, "chan-1", "secret", "https://edt.example.test/hook", 3_600_000);
+
+        assertThat(channel.getResourceId()).isEqualTo("res-1");
+        assertThat(channel.getExpiration()).isEqualTo(1_790_000_000_000L);
+        assertThat(requests).singleElement().satisfies(request -> assertThat(request)
+                .contains("/calendars/primary/events/watch")
+                .contains("\"type\":\"web_hook\"")
+                .contains("\"token\":\"secret\"")
+                .contains("\"ttl\":\"3600\""));
+    }
+
+    @Test
+    void deleteEventFromGoogle_whenAlreadyGone_treatsAsDeleted() {
+        com.example.backend.model.User user = new com.example.backend.model.User();
+        user.setId(56L);
+        user.setGoogleAccessToken("token");
+
+        com.example.backend.model.Event ev = new com.example.backend.model.Event();
+        ev.setUser(user);
+        ev.setGoogleEventId("goneId");
+        ev.setSummary("toDel");
+
+        // Google répond 410 : l'événement n'existe plus côté Google
+        MockHttpTransport gone = new MockHttpTransport.Builder()
+                .setLowLevelHttpResponse(new MockLowLevelHttpResponse().setStatusCode(410)
+                        .setContentType("application/json")
+                        .setContent("{\"error\":{\"code\":410,\"message\":\"Resource has been deleted\"}}"))
+                .build();
+        when(clientFactory.clientFor(user)).thenReturn(new GoogleCalendarClientFactory(gone).clientFor(user));
+
+        service.deleteEventFromGoogle(ev);
+
+        assertThat(ev.getGoogleEventId()).isNull();
+        assertThat(ev.getSyncStatus()).isEqualTo(com.example.backend.model.Event.SyncStatus.SYNCED);
+        verify(eventRepository).save(ev);
+    }
+
+    // ── Client Calendar sur transport simulé (réponses batch multipart) ─────
+
+    private static final String BOUNDARY = "batch_test";
+
+    private User googleUser() {
+        User user = new User();
+        user.setId(2L);
+        user.setGoogleAccessToken("token");
+        return user;
+    }
+
+    private static Event localEvent(long id, User user, String googleEventId) {
+        Event event = new Event("Evt " + id, LocalDateTime.of(2026, 3, 2, 9, 0), LocalDateTime.of(2026, 3, 2, 10, 0), user);
+        event.setId(id);
+        event.setGoogleEventId(googleEventId);
+        event.setSyncStatus(Event.SyncStatus.PENDING);
+        return event;
+    }
+
+    /**
+     * Service espion dont le client Calendar rejoue les réponses batch fournies, dans l'ordre.
+     */
+    private GoogleCalendarService withFakeClient(User user, List<String> requestBodies, String... batchResponses)
+            throws Exception {
+        ReflectionTestUtils.setField(service, "defaultTimezone", "Europe/Paris");
+        ReflectionTestUtils.setField(service, "batchRetryDelayMs", 0L);
+
+        Deque<String> responses = new ArrayDeque<>(List.of(batchResponses));
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws java.io.IOException {
+                        requestBodies.add(getContentAsString());
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("multipart/mixed; boundary=" + BOUNDARY)
+                                .setContent(responses.poll());
+                    }
+                };
+            }
+        };
+        Calendar client = new Calendar.Builder(transport, JacksonFactory.getDefaultInstance(), null)
+                .setApplicationName("test")
+                .build();
+
+        GoogleCalendarService spySvc = spy(service);
+        doReturn(client).when(spySvc).buildCalendarClient(user);
+        return spySvc;
+    }
+
+    private static String part(int status, String json) {
+        return "--" + BOUNDARY + "\r\n"
+                + "Content-Type: application/http\r\n\r\n"
+                + "HTTP/1.1 " + status + " Status\r\n"
+                + "Content-Type: application/json; charset=UTF-8\r\n\r\n"
+                + json + "\r\n";
+    }
+
+    private static String batchResponse(String... parts) {
+        return String.join("", parts) + "--" + BOUNDARY + "--\r\n";
+    }
+
+    private static String successes(int firstId, int count) {
+        String[] parts = new String[count];
+        for (int i = 0; i < count; i++) {
+            parts[i] = part(200, "{\"id\":\"g" + (firstId + i) + "\"}");
+        }
+        return batchResponse(parts);
+    }
+
+    private static String error(int code, String reason) {
+        return "{\"error\":{\"code\":" + code + ",\"message\":\"" + reason
+                + "\",\"errors\":[{\"reason\":\"" + reason + "\"}]}}";
+    }
+
+    private static int countParts(String batchRequestBody) {
+        return batchRequestBody.split("Content-Type: application/http", -1).length - 1;
+    }
 }
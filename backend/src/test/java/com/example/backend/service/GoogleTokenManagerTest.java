@@ -0,0 +1,200 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class GoogleTokenManagerTest {
+
+    private static final String TOKEN_RESPONSE =
+            "{\"access_token\":\"new-token\",\"expires_in\":3600,\"token_type\":\"Bearer\"}";
+
+    private UserRepository userRepository;
+    private PlatformTransactionManager transactionManager;
+    private AtomicInteger tokenRequests;
+    private CountDownLatch release;
+    private GoogleTokenManager manager;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        tokenRequests = new AtomicInteger();
+        release = new CountDownLatch(0);
+
+        // Point d'accès OAuth simulé : compte les appels, peut être retenu pour tester la concurrence
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        tokenRequests.incrementAndGet();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("application/json")
+                                .setContent(TOKEN_RESPONSE);
+                    }
+                };
+            }
+        };
+        manager = new GoogleTokenManager(userRepository, new GoogleCalendarClientFactory(transport), transactionManager);
+        ReflectionTestUtils.setField(manager, "clientId", "cid");
+        ReflectionTestUtils.setField(manager, "clientSecret", "csecret");
+    }
+
+    @Test
+    void ensureFresh_validToken_noRefresh() {
+        User user = linkedUser(LocalDateTime.now().plusHours(1));
+
+        assertThat(manager.ensureFresh(user)).isTrue();
+
+        assertThat(tokenRequests).hasValue(0);
+        assertThat(user.getGoogleAccessToken()).isEqualTo("old-token");
+        Mockito.verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void ensureFresh_unknownExpiry_keepsTokenUntilRejected() {
+        User user = linkedUser(null);
+
+        assertThat(manager.ensureFresh(user)).isTrue();
+
+        assertThat(tokenRequests).hasValue(0);
+    }
+
+    @Test
+    void ensureFresh_expiringSoon_refreshesBeforeCallAndPersists() {
+        User user = linkedUser(LocalDateTime.now().plusMinutes(1));
+
+        assertThat(manager.ensureFresh(user)).isTrue();
+
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(user.getGoogleAccessToken()).isEqualTo("new-token");
+        assertThat(user.getGoogleRefreshToken()).isEqualTo("refresh");
+        assertThat(user.getGoogleTokenExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(55));
+        verify(userRepository).updateGoogleTokens(eq(1L), eq("new-token"), eq("refresh"), any());
+    }
+
+    @Test
+    void refresh_persistsTokensInTheirOwnTransaction() {
+        User user = linkedUser(LocalDateTime.now().plusMinutes(1));
+        TransactionStatus status = Mockito.mock(TransactionStatus.class);
+        Mockito.when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        manager.ensureFresh(user);
+
+        // Indépendante de la synchronisation appelante : ni verrou prolongé, ni perte au rollback
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        InOrder order = Mockito.inOrder(transactionManager, userRepository);
+        order.verify(transactionManager).getTransaction(definition.capture());
+        order.verify(userRepository).updateGoogleTokens(eq(1L), eq("new-token"), eq("refresh"), any());
+        order.verify(transactionManager).commit(status);
+        assertThat(definition.getValue().getPropagationBehavior())
+                .isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    void ensureFresh_concurrentCallers_shareOneRefresh() throws Exception {
+        release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // Chaque synchronisation charge sa propre entité, avec l'ancien token
+            List<User> users = new ArrayList<>();
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                User user = linkedUser(LocalDateTime.now().plusSeconds(30));
+                users.add(user);
+                results.add(executor.submit(() -> manager.ensureFresh(user)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+            assertThat(tokenRequests).hasValue(1);
+            verify(userRepository, times(1)).updateGoogleTokens(any(), anyString(), anyString(), any());
+            assertThat(users).allSatisfy(u -> assertThat(u.getGoogleAccessToken()).isEqualTo("new-token"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void refreshAfterRejection_reusesTokensAlreadyRefreshed() {
+        User first = linkedUser(null);
+        User stale = linkedUser(null);
+
+        assertThat(manager.refreshAfterRejection(first)).isTrue();
+        assertThat(manager.refreshAfterRejection(stale)).isTrue();
+
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(stale.getGoogleAccessToken()).isEqualTo("new-token");
+
+        // Après une nouvelle liaison du compte, les tokens mémorisés ne s'appliquent plus
+        manager.forget(1L);
+        User relinked = linkedUser(null);
+        assertThat(manager.refreshAfterRejection(relinked)).isTrue();
+        assertThat(tokenRequests).hasValue(2);
+    }
+
+    @Test
+    void ensureFresh_noRefreshToken_failsOnlyOnceExpired() {
+        User expiring = linkedUser(LocalDateTime.now().plusMinutes(1));
+        expiring.setGoogleRefreshToken(null);
+        User expired = linkedUser(LocalDateTime.now().minusMinutes(1));
+        expired.setGoogleRefreshToken(null);
+
+        assertThat(manager.ensureFresh(expiring)).isTrue();
+        assertThat(manager.ensureFresh(expired)).isFalse();
+
+        assertThat(tokenRequests).hasValue(0);
+        verify(userRepository, never()).updateGoogleTokens(any(), any(), any(), any());
+    }
+
+    private static User linkedUser(LocalDateTime expiresAt) {
+        User user = new User("alice", "password");
+        user.setId(1L);
+        user.setGoogleAccessToken("old-token");
+        user.setGoogleRefreshToken("refresh");
+        user.setGoogleTokenExpiresAt(expiresAt);
+        return user;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.backend.service;
+
+import com.example.backend.controller.SyncController;
+import com.example.backend.model.GoogleWatchChannel;
+import com.example.backend.model.User;
+import com.example.backend.repository.GoogleWatchChannelRepository;
+import com.example.backend.repository.UserRepository;
+import com.google.api.services.calendar.model.Channel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Parcours complet des notifications Google sur H2 : ouverture du canal, webhook appelé par
+ * la doublure {@link FakeGoogleNotificationSender}, file des utilisateurs notifiés vidée par
+ * le planificateur, puis renouvellement du canal.
+ */
+@DataJpaTest
+@Import({GoogleWatchService.class, CalendarSyncScheduler.class, SyncIntervalPolicy.class, ConnectionBudget.class})
+// Le planificateur synchronise dans ses propres threads : les données doivent être validées
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GoogleWatchNotificationFlowTest {
+
+    @Autowired
+    private GoogleWatchService watchService;
+
+    @Autowired
+    private CalendarSyncScheduler scheduler;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GoogleWatchChannelRepository channelRepository;
+
+    @MockitoBean
+    private CalendarSyncService calendarSyncService;
+
+    @MockitoBean
+    private GoogleCalendarService googleCalendarService;
+
+    private FakeGoogleNotificationSender google;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(watchService, "enabled", true);
+        ReflectionTestUtils.setField(watchService, "address", "https://edt.example.test" + FakeGoogleNotificationSender.WEBHOOK);
+
+        google = new FakeGoogleNotificationSender(MockMvcBuilders
+                .standaloneSetup(new SyncController(calendarSyncService, scheduler, watchService, new GoogleApiRateLimiter()))
+                .build());
+        when(googleCalendarService.watchEvents(any(), anyString(), anyString(), anyString(), anyLong()))
+                .thenAnswer(inv -> google.watch(inv.<User>getArgument(0).getId(),
+                        inv.getArgument(1), inv.getArgument(2), inv.getArgument(4)));
+
+        user = new User("watched", "password");
+        user.setGoogleAccessToken("token");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channelRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void notificationsAreCoalescedIntoOneSync() throws Exception {
+        watchService.renewChannels();
+        assertThat(channelRepository.findByUserId(user.getId())).hasSize(1);
+
+        // La confirmation d'ouverture ne déclenche rien
+        google.sendSync(user.getId()).andExpect(status().isOk());
+        scheduler.syncNotifiedUsers();
+        verify(calendarSyncService, never()).syncUser(anyLong());
+
+        // Une rafale de changements : une seule synchronisation
+        google.notifyChange(user.getId()).andExpect(status().isOk());
+        google.notifyChange(user.getId()).andExpect(status().isOk());
+        google.notifyChange(user.getId()).andExpect(status().isOk());
+        scheduler.syncNotifiedUsers();
+        scheduler.syncNotifiedUsers();
+
+        verify(calendarSyncService, times(1)).syncUser(user.getId());
+    }
+
+    @Test
+    void forgedNotificationIsRejected() throws Exception {
+        watchService.renewChannels();
+        Channel channel = google.activeChannel(user.getId());
+
+        google.send(channel, "not-the-secret", "exists").andExpect(status().isNotFound());
+        scheduler.syncNotifiedUsers();
+
+        verify(calendarSyncService, never()).syncUser(anyLong());
+    }
+
+    @Test
+    void channelIsRenewedBeforeExpiryAndOldOneStopped() throws Exception {
+        watchService.renewChannels();
+        Channel first = google.activeChannel(user.getId());
+
+        // Canal encore valide : pas de renouvellement
+        watchService.renewChannels();
+        verify(googleCalendarService, times(1)).watchEvents(any(), anyString(), anyString(), anyString(), anyLong());
+
+        // Fenêtre de renouvellement plus longue que la durée de vie : le canal est rouvert
+        ReflectionTestUtils.setField(watchService, "renewBeforeMs", 30L * 24 * 3_600_000);
+        watchService.renewChannels();
+
+        Channel second = google.activeChannel(user.getId());
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        verify(googleCalendarService).stopChannel(any(), eq(first.getId()), eq(first.getResourceId()));
+        assertThat(channelRepository.findByUserId(user.getId()))
+                .extracting(GoogleWatchChannel::getChannelId).containsExactly(second.getId());
+
+        // L'ancien canal n'est plus reconnu, le nouveau fonctionne
+        google.send(first, first.getToken(), "exists").andExpect(status().isNotFound());
+        google.notifyChange(user.getId()).andExpect(status().isOk());
+        scheduler.syncNotifiedUsers();
+        verify(calendarSyncService, times(1)).syncUser(user.getId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.backend.service;
+
+import com.example.backend.model.GoogleWatchChannel;
+import com.example.backend.model.User;
+import com.example.backend.repository.GoogleWatchChannelRepository;
+import com.example.backend.repository.UserRepository;
+import com.google.api.services.calendar.model.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GoogleWatchServiceTest {
+
+    private GoogleWatchChannelRepository channelRepository;
+    private UserRepository userRepository;
+    private GoogleCalendarService googleCalendarService;
+    private GoogleWatchService watchService;
+
+    @BeforeEach
+    void setUp() {
+        channelRepository = Mockito.mock(GoogleWatchChannelRepository.class);
+        userRepository = Mockito.mock(UserRepository.class);
+        googleCalendarService = Mockito.mock(GoogleCalendarService.class);
+        watchService = new GoogleWatchService(channelRepository, userRepository, googleCalendarService);
+        ReflectionTestUtils.setField(watchService, "enabled", true);
+        ReflectionTestUtils.setField(watchService, "address", "https://edt.example.test/api/sync/google/notifications");
+        when(channelRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void renewChannels_disabled_doesNothing() {
+        ReflectionTestUtils.setField(watchService, "enabled", false);
+
+        watchService.renewChannels();
+
+        verifyNoInteractions(userRepository, googleCalendarService, channelRepository);
+    }
+
+    @Test
+    void renewChannels_opensChannelForUsersWithoutOne() {
+        User user = user(1L);
+        when(userRepository.findIdsNeedingWatchChannel(any())).thenReturn(List.of(1L));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(googleCalendarService.watchEvents(eq(user), anyString(), anyString(), anyString(), anyLong()))
+                .thenAnswer(inv -> new Channel().setId(inv.getArgument(1)).setResourceId("res-1")
+                        .setExpiration(System.currentTimeMillis() + 3_600_000));
+
+        watchService.renewChannels();
+
+        ArgumentCaptor<GoogleWatchChannel> saved = ArgumentCaptor.forClass(GoogleWatchChannel.class);
+        verify(channelRepository).save(saved.capture());
+        assertThat(saved.getValue().getUserId()).isEqualTo(1L);
+        assertThat(saved.getValue().getResourceId()).isEqualTo("res-1");
+        assertThat(saved.getValue().getExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(59));
+        verify(channelRepository).deleteExpired(any());
+    }
+
+    @Test
+    void openChannel_stopsPreviousChannelAndKeepsPendingNotification() {
+        User user = user(1L);
+        GoogleWatchChannel old = new GoogleWatchChannel(1L, "old", "res-old", "secret", LocalDateTime.now().plusHours(2));
+        LocalDateTime notifiedAt = LocalDateTime.now().minusSeconds(3);
+        old.setDirtyAt(notifiedAt);
+        when(channelRepository.findByUserId(1L)).thenReturn(List.of(old));
+        when(googleCalendarService.watchEvents(eq(user), anyString(), anyString(), anyString(), anyLong()))
+                .thenReturn(new Channel().setResourceId("res-new"));
+
+        GoogleWatchChannel opened = watchService.openChannel(user);
+
+        assertThat(opened.getDirtyAt()).isEqualTo(notifiedAt);
+        verify(googleCalendarService).stopChannel(user, "old", "res-old");
+        verify(channelRepository).delete(old);
+    }
+
+    @Test
+    void onNotification_syncHandshakeDoesNotMarkDirty() {
+        boolean accepted = watchService.onNotification("chan", "secret", "res", "sync");
+
+        assertThat(accepted).isTrue();
+        verifyNoInteractions(channelRepository);
+    }
+
+    @Test
+    void onNotification_rejectsUnknownChannel() {
+        when(channelRepository.markDirty(eq("chan"), eq("forged"), eq("res"), any())).thenReturn(0);
+
+        assertThat(watchService.onNotification("chan", "forged", "res", "exists")).isFalse();
+        assertThat(watchService.onNotification(null, "forged", "res", "exists")).isFalse();
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setGoogleAccessToken("token");
+        return user;
+    }
+}
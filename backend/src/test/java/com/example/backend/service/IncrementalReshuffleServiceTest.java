@@ -0,0 +1,91 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ScheduleChange;
+import com.example.backend.dto.ScheduleChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class IncrementalReshuffleServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    private ScheduleOptimizerService optimizerService;
+    private IncrementalReshuffleService reshuffleService;
+
+    @BeforeEach
+    void setUp() {
+        optimizerService = Mockito.mock(ScheduleOptimizerService.class);
+        reshuffleService = new IncrementalReshuffleService(optimizerService);
+    }
+
+    @Test
+    void onScheduleChanged_reshufflesOutsideTheCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS)).when(optimizerService).reshuffleWindow(any(), any());
+        ScheduleChange change = ScheduleChange.deleted(1L, BASE, BASE.plusHours(1));
+
+        // L'appelant n'attend pas le reshuffle
+        reshuffleService.onScheduleChanged(new ScheduleChangedEvent(1L, change));
+        release.countDown();
+
+        verify(optimizerService, timeout(2_000)).reshuffleWindow(1L, change);
+    }
+
+    @Test
+    void submit_runsChangesOfOneUserInOrder_evenAfterAFailure() throws Exception {
+        ScheduleChange first = ScheduleChange.deleted(1L, BASE, BASE.plusHours(1));
+        ScheduleChange second = ScheduleChange.deleted(2L, BASE.plusHours(2), BASE.plusHours(3));
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            firstRunning.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("échec");
+        }).when(optimizerService).reshuffleWindow(eq(1L), eq(first));
+
+        reshuffleService.submit(1L, first);
+        assertThat(firstRunning.await(2, TimeUnit.SECONDS)).isTrue();
+        var next = reshuffleService.submit(1L, second);
+
+        // Le second attend la fin du premier
+        Thread.sleep(100);
+        assertThat(next).isNotDone();
+        release.countDown();
+        next.get(2, TimeUnit.SECONDS);
+
+        InOrder order = inOrder(optimizerService);
+        order.verify(optimizerService).reshuffleWindow(1L, first);
+        order.verify(optimizerService).reshuffleWindow(1L, second);
+    }
+
+    @Test
+    void submit_otherUsersAreNotBlocked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScheduleChange slow = ScheduleChange.deleted(1L, BASE, BASE.plusHours(1));
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS)).when(optimizerService).reshuffleWindow(eq(1L), any());
+        doThrow(new IllegalStateException("ignoré")).when(optimizerService).reshuffleWindow(eq(3L), any());
+
+        reshuffleService.submit(1L, slow);
+        reshuffleService.submit(2L, slow).get(2, TimeUnit.SECONDS);
+        // Une erreur est journalisée, jamais propagée
+        reshuffleService.submit(3L, slow).get(2, TimeUnit.SECONDS);
+        release.countDown();
+
+        verify(optimizerService).reshuffleWindow(2L, slow);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.backend.service;
+
+import com.example.backend.model.User;
+import com.example.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+class SyncIntervalPolicyTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    private UserRepository userRepository;
+    private SyncIntervalPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        policy = new SyncIntervalPolicy(userRepository);
+        ReflectionTestUtils.setField(policy, "initialMs", 900_000L);
+        ReflectionTestUtils.setField(policy, "minMs", 300_000L);
+        ReflectionTestUtils.setField(policy, "maxMs", 3_600_000L);
+    }
+
+    @Test
+    void afterSync_withoutPreviousInterval_startsFromInitial() {
+        User user = googleUser(null);
+
+        policy.afterSync(user, START, 0);
+
+        verify(userRepository).recordGoogleSync(7L, START, -1L, 1_800_000L, START.plusMinutes(30));
+    }
+
+    @Test
+    void afterSync_withChanges_halvesDownToMin() {
+        User user = googleUser(400_000L);
+
+        policy.afterSync(user, START, 3);
+
+        verify(userRepository).recordGoogleSync(7L, START, 400_000L, 300_000L, START.plusMinutes(5));
+    }
+
+    @Test
+    void afterSync_idle_doublesUpToMax() {
+        User user = googleUser(2_400_000L);
+
+        policy.afterSync(user, START, 0);
+
+        verify(userRepository).recordGoogleSync(7L, START, 2_400_000L, 3_600_000L, START.plusHours(1));
+    }
+
+    @Test
+    void afterSync_leavesTheEntityUntouched() {
+        User user = googleUser(400_000L);
+
+        policy.afterSync(user, START, 3);
+
+        assertThat(user.getGoogleSyncIntervalMs()).isEqualTo(400_000L);
+        assertThat(user.getNextGoogleSyncAt()).isNull();
+        assertThat(user.getLastGoogleSyncAt()).isNull();
+    }
+
+    @Test
+    void onLocalEdit_resetsToMinInterval() {
+        LocalDateTime before = LocalDateTime.now();
+
+        policy.onLocalEdit(7L);
+
+        ArgumentCaptor<LocalDateTime> dueBy = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).resetGoogleSyncInterval(eq(7L), eq(300_000L), dueBy.capture());
+        assertThat(dueBy.getValue()).isBetween(before.plusMinutes(5), LocalDateTime.now().plusMinutes(5));
+    }
+
+    @Test
+    void afterFailure_postponesByInitialInterval() {
+        LocalDateTime before = LocalDateTime.now();
+
+        policy.afterFailure(7L);
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).postponeGoogleSync(eq(7L), next.capture());
+        assertThat(next.getValue()).isBetween(before.plusMinutes(15), LocalDateTime.now().plusMinutes(15));
+        verify(userRepository, Mockito.never()).resetGoogleSyncInterval(any(), any(), any());
+    }
+
+    private static User googleUser(Long intervalMs) {
+        User user = new User();
+        user.setId(7L);
+        user.setGoogleSyncIntervalMs(intervalMs);
+        return user;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.backend.service;
+
+import com.example.backend.model.SyncOutboxEntry;
+import com.example.backend.repository.SyncOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SyncOutboxServiceTest {
+
+    private SyncOutboxRepository outboxRepository;
+    private CalendarSyncService calendarSyncService;
+    private SyncIntervalPolicy syncIntervalPolicy;
+    private GoogleSyncLocks syncLocks;
+    private SyncOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = Mockito.mock(SyncOutboxRepository.class);
+        calendarSyncService = Mockito.mock(CalendarSyncService.class);
+        syncIntervalPolicy = Mockito.mock(SyncIntervalPolicy.class);
+        syncLocks = new GoogleSyncLocks();
+        outboxService = new SyncOutboxService(outboxRepository, calendarSyncService, syncIntervalPolicy, syncLocks);
+    }
+
+    @Test
+    void enqueue_createsIntentWhenNonePending() {
+        when(outboxRepository.touch(eq(1L), eq(10L), any())).thenReturn(0);
+
+        outboxService.enqueue(1L, 10L);
+
+        ArgumentCaptor<SyncOutboxEntry> saved = ArgumentCaptor.forClass(SyncOutboxEntry.class);
+        verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getUserId()).isEqualTo(1L);
+        assertThat(saved.getValue().getEventId()).isEqualTo(10L);
+        assertThat(saved.getValue().getFirstRequestedAt()).isEqualTo(saved.getValue().getLastRequestedAt());
+        verify(syncIntervalPolicy).onLocalEdit(1L);
+    }
+
+    @Test
+    void enqueue_coalescesWithPendingIntent() {
+        when(outboxRepository.touch(eq(1L), eq(10L), any())).thenReturn(1);
+
+        outboxService.enqueue(1L, 10L);
+
+        verify(outboxRepository, never()).save(any());
+        verify(syncIntervalPolicy, never()).onLocalEdit(anyLong());
+    }
+
+    @Test
+    void drain_pushesEachChangedEventOnceWithoutFullSync() throws Exception {
+        when(outboxRepository.findReadyUserIds(any(), any(), any())).thenReturn(List.of(1L, 2L));
+        when(outboxRepository.findReadyEventIds(eq(1L), any())).thenReturn(List.of(10L, 11L));
+        when(outboxRepository.findReadyEventIds(eq(2L), any())).thenReturn(List.of(20L));
+        when(calendarSyncService.pushEventChange(anyLong(), anyLong())).thenReturn(true);
+
+        outboxService.drain();
+
+        verify(calendarSyncService).pushEventChange(1L, 10L);
+        verify(calendarSyncService).pushEventChange(1L, 11L);
+        verify(calendarSyncService).pushEventChange(2L, 20L);
+        verify(calendarSyncService, never()).syncUser(anyLong());
+        verify(outboxRepository).deleteDrained(eq(1L), eq(10L), any());
+        verify(outboxRepository).deleteDrained(eq(1L), eq(11L), any());
+        verify(outboxRepository).deleteDrained(eq(2L), eq(20L), any());
+    }
+
+    @Test
+    void drain_leavesIntentsQueuedWhileTheUserIsBeingSynced() throws Exception {
+        when(outboxRepository.findReadyUserIds(any(), any(), any())).thenReturn(List.of(1L, 2L));
+        when(outboxRepository.findReadyEventIds(eq(2L), any())).thenReturn(List.of(20L));
+        when(calendarSyncService.pushEventChange(anyLong(), anyLong())).thenReturn(true);
+        CountDownLatch syncing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread sync = Thread.ofVirtual().start(() -> syncLocks.callLocked(1L, () -> {
+            syncing.countDown();
+            return awaitQuietly(release);
+        }));
+        assertThat(syncing.await(2, TimeUnit.SECONDS)).isTrue();
+
+        outboxService.drain();
+        release.countDown();
+        sync.join(2_000);
+
+        // L'utilisateur 1 est synchronisé : rien n'est exporté ni retiré de la file pour lui
+        verify(calendarSyncService, never()).pushEventChange(eq(1L), anyLong());
+        verify(outboxRepository, never()).findReadyEventIds(eq(1L), any());
+        verify(outboxRepository, never()).deleteDrained(eq(1L), anyLong(), any());
+        verify(calendarSyncService).pushEventChange(2L, 20L);
+    }
+
+    @Test
+    void drain_appliesDebounceAndMaxDelayWindows() {
+        ReflectionTestUtils.setField(outboxService, "debounceMs", 2000L);
+        ReflectionTestUtils.setField(outboxService, "maxDelayMs", 30_000L);
+        when(outboxRepository.findReadyUserIds(any(), any(), any())).thenReturn(List.of());
+
+        outboxService.drain();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> quietSince = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> overdueSince = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).findReadyUserIds(now.capture(), quietSince.capture(), overdueSince.capture());
+        assertThat(quietSince.getValue()).isEqualTo(now.getValue().minusSeconds(2));
+        assertThat(overdueSince.getValue()).isEqualTo(now.getValue().minusSeconds(30));
+        verifyNoInteractions(calendarSyncService);
+    }
+
+    @Test
+    void drain_schedulesRetryWithBackoffOnlyForFailedEvent() throws Exception {
+        ReflectionTestUtils.setField(outboxService, "retryDelayMs", 1000L);
+        when(outboxRepository.findReadyUserIds(any(), any(), any())).thenReturn(List.of(1L));
+        when(outboxRepository.findReadyEventIds(eq(1L), any())).thenReturn(List.of(10L, 11L));
+        when(outboxRepository.findAttempts(1L, 10L)).thenReturn(1);
+        doThrow(new RuntimeException("Google indisponible")).when(calendarSyncService).pushEventChange(1L, 10L);
+        when(calendarSyncService.pushEventChange(1L, 11L)).thenReturn(true);
+
+        LocalDateTime before = LocalDateTime.now();
+        outboxService.drain();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).markFailed(eq(1L), eq(10L), retryAt.capture());
+        // Deuxième tentative : délai doublé
+        assertThat(retryAt.getValue()).isAfterOrEqualTo(before.plusSeconds(2));
+        verify(outboxRepository, never()).deleteDrained(eq(1L), eq(10L), any());
+        verify(outboxRepository).deleteDrained(eq(1L), eq(11L), any());
+    }
+
+    @Test
+    void drain_abandonsAfterMaxAttempts() throws Exception {
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 3);
+        when(outboxRepository.findReadyUserIds(any(), any(), any())).thenReturn(List.of(1L));
+        when(outboxRepository.findReadyEventIds(eq(1L), any())).thenReturn(List.of(10L));
+        when(outboxRepository.findAttempts(1L, 10L)).thenReturn(2);
+        doThrow(new RuntimeException("Google indisponible")).when(calendarSyncService).pushEventChange(1L, 10L);
+
+        outboxService.drain();
+
+        verify(outboxRepository).deleteDrained(eq(1L), eq(10L), any());
+        verify(outboxRepository, never()).markFailed(anyLong(), anyLong(), any());
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -25,6 +25,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private GoogleCalendarClientFactory calendarClientFactory;
+
+    @Mock
+    private GoogleTokenManager tokenManager;
+
     @InjectMocks
     private UserService userService;
 
@@ -244,4 +250,25 @@ class UserServiceTest {
         // Assert
         verify(userRepository, times(2)).findAll();
     }
+
+    @Test
+    @DisplayName("Déliaison Google : tokens effacés et client Calendar mémorisé invalidé")
+    void testUnlinkGoogleAccount_InvalidatesCachedClient() {
+        // Arrange
+        User user = new User("alice", "password123");
+        user.setId(1L);
+        user.setGoogleAccessToken("access");
+        user.setGoogleRefreshToken("refresh");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // Act
+        User result = userService.unlinkGoogleAccount(1L);
+
+        // Assert
+        assertNull(result.getGoogleAccessToken());
+        assertNull(result.getGoogleRefreshToken());
+        verify(calendarClientFactory).invalidate(1L);
+        verify(tokenManager).forget(1L);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.TimeSlot;
+import com.example.backend.model.Event;
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.model.UserFocusPreference;
+import com.example.backend.repository.EventRepository;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.service.ReshuffleLocks;
+import com.example.backend.service.scheduling.TimelineIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConstraintScheduleOptimizerServiceTest {
+
+    @Mock private EventRepository eventRepository;
+    @Mock private TaskRepository taskRepository;
+    @Mock private FocusService focusService;
+    @Spy private ReshuffleLocks reshuffleLocks = new ReshuffleLocks();
+
+    @InjectMocks
+    private ConstraintScheduleOptimizerService optimizerService;
+
+    private User user;
+    private final Long userId = 1L;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("testuser", "password");
+        user.setId(userId);
+        ReflectionTestUtils.setField(optimizerService, "timeBudgetMs", 50L);
+    }
+
+    /**
+     * Une petite tâche doit combler le trou avant la réunion au lieu d'être repoussée
+     * derrière la tâche prioritaire qui, elle, ne tient pas dans ce trou.
+     */
+    @Test
+    void devraitComblerLeTrouAvantUneReunion() {
+        LocalDateTime cursor = expectedCursor();
+        Event reunion = new Event("Réunion", cursor.plusMinutes(60), cursor.plusMinutes(120), user);
+        Task longue = createTask("Longue", 90, 1, null);
+        Task courte = createTask("Courte", 45, 2, null);
+
+        when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>(List.of(reunion)));
+        when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(List.of(longue, courte)));
+        when(focusService.getPreferences(userId)).thenReturn(new UserFocusPreference(userId));
+
+        optimizerService.reshuffle(userId);
+
+        assertEquals(2, savedEvents().size());
+        assertTrue(courte.getEvent().getEndTime().compareTo(reunion.getStartTime()) <= 0);
+        assertEquals(reunion.getEndTime(), longue.getEvent().getStartTime());
+        verify(focusService).invalidate(userId);
+    }
+
+    /**
+     * Les créneaux Focus sont traités comme des plages indisponibles.
+     */
+    @Test
+    void devraitRespecterLesCreneauxFocus() {
+        LocalDateTime cursor = expectedCursor();
+        Task task = createTask("Tâche", 60, 1, null);
+        UserFocusPreference prefs = new UserFocusPreference(userId);
+        prefs.setFocusModeEnabled(true);
+        LocalDateTime focusEnd = cursor.plusHours(2);
+
+        when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
+        when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(List.of(task)));
+        when(focusService.getPreferences(userId)).thenReturn(prefs);
+        when(focusService.computeFocusSlots(any(), any(), any()))
+                .thenReturn(List.of(new TimeSlot(cursor.minusMinutes(1), focusEnd)));
+
+        optimizerService.reshuffle(userId);
+
+        assertEquals(focusEnd, task.getEvent().getStartTime());
+    }
+
+    /**
+     * Les tâches dont la deadline est passée sont marquées en retard sans être planifiées.
+     */
+    @Test
+    void devraitMarquerLesTachesPerimees() {
+        Task perimee = createTask("Périmée", 60, 1, LocalDateTime.now().minusDays(1));
+
+        when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
+        when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(List.of(perimee)));
+
+        optimizerService.reshuffle(userId);
+
+        assertTrue(perimee.isLate());
+        assertNull(perimee.getEvent());
+        verify(eventRepository, never()).saveAll(any());
+    }
+
+    /**
+     * La recherche ne rend jamais un plan plus coûteux que le meilleur des deux ordres initiaux
+     * (deadline d'abord, priorité d'abord), et trouve ici un ordre où aucune deadline n'est dépassée.
+     */
+    @Test
+    void laRechercheNeDegradeJamaisLePlanInitial() {
+        LocalDateTime cursor = LocalDateTime.of(2030, 1, 7, 8, 0);
+        List<Task> tasks = List.of(
+                createTask("A", 120, 1, null),
+                createTask("B", 60, 5, cursor.plusMinutes(240)),
+                createTask("C", 30, 3, cursor.plusMinutes(60)),
+                createTask("D", 90, 2, null));
+        TimelineIndex busy = new TimelineIndex();
+        busy.add(cursor.plusMinutes(90), cursor.plusMinutes(150));
+
+        ConstraintScheduleOptimizerService.Problem problem =
+                new ConstraintScheduleOptimizerService.Problem(cursor, tasks, busy, date -> List.of());
+
+        long seedCost = Math.min(problem.decode(problem.deadlineFirstOrder()).cost(),
+                problem.decode(problem.priorityFirstOrder()).cost());
+        ConstraintScheduleOptimizerService.Plan plan = problem.decode(optimizerService.search(problem));
+
+        assertTrue(plan.cost() <= seedCost);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            LocalDateTime end = plan.starts()[i].plusMinutes(t.getEstimatedDuration());
+            assertNull(busy.findCollisionEnd(plan.starts()[i], end));
+            if (t.getDeadline() != null) {
+                assertFalse(end.isAfter(t.getDeadline()), t.getTitle() + " ne doit pas être en retard");
+            }
+        }
+    }
+
+    // Même curseur que le service : 8h00 aujourd'hui ou maintenant si plus tard
+    private LocalDateTime expectedCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = now.withHour(8).withMinute(0).withSecond(0).withNano(0);
+        return cursor.isBefore(now) ? now : cursor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Event> savedEvents() {
+        ArgumentCaptor<List<Event>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * Le budget est vérifié pendant l'évaluation d'un plan : avec des évaluations plus longues
+     * que le budget, la recherche s'arrête au plus une tâche après l'échéance.
+     */
+    @Test
+    void laRechercheRespecteLeBudgetPendantLEvaluation() {
+        ReflectionTestUtils.setField(optimizerService, "timeBudgetMs", 150L);
+        LocalDateTime cursor = LocalDateTime.of(2030, 1, 7, 8, 0);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(createTask("T" + i, 15, 1 + i % 5, null));
+        }
+        // Environ 5 ms par tâche placée : une évaluation complète prend ~100 ms
+        ConstraintScheduleOptimizerService.Problem problem = new ConstraintScheduleOptimizerService.Problem(
+                cursor, tasks, new TimelineIndex(), date -> {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return List.of();
+                });
+
+        long start = System.nanoTime();
+        int[] order = optimizerService.search(problem);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 150 + 40, "recherche terminée en " + elapsedMs + " ms");
+        assertEquals(tasks.size(), Arrays.stream(order).distinct().count());
+    }
+
+    /**
+     * Sans budget, la recherche rend l'ordre du glouton (deadline puis priorité), seul plan
+     * toujours évalué en entier.
+     */
+    @Test
+    void sansBudgetLaRechercheRendLOrdreDuGlouton() {
+        ReflectionTestUtils.setField(optimizerService, "timeBudgetMs", 0L);
+        LocalDateTime cursor = LocalDateTime.of(2030, 1, 7, 8, 0);
+        List<Task> tasks = List.of(
+                createTask("A", 60, 1, null),
+                createTask("B", 60, 5, cursor.plusDays(1)),
+                createTask("C", 60, 3, cursor.plusDays(2)));
+        ConstraintScheduleOptimizerService.Problem problem =
+                new ConstraintScheduleOptimizerService.Problem(cursor, tasks, new TimelineIndex(), date -> List.of());
+
+        assertArrayEquals(new int[] {1, 2, 0}, optimizerService.search(problem));
+    }
+
+    private Task createTask(String title, int duration, int priority, LocalDateTime deadline) {
+        Task t = new Task(title, duration, priority, Task.TaskStatus.PENDING_CREATION, user, deadline);
+        t.setId((long) (Math.random() * 1000));
+        return t;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.Task;
+import com.example.backend.model.User;
+import com.example.backend.repository.TaskRepository;
+import com.example.backend.service.ReshuffleLocks;
+import com.example.backend.service.SyncOutboxService;
+import com.example.backend.service.TravelTimeService;
+import com.example.backend.service.strategy.TaskSelectionStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reshuffle sur un vrai contexte de persistance (H2) : enregistrement des événements et des liens
+ * tâche → événement, et créneaux Focus respectés quel que soit l'état du cache de FocusService.
+ */
+@DataJpaTest
+@Import({DefaultScheduleOptimizerService.class, FocusService.class, ReshuffleLocks.class})
+class DefaultScheduleOptimizerServicePersistenceTest {
+
+    @Autowired
+    private DefaultScheduleOptimizerService optimizer;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FocusService focusService;
+
+    @MockitoBean
+    private TaskSelectionStrategy taskSelectionStrategy;
+
+    @MockitoBean
+    private TravelTimeService travelTimeService;
+
+    @MockitoBean
+    private SyncOutboxService syncOutboxService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(new User("reshuffled", "password"));
+        // Mode Focus actif par défaut : 4 x 6 h s'étalent sur plusieurs jours, autour des créneaux Focus
+        for (int i = 1; i <= 4; i++) {
+            entityManager.persist(new Task("Tâche " + i, 360, i, Task.TaskStatus.PENDING_CREATION, user,
+                    LocalDateTime.now().plusDays(30)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void reshuffle_linksTasksToSavedEvents_andFlushes() {
+        optimizer.reshuffle(user.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Task> tasks = taskRepository.findByUser_Id(user.getId());
+        assertThat(tasks).hasSize(4).allSatisfy(task -> {
+            assertThat(task.getEvent()).isNotNull();
+            assertThat(task.getEvent().getId()).isNotNull();
+        });
+        assertThat(tasks).extracting(task -> task.getEvent().getId()).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void reshuffle_avoidsFocusSlots_withoutFocusCache() {
+        // Cache désactivé : seul le calcul en mémoire du reshuffle voit les placements en cours
+        ReflectionTestUtils.setField(focusService, "cacheTtlMs", 0L);
+
+        optimizer.reshuffle(user.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Task> tasks = taskRepository.findByUser_Id(user.getId());
+        assertThat(tasks).hasSize(4).allSatisfy(task -> {
+            LocalDateTime start = task.getEvent().getStartTime();
+            LocalDateTime end = task.getEvent().getEndTime();
+            assertThat(focusService.getOptimizedFocusSlots(user.getId(), start.toLocalDate()))
+                    .noneMatch(slot -> start.isBefore(slot.end()) && end.isAfter(slot.start()));
+        });
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.ScheduleChange;
+import com.example.backend.dto.TimeSlot;
 import com.example.backend.model.Event;
 import com.example.backend.model.Task;
 import com.example.backend.model.User;
+import com.example.backend.model.UserFocusPreference;
 import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.TaskRepository;
+import com.example.backend.service.ReshuffleLocks;
+import com.example.backend.service.SyncOutboxService;
 import com.example.backend.service.strategy.TaskSelectionStrategy;
 import com.example.backend.service.TravelTimeService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -20,9 +26,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,6 +44,8 @@ class DefaultScheduleOptimizerServiceTest {
     @Mock private TaskSelectionStrategy taskSelectionStrategy;
     @Mock private TravelTimeService travelTimeService;
     @Mock private FocusService focusService;
+    @Mock private SyncOutboxService syncOutboxService;
+    @Spy private ReshuffleLocks reshuffleLocks = new ReshuffleLocks();
 
     @InjectMocks
     private DefaultScheduleOptimizerService optimizerService;
@@ -45,6 +57,40 @@ class DefaultScheduleOptimizerServiceTest {
     void setUp() {
         user = new User("testuser", "password");
         user.setId(userId);
+        // Mode Focus actif ; sans créneau Focus simulé (computeFocusSlots), rien n'est bloqué
+        lenient().when(focusService.getPreferences(userId)).thenReturn(new UserFocusPreference(userId));
+    }
+
+    /**
+     * Un reshuffle ne lit les tâches qu'une fois terminé le placement en cours du même utilisateur
+     * (reshuffle incrémental, planification d'une tâche...) : il voit les événements déjà liés.
+     */
+    @Test
+    void reshuffleAttendLePlacementEnCoursDuMemeUtilisateur() throws Exception {
+        when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
+        when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>());
+        CountDownLatch verrouille = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(1);
+        Thread placement = Thread.ofVirtual().start(() -> reshuffleLocks.callLocked(userId, () -> {
+            verrouille.countDown();
+            try {
+                fin.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(verrouille.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> reshuffle = CompletableFuture.runAsync(() -> optimizerService.reshuffle(userId));
+        Thread.sleep(100);
+        assertFalse(reshuffle.isDone());
+        verify(taskRepository, never()).findByUser_Id(userId);
+
+        fin.countDown();
+        placement.join(2_000);
+        reshuffle.get(2, TimeUnit.SECONDS);
+        verify(taskRepository).findByUser_Id(userId);
     }
 
     /**
@@ -59,14 +105,13 @@ class DefaultScheduleOptimizerServiceTest {
         
         when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
         when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(Arrays.asList(t1, t2)));
-        when(focusService.estBloqueParLeFocus(eq(userId), any(), any())).thenReturn(false);
 
         // When
         optimizerService.reshuffle(userId);
 
         // Then
-        verify(eventRepository, times(2)).save(any(Event.class));
-        verify(taskRepository, times(2)).save(any(Task.class));
+        assertEquals(2, savedEvents().size());
+        assertEquals(2, savedTasks().size());
         assertNotNull(t1.getEvent());
         assertNotNull(t2.getEvent());
         // T2 doit commencer à la fin de T1
@@ -87,7 +132,6 @@ class DefaultScheduleOptimizerServiceTest {
 
         when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
         when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(Arrays.asList(peuPrioritaire, urgente)));
-        when(focusService.estBloqueParLeFocus(eq(userId), any(), any())).thenReturn(false);
 
         // When
         optimizerService.reshuffle(userId);
@@ -107,18 +151,44 @@ class DefaultScheduleOptimizerServiceTest {
         when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
         when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(List.of(task)));
 
-        // Simulation : Le focus bloque le premier créneau testé, mais accepte le suivant
-        when(focusService.estBloqueParLeFocus(eq(userId), any(), any()))
-            .thenReturn(true)  // Bloqué au début
-            .thenReturn(false); // Libre après décalage
+        // Simulation : un créneau Focus couvre le début du curseur
+        LocalDateTime debut = premierCurseur();
+        TimeSlot focus = new TimeSlot(debut.minusMinutes(1), debut.plusMinutes(30));
+        when(focusService.computeFocusSlots(any(), any(), any())).thenReturn(List.of(focus));
 
         // When
         optimizerService.reshuffle(userId);
 
-        // Then
-        verify(focusService, atLeast(2)).estBloqueParLeFocus(eq(userId), any(), any());
+        // Then : la tâche commence après le créneau Focus, au pas de 15 minutes
         assertNotNull(task.getEvent());
-        verify(eventRepository).save(any(Event.class));
+        assertFalse(task.getEvent().getStartTime().isBefore(focus.end()));
+        assertTrue(task.getEvent().getStartTime().isBefore(focus.end().plusMinutes(15)));
+        assertEquals(List.of(task.getEvent()), savedEvents());
+        verify(focusService, never()).estBloqueParLeFocus(any(), any(), any());
+    }
+
+    /**
+     * Les créneaux Focus sont recalculés avec les placements pas encore enregistrés,
+     * sans passer par le cache de FocusService (qui peut être désactivé, expiré ou évincé).
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void focusCalculeAvecLesPlacementsEnCours() {
+        Task t1 = createSimpleTask("Tâche 1", 60, 1);
+        Task t2 = createSimpleTask("Tâche 2", 60, 2);
+        when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>());
+        when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(Arrays.asList(t1, t2)));
+        List<List<Event>> journees = new ArrayList<>();
+        when(focusService.computeFocusSlots(any(), any(), any())).thenAnswer(invocation -> {
+            journees.add(new ArrayList<>((List<Event>) invocation.getArgument(2)));
+            return List.of();
+        });
+
+        optimizerService.reshuffle(userId);
+
+        // La journée de la tâche 1 est recalculée avec son événement, avant le placement de la tâche 2
+        assertTrue(journees.stream().anyMatch(events -> events.contains(t1.getEvent())));
+        verify(focusService, never()).estBloqueParLeFocus(any(), any(), any());
     }
 
     /**
@@ -136,7 +206,6 @@ class DefaultScheduleOptimizerServiceTest {
 
         when(eventRepository.findByUser_IdOrderByStartTime(userId)).thenReturn(new ArrayList<>(List.of(reunion)));
         when(taskRepository.findByUser_Id(userId)).thenReturn(new ArrayList<>(List.of(task)));
-        when(focusService.estBloqueParLeFocus(eq(userId), any(), any())).thenReturn(false);
 
         // When
         optimizerService.reshuffle(userId);
@@ -168,7 +237,132 @@ class DefaultScheduleOptimizerServiceTest {
         // Then
         assertTrue(taskEnRetard.isLate());
         assertNull(taskEnRetard.getEvent());
-        verify(taskRepository).save(taskEnRetard);
+        assertEquals(List.of(taskEnRetard), savedTasks());
+        assertTrue(savedEvents().isEmpty());
+    }
+
+    /**
+     * Reshuffle incrémental : une réunion déplacée sur le créneau d'une tâche
+     * déloge uniquement cette tâche, replacée juste après la réunion. Son événement
+     * est déplacé, pas recréé.
+     */
+    @Test
+    void reshuffleWindow_devraitDeplacerLaTacheDelogee() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Event reunion = new Event("Réunion", base.plusMinutes(30), base.plusMinutes(90), user);
+        reunion.setId(99L);
+        Task tache = createSimpleTask("Tâche", 60, 1);
+        Event ancienCreneau = new Event("Tâche", base.plusMinutes(60), base.plusMinutes(120), user);
+        tache.setEvent(ancienCreneau);
+        ScheduleChange change = new ScheduleChange(99L, base.plusMinutes(300), base.plusMinutes(360),
+                base.plusMinutes(30), base.plusMinutes(90));
+
+        when(taskRepository.findScheduledOverlapping(userId, change.newStart(), change.newEnd()))
+                .thenReturn(new ArrayList<>(List.of(tache)));
+        when(taskRepository.findUnscheduledByUserId(userId)).thenReturn(new ArrayList<>());
+        when(eventRepository.findOverlapping(eq(userId), eq(base.toLocalDate().atStartOfDay()), any()))
+                .thenReturn(List.of(reunion, ancienCreneau));
+
+        optimizerService.reshuffleWindow(userId, change);
+
+        assertSame(ancienCreneau, tache.getEvent());
+        assertEquals(reunion.getEndTime(), ancienCreneau.getStartTime());
+        assertEquals(List.of(ancienCreneau), savedEvents());
+        assertEquals(List.of(tache), savedTasks());
+        verify(eventRepository, never()).deleteAll(any());
+        verify(taskRepository, never()).findByUser_Id(anyLong());
+        verifyNoInteractions(syncOutboxService);
+    }
+
+    /**
+     * Une tâche délogée dont l'événement existe chez Google : l'événement déplacé est marqué
+     * à exporter et mis en file, sa copie Google est mise à jour au lieu d'être orpheline.
+     */
+    @Test
+    void reshuffleWindow_devraitExporterLEvenementGoogleDeplace() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        user.setGoogleAccessToken("token");
+        Event reunion = new Event("Réunion", base, base.plusMinutes(60), user);
+        reunion.setId(99L);
+        Task tache = createSimpleTask("Tâche", 60, 1);
+        Event ancienCreneau = new Event("Tâche", base, base.plusMinutes(60), user);
+        ancienCreneau.setId(7L);
+        ancienCreneau.setGoogleEventId("g-7");
+        tache.setEvent(ancienCreneau);
+        ScheduleChange change = new ScheduleChange(99L, base.plusMinutes(300), base.plusMinutes(360),
+                base, base.plusMinutes(60));
+
+        when(taskRepository.findScheduledOverlapping(userId, change.newStart(), change.newEnd()))
+                .thenReturn(new ArrayList<>(List.of(tache)));
+        when(taskRepository.findUnscheduledByUserId(userId)).thenReturn(new ArrayList<>());
+        when(eventRepository.findOverlapping(eq(userId), eq(base.toLocalDate().atStartOfDay()), any())).thenReturn(List.of(reunion, ancienCreneau));
+
+        optimizerService.reshuffleWindow(userId, change);
+
+        assertEquals(base.plusMinutes(60), ancienCreneau.getStartTime());
+        assertEquals(Event.SyncStatus.PENDING, ancienCreneau.getSyncStatus());
+        verify(syncOutboxService).enqueue(userId, 7L);
+        verify(eventRepository, never()).deleteAll(any());
+    }
+
+    /**
+     * Reshuffle incrémental : le créneau libéré par une suppression est proposé
+     * aux tâches non placées ; l'événement supprimé n'est plus considéré comme occupé.
+     */
+    @Test
+    void reshuffleWindow_devraitUtiliserLeCreneauLibere() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Event supprime = new Event("Annulé", base, base.plusHours(1), user);
+        supprime.setId(42L);
+        Task aPlacer = createSimpleTask("À placer", 60, 1);
+        Task tropTot = createSimpleTask("Deadline passée avant la zone", 30, 1);
+        tropTot.setDeadline(base.minusHours(1));
+
+        when(taskRepository.findUnscheduledByUserId(userId)).thenReturn(new ArrayList<>(List.of(aPlacer, tropTot)));
+        when(eventRepository.findOverlapping(eq(userId), eq(base.toLocalDate().atStartOfDay()), any())).thenReturn(List.of(supprime));
+
+        optimizerService.reshuffleWindow(userId, ScheduleChange.deleted(42L, base, base.plusHours(1)));
+
+        assertEquals(base, aPlacer.getEvent().getStartTime());
+        assertNull(tropTot.getEvent());
+        assertEquals(List.of(aPlacer), savedTasks());
+        verify(taskRepository, never()).findScheduledOverlapping(anyLong(), any(), any());
+    }
+
+    /**
+     * Une modification entièrement dans le passé ne replace rien.
+     */
+    @Test
+    void reshuffleWindow_devraitIgnorerUneModificationPassee() {
+        LocalDateTime hier = LocalDateTime.now().minusDays(1);
+
+        optimizerService.reshuffleWindow(userId, ScheduleChange.deleted(1L, hier, hier.plusHours(1)));
+
+        verifyNoInteractions(taskRepository, eventRepository);
+    }
+
+    // Même curseur que le service : 8h00 aujourd'hui ou maintenant si plus tard
+    private LocalDateTime premierCurseur() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cursor = now.withHour(8).withMinute(0).withSecond(0).withNano(0);
+        return cursor.isBefore(now) ? now : cursor;
+    }
+
+    // Les écritures du reshuffle passent par un unique saveAll par repository
+    @SuppressWarnings("unchecked")
+    private List<Event> savedEvents() {
+        ArgumentCaptor<List<Event>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventRepository).saveAll(captor.capture());
+        verify(eventRepository, never()).save(any(Event.class));
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Task> savedTasks() {
+        ArgumentCaptor<List<Task>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(captor.capture());
+        verify(taskRepository, never()).save(any(Task.class));
+        return captor.getValue();
     }
 
     // Helper pour créer des tâches rapidement
@@ -12,6 +12,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
@@ -22,6 +25,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -304,4 +308,107 @@ public class FocusServiceTest {
         assertFalse(result.isFocusModeEnabled());
         verify(preferenceRepository).save(any());
     }
-}
\ No newline at end of file
+
+    // =========================================================================
+    // CACHE DES CRÉNEAUX FOCUS
+    // =========================================================================
+
+    /**
+     * Test : Avec le cache actif, plusieurs vérifications sur la même journée
+     * ne déclenchent qu'un seul chargement des préférences et de l'agenda.
+     */
+    @Test
+    void devraitMemoriserLesCreneauxFocusDeLaJournee() {
+        // GIVEN : Journée vide, Focus le matin (9h-12h)
+        ReflectionTestUtils.setField(focusService, "cacheTtlMs", 60_000L);
+        UserFocusPreference prefs = new UserFocusPreference(userId);
+        when(preferenceRepository.findById(userId)).thenReturn(Optional.of(prefs));
+        when(eventRepository.findByUser_IdAndStartTimeBetween(any(), any(), any())).thenReturn(List.of());
+
+        // WHEN
+        boolean bloque1 = focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0));
+        boolean bloque2 = focusService.estBloqueParLeFocus(userId, a(14, 0), a(15, 0));
+
+        // THEN
+        assertTrue(bloque1);
+        assertFalse(bloque2);
+        verify(preferenceRepository, times(1)).findById(userId);
+        verify(eventRepository, times(1)).findByUser_IdAndStartTimeBetween(any(), any(), any());
+    }
+
+    /**
+     * Test : La modification des préférences invalide le cache.
+     */
+    @Test
+    void devraitInvaliderLeCacheApresMiseAJourDesPreferences() {
+        // GIVEN
+        ReflectionTestUtils.setField(focusService, "cacheTtlMs", 60_000L);
+        UserFocusPreference prefs = new UserFocusPreference(userId);
+        when(preferenceRepository.findById(userId)).thenReturn(Optional.of(prefs));
+        when(preferenceRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(eventRepository.findByUser_IdAndStartTimeBetween(any(), any(), any())).thenReturn(List.of());
+        assertTrue(focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0)));
+
+        // WHEN : L'utilisateur désactive le mode Focus
+        UserFocusPreference nouvellesPrefs = new UserFocusPreference(userId);
+        nouvellesPrefs.setFocusModeEnabled(false);
+        focusService.updatePreferences(userId, nouvellesPrefs);
+
+        // THEN
+        assertFalse(focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0)));
+    }
+
+    /**
+     * Test : Le cache est borné, la journée la moins récemment lue est évincée
+     * même si elle n'a pas expiré.
+     */
+    @Test
+    void devraitEvincerLaJourneeLaMoinsRecemmentLue() {
+        // GIVEN : 2 journées au plus
+        ReflectionTestUtils.setField(focusService, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(focusService, "maxCachedDays", 2);
+        when(preferenceRepository.findById(userId)).thenReturn(Optional.of(new UserFocusPreference(userId)));
+        when(eventRepository.findByUser_IdAndStartTimeBetween(any(), any(), any())).thenReturn(List.of());
+        LocalDate jour2 = dateTest.plusDays(1);
+        LocalDate jour3 = dateTest.plusDays(2);
+
+        // WHEN : le jour 1 est relu avant l'ajout du jour 3, le jour 2 est le plus ancien
+        focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0));
+        focusService.estBloqueParLeFocus(userId, jour2.atTime(10, 0), jour2.atTime(11, 0));
+        focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0));
+        focusService.estBloqueParLeFocus(userId, jour3.atTime(10, 0), jour3.atTime(11, 0));
+        focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0));
+        focusService.estBloqueParLeFocus(userId, jour2.atTime(10, 0), jour2.atTime(11, 0));
+
+        // THEN : jour 1 chargé une fois, jour 2 rechargé, jour 3 une fois
+        verify(eventRepository, times(1)).findByUser_IdAndStartTimeBetween(eq(userId), eq(dateTest.atStartOfDay()), any());
+        verify(eventRepository, times(2)).findByUser_IdAndStartTimeBetween(eq(userId), eq(jour2.atStartOfDay()), any());
+        verify(eventRepository, times(1)).findByUser_IdAndStartTimeBetween(eq(userId), eq(jour3.atStartOfDay()), any());
+    }
+
+    /**
+     * Test : Une journée relue pendant la transaction qui modifie l'agenda
+     * est oubliée au commit.
+     */
+    @Test
+    void devraitInvaliderLeCacheApresLeCommit() {
+        // GIVEN
+        ReflectionTestUtils.setField(focusService, "cacheTtlMs", 60_000L);
+        when(preferenceRepository.findById(userId)).thenReturn(Optional.of(new UserFocusPreference(userId)));
+        when(eventRepository.findByUser_IdAndStartTimeBetween(any(), any(), any())).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // WHEN : invalidation dans la transaction, puis relecture concurrente avant le commit
+            focusService.invalidate(userId);
+            focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        focusService.estBloqueParLeFocus(userId, a(10, 0), a(11, 0));
+
+        // THEN : l'état lu avant le commit n'a pas été conservé
+        verify(eventRepository, times(2)).findByUser_IdAndStartTimeBetween(any(), any(), any());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.TimeSlot;
+import com.example.backend.model.Event;
+import com.example.backend.model.User;
+import com.example.backend.model.UserFocusPreference;
+import com.example.backend.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FreeSlotServiceTest {
+
+    @Mock private EventRepository eventRepository;
+    @Mock private FocusService focusService;
+
+    @InjectMocks
+    private FreeSlotService freeSlotService;
+
+    private final Long userId = 1L;
+    private final LocalDateTime from = LocalDateTime.of(2030, 1, 7, 9, 0);
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("testuser", "password");
+        user.setId(userId);
+    }
+
+    @Test
+    void agendaVide_retourneToutLHorizon() {
+        when(eventRepository.findOverlapping(eq(userId), eq(from.toLocalDate().atStartOfDay()), any()))
+                .thenReturn(List.of());
+        when(focusService.getPreferences(userId)).thenReturn(new UserFocusPreference(userId));
+
+        List<TimeSlot> slots = freeSlotService.findFreeSlots(userId, from, 60, 3);
+
+        assertEquals(List.of(new TimeSlot(from, from.plusDays(14))), slots);
+    }
+
+    /**
+     * Les trous trop courts sont ignorés et les réunions qui se chevauchent sont fusionnées.
+     */
+    @Test
+    void devraitSauterLesEvenementsEtLesTrousTropCourts() {
+        Event matin = event(from.plusMinutes(30), from.plusMinutes(90));       // trou de 30 min avant
+        Event chevauchant = event(from.plusMinutes(60), from.plusMinutes(120)); // fusionné avec le précédent
+        Event midi = event(from.plusMinutes(240), from.plusMinutes(300));       // trou de 2h avant
+        when(eventRepository.findOverlapping(eq(userId), any(), any())).thenReturn(List.of(midi, matin, chevauchant));
+        when(focusService.getPreferences(userId)).thenReturn(new UserFocusPreference(userId));
+
+        List<TimeSlot> slots = freeSlotService.findFreeSlots(userId, from, 60, 2);
+
+        assertEquals(List.of(
+                new TimeSlot(from.plusMinutes(120), from.plusMinutes(240)),
+                new TimeSlot(from.plusMinutes(300), from.plusDays(14))), slots);
+    }
+
+    /**
+     * Un événement commencé avant l'instant de départ repousse le premier créneau à sa fin.
+     */
+    @Test
+    void devraitCommencerApresUnEvenementEnCours() {
+        Event enCours = event(from.minusMinutes(30), from.plusMinutes(45));
+        when(eventRepository.findOverlapping(eq(userId), any(), any())).thenReturn(List.of(enCours));
+        when(focusService.getPreferences(userId)).thenReturn(new UserFocusPreference(userId));
+
+        List<TimeSlot> slots = freeSlotService.findFreeSlots(userId, from, 30, 1);
+
+        assertEquals(from.plusMinutes(45), slots.get(0).start());
+    }
+
+    /**
+     * Les créneaux Focus sont calculés une fois par jour de l'horizon, sans nouvelle requête.
+     */
+    @Test
+    void devraitExclureLesCreneauxFocus() {
+        UserFocusPreference prefs = new UserFocusPreference(userId);
+        prefs.setFocusModeEnabled(true);
+        when(eventRepository.findOverlapping(eq(userId), any(), any())).thenReturn(List.of());
+        when(focusService.getPreferences(userId)).thenReturn(prefs);
+        when(focusService.computeFocusSlots(eq(prefs), any(LocalDate.class), any())).thenReturn(List.of());
+        when(focusService.computeFocusSlots(prefs, from.toLocalDate(), List.of()))
+                .thenReturn(List.of(new TimeSlot(from, from.plusHours(2))));
+
+        List<TimeSlot> slots = freeSlotService.findFreeSlots(userId, from, 60, 1);
+
+        assertEquals(from.plusHours(2), slots.get(0).start());
+        verify(focusService, times(15)).computeFocusSlots(eq(prefs), any(LocalDate.class), any());
+        verify(eventRepository, times(1)).findOverlapping(any(), any(), any());
+        verify(focusService, never()).estBloqueParLeFocus(any(), any(), any());
+    }
+
+    private Event event(LocalDateTime start, LocalDateTime end) {
+        return new Event("Réunion", start, end, user);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.backend.service.impl;
 
 import com.example.backend.model.Location;
 import com.example.backend.model.TravelTime.TransportMode;
+import com.example.backend.service.GoogleApiRateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -105,6 +106,30 @@ class GoogleMapsTravelTimeCalculatorTest {
         assertEquals(10, result); // Fallback utilisé
     }
 
+    @Test
+    void testCalculate_OverQueryLimit_slowsDownThenRetriesOnce() {
+        // Given: Google refuse une première fois (quota par seconde), puis répond
+        GoogleApiRateLimiter limiter = new GoogleApiRateLimiter();
+        ReflectionTestUtils.setField(limiter, "distanceMatrixRate", 100.0);
+        googleCalculator = new GoogleMapsTravelTimeCalculator(restTemplate, fallbackCalculator, new ObjectMapper(), limiter);
+        ReflectionTestUtils.setField(googleCalculator, "apiKey", "FAKE_API_KEY");
+        String okResponse = """
+            { "status": "OK", "rows": [ { "elements": [ { "status": "OK", "duration": { "value": 1800 } } ] } ] }
+        """;
+        when(restTemplate.getForObject(any(URI.class), eq(String.class)))
+            .thenReturn("{ \"status\": \"OVER_QUERY_LIMIT\" }", okResponse);
+
+        // When
+        int result = googleCalculator.calculateTravelTime(from, to, TransportMode.DRIVING);
+
+        // Then: le second essai aboutit et le refus est signalé au limiteur partagé
+        assertEquals(30, result);
+        verify(restTemplate, times(2)).getForObject(any(URI.class), eq(String.class));
+        verifyNoInteractions(fallbackCalculator);
+        assertEquals(1, limiter.usage().stream()
+            .filter(u -> u.api().equals("DISTANCE_MATRIX")).findFirst().orElseThrow().quotaExceeded());
+    }
+
     @Test
     void testCalculate_NetworkException() {
         // Given: Le réseau échoue
@@ -1,33 +1,42 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.TimeSlot;
 import com.example.backend.model.Event;
 import com.example.backend.model.Task;
 import com.example.backend.model.User;
 import com.example.backend.repository.EventRepository;
 import com.example.backend.repository.TaskRepository;
 import com.example.backend.repository.UserRepository; 
+import com.example.backend.service.ReshuffleLocks;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceImplTest {
@@ -47,6 +56,12 @@ class TaskServiceImplTest {
     @Mock 
     private FocusService focusService;
 
+    @Mock
+    private FreeSlotService freeSlotService;
+
+    @Spy
+    private ReshuffleLocks reshuffleLocks = new ReshuffleLocks();
+
     private User user;
     private Task task;
 
@@ -134,6 +149,27 @@ class TaskServiceImplTest {
         });
     }
 
+    @Test
+    void testCreateTasks_SavesAllInOneBatch() {
+        // Given : deux tâches proposées sans assigné (l'assigné devient le créateur)
+        Task t1 = new Task();
+        t1.setTitle("Lire le chapitre 1");
+        Task t2 = new Task();
+        t2.setTitle("Faire les exercices");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<Task> created = taskService.createTasks(List.of(t1, t2), 1L);
+
+        // Then
+        assertEquals(2, created.size());
+        assertEquals(user, t1.getAssignee());
+        assertEquals(Task.TaskStatus.PENDING_CREATION, t2.getStatus());
+        verify(userRepository, times(1)).findById(1L);
+        verify(taskRepository, never()).save(any(Task.class));
+    }
+
     @Test
     void testUpdateTask() {
         // Given
@@ -168,10 +204,11 @@ class TaskServiceImplTest {
 
     @Test
     void devraitPlanifierImmediatementSiToutEstLibre() {
-        // Configuration du mock
+        // Configuration du mock : le premier créneau libre commence dans 10 minutes
+        LocalDateTime debutLibre = LocalDateTime.now().plusMinutes(10);
         when(taskRepository.findById(100L)).thenReturn(Optional.of(task));
-        when(eventRepository.findByUser_IdOrderByStartTime(1L)).thenReturn(Collections.emptyList());
-        when(focusService.estBloqueParLeFocus(eq(1L), any(), any())).thenReturn(false);
+        when(freeSlotService.findFreeSlots(eq(1L), any(), eq(60L), eq(1)))
+            .thenReturn(List.of(new TimeSlot(debutLibre, debutLibre.plusHours(3))));
 
         when(eventRepository.save(any(Event.class))).thenAnswer(i -> i.getArgument(0));
         when(taskRepository.save(any(Task.class))).thenReturn(task);
@@ -179,60 +216,25 @@ class TaskServiceImplTest {
         // Action
         Task result = taskService.planifyTask(100L, null, null);
 
-        // Vérification
+        // Vérification : la tâche occupe le début du créneau, pour sa durée estimée
         assertNotNull(result.getEvent());
-        verify(eventRepository).save(any(Event.class));
-    }
-
-    /**
-     * Vérifie que l'algorithme "saute" un créneau occupé par une réunion existante
-     * pour placer la tâche juste après.
-     */
-    @Test
-    void devraitSauterEvenementExistant() {
-        // Configuration : Une réunion existe déjà
-        LocalDateTime debutReunion = LocalDateTime.now().plusMinutes(5);
-        Event reunion = new Event("Réunion Importante", debutReunion, debutReunion.plusMinutes(60), user);
-        
-        when(taskRepository.findById(100L)).thenReturn(Optional.of(task));
-        when(eventRepository.findByUser_IdOrderByStartTime(1L)).thenReturn(List.of(reunion));
-        when(focusService.estBloqueParLeFocus(eq(1L), any(), any())).thenReturn(false);
-        
-        when(eventRepository.save(any(Event.class))).thenAnswer(i -> i.getArgument(0));
-        when(taskRepository.save(any(Task.class))).thenReturn(task);
-
-        // Action
-        taskService.planifyTask(100L, null, null);
-
-        // Vérification : L'événement créé doit commencer à la fin de la réunion
-        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
-        verify(eventRepository).save(captor.capture());
-        assertEquals(reunion.getEndTime(), captor.getValue().getStartTime());
+        assertEquals(debutLibre, result.getEvent().getStartTime());
+        assertEquals(debutLibre.plusMinutes(60), result.getEvent().getEndTime());
+        verify(eventRepository, never()).findByUser_IdOrderByStartTime(any());
     }
 
     /**
-     * Vérifie que l'algorithme respecte les zones de concentration.
-     * Si un créneau est libre de réunion mais marqué comme "Focus", l'algorithme doit chercher plus loin.
+     * Vérifie qu'un conflit (409) est signalé si aucun créneau n'est libre dans l'horizon de recherche.
      */
     @Test
-    void devraitSauterZoneDeFocusActive() {
-        // Configuration
+    void devraitLancerExceptionSiAucunCreneauLibre() {
         when(taskRepository.findById(100L)).thenReturn(Optional.of(task));
-        when(eventRepository.findByUser_IdOrderByStartTime(1L)).thenReturn(Collections.emptyList());
-
-        // Simulation : Le 1er créneau est bloqué par le focus, le 2ème est libre
-        when(focusService.estBloqueParLeFocus(eq(1L), any(), any()))
-            .thenReturn(true)  // Premier essai : bloqué
-            .thenReturn(false); // Deuxième essai : libre
+        when(freeSlotService.findFreeSlots(eq(1L), any(), eq(60L), eq(1))).thenReturn(List.of());
 
-        when(eventRepository.save(any(Event.class))).thenAnswer(i -> i.getArgument(0));
-        when(taskRepository.save(any(Task.class))).thenReturn(task);
-
-        // Action
-        taskService.planifyTask(100L, null, null);
-
-        // Vérification : On s'assure que le FocusService a été consulté pour valider le créneau
-        verify(focusService, atLeast(2)).estBloqueParLeFocus(eq(1L), any(), any());
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> taskService.planifyTask(100L, null, null));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(eventRepository, never()).save(any(Event.class));
     }
 
     /**
@@ -251,6 +253,46 @@ class TaskServiceImplTest {
         });
     }
 
+    /**
+     * Vérifie qu'une planification attend la fin d'un reshuffle en cours du même utilisateur, puis
+     * relit la tâche : ce que le reshuffle y a enregistré n'est pas écrasé par une copie périmée.
+     */
+    @Test
+    void devraitAttendreLeReshuffleEnCoursDuMemeUtilisateur() throws Exception {
+        LocalDateTime debut = LocalDateTime.now().plusDays(1);
+        Task relue = new Task("Test Task", 60, 1, Task.TaskStatus.PENDING_CREATION, user, (LocalDateTime) null);
+        relue.setId(100L);
+        when(taskRepository.findById(100L)).thenReturn(Optional.of(task), Optional.of(relue));
+        when(eventRepository.save(any(Event.class))).thenAnswer(i -> i.getArgument(0));
+        when(taskRepository.save(any(Task.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Reshuffle en cours pour l'utilisateur 1
+        CountDownLatch verrouille = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(1);
+        Thread reshuffle = Thread.ofVirtual().start(() -> reshuffleLocks.callLocked(1L, () -> {
+            verrouille.countDown();
+            try {
+                fin.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(verrouille.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<Task> planification = CompletableFuture.supplyAsync(
+                () -> taskService.planifyTask(100L, debut, debut.plusHours(1)));
+        Thread.sleep(100);
+        assertFalse(planification.isDone());
+        verify(eventRepository, never()).save(any(Event.class));
+
+        fin.countDown();
+        reshuffle.join(2_000);
+        Task result = planification.get(2, TimeUnit.SECONDS);
+        assertSame(relue, result);
+        assertEquals(debut, result.getEvent().getStartTime());
+    }
+
     /**
      * Vérifie que la planification manuelle fonctionne toujours mais reste 
      * soumise à la validation du blocage Focus.
@@ -0,0 +1,88 @@
+package com.example.backend.service.scheduling;
+
+import com.example.backend.model.Event;
+import com.example.backend.service.scheduling.ConflictSweeper.OverlapPair;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictSweeperTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 2, 14, 0, 0);
+
+    private static Event event(long id, int startMinutes, int endMinutes) {
+        Event e = new Event();
+        e.setId(id);
+        e.setStartTime(DAY.plusMinutes(startMinutes));
+        e.setEndTime(DAY.plusMinutes(endMinutes));
+        return e;
+    }
+
+    @Test
+    void shouldReturnNoPairForConsecutiveEvents() {
+        List<OverlapPair> pairs = ConflictSweeper.findOverlaps(List.of(
+                event(1L, 600, 660),
+                event(2L, 660, 720)
+        ));
+
+        assertTrue(pairs.isEmpty());
+    }
+
+    @Test
+    void shouldKeepInputOrderInsidePairs() {
+        // L'événement 1 commence après l'événement 2 mais apparaît en premier dans la liste
+        Event late = event(1L, 630, 690);
+        Event early = event(2L, 600, 660);
+
+        List<OverlapPair> pairs = ConflictSweeper.findOverlaps(List.of(late, early));
+
+        assertEquals(1, pairs.size());
+        assertSame(late, pairs.get(0).first());
+        assertSame(early, pairs.get(0).second());
+    }
+
+    @Test
+    void shouldDetectEventNestedInsideLongerOne() {
+        List<OverlapPair> pairs = ConflictSweeper.findOverlaps(List.of(
+                event(1L, 480, 1080),
+                event(2L, 600, 660),
+                event(3L, 900, 960)
+        ));
+
+        assertEquals(2, pairs.size());
+        assertEquals(2L, pairs.get(0).second().getId());
+        assertEquals(3L, pairs.get(1).second().getId());
+    }
+
+    @Test
+    void shouldMatchPairwiseScanOnRandomCalendar() {
+        Random random = new Random(42);
+        List<Event> events = new ArrayList<>();
+        for (long id = 0; id < 300; id++) {
+            int start = random.nextInt(10_000);
+            events.add(event(id, start, start + random.nextInt(240)));
+        }
+
+        List<long[]> expected = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            for (int j = i + 1; j < events.size(); j++) {
+                if (ConflictSweeper.overlap(events.get(i), events.get(j))) {
+                    expected.add(new long[] { events.get(i).getId(), events.get(j).getId() });
+                }
+            }
+        }
+
+        List<OverlapPair> pairs = ConflictSweeper.findOverlaps(events);
+
+        assertEquals(expected.size(), pairs.size());
+        for (int k = 0; k < expected.size(); k++) {
+            assertEquals(expected.get(k)[0], pairs.get(k).first().getId());
+            assertEquals(expected.get(k)[1], pairs.get(k).second().getId());
+        }
+    }
+}
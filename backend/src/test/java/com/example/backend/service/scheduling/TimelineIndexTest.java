@@ -0,0 +1,97 @@
+package com.example.backend.service.scheduling;
+
+import com.example.backend.model.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 1, 15, 0, 0);
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.withHour(hour).withMinute(minute);
+    }
+
+    private static Event event(LocalDateTime start, LocalDateTime end) {
+        Event e = new Event();
+        e.setStartTime(start);
+        e.setEndTime(end);
+        return e;
+    }
+
+    @Test
+    void shouldReturnNullWhenSlotIsFree() {
+        TimelineIndex index = TimelineIndex.of(List.of(event(at(9, 0), at(10, 0))));
+
+        assertNull(index.findCollisionEnd(at(10, 0), at(11, 0)));
+        assertNull(index.findCollisionEnd(at(8, 0), at(9, 0)));
+    }
+
+    @Test
+    void shouldReturnEndOfCollidingBlock() {
+        TimelineIndex index = TimelineIndex.of(List.of(event(at(9, 0), at(10, 0))));
+
+        assertEquals(at(10, 0), index.findCollisionEnd(at(9, 30), at(10, 30)));
+        assertEquals(at(10, 0), index.findCollisionEnd(at(8, 0), at(11, 0)));
+    }
+
+    @Test
+    void shouldMergeOverlappingEventsButKeepAdjacentOnesSeparate() {
+        TimelineIndex index = TimelineIndex.of(List.of(
+                event(at(9, 0), at(10, 0)),
+                event(at(9, 30), at(11, 0)),
+                event(at(11, 0), at(12, 0))
+        ));
+
+        assertEquals(2, index.size());
+        assertEquals(at(11, 0), index.findCollisionEnd(at(9, 0), at(9, 15)));
+        assertEquals(at(12, 0), index.findCollisionEnd(at(11, 30), at(11, 45)));
+    }
+
+    @Test
+    void shouldMergeUnsortedInsertionsSpanningSeveralBlocks() {
+        TimelineIndex index = new TimelineIndex();
+        index.add(at(14, 0), at(15, 0));
+        index.add(at(9, 0), at(10, 0));
+        index.add(at(11, 0), at(12, 0));
+        index.add(at(9, 30), at(14, 30));
+
+        assertEquals(1, index.size());
+        assertEquals(at(15, 0), index.findCollisionEnd(at(12, 0), at(12, 30)));
+    }
+
+    @Test
+    void shouldNotShortenExistingBlockWithSameStart() {
+        TimelineIndex index = new TimelineIndex();
+        index.add(at(9, 0), at(11, 0));
+        index.add(at(9, 0), at(9, 0));
+
+        assertEquals(at(11, 0), index.findCollisionEnd(at(10, 0), at(10, 30)));
+    }
+
+    @Test
+    void shouldFindNextFreeStartSkippingConsecutiveBlocks() {
+        TimelineIndex index = TimelineIndex.of(List.of(
+                event(at(8, 0), at(9, 0)),
+                event(at(9, 0), at(10, 0)),
+                event(at(10, 30), at(12, 0))
+        ));
+
+        // 30 min tiennent entre 10h00 et 10h30
+        assertEquals(at(10, 0), index.nextFreeStart(at(8, 0), 30));
+        // 60 min ne tiennent pas : il faut attendre 12h00
+        assertEquals(at(12, 0), index.nextFreeStart(at(8, 0), 60));
+    }
+
+    @Test
+    void shouldIgnoreEventsWithoutDates() {
+        TimelineIndex index = TimelineIndex.of(List.of(event(null, at(10, 0)), event(at(9, 0), null)));
+
+        assertEquals(0, index.size());
+        assertNull(index.findCollisionEnd(at(9, 0), at(10, 0)));
+    }
+}